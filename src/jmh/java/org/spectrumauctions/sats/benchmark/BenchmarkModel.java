@@ -0,0 +1,52 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+
+import java.util.function.Supplier;
+
+/**
+ * The models which are benchmarked, with their default configuration.
+ *
+ * @author Michael Weiss
+ */
+public enum BenchmarkModel {
+
+    BVM(BaseValueModel::new),
+    MBVM(MultiBandValueModel::new),
+    SRVM(SingleRegionModel::new),
+    MRVM(MultiRegionModel::new),
+    LSVM(LocalSynergyValueModel::new),
+    GSVM(GlobalSynergyValueModel::new),
+    CATS(CATSRegionModel::new);
+
+    private final Supplier<DefaultModel<?, ?>> modelSupplier;
+
+    BenchmarkModel(Supplier<DefaultModel<?, ?>> modelSupplier) {
+        this.modelSupplier = modelSupplier;
+    }
+
+    public DefaultModel<?, ?> createModel() {
+        return modelSupplier.get();
+    }
+
+    /**
+     * Makes sure generated instances are not written to disk, which would dominate the measurements
+     */
+    public static void useInMemoryInstanceHandler() {
+        InstanceHandler.setDefaultHandler(InMemoryInstanceHandler.getInstance());
+    }
+}
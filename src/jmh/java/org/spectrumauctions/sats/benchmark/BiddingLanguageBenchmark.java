@@ -0,0 +1,93 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeDecreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeIncreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
+import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetDecreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the bidding language iterators, i.e., the time to create the first {@link #NUMBER_OF_BIDS} bids
+ * (including their values) of a freshly created iterator.
+ *
+ * @author Michael Weiss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BiddingLanguageBenchmark {
+
+    private static final int NUMBER_OF_BIDS = 100;
+
+    public enum Language {
+        SIZE_BASED_UNIQUE_RANDOM_XOR(BenchmarkModel.MRVM, SizeBasedUniqueRandomXOR.class),
+        CATS_XOR(BenchmarkModel.CATS, CatsXOR.class),
+        XORQ_RANDOM_ORDER_SIMPLE(BenchmarkModel.MRVM, XORQRandomOrderSimple.class),
+        GENERIC_SIZE_INCREASING(BenchmarkModel.SRVM, GenericSizeIncreasing.class),
+        GENERIC_SIZE_DECREASING(BenchmarkModel.SRVM, GenericSizeDecreasing.class),
+        GENERIC_POWERSET_INCREASING(BenchmarkModel.SRVM, GenericPowersetIncreasing.class),
+        GENERIC_POWERSET_DECREASING(BenchmarkModel.SRVM, GenericPowersetDecreasing.class);
+
+        private final BenchmarkModel model;
+        private final Class<? extends BiddingLanguage> type;
+
+        Language(BenchmarkModel model, Class<? extends BiddingLanguage> type) {
+            this.model = model;
+            this.type = type;
+        }
+    }
+
+    @Param
+    public Language language;
+
+    private Bidder<?> bidder;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkModel.useInMemoryInstanceHandler();
+        bidder = language.model.createModel().createNewPopulation(42L).get(0);
+    }
+
+    @Benchmark
+    public void createBids(Blackhole blackhole) throws UnsupportedBiddingLanguageException {
+        BiddingLanguage valueFunction = bidder.getValueFunction(language.type, seed++);
+        Iterator<?> iterator;
+        if (valueFunction instanceof SizeBasedUniqueRandomXOR) {
+            SizeBasedUniqueRandomXOR<?> randomXOR = (SizeBasedUniqueRandomXOR<?>) valueFunction;
+            randomXOR.setDistribution(3, 2, NUMBER_OF_BIDS);
+            iterator = randomXOR.iterator();
+        } else if (valueFunction instanceof XORQRandomOrderSimple) {
+            XORQRandomOrderSimple<?> randomXORQ = (XORQRandomOrderSimple<?>) valueFunction;
+            randomXORQ.setIterations(NUMBER_OF_BIDS);
+            iterator = randomXORQ.iterator();
+        } else if (valueFunction instanceof XORLanguage) {
+            iterator = ((XORLanguage<?>) valueFunction).iterator();
+        } else {
+            iterator = ((GenericLang<?>) valueFunction).iterator();
+        }
+        for (int i = 0; i < NUMBER_OF_BIDS && iterator.hasNext(); i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorldSetup;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMSparseMIP;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.ItemAllocation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time to build and solve {@link LSVMStandardMIP} and {@link LSVMSparseMIP} on growing grids.
+ * The standard formulation is only measured on grids where the enumeration of its paths terminates in reasonable time.
+ * <br>
+ * Solving the MIPs requires CPLEX to be available.
+ *
+ * @author Michael Weiss
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LSVMMIPBenchmark {
+
+    private static final long SEED = 1498246131808L;
+
+    @State(Scope.Benchmark)
+    public static class SparseGrid {
+
+        @Param({"3x6", "4x6", "6x6", "8x8", "10x10"})
+        public String grid;
+
+        private LSVMWorld world;
+        private List<LSVMBidder> population;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkModel.useInMemoryInstanceHandler();
+            world = createWorld(grid);
+            population = new LocalSynergyValueModel().createPopulation(world, SEED);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StandardGrid {
+
+        @Param({"3x6", "4x6"})
+        public String grid;
+
+        private LSVMWorld world;
+        private List<LSVMBidder> population;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkModel.useInMemoryInstanceHandler();
+            world = createWorld(grid);
+            population = new LocalSynergyValueModel().createPopulation(world, SEED);
+        }
+    }
+
+    @Benchmark
+    public ItemAllocation<LSVMLicense> solveSparse(SparseGrid state) {
+        return new LSVMSparseMIP(state.world, state.population).calculateAllocation();
+    }
+
+    @Benchmark
+    public ItemAllocation<LSVMLicense> solveStandard(StandardGrid state) {
+        return new LSVMStandardMIP(state.world, state.population).calculateAllocation();
+    }
+
+    /**
+     * @param grid the size of the grid, formatted as <code>rows x columns</code>, e.g. <code>3x6</code>
+     */
+    private static LSVMWorld createWorld(String grid) {
+        String[] size = grid.split("x");
+        LSVMWorldSetup.LSVMWorldSetupBuilder worldSetupBuilder = new LSVMWorldSetup.LSVMWorldSetupBuilder();
+        worldSetupBuilder.setNumberOfRowsInterval(new IntegerInterval(Integer.parseInt(size[0])));
+        worldSetupBuilder.setNumberOfColumnsInterval(new IntegerInterval(Integer.parseInt(size[1])));
+        return new LSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(SEED));
+    }
+}
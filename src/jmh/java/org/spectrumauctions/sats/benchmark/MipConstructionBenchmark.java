@@ -0,0 +1,81 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMWorld;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+import org.spectrumauctions.sats.opt.model.srvm.SRVM_MIP;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of the winner determination MIPs, excluding the time to solve them.
+ *
+ * @author Michael Weiss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MipConstructionBenchmark {
+
+    private List<MRVMBidder> mrvmBidders;
+    private List<SRVMBidder> srvmBidders;
+    private GSVMWorld gsvmWorld;
+    private List<GSVMBidder> gsvmBidders;
+    private LSVMWorld lsvmWorld;
+    private List<LSVMBidder> lsvmBidders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkModel.useInMemoryInstanceHandler();
+        mrvmBidders = new MultiRegionModel().createNewPopulation(42L);
+        srvmBidders = new SingleRegionModel().createNewPopulation(42L);
+        GlobalSynergyValueModel gsvm = new GlobalSynergyValueModel();
+        gsvmWorld = gsvm.createWorld(42L);
+        gsvmBidders = gsvm.createPopulation(gsvmWorld, 42L);
+        LocalSynergyValueModel lsvm = new LocalSynergyValueModel();
+        lsvmWorld = lsvm.createWorld(42L);
+        lsvmBidders = lsvm.createPopulation(lsvmWorld, 42L);
+    }
+
+    @Benchmark
+    public MRVM_MIP buildMRVM() {
+        return new MRVM_MIP(mrvmBidders);
+    }
+
+    @Benchmark
+    public SRVM_MIP buildSRVM() {
+        return new SRVM_MIP(srvmBidders);
+    }
+
+    @Benchmark
+    public GSVMStandardMIP buildGSVM() {
+        GSVMStandardMIP mip = new GSVMStandardMIP(gsvmWorld, gsvmBidders);
+        mip.build();
+        return mip;
+    }
+
+    @Benchmark
+    public LSVMStandardMIP buildLSVM() {
+        return new LSVMStandardMIP(lsvmWorld, lsvmBidders);
+    }
+}
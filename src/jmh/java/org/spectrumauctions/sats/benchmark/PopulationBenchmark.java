@@ -0,0 +1,43 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.spectrumauctions.sats.core.model.DefaultModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of a new world and population with {@link DefaultModel#createNewPopulation(long)} for every model.
+ *
+ * @author Michael Weiss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationBenchmark {
+
+    @Param({"BVM", "MBVM", "SRVM", "MRVM", "LSVM", "GSVM", "CATS"})
+    public BenchmarkModel model;
+
+    private DefaultModel<?, ?> defaultModel;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkModel.useInMemoryInstanceHandler();
+        defaultModel = model.createModel();
+    }
+
+    @Benchmark
+    public List<?> createNewPopulation() {
+        return defaultModel.createNewPopulation(seed++);
+    }
+}
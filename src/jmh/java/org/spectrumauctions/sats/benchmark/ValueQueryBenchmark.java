@@ -0,0 +1,94 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single value queries, i.e., {@link Bidder#calculateValue(Bundle)} and its variants, for every model.
+ * The bundles contain a random subset of the licenses, where every license is included with probability {@link #density}.
+ *
+ * @author Michael Weiss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueQueryBenchmark {
+
+    private static final int NUMBER_OF_BUNDLES = 64;
+
+    @Param({"BVM", "MBVM", "SRVM", "MRVM", "LSVM", "GSVM", "CATS"})
+    public BenchmarkModel model;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double density;
+
+    private List<Bidder<Good>> bidders;
+    private List<Bundle<Good>> bundles;
+    private List<BitSetBundle<Good>> compactBundles;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        BenchmarkModel.useInMemoryInstanceHandler();
+        bidders = new ArrayList<>();
+        for (Bidder<?> bidder : model.createModel().createNewPopulation(42L)) {
+            bidders.add((Bidder<Good>) bidder);
+        }
+        List<Good> licenses = new ArrayList<>((Collection<Good>) bidders.get(0).getWorld().getLicenses());
+        Random random = new Random(42L);
+        bundles = new ArrayList<>();
+        compactBundles = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_BUNDLES; i++) {
+            Bundle<Good> bundle = new Bundle<>();
+            for (Good license : licenses) {
+                if (random.nextDouble() < density) {
+                    bundle.add(license);
+                }
+            }
+            bundles.add(bundle);
+            compactBundles.add(BitSetBundle.of(bundle));
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % NUMBER_OF_BUNDLES;
+        return next;
+    }
+
+    @Benchmark
+    public BigDecimal calculateValue() {
+        int index = nextIndex();
+        return bidders.get(index % bidders.size()).calculateValue(bundles.get(index));
+    }
+
+    @Benchmark
+    public BigDecimal calculateValueCompact() {
+        int index = nextIndex();
+        return bidders.get(index % bidders.size()).calculateValue(compactBundles.get(index));
+    }
+
+    @Benchmark
+    public double calculateValueFast() {
+        int index = nextIndex();
+        return bidders.get(index % bidders.size()).calculateValueFast(compactBundles.get(index));
+    }
+}
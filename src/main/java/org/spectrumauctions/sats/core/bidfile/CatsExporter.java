@@ -7,19 +7,25 @@ package org.spectrumauctions.sats.core.bidfile;
 
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
-import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
 import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
 import org.spectrumauctions.sats.core.model.Good;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
 
+/**
+ * Writes bids in the CATS file format.<br>
+ * Bids are streamed to disk one line at a time, such that the memory consumption does not depend on the number of bids.
+ * As the header of a CATS file contains the total number of bids, the bid lines are first written
+ * to a temporary file in the target folder, which is appended to the header once all bids are known.
+ */
 public class CatsExporter extends FileWriter {
 
     public CatsExporter(File path) {
@@ -28,27 +34,17 @@ public class CatsExporter extends FileWriter {
 
     @Override
     public File writeSingleBidderXOR(XORLanguage<? extends Good> valueFunction, int numberOfBids, String filePrefix) throws IOException {
-        Iterator iter = valueFunction.iterator();
-        Set<XORValue<?>> selectedValues = new HashSet<>();
-        List<String> bidLines = fileInit(valueFunction);
-        for (int i = 0; i < numberOfBids && iter.hasNext(); i++) {
-            XORValue<?> value = (XORValue) iter.next();
-            selectedValues.add(value);
-            String line = String.valueOf(i).concat("\t");
-            line = line.concat(roundedValue(value.value().doubleValue()));
-            line = line.concat("\t");
-            line = line.concat(value.getLicenses().itemIds("\t")).concat("#");
-            bidLines.add(line);
-        }
-        List<String> lines = new ArrayList<>();
-        lines.add("goods " + valueFunction.getBidder().getWorld().getNumberOfGoods());
-        lines.add("bids " + selectedValues.size());
-        lines.add("dummy 0");
-        lines.add("");
-        lines.addAll(bidLines);
-
-        return write(lines, filePrefix);
-
+        List<String> preamble = fileInit(valueFunction);
+        return write(preamble, valueFunction, 0, out -> {
+            Iterator<? extends XORValue<?>> iter = valueFunction.iterator();
+            int countBids = 0;
+            for (; countBids < numberOfBids && iter.hasNext(); countBids++) {
+                writeBidLine(out, countBids, iter.next());
+                out.write('#');
+                out.newLine();
+            }
+            return countBids;
+        }, filePrefix);
     }
 
     private List<String> fileInit(XORLanguage<? extends Good> lang) {
@@ -72,46 +68,94 @@ public class CatsExporter extends FileWriter {
 
     @Override
     public File writeMultiBidderXOR(Collection<XORLanguage<? extends Good>> valueFunctions, int numberOfBids, String filePrefix) throws IOException {
-        List<String> lines = fileInit(valueFunctions.iterator().next());
-        lines.add("%% This file may contain bids from multiple bidders.");
-        lines.add("% Bids from different bidders are separated using dummy items with negative IDs");
-        lines.add("");
-        lines.add("");
-        List<String> bidLines = new ArrayList<>();
-        //Dummy items are negative integers, for easier distinction
-        int dummyItem = -1;
-        int countBids = 0;
-        for (XORLanguage<? extends Good> valueFunction : valueFunctions) {
-            Iterator iter = valueFunction.iterator();
-            for (int i = 0; i < numberOfBids && iter.hasNext(); i++) {
-                XORValue<?> value = (XORValue) iter.next();
-                StringBuilder line = new StringBuilder(String.valueOf(countBids++)).append("\t");
-                line.append(roundedValue(value.value().doubleValue()));
-                line.append("\t");
-                line.append(value.getLicenses().itemIds("\t"));
-                line.append("\t");
-                line.append(dummyItem);
-                line.append("\t#");
-                bidLines.add(line.toString());
+        XORLanguage<? extends Good> first = valueFunctions.iterator().next();
+        List<String> preamble = fileInit(first);
+        preamble.add("%% This file may contain bids from multiple bidders.");
+        preamble.add("% Bids from different bidders are separated using dummy items with negative IDs");
+        preamble.add("");
+        preamble.add("");
+        return write(preamble, first, valueFunctions.size(), out -> {
+            //Dummy items are negative integers, for easier distinction
+            int dummyItem = -1;
+            int countBids = 0;
+            for (XORLanguage<? extends Good> valueFunction : valueFunctions) {
+                Iterator<? extends XORValue<?>> iter = valueFunction.iterator();
+                for (int i = 0; i < numberOfBids && iter.hasNext(); i++) {
+                    writeBidLine(out, countBids++, iter.next());
+                    out.write('\t');
+                    out.write(Integer.toString(dummyItem));
+                    out.write("\t#");
+                    out.newLine();
+                }
+                dummyItem--;
             }
-            dummyItem--;
-        }
+            return countBids;
+        }, filePrefix);
+    }
 
-        lines.add("goods " + valueFunctions.iterator().next().getBidder().getWorld().getNumberOfGoods());
-        lines.add("bids " + bidLines.size());
-        lines.add("dummy " + valueFunctions.size());
-        lines.add("");
-        lines.addAll(bidLines);
-        return write(lines, filePrefix);
+    /**
+     * Writes the id, the value and the license ids of a bid, without line termination
+     */
+    private void writeBidLine(BufferedWriter out, int bidId, XORValue<?> value) throws IOException {
+        out.write(Integer.toString(bidId));
+        out.write('\t');
+        out.write(roundedValue(value.value().doubleValue()));
+        out.write('\t');
+        boolean first = true;
+        for (Good license : value.getLicenses()) {
+            if (!first) {
+                out.write('\t');
+            }
+            first = false;
+            out.write(Long.toString(license.getId()));
+        }
     }
 
-    private File write(List<String> lines, String filePrefix) throws IOException {
+    private File write(List<String> preamble, XORLanguage<? extends Good> lang, int numberOfDummies,
+                       BidLineWriter bidLineWriter, String filePrefix) throws IOException {
         Path file = nextNonexistingFile(filePrefix);
-        Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE);
-//            Files.write(file, lines, StandardOpenOption.CREATE); //jvm 8 version
+        Path bidLines = Files.createTempFile(folder.toPath(), file.getFileName().toString(), ".part");
+        try {
+            int numberOfBids;
+            try (BufferedWriter out = newBufferedWriter(bidLines)) {
+                numberOfBids = bidLineWriter.writeBidLines(out);
+            }
+            try (BufferedWriter out = newBufferedWriter(file)) {
+                for (String line : preamble) {
+                    out.write(line);
+                    out.newLine();
+                }
+                out.write("goods " + lang.getBidder().getWorld().getNumberOfGoods());
+                out.newLine();
+                out.write("bids " + numberOfBids);
+                out.newLine();
+                out.write("dummy " + numberOfDummies);
+                out.newLine();
+                out.newLine();
+            }
+            try (FileChannel source = FileChannel.open(bidLines, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = 0;
+                long size = source.size();
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(bidLines);
+        }
         return file.toFile();
     }
 
+    @FunctionalInterface
+    private interface BidLineWriter {
+
+        /**
+         * @return the number of bids written
+         */
+        int writeBidLines(BufferedWriter out) throws IOException;
+    }
+
     /* (non-Javadoc)
      * @see FileWriter#writeMultiBidderXORQ(java.util.Collection, int, java.lang.String)
      */
@@ -11,9 +11,13 @@ import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.core.util.CacheMap;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 
 /**
@@ -59,6 +63,15 @@ public abstract class FileWriter {
         return result;
     }
 
+    /**
+     * Opens a buffered writer on the passed file, through which bids can be written one by one.
+     * The caller is responsible for closing the writer.
+     */
+    protected BufferedWriter newBufferedWriter(Path file) throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
     protected Path nextNonexistingFile(String filePrefix) {
         Integer cashedCount = fileNameCount.get(filePrefix);
         if (cashedCount == null)
@@ -5,7 +5,9 @@
  */
 package org.spectrumauctions.sats.core.bidfile;
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
@@ -15,15 +17,16 @@ import org.spectrumauctions.sats.core.model.Good;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map.Entry;
 
 /**
+ * Writes bids in a JSON format.<br>
+ * The bids are streamed to disk through a {@link JsonWriter} while they are generated,
+ * i.e., no JSON tree of the whole file is built in memory.
+ *
  * @author Michael Weiss
  *
  */
@@ -45,32 +48,35 @@ public class JsonExporter extends FileWriter {
     @Override
     public File writeMultiBidderXOR(Collection<XORLanguage<? extends Good>> valueFunctions, int numberOfBids, String filePrefix)
             throws IOException {
-        JsonArray json = new JsonArray();
-        for (XORLanguage<? extends Good> lang : valueFunctions) {
-            JsonObject thisBidder = new JsonObject();
-            thisBidder.addProperty("bidder", lang.getBidder().getId());
-            thisBidder.add("bids", singleBidderXOR(lang, numberOfBids, filePrefix));
-            json.add(thisBidder);
-        }
-        return write(json, filePrefix);
+        return write(out -> {
+            out.beginArray();
+            for (XORLanguage<? extends Good> lang : valueFunctions) {
+                out.beginObject();
+                out.name("bidder").value(lang.getBidder().getId());
+                out.name("bids");
+                singleBidderXOR(out, lang, numberOfBids);
+                out.endObject();
+            }
+            out.endArray();
+        }, filePrefix);
     }
 
 
-    private JsonElement singleBidderXOR(XORLanguage<? extends Good> lang, int numberOfBids, String filePrefix) {
-        JsonArray result = new JsonArray();
-        Iterator iter = lang.iterator();
+    private void singleBidderXOR(JsonWriter out, XORLanguage<? extends Good> lang, int numberOfBids) throws IOException {
+        out.beginArray();
+        Iterator<? extends XORValue<?>> iter = lang.iterator();
         for (int i = 0; i < numberOfBids && iter.hasNext(); i++) {
-            JsonObject bid = new JsonObject();
-            XORValue<Good> xorValue = (XORValue) iter.next();
-            JsonArray licenses = new JsonArray();
+            XORValue<?> xorValue = iter.next();
+            out.beginObject();
+            out.name("licenses").beginArray();
             for (Good license : xorValue.getLicenses()) {
-                licenses.add(license.getId());
+                out.value(license.getId());
             }
-            bid.add("licenses", licenses);
-            bid.addProperty("value", roundedValue(xorValue.value().doubleValue()));
-            result.add(bid);
+            out.endArray();
+            out.name("value").value(roundedValue(xorValue.value().doubleValue()));
+            out.endObject();
         }
-        return result;
+        out.endArray();
     }
 
     /* (non-Javadoc)
@@ -79,8 +85,7 @@ public class JsonExporter extends FileWriter {
     @Override
     public File writeSingleBidderXOR(XORLanguage<? extends Good> valueFunction, int numberOfBids, String filePrefix)
             throws IOException {
-        JsonElement singleBidder = singleBidderXOR(valueFunction, numberOfBids, filePrefix);
-        return write(singleBidder, filePrefix);
+        return write(out -> singleBidderXOR(out, valueFunction, numberOfBids), filePrefix);
     }
 
     /* (non-Javadoc)
@@ -89,14 +94,17 @@ public class JsonExporter extends FileWriter {
     @Override
     public File writeMultiBidderXORQ(Collection<GenericLang<GenericDefinition>> valueFunctions, int numberOfBids,
                                      String filePrefix) throws IOException {
-        JsonArray json = new JsonArray();
-        for (GenericLang<GenericDefinition> lang : valueFunctions) {
-            JsonObject thisBidder = new JsonObject();
-            thisBidder.addProperty("bidder", lang.getBidder().getId());
-            thisBidder.add("bids", singleBidderXORQ(lang, numberOfBids, filePrefix));
-            json.add(thisBidder);
-        }
-        return write(json, filePrefix);
+        return write(out -> {
+            out.beginArray();
+            for (GenericLang<GenericDefinition> lang : valueFunctions) {
+                out.beginObject();
+                out.name("bidder").value(lang.getBidder().getId());
+                out.name("bids");
+                singleBidderXORQ(out, lang, numberOfBids);
+                out.endObject();
+            }
+            out.endArray();
+        }, filePrefix);
     }
 
     /* (non-Javadoc)
@@ -105,40 +113,48 @@ public class JsonExporter extends FileWriter {
     @Override
     public File writeSingleBidderXORQ(GenericLang<GenericDefinition> lang, int numberOfBids, String filePrefix)
             throws IOException {
-        JsonElement singleBidder = singleBidderXORQ(lang, numberOfBids, filePrefix);
-        return write(singleBidder, filePrefix);
+        return write(out -> singleBidderXORQ(out, lang, numberOfBids), filePrefix);
     }
 
-    private JsonElement singleBidderXORQ(GenericLang<GenericDefinition> lang, int numberOfBids, String filePrefix) {
-        JsonArray result = new JsonArray();
+    private void singleBidderXORQ(JsonWriter out, GenericLang<GenericDefinition> lang, int numberOfBids) throws IOException {
+        out.beginArray();
         Iterator<GenericValue<GenericDefinition>> iter = lang.iterator();
         for (int i = 0; i < numberOfBids && iter.hasNext(); i++) {
-            JsonObject bid = new JsonObject();
             GenericValue<GenericDefinition> val = iter.next();
-            JsonArray quantities = new JsonArray();
+            out.beginObject();
+            out.name("quantities").beginArray();
             for (Entry<GenericDefinition, Integer> quant : val.getQuantities().entrySet()) {
                 if (quant.getValue() != 0 || !ONLY_NONZERO_QUANTITIES) {
-                    JsonObject object = new JsonObject();
-                    object.add("generic definition", quant.getKey().shortJson());
-                    object.addProperty("quantity", quant.getValue());
-                    quantities.add(object);
+                    out.beginObject();
+                    out.name("generic definition");
+                    gson.toJson(quant.getKey().shortJson(), out);
+                    out.name("quantity").value(quant.getValue());
+                    out.endObject();
                 }
             }
-            bid.add("quantities", quantities);
-            bid.addProperty("value", roundedValue(val.getValue().doubleValue()));
-            result.add(bid);
+            out.endArray();
+            out.name("value").value(roundedValue(val.getValue().doubleValue()));
+            out.endObject();
         }
-        return result;
+        out.endArray();
     }
 
 
-    private File write(JsonElement toWrite, String filePrefix) throws IOException {
+    private File write(JsonContent content, String filePrefix) throws IOException {
         Path file = nextNonexistingFile(filePrefix);
-        String content = gson.toJson(toWrite);
-        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+        // The JsonWriter is configured by gson exactly as when serializing a complete tree
+        try (JsonWriter out = gson.newJsonWriter(newBufferedWriter(file))) {
+            content.writeTo(out);
+        }
         return file.toFile();
     }
 
+    @FunctionalInterface
+    private interface JsonContent {
+
+        void writeTo(JsonWriter out) throws IOException;
+    }
+
     /* (non-Javadoc)
      * @see FileWriter#filetype()
      */
@@ -0,0 +1,166 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link Spliterator} over the bids of a bidding language, which separates the generation of a bid from its
+ * valuation.<br><br>
+ *
+ * The not yet valued bids (e.g., bundles or quantities) are generated by a sequential, possibly stateful generator,
+ * such that they are encountered in exactly the same order as when iterating sequentially with the same seed.
+ * When split, the next batch of generated bids is handed off without being valued. The valuation, which is
+ * usually the expensive part, thus happens in whichever thread traverses the batch, e.g., in the worker threads
+ * of a parallel stream. The batches grow arithmetically, as in {@link java.util.Spliterators#spliteratorUnknownSize(Iterator, int)}.<br><br>
+ *
+ * The generator must not depend on the values of the bids it generated, and the valuation must be thread-safe.
+ *
+ * @param <B> the type of the generated, not yet valued bids
+ * @param <V> the type of the valued bids
+ * @author Michael Weiss
+ */
+public final class ValuingSpliterator<B, V> implements Spliterator<V> {
+
+    private static final int BATCH_UNIT = 1 << 4;
+    private static final int MAX_BATCH = 1 << 12;
+
+    private final Iterator<? extends B> generator;
+    private final Function<? super B, ? extends V> valuation;
+    private long estimatedSize;
+    private int batchSize = 0;
+
+    /**
+     * @param generator generates the bids in the order of sequential iteration
+     * @param valuation values a generated bid, must not return null
+     */
+    public ValuingSpliterator(Iterator<? extends B> generator, Function<? super B, ? extends V> valuation) {
+        this(generator, valuation, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param estimatedSize an estimate of the number of bids, or {@link Long#MAX_VALUE} if unknown
+     */
+    public ValuingSpliterator(Iterator<? extends B> generator, Function<? super B, ? extends V> valuation, long estimatedSize) {
+        Preconditions.checkArgument(estimatedSize >= 0);
+        this.generator = Preconditions.checkNotNull(generator);
+        this.valuation = Preconditions.checkNotNull(valuation);
+        this.estimatedSize = estimatedSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super V> action) {
+        if (!generator.hasNext()) {
+            return false;
+        }
+        action.accept(valuation.apply(generator.next()));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super V> action) {
+        while (generator.hasNext()) {
+            action.accept(valuation.apply(generator.next()));
+        }
+    }
+
+    /**
+     * Generates the next batch of bids (in the calling thread) and returns a spliterator which values them lazily
+     */
+    @Override
+    public Spliterator<V> trySplit() {
+        if (!generator.hasNext()) {
+            return null;
+        }
+        int size = (int) Math.min(Math.min(batchSize + BATCH_UNIT, MAX_BATCH), estimatedSize);
+        Object[] batch = new Object[Math.max(size, 1)];
+        int generated = 0;
+        do {
+            batch[generated++] = generator.next();
+        } while (generated < batch.length && generator.hasNext());
+        batchSize = generated;
+        if (estimatedSize != Long.MAX_VALUE) {
+            estimatedSize = Math.max(0, estimatedSize - generated);
+        }
+        return new Batch(batch, 0, generated);
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * An already generated range of bids, which are valued when traversed
+     */
+    private final class Batch implements Spliterator<V> {
+
+        private final Object[] bids;
+        private int from;
+        private final int to;
+
+        private Batch(Object[] bids, int from, int to) {
+            this.bids = bids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V value(int index) {
+            B bid = (B) bids[index];
+            // Allow the generated bid to be garbage collected once valued
+            bids[index] = null;
+            return valuation.apply(bid);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(value(from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super V> action) {
+            while (from < to) {
+                action.accept(value(from++));
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            Spliterator<V> prefix = new Batch(bids, from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+}
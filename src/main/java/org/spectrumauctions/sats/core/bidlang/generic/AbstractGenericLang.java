@@ -0,0 +1,38 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Base class of the generic (XOR-Q) languages, whose value queries can be answered by a {@link GenericValueOracle}.
+ *
+ * @author Michael Weiss
+ */
+public abstract class AbstractGenericLang<T extends GenericDefinition> implements GenericLang<T> {
+
+    private GenericValueOracle<T> valueOracle;
+
+    protected abstract GenericValueBidder<T> getGenericBidder();
+
+    /**
+     * Answer all value queries of this language via the passed oracle, such that values of quantities
+     * which were already queried elsewhere are not recalculated.
+     *
+     * @param valueOracle an oracle wrapping the generic bidder of this language
+     */
+    public void setValueOracle(GenericValueOracle<T> valueOracle) {
+        Preconditions.checkArgument(valueOracle.getGenericBidder() == getGenericBidder(), "Oracle does not wrap the bidder of this language");
+        this.valueOracle = valueOracle;
+    }
+
+    /**
+     * @return the oracle, if one is set, or the generic bidder otherwise
+     */
+    protected GenericValueBidder<T> getValueBidder() {
+        return valueOracle == null ? getGenericBidder() : valueOracle;
+    }
+}
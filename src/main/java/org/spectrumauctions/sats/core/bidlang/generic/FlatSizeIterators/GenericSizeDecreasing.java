@@ -22,11 +22,11 @@ public abstract class GenericSizeDecreasing<T extends GenericDefinition> extends
     }
 
     @Override
-    public Iterator<GenericValue<T>> iterator() {
+    Iterator<GenericValue.Builder<T>> quantitiesIterator() {
         return new DecreasingIterator();
     }
 
-    private class DecreasingIterator implements Iterator<GenericValue<T>> {
+    private class DecreasingIterator implements Iterator<GenericValue.Builder<T>> {
 
         int round = 0;
         private Iterator<Set<T>> definitionPowersetIterator;
@@ -85,11 +85,11 @@ public abstract class GenericSizeDecreasing<T extends GenericDefinition> extends
          * @see java.util.Iterator#next()
          */
         @Override
-        public GenericValue<T> next() {
+        public GenericValue.Builder<T> next() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            GenericValue.Builder<T> val = new GenericValue.Builder<>(getGenericBidder());
+            GenericValue.Builder<T> val = new GenericValue.Builder<>(getValueBidder());
             Set<T> toSubstract = definitionPowersetIterator.next();
             for (T def : allDefintions) {
                 int quantity = roundSize.get(def);
@@ -101,7 +101,7 @@ public abstract class GenericSizeDecreasing<T extends GenericDefinition> extends
             if (!definitionPowersetIterator.hasNext()) {
                 initNextRound();
             }
-            return val.build();
+            return val;
         }
 
     }
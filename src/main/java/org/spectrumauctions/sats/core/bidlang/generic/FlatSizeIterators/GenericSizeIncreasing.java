@@ -23,11 +23,11 @@ public abstract class GenericSizeIncreasing<T extends GenericDefinition> extends
     }
 
     @Override
-    public Iterator<GenericValue<T>> iterator() {
+    Iterator<GenericValue.Builder<T>> quantitiesIterator() {
         return new IncreasingIterator();
     }
 
-    private class IncreasingIterator implements Iterator<GenericValue<T>> {
+    private class IncreasingIterator implements Iterator<GenericValue.Builder<T>> {
 
         int round = 0;
         private Iterator<Set<T>> definitionPowersetIterator;
@@ -86,11 +86,11 @@ public abstract class GenericSizeIncreasing<T extends GenericDefinition> extends
          * @see java.util.Iterator#next()
          */
         @Override
-        public GenericValue<T> next() {
+        public GenericValue.Builder<T> next() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            GenericValue.Builder<T> val = new GenericValue.Builder<>(getGenericBidder());
+            GenericValue.Builder<T> val = new GenericValue.Builder<>(getValueBidder());
             Set<T> toAdd = definitionPowersetIterator.next();
             for (T def : allDefintions) {
                 int quantity = roundSize.get(def);
@@ -102,7 +102,7 @@ public abstract class GenericSizeIncreasing<T extends GenericDefinition> extends
             if (!definitionPowersetIterator.hasNext()) {
                 initNextRound();
             }
-            return val.build();
+            return val;
         }
 
     }
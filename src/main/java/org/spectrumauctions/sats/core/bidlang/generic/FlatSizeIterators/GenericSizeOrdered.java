@@ -6,14 +6,18 @@
 package org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
+import org.spectrumauctions.sats.core.bidlang.generic.AbstractGenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.Spliterator;
 
 /**
  *
@@ -21,7 +25,7 @@ import java.util.Set;
  *
  * @param <T>
  */
-public abstract class GenericSizeOrdered<T extends GenericDefinition> implements GenericLang<T> {
+public abstract class GenericSizeOrdered<T extends GenericDefinition> extends AbstractGenericLang<T> {
 
     protected final Set<T> allDefintions;
 
@@ -34,7 +38,23 @@ public abstract class GenericSizeOrdered<T extends GenericDefinition> implements
 
     }
 
-    protected abstract GenericValueBidder<T> getGenericBidder();
+    @Override
+    public Iterator<GenericValue<T>> iterator() {
+        return Iterators.transform(quantitiesIterator(), GenericValue.Builder::build);
+    }
+
+    /**
+     * {@inheritDoc} The quantities are enumerated sequentially, but valued in the threads which traverse the split parts.
+     */
+    @Override
+    public Spliterator<GenericValue<T>> spliterator() {
+        return new ValuingSpliterator<>(quantitiesIterator(), GenericValue.Builder::build);
+    }
+
+    /**
+     * @return builders with the quantities of the generic values, in the order of iteration, which are valued when built
+     */
+    abstract Iterator<GenericValue.Builder<T>> quantitiesIterator();
 
     protected abstract Comparator<T> getDefComparator();
 
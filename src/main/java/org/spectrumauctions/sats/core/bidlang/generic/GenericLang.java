@@ -6,8 +6,13 @@
 package org.spectrumauctions.sats.core.bidlang.generic;
 
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -18,5 +23,22 @@ public interface GenericLang<T extends GenericDefinition> extends BiddingLanguag
 
     Iterator<GenericValue<T>> iterator();
 
+    /**
+     * The generic values of {@link #iterator()}, in the same order, as a spliterator which can be traversed in parallel.<br>
+     * Languages which generate their quantities independently of their values override this method,
+     * such that the quantities are valued in the threads traversing the split parts (see {@link ValuingSpliterator}).
+     * By default, all values are generated and valued in the splitting thread.
+     */
+    default Spliterator<GenericValue<T>> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * @param parallel if true, the quantities are valued in parallel where supported (see {@link #spliterator()})
+     * @return a stream of the generic values, with the encounter order of {@link #iterator()}
+     */
+    default Stream<GenericValue<T>> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
 
 }
@@ -8,6 +8,7 @@ package org.spectrumauctions.sats.core.bidlang.generic;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 
@@ -96,22 +97,30 @@ public final class GenericValue<T extends GenericDefinition> {
     }
 
     /**
-     * An iterator over all XORValues consistent with this XOR-Q (XOR with quantities) instance
+     * @return the expansion of this XOR-Q (XOR with quantities) instance into all consistent bundles,
+     * which allows to count, index and sample them
+     */
+    public XORQExpansion<Good> plainXorExpansion() {
+        return new XORQExpansion<>(quantities);
+    }
+
+    /**
+     * An iterator over all XORValues consistent with this XOR-Q (XOR with quantities) instance.
+     * The licenses of the returned values are stored compactly (see {@link XORValue#getCompactLicenses()}).
      */
     public Iterator<XORValue<?>> plainXorIterator() {
         return new Iterator<XORValue<?>>() {
 
-            private XORQtoXOR<Good> quantitiesIter = new XORQtoXOR<>(quantities);
+            private Iterator<BitSetBundle<Good>> bundles = plainXorExpansion().iterator();
 
             @Override
             public boolean hasNext() {
-                return quantitiesIter.hasNext();
+                return bundles.hasNext();
             }
 
             @Override
             public XORValue<?> next() {
-                Bundle<Good> bundle = quantitiesIter.next();
-                return new XORValue<>(bundle, GenericValue.this.value);
+                return new XORValue<>(bundles.next(), GenericValue.this.value);
             }
 
             /**
@@ -0,0 +1,174 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.spectrumauctions.sats.core.model.ValueOracle;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The XOR-Q counterpart of {@link ValueOracle}: A thread-safe, memoizing wrapper around a {@link GenericValueBidder}.<br>
+ * Values are cached in a bounded, concurrent cache keyed by an immutable copy of the queried quantities.
+ * As the oracle itself is a {@link GenericValueBidder}, it can be used wherever generic values are calculated.
+ *
+ * @author Michael Weiss
+ */
+public final class GenericValueOracle<T extends GenericDefinition> implements GenericValueBidder<T> {
+
+    /**
+     * Approximate size of a cache entry in bytes, excluding the quantities of the key
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int BYTES_PER_QUANTITY = 32;
+
+    private final GenericValueBidder<T> genericBidder;
+    private final LoadingCache<ImmutableMap<T, Integer>, BigDecimal> cache;
+
+    private GenericValueOracle(Builder<T> builder) {
+        this.genericBidder = builder.genericBidder;
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+        if (builder.concurrencyLevel > 0) {
+            cacheBuilder.concurrencyLevel(builder.concurrencyLevel);
+        }
+        CacheLoader<ImmutableMap<T, Integer>, BigDecimal> loader = new CacheLoader<ImmutableMap<T, Integer>, BigDecimal>() {
+            @Override
+            public BigDecimal load(ImmutableMap<T, Integer> key) {
+                return genericBidder.calculateValue(key);
+            }
+        };
+        if (builder.maximumWeight >= 0) {
+            this.cache = cacheBuilder.maximumWeight(builder.maximumWeight)
+                    .weigher((Weigher<ImmutableMap<T, Integer>, BigDecimal>)
+                            (key, value) -> ENTRY_OVERHEAD_BYTES + BYTES_PER_QUANTITY * key.size())
+                    .build(loader);
+        } else {
+            this.cache = cacheBuilder.maximumSize(builder.maximumSize).build(loader);
+        }
+    }
+
+    /**
+     * Creates a new oracle with the default configuration, i.e.,
+     * at most {@value ValueOracle#DEFAULT_MAXIMUM_SIZE} cached values.
+     */
+    public static <T extends GenericDefinition> GenericValueOracle<T> of(GenericValueBidder<T> genericBidder) {
+        return new Builder<>(genericBidder).build();
+    }
+
+    public GenericValueBidder<T> getGenericBidder() {
+        return genericBidder;
+    }
+
+    /**
+     * @return the (possibly cached) value of the wrapped bidder for the passed quantities
+     */
+    @Override
+    public BigDecimal calculateValue(Map<T, Integer> genericQuantities) {
+        try {
+            // Zero quantities are kept in the key, as the scale of the returned value may depend on them
+            return cache.getUnchecked(ImmutableMap.copyOf(genericQuantities));
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of queries answered from the cache
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * @return the number of queries not answered from the cache. This includes queries which waited for
+     * a concurrent query of the same value to complete.
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return the number of queries which were forwarded to the bidder
+     */
+    public long getComputationCount() {
+        return cache.stats().loadCount();
+    }
+
+    /**
+     * @return the number of values which were removed from the cache to respect its bounds
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return the approximate number of currently cached values
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all cached values. The counters are not reset.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public static final class Builder<T extends GenericDefinition> {
+
+        private final GenericValueBidder<T> genericBidder;
+        private long maximumSize = ValueOracle.DEFAULT_MAXIMUM_SIZE;
+        private long maximumWeight = -1;
+        private int concurrencyLevel = -1;
+
+        public Builder(GenericValueBidder<T> genericBidder) {
+            this.genericBidder = Preconditions.checkNotNull(genericBidder);
+        }
+
+        /**
+         * @see ValueOracle.Builder#setMaximumSize(long)
+         */
+        public Builder<T> setMaximumSize(long maximumSize) {
+            Preconditions.checkArgument(maximumSize >= 0);
+            this.maximumSize = maximumSize;
+            this.maximumWeight = -1;
+            return this;
+        }
+
+        /**
+         * @see ValueOracle.Builder#setMaximumWeight(long)
+         */
+        public Builder<T> setMaximumWeight(long maximumWeightInBytes) {
+            Preconditions.checkArgument(maximumWeightInBytes >= 0);
+            this.maximumWeight = maximumWeightInBytes;
+            return this;
+        }
+
+        /**
+         * @see ValueOracle.Builder#setConcurrencyLevel(int)
+         */
+        public Builder<T> setConcurrencyLevel(int concurrencyLevel) {
+            Preconditions.checkArgument(concurrencyLevel > 0);
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        public GenericValueOracle<T> build() {
+            return new GenericValueOracle<>(this);
+        }
+    }
+}
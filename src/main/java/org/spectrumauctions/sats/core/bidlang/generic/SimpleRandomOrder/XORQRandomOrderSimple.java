@@ -1,9 +1,10 @@
 package org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder;
 
+import com.google.common.collect.Iterators;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
+import org.spectrumauctions.sats.core.bidlang.generic.AbstractGenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 
@@ -13,7 +14,7 @@ import java.util.Map.Entry;
 /**
  * @author Fabio Isler
  */
-public abstract class XORQRandomOrderSimple<T extends GenericDefinition> implements GenericLang<T> {
+public abstract class XORQRandomOrderSimple<T extends GenericDefinition> extends AbstractGenericLang<T> {
 
     private static final double MAX_POSSIBLE_BIDS_FACTOR = 0.8;
     private static final int ABSOLUTE_MAX_BIDS = 1000000;
@@ -25,7 +26,6 @@ public abstract class XORQRandomOrderSimple<T extends GenericDefinition> impleme
 
     private final transient long seed;
     private final transient int totalSize;
-    private final transient Set<GenericValue> cache;
     private final transient int maxBids;
     private transient int iterations;
 
@@ -48,7 +48,6 @@ public abstract class XORQRandomOrderSimple<T extends GenericDefinition> impleme
         this.totalSize = quantitySum;
         this.iterations = DEFAULT_ITERATIONS;
         this.maxBids = setMaxBid(maxQuantities);
-        this.cache = new HashSet<>();
     }
 
     private int setMaxBid(Map<T, Integer> maxQuantities) {
@@ -71,22 +70,38 @@ public abstract class XORQRandomOrderSimple<T extends GenericDefinition> impleme
         this.iterations = iterations;
     }
 
-    /* (non-Javadoc)
-     * @see GenericLang#iterator()
+    /**
+     * {@inheritDoc} Iterators of the same instance return the same sequence of generic values.
      */
     @Override
     public Iterator<GenericValue<T>> iterator() {
-        return new SimpleRandomOrderIterator(iterations, rngSupplier.getUniformDistributionRNG(seed));
+        return Iterators.transform(quantitiesIterator(), GenericValue.Builder::build);
+    }
+
+    /**
+     * {@inheritDoc} The quantities are drawn sequentially, exactly as by {@link #iterator()},
+     * but valued in the threads which traverse the split parts.
+     */
+    @Override
+    public Spliterator<GenericValue<T>> spliterator() {
+        return new ValuingSpliterator<>(quantitiesIterator(), GenericValue.Builder::build, iterations);
     }
 
-    protected abstract GenericValueBidder<T> getGenericBidder();
+    /**
+     * @return builders with the quantities of the generic values, in the order of iteration, which are valued when built
+     */
+    private Iterator<GenericValue.Builder<T>> quantitiesIterator() {
+        return new SimpleRandomOrderIterator(iterations, rngSupplier.getUniformDistributionRNG(seed));
+    }
 
     protected abstract Comparator<T> getDefComparator();
 
-    class SimpleRandomOrderIterator implements Iterator<GenericValue<T>> {
+    class SimpleRandomOrderIterator implements Iterator<GenericValue.Builder<T>> {
 
         private final UniformDistributionRNG uniRng;
         private int remainingIterations;
+        // The quantities which were already returned by this iterator
+        private final Set<Map<T, Integer>> cache = new HashSet<>();
 
         SimpleRandomOrderIterator(int iterations, UniformDistributionRNG uniRng) {
             this.remainingIterations = iterations;
@@ -106,24 +121,20 @@ public abstract class XORQRandomOrderSimple<T extends GenericDefinition> impleme
          * @see java.util.Iterator#next()
          */
         @Override
-        public GenericValue<T> next() {
+        public GenericValue.Builder<T> next() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            Map<T, Integer> quantities = getRandomQuantities();
-            GenericValue.Builder<T> genValBuilder = new GenericValue.Builder<>(getGenericBidder());
+            Map<T, Integer> quantities;
+            do {
+                quantities = getRandomQuantities();
+            } while (!cache.add(quantities));
+            remainingIterations--;
+            GenericValue.Builder<T> genValBuilder = new GenericValue.Builder<>(getValueBidder());
             for (Entry<T, Integer> entry : quantities.entrySet()) {
                 genValBuilder.putQuantity(entry.getKey(), entry.getValue());
             }
-            GenericValue<T> result = genValBuilder.build();
-
-            if (!cache.contains(result)) {
-                cache.add(result);
-                remainingIterations--;
-                return result;
-            }
-
-            return next();
+            return genValBuilder;
         }
 
         /**
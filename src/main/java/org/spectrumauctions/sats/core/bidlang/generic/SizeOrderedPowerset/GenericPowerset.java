@@ -1,15 +1,15 @@
 package org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset;
 
+import com.google.common.collect.Iterators;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
+import org.spectrumauctions.sats.core.bidlang.generic.AbstractGenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 
 import java.util.*;
-import java.util.Map.Entry;
 
-public abstract class GenericPowerset<T extends GenericDefinition> implements GenericLang<T> {
+public abstract class GenericPowerset<T extends GenericDefinition> extends AbstractGenericLang<T> {
 
     final Map<T, Integer> maxQuantities;
     final int maxBundleSize;
@@ -36,9 +36,25 @@ public abstract class GenericPowerset<T extends GenericDefinition> implements Ge
 
     protected abstract void isFeasibleSize(Map<T, Integer> maxQuantities, int maxBundleSize) throws UnsupportedBiddingLanguageException;
 
-    protected abstract GenericValueBidder<T> getGenericBidder();
+    @Override
+    public Iterator<GenericValue<T>> iterator() {
+        return Iterators.transform(quantitiesIterator(), GenericValue.Builder::build);
+    }
+
+    /**
+     * {@inheritDoc} The quantities are enumerated sequentially, but valued in the threads which traverse the split parts.
+     */
+    @Override
+    public Spliterator<GenericValue<T>> spliterator() {
+        return new ValuingSpliterator<>(quantitiesIterator(), GenericValue.Builder::build);
+    }
+
+    /**
+     * @return builders with the quantities of the generic values, in the order of iteration, which are valued when built
+     */
+    abstract PowersetIterator quantitiesIterator();
 
-    abstract class PowersetIterator implements Iterator<GenericValue<T>> {
+    abstract class PowersetIterator implements Iterator<GenericValue.Builder<T>> {
 
 
         int bundleSize;
@@ -48,16 +64,17 @@ public abstract class GenericPowerset<T extends GenericDefinition> implements Ge
          * @see java.util.Iterator#next()
          */
         @Override
-        public GenericValue<T> next() {
+        public GenericValue.Builder<T> next() {
             if (!pickN.hasNext()) {
                 intiPickN();
             }
-            Map<T, Integer> quantities = pickN.next();
-            GenericValue.Builder<T> genValBuilder = new GenericValue.Builder<>(getGenericBidder());
-            for (Entry<T, Integer> entry : quantities.entrySet()) {
-                genValBuilder.putQuantity(entry.getKey(), entry.getValue());
+            int[] quantities = pickN.nextQuantities();
+            List<T> definitions = pickN.getQuantifiableObjects();
+            GenericValue.Builder<T> genValBuilder = new GenericValue.Builder<>(getValueBidder());
+            for (int i = 0; i < quantities.length; i++) {
+                genValBuilder.putQuantity(definitions.get(i), quantities[i]);
             }
-            return genValBuilder.build();
+            return genValBuilder;
         }
 
         abstract void intiPickN();
@@ -6,10 +6,8 @@
 package org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset;
 
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -36,11 +34,8 @@ public abstract class GenericPowersetDecreasing<T extends GenericDefinition> ext
     }
 
 
-    /* (non-Javadoc)
-     * @see GenericLang#iterator()
-     */
     @Override
-    public Iterator<GenericValue<T>> iterator() {
+    PowersetIterator quantitiesIterator() {
         return new DecreasingIterator();
     }
 
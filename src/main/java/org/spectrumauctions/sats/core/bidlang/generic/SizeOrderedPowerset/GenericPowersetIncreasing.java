@@ -6,10 +6,8 @@
 package org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset;
 
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
-import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -34,7 +32,7 @@ public abstract class GenericPowersetIncreasing<T extends GenericDefinition> ext
     }
 
     @Override
-    public Iterator<GenericValue<T>> iterator() {
+    PowersetIterator quantitiesIterator() {
         return new IncreasingIterator();
     }
 
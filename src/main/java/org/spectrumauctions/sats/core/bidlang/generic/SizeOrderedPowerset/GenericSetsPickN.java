@@ -7,20 +7,25 @@ package org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import org.spectrumauctions.sats.core.util.math.BoundedCompositions;
 
 import java.util.*;
-import java.util.Map.Entry;
 
 /**
+ * Iterates over all quantities of the passed objects which sum up to a target, in decreasing order of the quantity of
+ * the object with highest priority, then of the object with second highest priority, etc.<br>
+ * The quantities are enumerated in place by {@link BoundedCompositions}, which also allows to count them
+ * and to start at any position.
+ *
  * @author Michael Weiss
  */
 public final class GenericSetsPickN<T> implements Iterator<Map<T, Integer>> {
 
     private final ImmutableList<T> quantifiableObjects;
-    private final int target;
-    private final ColumnWalker firstWalker;
+    private final BoundedCompositions compositions;
+    private final BoundedCompositions.Cursor cursor;
+    private final int[] current;
 
-    private Map<T, Integer> next;
     private boolean hasNext;
 
     /**
@@ -28,38 +33,46 @@ public final class GenericSetsPickN<T> implements Iterator<Map<T, Integer>> {
      * @param target        how many items should be picked in total
      */
     public GenericSetsPickN(Map<T, Integer> maxQuantities, int target) {
+        this(maxQuantities, target, 0);
+    }
+
+    /**
+     * Creates an iterator which skips the first quantities
+     *
+     * @param maxQuantities The maximum quantities per type to be returned. The iterator of this map has to return the keys in increasing order of priority
+     * @param target        how many items should be picked in total
+     * @param fromRank      the number of quantities to skip, see {@link #count()}
+     */
+    public GenericSetsPickN(Map<T, Integer> maxQuantities, int target, long fromRank) {
         Preconditions.checkArgument(target > 0);
-        this.target = target;
-        // Init quantifiableObjects
-        List<T> quantifiableObjectsIncreasingPriority = new ArrayList<>(maxQuantities.keySet());
-        Collections.reverse(quantifiableObjectsIncreasingPriority);
-        quantifiableObjects = ImmutableList.copyOf(quantifiableObjectsIncreasingPriority);
-        // Initiate Walkers, starting with the last one
         Preconditions.checkArgument(maxQuantities.size() > 0);
-        ColumnWalker previouslyCreatedWalker = null;
-        for (Entry<T, Integer> maxQuantity : maxQuantities.entrySet()) {
-            previouslyCreatedWalker = new ColumnWalker(previouslyCreatedWalker, maxQuantity.getValue());
+        // Init quantifiableObjects, ordered by decreasing priority
+        List<T> quantifiableObjectsDecreasingPriority = new ArrayList<>(maxQuantities.keySet());
+        Collections.reverse(quantifiableObjectsDecreasingPriority);
+        quantifiableObjects = ImmutableList.copyOf(quantifiableObjectsDecreasingPriority);
+        int[] maxima = new int[quantifiableObjects.size()];
+        for (int i = 0; i < maxima.length; i++) {
+            maxima[i] = maxQuantities.get(quantifiableObjects.get(i));
         }
-        firstWalker = previouslyCreatedWalker;
-        hasNext = true;
-        next();
+        compositions = new BoundedCompositions(maxima, target);
+        current = new int[maxima.length];
+        cursor = compositions.cursor(fromRank, Long.MAX_VALUE);
+        hasNext = cursor.advance();
     }
 
     /**
-     * Appends 0 to a list until it has a certain size
+     * @return the objects in the order of the arrays returned by {@link #nextQuantities()}, i.e., by decreasing priority
      */
-    private static void appendZeros(int size, List<Integer> list) {
-        while (list.size() < size) {
-            list.add(0);
-        }
+    public ImmutableList<T> getQuantifiableObjects() {
+        return quantifiableObjects;
     }
 
-    private static int sum(List<Integer> summands) {
-        int result = 0;
-        for (int summand : summands) {
-            result += summand;
-        }
-        return result;
+    /**
+     * @return the total number of quantities, including the ones which were already returned or skipped
+     * @throws ArithmeticException if the number does not fit into a long
+     */
+    public long count() {
+        return compositions.count();
     }
 
     /**
@@ -75,116 +88,28 @@ public final class GenericSetsPickN<T> implements Iterator<Map<T, Integer>> {
      */
     @Override
     public Map<T, Integer> next() {
-        if (!hasNext) {
-            throw new NoSuchElementException();
+        int[] quantities = nextQuantities();
+        Map<T, Integer> next = new HashMap<>();
+        for (int i = 0; i < quantifiableObjects.size(); i++) {
+            next.put(quantifiableObjects.get(i), quantities[i]);
         }
-        Map<T, Integer> toReturn = next;
-        prepareNext();
-        return toReturn;
+        return next;
     }
 
     /**
-     * Method to generate the next return value and set hasNext appropriately.
+     * Like {@link #next()}, but without creating a map.
+     *
+     * @return the next quantities, in the order of {@link #getQuantifiableObjects()}.
+     * The array is reused, i.e., only valid until the next call, and must not be modified.
      */
-    private void prepareNext() {
-        List<Integer> nextList = firstWalker.walkToNextResult(new ArrayList<>());
-        if (nextList == null) {
-            hasNext = false;
-            return;
-        }
-        appendZeros(quantifiableObjects.size(), nextList);
-        next = new HashMap<>();
-        for (int i = 0; i < quantifiableObjects.size(); i++) {
-            T object = quantifiableObjects.get(i);
-            Integer quantity = nextList.get(i);
-            next.put(object, quantity);
-        }
-    }
-
-    private class ColumnWalker {
-        private final ColumnWalker nextWalker;
-        private final int maxValue;
-        private int current;
-
-        /**
-         * @param nextWalker The walker (i.e. number generator) for the next less priorized quantifiable object
-         * @param maxValue   the maximum quantity the quantifiable object this walker is working for can have.
-         */
-        private ColumnWalker(ColumnWalker nextWalker, int maxValue) {
-            super();
-            this.nextWalker = nextWalker;
-            this.maxValue = maxValue;
-            this.current = maxValue;
-        }
-
-        /**
-         * @return the next combination of values that sum up to the targetValue.
-         */
-        private List<Integer> walkToNextResult(List<Integer> previousSteps) {
-            // Check if this is the last walker without any leftover options
-            if (nextWalker == null && current == 0) {
-                return null;
-            }
-
-            int sum = previousSteps.stream().mapToInt(Integer::intValue).sum() + current;
-            if (sum > target) {
-                if (current == 0) {
-                    return null;
-                }
-                // There is no possible solution with the actual "current", try next closer "current"
-                this.oneStepForward();
-                List<Integer> downlinkResult = this.walkToNextResult(previousSteps);
-                if (downlinkResult != null) {
-                    return downlinkResult;
-                } else { // downlinkresult == null and current > 0
-                    return this.walkToNextResult(previousSteps);
-                }
-            } else if (sum == target) {
-                previousSteps.add(current);
-                this.oneStepForward();
-                return previousSteps;
-            } else { //sum < target
-                previousSteps.add(current);
-                List<Integer> nextWalkerResult;
-                if (nextWalker == null) {
-                    nextWalkerResult = null;
-                } else {
-                    nextWalkerResult = nextWalker.walkToNextResult(previousSteps);
-                }
-                if (nextWalkerResult == null) {
-                    previousSteps.remove(previousSteps.size() - 1);
-                    if (current == 0) {
-                        return null;
-                    } else {
-                        this.oneStepForward();
-                        return this.walkToNextResult(previousSteps);
-                    }
-                } else {
-                    return nextWalkerResult;
-                }
-            }
-        }
-
-        /**
-         * Set the current walker on step forward, <br>
-         * i.e., decrease its current quantity by one and put the quantities of all subsequent walkers to their max value
-         */
-        private void oneStepForward() {
-            current--;
-            if (nextWalker != null) {
-                nextWalker.reset();
-            }
-        }
-
-        /**
-         * Put a walker, and all subsequent walkers to their max value.
-         */
-        private void reset() {
-            current = maxValue;
-            if (nextWalker != null) {
-                nextWalker.reset();
-            }
+    public int[] nextQuantities() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
         }
+        // Copy, as the cursor modifies its array in place
+        System.arraycopy(cursor.current(), 0, current, 0, current.length);
+        hasNext = cursor.advance();
+        return current;
     }
 
 }
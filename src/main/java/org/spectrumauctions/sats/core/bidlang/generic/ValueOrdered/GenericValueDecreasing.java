@@ -0,0 +1,119 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered;
+
+import com.google.common.collect.ImmutableSet;
+import org.spectrumauctions.sats.core.bidlang.generic.AbstractGenericLang;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * The XOR-Q counterpart of {@link org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR}:
+ * Returns the quantities of the generic definitions in non-increasing order of their values.<br><br>
+ *
+ * The generic values of all models in SATS are monotone in the quantities, i.e., a generic value never decreases
+ * if a quantity is increased. Starting from the maximal quantities, the search hence only has to consider
+ * the quantities obtained by decrementing the quantity of a definition which does not come before the last
+ * decremented one (in the order of {@link #getDefComparator()}), and can return the most valuable quantities
+ * found so far as soon as they are the most valuable ones not returned yet.
+ * Every returned generic value thus requires the valuation of at most one quantity per generic definition.
+ *
+ * @author Michael Weiss
+ */
+public abstract class GenericValueDecreasing<T extends GenericDefinition> extends AbstractGenericLang<T> {
+
+    private final Set<T> allDefinitions;
+
+    protected GenericValueDecreasing(Collection<T> allPossibleGenericDefinitions) {
+        this.allDefinitions = ImmutableSet.copyOf(allPossibleGenericDefinitions);
+    }
+
+    protected abstract Comparator<T> getDefComparator();
+
+    /**
+     * {@inheritDoc} All non-zero quantities are returned, the most valuable first.
+     * Quantities of equal value are returned in a deterministic order.
+     */
+    @Override
+    public Iterator<GenericValue<T>> iterator() {
+        return new BestFirstIterator();
+    }
+
+    private static final class Node<T extends GenericDefinition> {
+
+        private final int[] quantities;
+        // The index of the first definition whose quantity may be decremented
+        private final int firstDecrementable;
+        private final GenericValue<T> genericValue;
+        // Makes the order of nodes with equal values deterministic
+        private final long sequenceNumber;
+
+        private Node(int[] quantities, int firstDecrementable, GenericValue<T> genericValue, long sequenceNumber) {
+            this.quantities = quantities;
+            this.firstDecrementable = firstDecrementable;
+            this.genericValue = genericValue;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
+    private class BestFirstIterator implements Iterator<GenericValue<T>> {
+
+        private final List<T> definitions = new ArrayList<>(allDefinitions);
+        private final PriorityQueue<Node<T>> queue = new PriorityQueue<>(
+                Comparator.<Node<T>, BigDecimal>comparing(node -> node.genericValue.getValue()).reversed()
+                        .thenComparingLong(node -> node.sequenceNumber));
+        private long pushed = 0;
+
+        private BestFirstIterator() {
+            definitions.sort(getDefComparator());
+            int[] maxQuantities = new int[definitions.size()];
+            int total = 0;
+            for (int i = 0; i < maxQuantities.length; i++) {
+                maxQuantities[i] = definitions.get(i).numberOfLicenses();
+                total += maxQuantities[i];
+            }
+            if (total > 0) {
+                push(maxQuantities, 0);
+            }
+        }
+
+        private void push(int[] quantities, int firstDecrementable) {
+            GenericValue.Builder<T> builder = new GenericValue.Builder<>(getValueBidder());
+            for (int i = 0; i < quantities.length; i++) {
+                if (quantities[i] > 0) {
+                    builder.putQuantity(definitions.get(i), quantities[i]);
+                }
+            }
+            queue.add(new Node<>(quantities, firstDecrementable, builder.build(), pushed++));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public GenericValue<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = queue.poll();
+            if (node.genericValue.getTotalQuantity() > 1) {
+                for (int i = node.firstDecrementable; i < node.quantities.length; i++) {
+                    if (node.quantities[i] > 0) {
+                        int[] decremented = node.quantities.clone();
+                        decremented[i]--;
+                        push(decremented, i);
+                    }
+                }
+            }
+            return node.genericValue;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericSetsPickN;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.UnequalWorldsException;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.util.math.BoundedCompositions;
+import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
+import org.spectrumauctions.sats.core.util.random.UniqueRankSampler;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * The expansion of XOR-Q quantities into all consistent bundles, i.e., all bundles which contain exactly the
+ * specified quantity of licenses of every generic definition.
+ * The number of consistent bundles is the product of the binomial coefficients C(n, k) over all definitions
+ * with n licenses and quantity k &gt; 0, and known without expanding any bundle.<br><br>
+ *
+ * The bundles are indexed in a mixed radix system: The licenses of the first definition (in the iteration order of
+ * the quantities) vary fastest, and the licenses of every definition are picked in the order of {@link GenericSetsPickN}.
+ * This is the order of {@link XORQtoXOR}. Bundles can be accessed by index ({@link #get(long)}), sampled uniformly
+ * without replacement ({@link #sample(int, UniformDistributionRNG)}) or iterated, where every step only changes the
+ * licenses of the definitions which advance. All bundles are created as {@link BitSetBundle}s, without any
+ * {@link Bundle} being materialized.<br><br>
+ *
+ * Instances are immutable and thread-safe, their iterators are not.
+ *
+ * @author Michael Weiss
+ * @see GenericValue#plainXorExpansion()
+ */
+public final class XORQExpansion<T extends Good> implements Iterable<BitSetBundle<T>> {
+
+    private final World world;
+    private final int numberOfWords;
+    /** For every definition with positive quantity: the ids of its licenses, in the order in which they are picked */
+    private final int[][] licenseIds;
+    private final BoundedCompositions[] picks;
+    /** For every definition with positive quantity: the number of ways to pick its licenses */
+    private final long[] radices;
+    private final BigInteger count;
+    /** The number of bundles, or -1 if it does not fit into a long */
+    private final long longCount;
+
+    /**
+     * @param quantities the quantity of every generic definition, of which at least one has to be positive
+     * @throws IllegalArgumentException if a quantity is negative or larger than the number of licenses of its definition
+     * @throws UnequalWorldsException   if the licenses of the definitions are not from the same world
+     * @throws ArithmeticException      if the number of ways to pick the licenses of a single definition does not fit
+     *                                  into a long
+     */
+    public XORQExpansion(Map<? extends GenericDefinition, Integer> quantities) {
+        List<int[]> ids = new ArrayList<>();
+        List<BoundedCompositions> picks = new ArrayList<>();
+        World world = null;
+        int maxId = -1;
+        for (Entry<? extends GenericDefinition, Integer> quantity : quantities.entrySet()) {
+            int k = quantity.getValue();
+            Preconditions.checkArgument(k >= 0, "Quantity %s of generic definition %s is invalid", k, quantity.getKey());
+            if (k == 0) {
+                continue;
+            }
+            List<Good> licenses = new ArrayList<>(quantity.getKey().allLicenses());
+            Preconditions.checkArgument(k <= licenses.size(), "Quantity %s of generic definition %s exceeds its number of licenses",
+                    k, quantity.getKey());
+            // GenericSetsPickN picks the licenses in reversed order
+            Collections.reverse(licenses);
+            int[] definitionIds = new int[licenses.size()];
+            for (int i = 0; i < definitionIds.length; i++) {
+                Good license = licenses.get(i);
+                if (world == null) {
+                    world = license.getWorld();
+                } else if (license.getWorldId() != world.getId()) {
+                    throw new UnequalWorldsException("License " + license.getId() + " is not from world " + world.getId());
+                }
+                Preconditions.checkArgument(license.getId() >= 0 && license.getId() < Integer.MAX_VALUE, "License id %s is too large", license.getId());
+                definitionIds[i] = (int) license.getId();
+                maxId = Math.max(maxId, definitionIds[i]);
+            }
+            int[] maxima = new int[definitionIds.length];
+            Arrays.fill(maxima, 1);
+            ids.add(definitionIds);
+            picks.add(new BoundedCompositions(maxima, k));
+        }
+        Preconditions.checkArgument(!ids.isEmpty(), "Must define a strictly positive total quantity in the quantities map");
+        this.world = world;
+        this.numberOfWords = (maxId >> 6) + 1;
+        this.licenseIds = ids.toArray(new int[ids.size()][]);
+        this.picks = picks.toArray(new BoundedCompositions[picks.size()]);
+        this.radices = new long[this.picks.length];
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < radices.length; i++) {
+            // Also builds the tables for unranking, before the instance is published
+            radices[i] = this.picks[i].count();
+            product = product.multiply(BigInteger.valueOf(radices[i]));
+        }
+        this.count = product;
+        this.longCount = product.bitLength() < Long.SIZE ? product.longValue() : -1;
+    }
+
+    /**
+     * @return the number of consistent bundles
+     */
+    public BigInteger count() {
+        return count;
+    }
+
+    /**
+     * @return the world of the licenses
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @param index between 0 (inclusive) and {@link #count()} (exclusive)
+     * @return the consistent bundle at the passed position in the order of iteration
+     */
+    public BitSetBundle<T> get(long index) {
+        if (index < 0 || (longCount >= 0 && index >= longCount)) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds");
+        }
+        long[] words = new long[numberOfWords];
+        for (int i = 0; i < radices.length; i++) {
+            addPick(words, i, index % radices[i]);
+            index /= radices[i];
+        }
+        return BitSetBundle.ofWords(world, words);
+    }
+
+    /**
+     * @param index between 0 (inclusive) and {@link #count()} (exclusive)
+     * @return the consistent bundle at the passed position in the order of iteration
+     */
+    public BitSetBundle<T> get(BigInteger index) {
+        if (index.signum() < 0 || index.compareTo(count) >= 0) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds");
+        }
+        if (index.bitLength() < Long.SIZE) {
+            return get(index.longValue());
+        }
+        long[] words = new long[numberOfWords];
+        for (int i = 0; i < radices.length; i++) {
+            BigInteger[] quotientAndRemainder = index.divideAndRemainder(BigInteger.valueOf(radices[i]));
+            addPick(words, i, quotientAndRemainder[1].longValue());
+            index = quotientAndRemainder[0];
+        }
+        return BitSetBundle.ofWords(world, words);
+    }
+
+    private void addPick(long[] words, int definition, long rank) {
+        int[] pick = new int[licenseIds[definition].length];
+        picks[definition].unrank(rank, pick);
+        setBits(words, definition, pick);
+    }
+
+    /**
+     * Draws consistent bundles uniformly at random without replacement.
+     * Every prefix of the returned list is itself a uniform sample.
+     *
+     * @param numberOfBundles the number of bundles to draw
+     * @return the drawn bundles, in the order of drawing, or all consistent bundles if there are not more than numberOfBundles
+     */
+    public List<BitSetBundle<T>> sample(int numberOfBundles, UniformDistributionRNG rng) {
+        Preconditions.checkArgument(numberOfBundles >= 0);
+        UniqueRankSampler sampler = new UniqueRankSampler(count);
+        List<BitSetBundle<T>> result = new ArrayList<>();
+        while (result.size() < numberOfBundles && !sampler.isExhausted()) {
+            result.add(sampler.hasLongRanks() ? get(sampler.nextLong(rng)) : get(sampler.next(rng)));
+        }
+        return result;
+    }
+
+    /**
+     * @return an iterator over all consistent bundles, in the order of their index
+     */
+    @Override
+    public Iterator<BitSetBundle<T>> iterator() {
+        return new ExpansionIterator();
+    }
+
+    private void setBits(long[] words, int definition, int[] pick) {
+        int[] ids = licenseIds[definition];
+        for (int i = 0; i < pick.length; i++) {
+            if (pick[i] == 1) {
+                words[ids[i] >> 6] |= 1L << ids[i];
+            }
+        }
+    }
+
+    private void clearBits(long[] words, int definition, int[] pick) {
+        int[] ids = licenseIds[definition];
+        for (int i = 0; i < pick.length; i++) {
+            if (pick[i] == 1) {
+                words[ids[i] >> 6] &= ~(1L << ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Iterates like an odometer, keeping the current pick of every definition and the resulting bits
+     */
+    private final class ExpansionIterator implements Iterator<BitSetBundle<T>> {
+
+        private final int[][] currentPicks = new int[picks.length][];
+        private final long[] words = new long[numberOfWords];
+        private boolean hasNext = true;
+
+        private ExpansionIterator() {
+            for (int i = 0; i < picks.length; i++) {
+                currentPicks[i] = new int[licenseIds[i].length];
+                picks[i].first(currentPicks[i]);
+                setBits(words, i, currentPicks[i]);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public BitSetBundle<T> next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            BitSetBundle<T> result = BitSetBundle.ofWords(world, words);
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            for (int i = 0; i < picks.length; i++) {
+                clearBits(words, i, currentPicks[i]);
+                if (picks[i].next(currentPicks[i])) {
+                    setBits(words, i, currentPicks[i]);
+                    return;
+                }
+                // Start over with this definition and advance the next one
+                picks[i].first(currentPicks[i]);
+                setBits(words, i, currentPicks[i]);
+            }
+            hasNext = false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.xor;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.ValueOracle;
+
+import java.math.BigDecimal;
+
+/**
+ * Base class of the XOR languages, whose value queries can be answered by a {@link ValueOracle}.
+ *
+ * @author Michael Weiss
+ */
+public abstract class AbstractXORLanguage<T extends Good> implements XORLanguage<T> {
+
+    private ValueOracle<T> valueOracle;
+
+    @Override
+    public abstract Bidder<T> getBidder();
+
+    /**
+     * Answer all value queries of this language via the passed oracle, such that values of bundles
+     * which were already queried elsewhere are not recalculated.
+     *
+     * @param valueOracle an oracle wrapping the bidder of this language
+     */
+    public void setValueOracle(ValueOracle<T> valueOracle) {
+        Preconditions.checkArgument(valueOracle.getBidder() == getBidder(), "Oracle does not wrap the bidder of this language");
+        this.valueOracle = valueOracle;
+    }
+
+    /**
+     * @return the value of the bundle, as returned by the oracle, if one is set, or by the bidder otherwise
+     */
+    protected BigDecimal getValue(Bundle<T> bundle) {
+        return valueOracle == null ? getBidder().calculateValue(bundle) : valueOracle.calculateValue(bundle);
+    }
+
+    /**
+     * @see #getValue(Bundle)
+     */
+    protected BigDecimal getValue(BitSetBundle<T> bundle) {
+        return valueOracle == null ? getBidder().calculateValue(bundle) : valueOracle.calculateValue(bundle);
+    }
+}
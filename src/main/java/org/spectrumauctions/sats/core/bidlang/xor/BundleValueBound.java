@@ -0,0 +1,40 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.xor;
+
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Good;
+
+import java.math.BigDecimal;
+
+/**
+ * An upper bound on the values of a bidder, which allows {@link DecreasingValueOrderedXOR} to skip all bundles
+ * which can not be more valuable than the ones already found.<br>
+ * The bound is queried for the bundles which are obtained by removing any subset of the removable licenses from
+ * a given bundle. It is admissible if it is never below the value of any of these bundles.
+ *
+ * @author Michael Weiss
+ */
+@FunctionalInterface
+public interface BundleValueBound<T extends Good> {
+
+    /**
+     * @param bundle    the largest bundle under consideration
+     * @param removable the licenses of bundle which may be removed
+     * @param value     the value of bundle
+     * @return a value which is at least the value of every bundle between bundle minus removable and bundle
+     */
+    BigDecimal upperBound(BitSetBundle<T> bundle, BitSetBundle<T> removable, BigDecimal value);
+
+    /**
+     * The bound for monotone values (free disposal), where no bundle is more valuable than any of its supersets:
+     * The value of the largest bundle itself. This is the tightest admissible bound, and does not require
+     * any additional value query.
+     */
+    static <T extends Good> BundleValueBound<T> monotone() {
+        return (bundle, removable, value) -> value;
+    }
+}
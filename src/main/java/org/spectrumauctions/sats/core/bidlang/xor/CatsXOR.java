@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.cats.CATSAdjacencyIndex;
 import org.spectrumauctions.sats.core.model.cats.CATSBidder;
 import org.spectrumauctions.sats.core.model.cats.CATSLicense;
 import org.spectrumauctions.sats.core.model.cats.CATSWorld;
@@ -41,7 +42,7 @@ import java.util.stream.Collectors;
  *
  * @author Fabio Isler
  */
-public class CatsXOR implements XORLanguage<CATSLicense> {
+public class CatsXOR extends AbstractXORLanguage<CATSLicense> {
 
     private static final Logger logger = LogManager.getLogger(CatsXOR.class);
 
@@ -117,12 +118,57 @@ public class CatsXOR implements XORLanguage<CATSLicense> {
         private int retries;
         private boolean acceptNulls;
 
+        // The licenses are referred to by their position in the iteration order of goods, which determines the
+        // order in which they are weighted, and thus the result of a draw.
+        private final CATSLicense[] licenses;
+        private final int[] positionsById;
+        private final CATSAdjacencyIndex adjacencyIndex;
+        /** Indexed by position, the private value minus the minimal private value */
+        private final double[] weights;
+        private final double[] cumulativeWeights;
+
+        // State of the bundle under construction
+        private final boolean[] inBundle;
+        private final int[] bundlePositions;
+        private int bundleSize;
+        /** The positions of the licenses which are not in the bundle, but adjacent to a license in the bundle */
+        private final int[] frontier;
+        /** Indexed by position, the index in the frontier or -1 */
+        private final int[] frontierIndices;
+        private int frontierSize;
+        private final int[] sortedFrontier;
+        private final double[] frontierCumulativeWeights;
+
         CATSIterator(UniformDistributionRNG uniRng, boolean acceptNulls) {
             Preconditions.checkArgument(world.getLicenses().size() == goods.size());
             this.uniRng = uniRng;
             this.minValue = 1e10;
             this.retries = 0;
             this.acceptNulls = acceptNulls;
+            for (Map.Entry<Long, BigDecimal> entry : bidder.getPrivateValues().entrySet()) {
+                if (entry.getValue().doubleValue() < minValue) minValue = entry.getValue().doubleValue();
+            }
+
+            this.adjacencyIndex = world.getAdjacencyIndex();
+            this.licenses = goods.toArray(new CATSLicense[0]);
+            this.positionsById = new int[adjacencyIndex.getMaxId() + 1];
+            Arrays.fill(positionsById, -1);
+            this.weights = new double[licenses.length];
+            this.cumulativeWeights = new double[licenses.length];
+            double total = 0;
+            for (int position = 0; position < licenses.length; position++) {
+                positionsById[(int) licenses[position].getId()] = position;
+                weights[position] = bidder.getPrivateValues().get(licenses[position].getId()).doubleValue() - minValue;
+                total += weights[position];
+                cumulativeWeights[position] = total;
+            }
+            this.inBundle = new boolean[licenses.length];
+            this.bundlePositions = new int[licenses.length];
+            this.frontier = new int[licenses.length];
+            this.frontierIndices = new int[licenses.length];
+            Arrays.fill(frontierIndices, -1);
+            this.sortedFrontier = new int[licenses.length];
+            this.frontierCumulativeWeights = new double[licenses.length];
         }
 
         @Override
@@ -141,24 +187,18 @@ public class CatsXOR implements XORLanguage<CATSLicense> {
                 throw new NoSuchElementException();
 
             Bundle<CATSLicense> bundle = new Bundle<>();
-            for (Map.Entry<Long, BigDecimal> entry : bidder.getPrivateValues().entrySet()) {
-                if (entry.getValue().doubleValue() < minValue) minValue = entry.getValue().doubleValue();
-            }
+            clearBundle();
 
             if (originalLicenseQueue == null) {
                 // We didn't construct an original bid yet
-                WeightedRandomCollection<CATSLicense> weightedGoods = new WeightedRandomCollection<>(uniRng);
-                goods.forEach(g -> {
-                    double positivePrivateValue = (bidder.getPrivateValues().get(g.getId()).doubleValue() - minValue);
-                    weightedGoods.add(positivePrivateValue, g);
-                });
-                CATSLicense first = weightedGoods.next();
-                bundle.add(first);
+                int firstPosition = drawWeighted(cumulativeWeights, licenses.length);
+                CATSLicense first = firstPosition < 0 ? null : licenses[firstPosition];
+                addToBundle(bundle, first);
                 while (uniRng.nextDouble() <= world.getAdditionalLocation()) {
-                    bundle.add(selectLicenseToAdd(bundle));
+                    addToBundle(bundle, selectLicenseToAdd(bundle));
                 }
 
-                BigDecimal value = bidder.calculateValue(bundle);
+                BigDecimal value = getValue(bundle);
                 if (value.compareTo(BigDecimal.ZERO) < 0) return next(); // Restart bundle generation for this bidder
 
                 budget = world.getBudgetFactor() * value.doubleValue();
@@ -168,12 +208,12 @@ public class CatsXOR implements XORLanguage<CATSLicense> {
                 return new XORValue<>(bundle, value);
             } else {
                 CATSLicense first = originalLicenseQueue.poll();
-                bundle.add(first);
+                addToBundle(bundle, first);
                 while (bundle.size() < originalBundle.size()) {
                     CATSLicense toAdd = selectLicenseToAdd(bundle);
-                    if (toAdd != null) bundle.add(toAdd);
+                    if (toAdd != null) addToBundle(bundle, toAdd);
                 }
-                BigDecimal value = bidder.calculateValue(bundle);
+                BigDecimal value = getValue(bundle);
                 double resaleValue = bundle.stream().mapToDouble(CATSLicense::getCommonValue).sum();
                 if (value.doubleValue() >= 0 && value.doubleValue() <= budget
                         && resaleValue >= minResaleValue
@@ -204,37 +244,90 @@ public class CatsXOR implements XORLanguage<CATSLicense> {
         private CATSLicense selectLicenseToAdd(Bundle<CATSLicense> bundle) {
             if (uniRng.nextDouble() <= world.getJumpProbability()) {
                 if (goods.size() == bundle.size()) return null; // Prevent infinite loop if there is no other license
-                CATSLicense randomLicense;
+                int randomPosition;
                 do {
-                    Iterator<CATSLicense> iterator = goods.iterator();
-                    int index = uniRng.nextInt(goods.size());
-                    for (int i = 0; i < index; i++) {
-                        iterator.next();
-                    }
-                    randomLicense = iterator.next();
-                } while(bundle.contains(randomLicense));
+                    randomPosition = uniRng.nextInt(licenses.length);
+                } while (inBundle[randomPosition]);
 
-                return randomLicense;
+                return licenses[randomPosition];
             } else {
-                WeightedRandomCollection<CATSLicense> neighbors = new WeightedRandomCollection<>(uniRng);
-                // Filter the licenses that are not contained yet in the bundle and where there exists an edge to one
-                // of the licenses in the bundle.
-                goods.stream().filter(l -> !bundle.contains(l) && edgeExists(l, bundle))
-                        .forEach(g -> {
-                            double positivePrivateValue = bidder.getPrivateValues().get(g.getId()).doubleValue() - minValue;
-                            neighbors.add(positivePrivateValue, g);
-                        });
-                if (neighbors.hasNext()) return neighbors.next();
-                else return null;
+                // The licenses that are not contained yet in the bundle and where there exists an edge to one
+                // of the licenses in the bundle, weighted in the order of goods.
+                if (frontierSize == 0) return null;
+                System.arraycopy(frontier, 0, sortedFrontier, 0, frontierSize);
+                Arrays.sort(sortedFrontier, 0, frontierSize);
+                double total = 0;
+                for (int i = 0; i < frontierSize; i++) {
+                    total += weights[sortedFrontier[i]];
+                    frontierCumulativeWeights[i] = total;
+                }
+                int index = drawWeighted(frontierCumulativeWeights, frontierSize);
+                return index < 0 ? null : licenses[sortedFrontier[index]];
             }
         }
 
-        private boolean edgeExists(CATSLicense license, Bundle<CATSLicense> bundle) {
-            for (CATSLicense l : bundle) {
-                if (world.getGrid().isAdjacent(license.getVertex(), l.getVertex()))
-                    return true;
+        /**
+         * Draws an index with probability proportional to its weight, given the cumulative weights.<br>
+         * This is equivalent to putting the cumulative weights as keys into a {@link TreeMap} and taking the
+         * ceiling entry of a uniformly drawn value: Among indices with equal cumulative weights (i.e., zero weights),
+         * the last one is chosen, as its entry would have replaced the others.
+         *
+         * @return the drawn index, or -1 if no index could be drawn
+         */
+        private int drawWeighted(double[] cumulativeWeights, int length) {
+            double value = uniRng.nextDouble() * (length == 0 ? 0 : cumulativeWeights[length - 1]);
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulativeWeights[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
             }
-            return false;
+            if (low == length) return -1;
+            while (low + 1 < length && cumulativeWeights[low + 1] == cumulativeWeights[low]) {
+                low++;
+            }
+            return low;
+        }
+
+        private void addToBundle(Bundle<CATSLicense> bundle, CATSLicense license) {
+            if (license == null) return;
+            int position = positionsById[(int) license.getId()];
+            if (inBundle[position]) return;
+            bundle.add(license);
+            inBundle[position] = true;
+            bundlePositions[bundleSize++] = position;
+            removeFromFrontier(position);
+            for (int i = 0; i < adjacencyIndex.getDegree(license.getId()); i++) {
+                int adjacentPosition = positionsById[adjacencyIndex.getAdjacentId(license.getId(), i)];
+                if (adjacentPosition >= 0 && !inBundle[adjacentPosition] && frontierIndices[adjacentPosition] < 0) {
+                    frontierIndices[adjacentPosition] = frontierSize;
+                    frontier[frontierSize++] = adjacentPosition;
+                }
+            }
+        }
+
+        private void removeFromFrontier(int position) {
+            int index = frontierIndices[position];
+            if (index < 0) return;
+            int last = frontier[--frontierSize];
+            frontier[index] = last;
+            frontierIndices[last] = index;
+            frontierIndices[position] = -1;
+        }
+
+        private void clearBundle() {
+            for (int i = 0; i < bundleSize; i++) {
+                inBundle[bundlePositions[i]] = false;
+            }
+            for (int i = 0; i < frontierSize; i++) {
+                frontierIndices[frontier[i]] = -1;
+            }
+            bundleSize = 0;
+            frontierSize = 0;
         }
 
         private class NoValidElementFoundException extends Exception {
@@ -250,32 +343,4 @@ public class CatsXOR implements XORLanguage<CATSLicense> {
         }
     }
 
-    private class WeightedRandomCollection<T> implements Iterator<T> {
-        private final NavigableMap<Double, T> map = new TreeMap<>();
-        private final UniformDistributionRNG random;
-        private double total = 0;
-
-        private WeightedRandomCollection(UniformDistributionRNG random) {
-            this.random = random;
-        }
-
-        public void add(double weight, T result) {
-            total += weight;
-            map.put(total, result);
-        }
-
-        @Override
-        public boolean hasNext() {
-            return !map.isEmpty();
-        }
-
-        public T next() {
-            double value = random.nextDouble() * total;
-            Map.Entry<Double, T> entry = map.ceilingEntry(value);
-            if (entry == null)
-                return null;
-            return entry.getValue();
-        }
-    }
-
 }
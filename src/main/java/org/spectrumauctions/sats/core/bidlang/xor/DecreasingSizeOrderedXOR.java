@@ -6,7 +6,6 @@
 package org.spectrumauctions.sats.core.bidlang.xor;
 
 import org.spectrumauctions.sats.core.model.Bidder;
-import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 
 import java.math.BigInteger;
@@ -25,11 +24,11 @@ public class DecreasingSizeOrderedXOR<T extends Good> extends SizeOrderedXOR<T>
 
 
     @Override
-    public Iterator<XORValue<T>> iterator() {
+    protected Iterator<BigInteger> indexIterator() {
         return new DecreasingIterator();
     }
 
-    private class DecreasingIterator implements Iterator<XORValue<T>> {
+    private class DecreasingIterator implements Iterator<BigInteger> {
 
         BigInteger minIndex = BigInteger.ZERO;
         BigInteger index = BigInteger.valueOf(2).pow(DecreasingSizeOrderedXOR.this.goods.size()).subtract(BigInteger.ONE);
@@ -40,10 +39,10 @@ public class DecreasingSizeOrderedXOR<T extends Good> extends SizeOrderedXOR<T>
         }
 
         @Override
-        public XORValue<T> next() {
-            Bundle<T> bundle = DecreasingSizeOrderedXOR.this.getBundle(index);
+        public BigInteger next() {
+            BigInteger current = index;
             index = index.subtract(BigInteger.ONE);
-            return new XORValue<>(bundle, DecreasingSizeOrderedXOR.this.getValue(bundle));
+            return current;
         }
 
     }
@@ -0,0 +1,173 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.xor;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.World;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Returns the bundles of the bidder in non-increasing order of their values, such that the k most valuable
+ * bundles are found without enumerating all bundles.<br><br>
+ *
+ * The bundles are found by a best-first search: Starting from the bundle of all goods, every bundle is
+ * the root of the subtree of all bundles obtained by removing licenses which come after the last removed license
+ * (in the order of their ids). Every bundle is thus contained in exactly one subtree per level.
+ * Subtrees are expanded in the order of an admissible upper bound of their values (see {@link BundleValueBound}),
+ * hence a bundle is only returned once no subtree can contain a more valuable bundle.
+ * With the default, monotone bound, every returned bundle requires the valuation of at most one bundle per good.
+ *
+ * @author Michael Weiss
+ */
+public class DecreasingValueOrderedXOR<T extends Good> extends AbstractXORLanguage<T> {
+
+    private final List<T> goods;
+    private final Bidder<T> bidder;
+    private final BundleValueBound<T> bound;
+
+    /**
+     * Creates a language for bidders with monotone values (see {@link BundleValueBound#monotone()})
+     */
+    public DecreasingValueOrderedXOR(Collection<T> goods, Bidder<T> bidder) {
+        this(goods, bidder, BundleValueBound.monotone());
+    }
+
+    /**
+     * @param bound an admissible upper bound on the values of the bidder
+     */
+    public DecreasingValueOrderedXOR(Collection<T> goods, Bidder<T> bidder, BundleValueBound<T> bound) {
+        List<T> sortedGoods = new ArrayList<>(goods);
+        sortedGoods.sort(Comparator.comparingLong(Good::getId));
+        this.goods = Collections.unmodifiableList(sortedGoods);
+        this.bidder = bidder;
+        this.bound = bound;
+    }
+
+    @Override
+    public Bidder<T> getBidder() {
+        return bidder;
+    }
+
+    /**
+     * {@inheritDoc} All non-empty bundles of the goods are returned, the most valuable first.
+     * Bundles of equal value are returned in a deterministic order.
+     */
+    @Override
+    public Iterator<XORValue<T>> iterator() {
+        return new BestFirstIterator();
+    }
+
+    /**
+     * A subtree of the search, which is ordered before the subtrees with lower bounds.
+     * Once expanded, the same node represents its root bundle only, bounded by its value.
+     */
+    private static final class Node<T extends Good> {
+
+        private final BitSetBundle<T> bundle;
+        // The index of the first good which may be removed from the bundle
+        private final int firstRemovable;
+        private final BigDecimal value;
+        private BigDecimal key;
+        private boolean expanded;
+        // Makes the order of nodes with equal keys deterministic
+        private long sequenceNumber;
+
+        private Node(BitSetBundle<T> bundle, int firstRemovable, BigDecimal value) {
+            this.bundle = bundle;
+            this.firstRemovable = firstRemovable;
+            this.value = value;
+        }
+    }
+
+    private class BestFirstIterator implements Iterator<XORValue<T>> {
+
+        // Index i holds the good with index i, as a bundle
+        private final BitSetBundle<T>[] singletons;
+        // Index i holds the goods with index i or larger
+        private final BitSetBundle<T>[] suffixes;
+        private final PriorityQueue<Node<T>> queue = new PriorityQueue<>(
+                Comparator.<Node<T>, BigDecimal>comparing(node -> node.key).reversed()
+                        .thenComparingLong(node -> node.sequenceNumber));
+        private long pushed = 0;
+        private XORValue<T> next;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private BestFirstIterator() {
+            World world = bidder.getWorld();
+            singletons = new BitSetBundle[goods.size()];
+            suffixes = new BitSetBundle[goods.size() + 1];
+            suffixes[goods.size()] = BitSetBundle.empty();
+            for (int i = goods.size() - 1; i >= 0; i--) {
+                singletons[i] = BitSetBundle.ofIds(world, goods.get(i).getId());
+                suffixes[i] = suffixes[i + 1].union(singletons[i]);
+            }
+            if (!goods.isEmpty()) {
+                push(suffixes[0], 0);
+            }
+        }
+
+        private void push(BitSetBundle<T> bundle, int firstRemovable) {
+            Node<T> node = new Node<>(bundle, firstRemovable, getValue(bundle));
+            BitSetBundle<T> removable = bundle.intersection(suffixes[firstRemovable]);
+            node.key = bound.upperBound(bundle, removable, node.value);
+            Preconditions.checkState(node.key.compareTo(node.value) >= 0,
+                    "Bound %s is below the value %s of bundle %s", node.key, node.value, bundle);
+            enqueue(node);
+        }
+
+        private void enqueue(Node<T> node) {
+            node.sequenceNumber = pushed++;
+            queue.add(node);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = search();
+            }
+            return next != null;
+        }
+
+        @Override
+        public XORValue<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            XORValue<T> result = next;
+            next = null;
+            return result;
+        }
+
+        private XORValue<T> search() {
+            while (!queue.isEmpty()) {
+                Node<T> node = queue.poll();
+                if (node.expanded) {
+                    return new XORValue<>(node.bundle, node.value);
+                }
+                if (node.bundle.size() > 1) {
+                    for (int i = node.firstRemovable; i < goods.size(); i++) {
+                        if (node.bundle.containsId(goods.get(i).getId())) {
+                            push(node.bundle.difference(singletons[i]), i + 1);
+                        }
+                    }
+                }
+                if (node.value.compareTo(node.key) >= 0) {
+                    // No remaining subtree can contain a more valuable bundle
+                    return new XORValue<>(node.bundle, node.value);
+                }
+                node.expanded = true;
+                node.key = node.value;
+                enqueue(node);
+            }
+            return null;
+        }
+    }
+}
@@ -6,7 +6,6 @@
 package org.spectrumauctions.sats.core.bidlang.xor;
 
 import org.spectrumauctions.sats.core.model.Bidder;
-import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 
 import java.math.BigInteger;
@@ -25,11 +24,11 @@ public class IncreasingSizeOrderedXOR<T extends Good> extends SizeOrderedXOR<T>
 
 
     @Override
-    public Iterator<XORValue<T>> iterator() {
+    protected Iterator<BigInteger> indexIterator() {
         return new IncreasingIterator();
     }
 
-    private class IncreasingIterator implements Iterator<XORValue<T>> {
+    private class IncreasingIterator implements Iterator<BigInteger> {
 
         BigInteger index = BigInteger.ONE;
         BigInteger maxIntex = BigInteger.valueOf(2).pow(IncreasingSizeOrderedXOR.this.goods.size());
@@ -40,10 +39,10 @@ public class IncreasingSizeOrderedXOR<T extends Good> extends SizeOrderedXOR<T>
         }
 
         @Override
-        public XORValue<T> next() {
-            Bundle<T> bundle = IncreasingSizeOrderedXOR.this.getBundle(index);
+        public BigInteger next() {
+            BigInteger current = index;
             index = index.add(BigInteger.ONE);
-            return new XORValue<>(bundle, IncreasingSizeOrderedXOR.this.getValue(bundle));
+            return current;
         }
     }
 }
@@ -5,21 +5,20 @@
  */
 package org.spectrumauctions.sats.core.bidlang.xor;
 
-import com.google.common.math.BigIntegerMath;
+import com.google.common.collect.Iterators;
 import org.spectrumauctions.sats.core.bidlang.MissingInformationException;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
-import org.spectrumauctions.sats.core.util.random.GaussianDistributionRNG;
+import org.spectrumauctions.sats.core.util.math.CombinatorialNumberSystem;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
+import org.spectrumauctions.sats.core.util.random.UniqueRankSampler;
 
-import java.io.Serializable;
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.*;
 
-public class SizeBasedUniqueRandomXOR<T extends Good> implements XORLanguage<T> {
+public class SizeBasedUniqueRandomXOR<T extends Good> extends AbstractXORLanguage<T> {
     private int meanBundleSize = -1;
     private double standardDeviation = -1;
     private Collection<T> goods;
@@ -35,10 +34,6 @@ public class SizeBasedUniqueRandomXOR<T extends Good> implements XORLanguage<T>
         this.bidder = bidder;
     }
 
-    protected BigDecimal getValue(Bundle<T> goods) {
-        return bidder.calculateValue(goods);
-    }
-
     @Override
     public Bidder<T> getBidder() {
         return bidder;
@@ -61,8 +56,8 @@ public class SizeBasedUniqueRandomXOR<T extends Good> implements XORLanguage<T>
      * @param standardDeviation
      *            : The bundle size standard deviation
      * @param iterations
-     *            : The number of iterations before iterator.hasNext() returns false. Note that setting this parameter
-     *            too high will result in a slow iterator and possibly cause a StackOverflowException while iterating.
+     *            : The number of iterations before iterator.hasNext() returns false.
+     *            The iterator stops earlier if all non-empty bundles were returned.
      */
     public void setDistribution(int meanBundleSize, double standardDeviation, int iterations) {
         this.meanBundleSize = meanBundleSize;
@@ -71,125 +66,182 @@ public class SizeBasedUniqueRandomXOR<T extends Good> implements XORLanguage<T>
     }
 
     /**
-     * {@inheritDoc} Throws a {@link MissingInformationException} if the method
-     * {@link #setDistribution(int, double, int)} was not called before this operation.
+     * {@inheritDoc} If the method {@link #setDistribution(int, double, int)} was not called before this operation,
+     * the default distribution is used (see {@link #setDefaultDistribution()}).<br><br>
+     *
+     * The bundle sizes follow a normal distribution with the specified mean and standard deviation,
+     * truncated to the sizes of which not all bundles were returned yet, and normalized accordingly.
+     * Within a size, each bundle which was not returned yet is equally likely.
+     * Iterators of the same instance return the same sequence of bundles.
      */
     @Override
     public Iterator<XORValue<T>> iterator() {
+        return Iterators.transform(bundleIterator(), this::toXORValue);
+    }
+
+    /**
+     * {@inheritDoc} The bundles are drawn sequentially, exactly as by {@link #iterator()},
+     * but valued in the threads which traverse the split parts.
+     */
+    @Override
+    public Spliterator<XORValue<T>> spliterator() {
+        Iterator<Bundle<T>> bundles = bundleIterator();
+        return new ValuingSpliterator<>(bundles, this::toXORValue, iterations);
+    }
+
+    private Iterator<Bundle<T>> bundleIterator() {
         if (meanBundleSize < 0 || standardDeviation < 0 || iterations < 0) {
             setDefaultDistribution();
         }
-        return new ValueIterator(rngSupplier.getUniformDistributionRNG(seed),
-                rngSupplier.getGaussianDistributionRNG(seed + 1), meanBundleSize, standardDeviation, iterations);
+        return new BundleIterator(rngSupplier.getUniformDistributionRNG(seed), meanBundleSize, standardDeviation, iterations);
     }
 
-    private class BigIntegerComparator implements Comparator<BigInteger>, Serializable{
-        @Override
-        public int compare(BigInteger o1, BigInteger o2) {
-            return o1.compareTo(o2);
-        }
+    private XORValue<T> toXORValue(Bundle<T> bundle) {
+        return new XORValue<>(bundle, getValue(bundle));
     }
 
     /**
-     * @return a bigInteger between 0 and maxValue (both inclusive)
+     * Draws the bundles of one size uniformly without replacement, by their rank in the combinatorial number system
      */
-    private BigInteger randomBigInteger(BigInteger maxValue, long seed) {
-        Random rnd = new Random(seed);
-        BigInteger random;
-        do {
-            random = new BigInteger(maxValue.bitLength(), rnd);
-            // compare random number lessthan given number
-        } while (random.compareTo(maxValue) > 0);
-        return random;
+    private static final class RankSampler {
+
+        private final CombinatorialNumberSystem subsets;
+        private final int size;
+        private final UniqueRankSampler ranks;
+
+        private RankSampler(CombinatorialNumberSystem subsets, int size) {
+            this.subsets = subsets;
+            this.size = size;
+            if (subsets.fitsInLong(size)) {
+                this.ranks = new UniqueRankSampler(subsets.size(size));
+            } else {
+                this.ranks = new UniqueRankSampler(subsets.bigSize(size));
+            }
+        }
+
+        private boolean isExhausted() {
+            return ranks.isExhausted();
+        }
+
+        private int[] next(UniformDistributionRNG rng) {
+            if (ranks.hasLongRanks()) {
+                return subsets.unrank(ranks.nextLong(rng), size);
+            }
+            return subsets.unrank(ranks.next(rng), size);
+        }
     }
 
-    private class ValueIterator implements Iterator<XORValue<T>> {
-        final Map<Integer, SortedSet<BigInteger>> generatedBundleNumbers = new HashMap<>();
-        final List<BigInteger> remainingBundles;
-        final int numberOfGoods;
-        private final UniformDistributionRNG uniRng;
-        private final GaussianDistributionRNG gaussRng;
-        private final int meanBundleSize;
+    /**
+     * Draws the bundles without valuing them
+     */
+    private class BundleIterator implements Iterator<Bundle<T>> {
+        private final List<T> goodsList;
+        private final UniformDistributionRNG rng;
+        private final double meanBundleSize;
         private final double stdDeviation;
         private int remainingIterations;
-
-        public ValueIterator(UniformDistributionRNG uniRng, GaussianDistributionRNG gaussRng, int meanBundleSize,
-                             double stdDeviation, int iterations) {
-            this.uniRng = uniRng;
-            this.gaussRng = gaussRng;
-
+        // Index i holds the sampler for bundles of size i + 1
+        private final RankSampler[] samplers;
+        // Cumulative, normalized probabilities of the bundle sizes. Only updated when a size is exhausted.
+        private final double[] cumulativeProbabilities;
+        private boolean exhausted;
+
+        public BundleIterator(UniformDistributionRNG rng, int meanBundleSize, double stdDeviation, int iterations) {
+            this.rng = rng;
             this.meanBundleSize = meanBundleSize;
             this.stdDeviation = stdDeviation;
             this.remainingIterations = iterations;
 
-            numberOfGoods = SizeBasedUniqueRandomXOR.this.goods.size();
-            remainingBundles = new ArrayList<>(numberOfGoods - 1);
-            while (remainingBundles.size() < numberOfGoods - 1)
-                remainingBundles.add(BigInteger.ZERO);
-
-            // TODO To fasten things up, use the symmetry properties of binomial coefficient (symmetric pyramid of
-            // values), saving half of calculations.
+            goodsList = new ArrayList<>(new Bundle<>(goods));
+            int numberOfGoods = goodsList.size();
+            CombinatorialNumberSystem subsets = new CombinatorialNumberSystem(numberOfGoods);
+            samplers = new RankSampler[numberOfGoods];
             for (int bundleSize = 1; bundleSize <= numberOfGoods; bundleSize++) {
-                generatedBundleNumbers.put(bundleSize, new TreeSet<>(new BigIntegerComparator()));
-                BigInteger numberOfBundles = BigIntegerMath.binomial(numberOfGoods, bundleSize);
-                remainingBundles.add(bundleSize - 1, numberOfBundles);
+                samplers[bundleSize - 1] = new RankSampler(subsets, bundleSize);
             }
+            cumulativeProbabilities = new double[numberOfGoods];
+            updateSizeProbabilities();
+        }
 
+        /**
+         * Evaluates the (unnormalized) gaussian density for all non-exhausted sizes, relative to the density of
+         * the non-exhausted size closest to the mean, such that the weights can not all underflow to zero.
+         */
+        private void updateSizeProbabilities() {
+            int closest = -1;
+            for (int i = 0; i < samplers.length; i++) {
+                if (!samplers[i].isExhausted()
+                        && (closest < 0 || Math.abs(i + 1 - meanBundleSize) < Math.abs(closest + 1 - meanBundleSize))) {
+                    closest = i;
+                }
+            }
+            exhausted = closest < 0;
+            if (exhausted) {
+                return;
+            }
+            double closestExponent = exponent(closest + 1);
+            double sum = 0;
+            for (int i = 0; i < samplers.length; i++) {
+                double weight;
+                if (samplers[i].isExhausted()) {
+                    weight = 0;
+                } else if (i == closest) {
+                    weight = 1;
+                } else {
+                    weight = Math.exp(exponent(i + 1) - closestExponent);
+                }
+                sum += weight;
+                cumulativeProbabilities[i] = sum;
+            }
+            for (int i = 0; i < cumulativeProbabilities.length; i++) {
+                cumulativeProbabilities[i] /= sum;
+            }
+        }
+
+        private double exponent(int bundleSize) {
+            double distance = bundleSize - meanBundleSize;
+            if (stdDeviation == 0) {
+                return distance == 0 ? 0 : Double.NEGATIVE_INFINITY;
+            }
+            return -distance * distance / (2 * stdDeviation * stdDeviation);
+        }
+
+        private RankSampler nextSampler() {
+            double random = rng.nextDouble();
+            for (int i = 0; i < cumulativeProbabilities.length; i++) {
+                if (random < cumulativeProbabilities[i] && !samplers[i].isExhausted()) {
+                    return samplers[i];
+                }
+            }
+            // Rounding errors: use the largest non-exhausted size
+            for (int i = samplers.length - 1; ; i--) {
+                if (!samplers[i].isExhausted()) {
+                    return samplers[i];
+                }
+            }
         }
 
         @Override
         public boolean hasNext() {
-            return remainingIterations > 0;
+            return remainingIterations > 0 && !exhausted;
         }
 
         @Override
-        public XORValue<T> next() {
-            // Check if bundles available and update remaining number of bundles
+        public Bundle<T> next() {
             if (!hasNext())
                 throw new NoSuchElementException();
             remainingIterations--;
 
-            return recNext();
-        }
-
-        private XORValue<T> recNext() {
-
-            // Determine Bundle Size. TODO: This has to be done nicer, avoiding picking a nonexisting/nonavailable size
-            int bundleSize = (int) Math.round(gaussRng.nextGaussian(meanBundleSize, standardDeviation));
-            if (bundleSize < 1 || bundleSize > goods.size())
-                return recNext();
-
-            BigInteger remainingBundlesOfThisSize = remainingBundles.get(bundleSize - 1);
-
-            // Check if Bundle out of feasible range (bigger than available items or size <= 0), If so, recurse.
-            if (remainingBundlesOfThisSize == null) {
-                return recNext();
-            }
-
-            // Check if bundles of this size are available
-            if (remainingBundlesOfThisSize.compareTo(BigInteger.ZERO) <= 0) {
-                return recNext();
+            RankSampler sampler = nextSampler();
+            int[] indices = sampler.next(rng);
+            if (sampler.isExhausted()) {
+                updateSizeProbabilities();
             }
-
-            // determine bundle id
-            BigInteger bundleId = randomBigInteger(remainingBundlesOfThisSize, uniRng.nextLong());
-            for (BigInteger previouslyGeneratedIndex : generatedBundleNumbers.get(bundleSize)) {
-                if (bundleId.compareTo(previouslyGeneratedIndex) >= 0) {
-                    bundleId = bundleId.add(BigInteger.ONE);
-                } else {
-                    // We can break as the list is sorted
-                    break;
-                }
+            Bundle<T> bundle = new Bundle<>();
+            for (int index : indices) {
+                bundle.add(goodsList.get(index));
             }
-            // Update index info
-            generatedBundleNumbers.get(bundleSize).add(bundleId);
-            BigInteger newlyAvailable = remainingBundles.remove(bundleSize - 1).subtract(BigInteger.ONE);
-            remainingBundles.add(bundleSize - 1, newlyAvailable);
-
-            // Return result
-            SizeOrderedXOR<T> sizeOrderedXOR = new IncreasingSizeOrderedXOR<>(new Bundle<>(goods), getBidder());
-            Bundle<T> bundle = sizeOrderedXOR.getBundle(bundleId, bundleSize);
-            return new XORValue<>(bundle, getValue(bundle));
+            return bundle;
         }
     }
 
@@ -5,20 +5,23 @@
  */
 package org.spectrumauctions.sats.core.bidlang.xor;
 
+import com.google.common.collect.Iterators;
 import com.google.common.math.BigIntegerMath;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 
-public abstract class SizeOrderedXOR<T extends Good> implements XORLanguage<T> {
+public abstract class SizeOrderedXOR<T extends Good> extends AbstractXORLanguage<T> {
 
     private static final Logger logger = LogManager.getLogger(SizeOrderedXOR.class);
 
@@ -54,8 +57,30 @@ public abstract class SizeOrderedXOR<T extends Good> implements XORLanguage<T> {
         return result;
     }
 
-    protected BigDecimal getValue(Bundle bundle) {
-        return getBidder().calculateValue(bundle);
+    @Override
+    public Iterator<XORValue<T>> iterator() {
+        return Iterators.transform(indexIterator(), this::toXORValue);
+    }
+
+    /**
+     * {@inheritDoc} The indices of the bundles are enumerated sequentially, whereas the bundles are
+     * created and valued in the threads which traverse the split parts.
+     */
+    @Override
+    public Spliterator<XORValue<T>> spliterator() {
+        BigInteger numberOfBundles = BigInteger.ONE.shiftLeft(goods.size()).subtract(BigInteger.ONE);
+        long estimatedSize = numberOfBundles.bitLength() < Long.SIZE ? numberOfBundles.longValue() : Long.MAX_VALUE;
+        return new ValuingSpliterator<>(indexIterator(), this::toXORValue, estimatedSize);
+    }
+
+    /**
+     * @return the indices (see {@link #getBundle(BigInteger)}) of the bundles, in the order of iteration
+     */
+    protected abstract Iterator<BigInteger> indexIterator();
+
+    private XORValue<T> toXORValue(BigInteger index) {
+        Bundle<T> bundle = getBundle(index);
+        return new XORValue<>(bundle, getValue(bundle));
     }
 
     /**
@@ -4,6 +4,7 @@ package org.spectrumauctions.sats.core.bidlang.xor;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.core.model.UnequalWorldsException;
+import org.spectrumauctions.sats.core.model.World;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,6 +29,14 @@ public final class XORBid<T extends Good> {
      */
     private void validate() {
         for (XORValue<T> value : values) {
+            if (value.isCompact()) {
+                // Avoid materializing the bundle, a BitSetBundle only contains goods of its world
+                World world = value.getCompactLicenses().getWorld();
+                if (world != null && !bidder.getWorld().equals(world)) {
+                    throw new UnequalWorldsException("bidder and good are not from the same world");
+                }
+                continue;
+            }
             for (T good : value.getLicenses()) {
                 if (!bidder.getWorld().equals(good.getWorld())) {
                     throw new UnequalWorldsException("bidder and good are not from the same world");
@@ -6,12 +6,35 @@
 package org.spectrumauctions.sats.core.bidlang.xor;
 
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliterator;
 import org.spectrumauctions.sats.core.model.Good;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface XORLanguage<T extends Good> extends BiddingLanguage {
 
     Iterator<XORValue<T>> iterator();
 
+    /**
+     * The bids of {@link #iterator()}, in the same order, as a spliterator which can be traversed in parallel.<br>
+     * Languages which generate their bundles independently of their values override this method,
+     * such that the bundles are valued in the threads traversing the split parts (see {@link ValuingSpliterator}).
+     * By default, all bids are generated and valued in the splitting thread.
+     */
+    default Spliterator<XORValue<T>> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * @param parallel if true, the bids are valued in parallel where supported (see {@link #spliterator()})
+     * @return a stream of the bids, with the encounter order of {@link #iterator()}
+     */
+    default Stream<XORValue<T>> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
 }
@@ -5,21 +5,25 @@
  */
 package org.spectrumauctions.sats.core.bidlang.xor;
 
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class XORValue<T extends Good> implements Comparable<XORValue<T>> {
 
     private transient final int id;
-    private static int ID_COUNT = 0;
+    private static final AtomicInteger ID_COUNT = new AtomicInteger();
 
     private static int getNextId() {
-        return ID_COUNT++;
+        return ID_COUNT.getAndIncrement();
     }
 
     private Bundle<T> licenses;
+    // Lazily created from the other representation if only one of them is passed
+    private transient BitSetBundle<T> compactLicenses;
     private BigDecimal value;
 
     @Deprecated
@@ -35,12 +39,48 @@ public class XORValue<T extends Good> implements Comparable<XORValue<T>> {
         this.id = getNextId();
     }
 
+    /**
+     * Creates a new XORValue without materializing a {@link Bundle}.
+     * The bundle is only created if {@link #getLicenses()} is called.
+     */
+    public XORValue(BitSetBundle<T> licenses, BigDecimal value) {
+        this.compactLicenses = licenses;
+        this.value = value;
+        this.id = getNextId();
+    }
+
     public Bundle<T> getLicenses() {
+        if (licenses == null && compactLicenses != null) {
+            licenses = compactLicenses.toBundle();
+        }
         return licenses;
     }
 
+    /**
+     * @return the licenses of this XORValue as a {@link BitSetBundle}
+     */
+    public BitSetBundle<T> getCompactLicenses() {
+        if (compactLicenses == null && licenses != null) {
+            compactLicenses = BitSetBundle.of(licenses);
+        }
+        return compactLicenses;
+    }
+
+    /**
+     * @return true if the licenses of this value have not (yet) been materialized as {@link Bundle}
+     */
+    boolean isCompact() {
+        return licenses == null && compactLicenses != null;
+    }
+
     public void setLicenses(Bundle<T> licenses) {
         this.licenses = licenses;
+        this.compactLicenses = null;
+    }
+
+    public void setLicenses(BitSetBundle<T> licenses) {
+        this.compactLicenses = licenses;
+        this.licenses = null;
     }
 
     @Deprecated
@@ -0,0 +1,164 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solves demand queries for value functions which only depend on the number of licenses per band,
+ * i.e., where all licenses of a band are perfect substitutes (e.g. SRVM and BVM).
+ * The value function has to be of the form<br>
+ * <code>value(q) = synergy(q) * sum over all bands b of bandValue(b, q_b)</code>,<br>
+ * where <code>synergy(q)</code> is an interband synergy factor if licenses of at least two bands are chosen,
+ * and 1 otherwise.<br><br>
+ *
+ * Within a band, the cheapest licenses are chosen. The optimal quantities are then found by considering
+ * the best single band, and the best combination of at least two bands, where the contribution of every band
+ * (synergy times band value minus price) can be maximized independently.
+ * The running time is linear in the number of licenses, up to sorting the licenses by price.<br><br>
+ *
+ * Calculations are done with doubles. Hence, if multiple bundles have almost the same utility,
+ * the returned bundle may be suboptimal by the floating-point error of the band values.
+ *
+ * @author Michael Weiss
+ */
+public final class BandDemandQuery {
+
+    private BandDemandQuery() {
+    }
+
+    /**
+     * @param licensesPerBand  the licenses of every band
+     * @param bandValues       indexed by band and quantity, where the value of quantity 0 is 0
+     * @param interbandSynergy the factor with which the sum of band values is multiplied
+     *                         if licenses of at least two bands are chosen (1 if there are no interband synergies)
+     * @param prices           the price of every license
+     * @return the demanded bundle
+     */
+    public static <T extends Good> Bundle<T> demandedBundle(List<? extends List<? extends T>> licensesPerBand,
+                                                            double[][] bandValues, double interbandSynergy,
+                                                            Map<T, BigDecimal> prices) {
+        Preconditions.checkArgument(licensesPerBand.size() == bandValues.length);
+        int numberOfBands = licensesPerBand.size();
+        List<List<T>> sortedLicenses = new ArrayList<>(numberOfBands);
+        double[][] costs = new double[numberOfBands][];
+        for (int band = 0; band < numberOfBands; band++) {
+            List<T> licenses = new ArrayList<>(licensesPerBand.get(band));
+            for (T license : licenses) {
+                Preconditions.checkArgument(prices.containsKey(license), "No price for license %s", license.getId());
+            }
+            licenses.sort(Comparator.<T>comparingDouble(license -> prices.get(license).doubleValue())
+                    .thenComparingLong(Good::getId));
+            sortedLicenses.add(licenses);
+            Preconditions.checkArgument(bandValues[band].length > licenses.size());
+            costs[band] = new double[licenses.size() + 1];
+            for (int quantity = 1; quantity <= licenses.size(); quantity++) {
+                costs[band][quantity] = costs[band][quantity - 1] + prices.get(licenses.get(quantity - 1)).doubleValue();
+            }
+        }
+
+        int[] quantities = new int[numberOfBands];
+        if (interbandSynergy == 1) {
+            // Additive over bands
+            for (int band = 0; band < numberOfBands; band++) {
+                int quantity = bestQuantity(bandValues[band], costs[band], 1);
+                if (contribution(bandValues[band], costs[band], 1, quantity) > 0) {
+                    quantities[band] = quantity;
+                }
+            }
+            return toBundle(sortedLicenses, quantities);
+        }
+
+        // Licenses of at most one band
+        int bestSingleBand = -1;
+        int bestSingleQuantity = 0;
+        double bestSingleUtility = 0;
+        for (int band = 0; band < numberOfBands; band++) {
+            int quantity = bestQuantity(bandValues[band], costs[band], 1);
+            double utility = contribution(bandValues[band], costs[band], 1, quantity);
+            if (utility > bestSingleUtility) {
+                bestSingleBand = band;
+                bestSingleQuantity = quantity;
+                bestSingleUtility = utility;
+            }
+        }
+
+        // Licenses of at least two bands, each band contributing independently
+        double bestMultiUtility = Double.NEGATIVE_INFINITY;
+        int[] multiQuantities = new int[numberOfBands];
+        if (numberOfBands >= 2) {
+            double[] gains = new double[numberOfBands];
+            List<Integer> bands = new ArrayList<>();
+            for (int band = 0; band < numberOfBands; band++) {
+                multiQuantities[band] = bestQuantity(bandValues[band], costs[band], interbandSynergy);
+                gains[band] = contribution(bandValues[band], costs[band], interbandSynergy, multiQuantities[band]);
+                if (multiQuantities[band] > 0) {
+                    bands.add(band);
+                }
+            }
+            bands.sort(Comparator.comparingDouble(band -> -gains[band]));
+            if (bands.size() >= 2) {
+                bestMultiUtility = 0;
+                for (int i = 0; i < bands.size(); i++) {
+                    int band = bands.get(i);
+                    // At least two bands are chosen, even if their contribution is negative
+                    if (i < 2 || gains[band] > 0) {
+                        bestMultiUtility += gains[band];
+                    } else {
+                        multiQuantities[band] = 0;
+                    }
+                }
+                for (int band = 0; band < numberOfBands; band++) {
+                    if (!bands.contains(band)) {
+                        multiQuantities[band] = 0;
+                    }
+                }
+            }
+        }
+
+        if (bestMultiUtility > bestSingleUtility) {
+            return toBundle(sortedLicenses, multiQuantities);
+        } else if (bestSingleBand >= 0) {
+            quantities[bestSingleBand] = bestSingleQuantity;
+        }
+        return toBundle(sortedLicenses, quantities);
+    }
+
+    /**
+     * @return the positive quantity maximizing factor * value - cost, the smallest one in case of ties,
+     * or 0 if the band has no licenses
+     */
+    private static int bestQuantity(double[] values, double[] costs, double factor) {
+        int best = 0;
+        double bestContribution = Double.NEGATIVE_INFINITY;
+        for (int quantity = 1; quantity < costs.length; quantity++) {
+            double contribution = contribution(values, costs, factor, quantity);
+            if (contribution > bestContribution) {
+                best = quantity;
+                bestContribution = contribution;
+            }
+        }
+        return best;
+    }
+
+    private static double contribution(double[] values, double[] costs, double factor, int quantity) {
+        return factor * values[quantity] - costs[quantity];
+    }
+
+    private static <T extends Good> Bundle<T> toBundle(List<List<T>> sortedLicenses, int[] quantities) {
+        Bundle<T> bundle = new Bundle<>();
+        for (int band = 0; band < quantities.length; band++) {
+            bundle.addAll(sortedLicenses.get(band).subList(0, quantities[band]));
+        }
+        return bundle;
+    }
+}
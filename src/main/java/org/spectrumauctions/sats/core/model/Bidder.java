@@ -15,6 +15,13 @@ import java.util.Date;
 public abstract class Bidder<G extends Good> implements Serializable {
 
     private static final long serialVersionUID = 3424512863538320455L;
+
+    /**
+     * The maximal relative error of {@link #calculateValueFast(BitSetBundle)}, i.e., for every bundle
+     * <code>|calculateValueFast(b) - calculateValue(b)| &lt;= FAST_VALUE_RELATIVE_ERROR * max(1, |calculateValue(b)|)</code>
+     */
+    public static final double FAST_VALUE_RELATIVE_ERROR = 1e-9;
+
     private final String setupType;
     private final long population;
     private final long id;
@@ -64,6 +71,39 @@ public abstract class Bidder<G extends Good> implements Serializable {
      */
     public abstract BigDecimal calculateValue(Bundle<G> bundle);
 
+    /**
+     * Returns the value this bidder has for a compact bundle.<br>
+     * The default implementation converts the bundle into a {@link Bundle}.
+     * Bidders of models for which the value can be computed directly on the license ids override this method.
+     *
+     * @param bundle the bundle for which the value is asked
+     * @return bidder specific value for this bundle, equal to the value of the corresponding {@link Bundle}
+     */
+    public BigDecimal calculateValue(BitSetBundle<G> bundle) {
+        return calculateValue(bundle.toBundle());
+    }
+
+    /**
+     * Returns an approximation of {@link #calculateValue(Bundle)}, calculated with primitive double arithmetic.<br>
+     * The result deviates from the exact value by at most {@link #FAST_VALUE_RELATIVE_ERROR} (relative to the exact value, or absolute
+     * for values smaller than 1).<br><br>
+     * The default implementation falls back to the exact calculation. Bidders of the implemented models override this method
+     * and evaluate the bundle on primitive lookup tables, which are built on the first call.
+     *
+     * @param bundle the bundle for which the value is asked
+     * @return approximate bidder specific value for this bundle
+     */
+    public double calculateValueFast(BitSetBundle<G> bundle) {
+        return calculateValue(bundle).doubleValue();
+    }
+
+    /**
+     * @see #calculateValueFast(BitSetBundle)
+     */
+    public double calculateValueFast(Bundle<G> bundle) {
+        return calculateValueFast(BitSetBundle.of(bundle));
+    }
+
     /**
      * Use this method to get a desired value function representation (bidding language)
      * for this bidder.
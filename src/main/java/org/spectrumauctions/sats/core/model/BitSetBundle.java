@@ -0,0 +1,347 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, compact alternative to {@link Bundle}.<br>
+ * The licenses are stored as bits in a <code>long[]</code>, where bit <i>i</i> is set iff the license
+ * with id <i>i</i> of the world is part of the bundle.
+ * Set operations, equality and hashing hence only need one pass over the words, and no objects are
+ * allocated per license.<br><br>
+ *
+ * Like {@link Bundle}, the world is determined by the first license added.
+ * An empty instance may thus have no world attached.
+ *
+ * @author Michael Weiss
+ */
+public final class BitSetBundle<T extends Good> implements Iterable<T> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final long[] NO_WORDS = new long[0];
+
+    private final World world;
+    // Never contains trailing zero-words, which allows to use Arrays.equals and Arrays.hashCode
+    private final long[] words;
+    private final int size;
+    private final int hashCode;
+
+    private BitSetBundle(World world, long[] words) {
+        this.words = trim(words);
+        this.world = this.words.length == 0 ? null : world;
+        int count = 0;
+        for (long word : this.words) {
+            count += Long.bitCount(word);
+        }
+        this.size = count;
+        this.hashCode = Arrays.hashCode(this.words);
+    }
+
+    /**
+     * @return an empty bundle without world
+     */
+    public static <T extends Good> BitSetBundle<T> empty() {
+        return new BitSetBundle<>(null, NO_WORDS);
+    }
+
+    /**
+     * Creates a compact representation of the passed bundle
+     */
+    public static <T extends Good> BitSetBundle<T> of(Bundle<T> bundle) {
+        return of(bundle.getWorld(), bundle);
+    }
+
+    /**
+     * Creates a new bundle containing the passed licenses
+     *
+     * @param world the world of the licenses, may be null if there are no licenses
+     * @param licenses the licenses, all of which have to be from the passed world
+     * @throws UnequalWorldsException if a license is not from the passed world
+     */
+    public static <T extends Good> BitSetBundle<T> of(World world, Collection<? extends T> licenses) {
+        if (licenses.isEmpty()) {
+            return empty();
+        }
+        Preconditions.checkNotNull(world);
+        long maxId = -1;
+        for (T license : licenses) {
+            maxId = Math.max(maxId, license.getId());
+        }
+        long[] words = new long[wordIndex(checkId(maxId)) + 1];
+        for (T license : licenses) {
+            if (license.getWorldId() != world.getId()) {
+                throw new UnequalWorldsException("License " + license.getId() + " is not from world " + world.getId());
+            }
+            int id = checkId(license.getId());
+            words[wordIndex(id)] |= 1L << id;
+        }
+        return new BitSetBundle<>(world, words);
+    }
+
+    /**
+     * Creates a new bundle from license ids
+     *
+     * @param world the world in which the ids are defined
+     * @param licenseIds the ids of the licenses to include
+     * @throws IllegalArgumentException if the world has no license with one of the ids
+     */
+    public static <T extends Good> BitSetBundle<T> ofIds(World world, long... licenseIds) {
+        if (licenseIds.length == 0) {
+            return empty();
+        }
+        Preconditions.checkNotNull(world);
+        long maxId = -1;
+        for (long licenseId : licenseIds) {
+            maxId = Math.max(maxId, licenseId);
+        }
+        long[] words = new long[wordIndex(checkId(maxId)) + 1];
+        for (long licenseId : licenseIds) {
+            int id = checkId(licenseId);
+            // Throws if there is no such license
+            world.getLicenseById(id);
+            words[wordIndex(id)] |= 1L << id;
+        }
+        return new BitSetBundle<>(world, words);
+    }
+
+    /**
+     * Creates a new bundle from the words of a bit set, i.e., bit <i>i % 64</i> of word <i>i / 64</i> is set iff the
+     * license with id <i>i</i> is part of the bundle (see {@link java.util.BitSet#toLongArray()}).<br>
+     * The ids are not checked against the world, which allows to efficiently create many bundles of licenses
+     * which are known to be part of the world.
+     *
+     * @param world the world in which the ids are defined, may be null if no bit is set
+     * @param words the bits, which are copied
+     */
+    public static <T extends Good> BitSetBundle<T> ofWords(World world, long[] words) {
+        long[] copy = trim(words);
+        if (copy.length == 0) {
+            return empty();
+        }
+        Preconditions.checkNotNull(world);
+        return new BitSetBundle<>(world, copy == words ? words.clone() : copy);
+    }
+
+    private static int checkId(long licenseId) {
+        Preconditions.checkArgument(licenseId >= 0 && licenseId < Integer.MAX_VALUE, "License id %s can not be stored in a BitSetBundle", licenseId);
+        return (int) licenseId;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static long[] trim(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return length == words.length ? words : Arrays.copyOf(words, length);
+    }
+
+    /**
+     * @return the world of the licenses in this bundle, or null if the bundle is empty
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of words used to store this bundle
+     */
+    int wordCount() {
+        return words.length;
+    }
+
+    public boolean containsId(long licenseId) {
+        if (licenseId < 0 || licenseId >= (long) words.length << ADDRESS_BITS_PER_WORD) {
+            return false;
+        }
+        int id = (int) licenseId;
+        return (words[wordIndex(id)] & (1L << id)) != 0;
+    }
+
+    public boolean contains(Good license) {
+        return world != null && license.getWorldId() == world.getId() && containsId(license.getId());
+    }
+
+    /**
+     * Allows to iterate over the license ids without any allocation:<br>
+     * <code>for (int id = b.nextSetId(0); id >= 0; id = b.nextSetId(id + 1))</code>
+     *
+     * @return the smallest license id in this bundle which is greater or equal to fromId, or -1 if there is none
+     */
+    public int nextSetId(int fromId) {
+        Preconditions.checkArgument(fromId >= 0);
+        int wordIndex = wordIndex(fromId);
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+        long word = words[wordIndex] & (-1L << fromId);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * @return the ids of the licenses in this bundle, in increasing order
+     */
+    public int[] licenseIds() {
+        int[] ids = new int[size];
+        int i = 0;
+        for (int id = nextSetId(0); id >= 0; id = nextSetId(id + 1)) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    public BitSetBundle<T> union(BitSetBundle<T> other) {
+        World resultWorld = commonWorld(other);
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = Arrays.copyOf(longer, longer.length);
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] |= shorter[i];
+        }
+        return new BitSetBundle<>(resultWorld, result);
+    }
+
+    public BitSetBundle<T> intersection(BitSetBundle<T> other) {
+        World resultWorld = commonWorld(other);
+        long[] result = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new BitSetBundle<>(resultWorld, result);
+    }
+
+    /**
+     * @return a bundle containing all licenses of this bundle which are not in the other bundle
+     */
+    public BitSetBundle<T> difference(BitSetBundle<T> other) {
+        World resultWorld = commonWorld(other);
+        long[] result = Arrays.copyOf(words, words.length);
+        for (int i = 0; i < Math.min(result.length, other.words.length); i++) {
+            result[i] &= ~other.words[i];
+        }
+        return new BitSetBundle<>(resultWorld, result);
+    }
+
+    public boolean intersects(BitSetBundle<T> other) {
+        commonWorld(other);
+        for (int i = 0; i < Math.min(words.length, other.words.length); i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSubsetOf(BitSetBundle<T> other) {
+        commonWorld(other);
+        if (words.length > other.words.length) {
+            return false;
+        }
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & ~other.words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private World commonWorld(BitSetBundle<T> other) {
+        if (world == null) {
+            return other.world;
+        } else if (other.world != null && world.getId() != other.world.getId()) {
+            throw new UnequalWorldsException("Bundles are not from the same world");
+        }
+        return world;
+    }
+
+    /**
+     * @return a new {@link Bundle} containing the same licenses as this bundle
+     */
+    @SuppressWarnings("unchecked")
+    public Bundle<T> toBundle() {
+        Bundle<T> bundle = new Bundle<>();
+        for (int id = nextSetId(0); id >= 0; id = nextSetId(id + 1)) {
+            bundle.add((T) world.getLicenseById(id));
+        }
+        return bundle;
+    }
+
+    /**
+     * Iterates over the licenses in this bundle, ordered by increasing id (i.e., in the same order as a {@link Bundle})
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int next = nextSetId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                T license = (T) world.getLicenseById(next);
+                next = nextSetId(next + 1);
+                return license;
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof BitSetBundle<?>))
+            return false;
+        BitSetBundle<?> other = (BitSetBundle<?>) obj;
+        if (size != other.size || hashCode != other.hashCode)
+            return false;
+        if (world != null && world.getId() != other.world.getId())
+            return false;
+        return Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public String toString() {
+        return "BitSetBundle" + Arrays.toString(licenseIds());
+    }
+}
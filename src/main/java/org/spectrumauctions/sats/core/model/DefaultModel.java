@@ -50,6 +50,44 @@ public abstract class DefaultModel<W extends World, B extends Bidder<? extends G
      */
     public abstract List<B> createPopulation(W world, RNGSupplier populationRNG);
 
+    /**
+     * Creates a new set of {@link Bidder} instances, constructed by the passed generator.<br>
+     * Models which do not override this method only support {@link PopulationGenerator#DEFAULT}.
+     * @param world the {@link World} for which the bidders are created
+     * @param populationRNG a rng supplier for the creation of random bidder parameters
+     * @param generator defines how the bidders are constructed, e.g. in parallel
+     * @return a new set of bidders
+     */
+    public List<B> createPopulation(W world, RNGSupplier populationRNG, PopulationGenerator generator) {
+        if (generator != PopulationGenerator.DEFAULT) {
+            throw new UnsupportedOperationException("This model does not support custom population generators");
+        }
+        return createPopulation(world, populationRNG);
+    }
+
+    /**
+     * Creates a new set of {@link Bidder} instances, constructed by the passed generator
+     * @param world The world for which the bidders are created
+     * @param populationSeed A seed for random creation of bidder parameters
+     * @param generator defines how the bidders are constructed, e.g. in parallel
+     * @return a new set of bidders
+     */
+    public List<B> createPopulation(W world, long populationSeed, PopulationGenerator generator) {
+        return createPopulation(world, new JavaUtilRNGSupplier(populationSeed), generator);
+    }
+
+    /**
+     * Creates multiple independent {@link World} instances with one population each
+     * @param numberOfInstances the number of instances to create
+     * @param seed the seed from which the seeds of all instances are derived
+     * @param generator defines how the instances are created, e.g. in parallel
+     * @return the new instances
+     * @see PopulationGenerator#createInstances(DefaultModel, int, RNGSupplier)
+     */
+    public List<PopulationGenerator.Instance<W, B>> createInstances(int numberOfInstances, long seed, PopulationGenerator generator) {
+        return generator.createInstances(this, numberOfInstances, new JavaUtilRNGSupplier(seed));
+    }
+
     /**
      * Creates a new set of {@link Bidder} instances
      * @return a new set of bidders
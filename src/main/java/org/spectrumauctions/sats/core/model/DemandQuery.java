@@ -0,0 +1,26 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A bidder which can calculate its demand, i.e., its utility maximizing bundle at given linear prices,
+ * without solving a MIP.
+ *
+ * @author Michael Weiss
+ */
+public interface DemandQuery<T extends Good> {
+
+    /**
+     * @param prices the price of every license in the world of the bidder
+     * @return a bundle maximizing the value of the bidder minus the sum of the prices of its licenses.
+     * If multiple bundles are optimal, ties are broken deterministically.
+     * @throws IllegalArgumentException if a license of the world has no price
+     */
+    DemandQueryResult<T> getDemand(Map<T, BigDecimal> prices);
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The answer to a demand query, see {@link DemandQuery}
+ *
+ * @author Michael Weiss
+ */
+public final class DemandQueryResult<T extends Good> {
+
+    private final Bundle<T> bundle;
+    private final BigDecimal value;
+    private final BigDecimal price;
+
+    /**
+     * @param bundle the demanded bundle
+     * @param value  the value of the bidder for the bundle
+     * @param prices the prices of the query
+     */
+    public DemandQueryResult(Bundle<T> bundle, BigDecimal value, Map<T, BigDecimal> prices) {
+        this.bundle = Preconditions.checkNotNull(bundle);
+        this.value = Preconditions.checkNotNull(value);
+        BigDecimal price = BigDecimal.ZERO;
+        for (T license : bundle) {
+            price = price.add(prices.get(license));
+        }
+        this.price = price;
+    }
+
+    public Bundle<T> getBundle() {
+        return bundle;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * @return the sum of the prices of the licenses in the bundle
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * @return the value minus the price of the bundle
+     */
+    public BigDecimal getUtility() {
+        return value.subtract(price);
+    }
+
+    @Override
+    public String toString() {
+        return "DemandQueryResult[bundle=" + bundle + ", value=" + value + ", price=" + price + "]";
+    }
+}
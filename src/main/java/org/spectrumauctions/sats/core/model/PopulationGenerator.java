@@ -0,0 +1,210 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Defines how the bidders of a population are constructed.<br><br>
+ *
+ * {@link #DEFAULT} creates the bidders one after the other, all of them drawing their random parameters from
+ * the same {@link RNGSupplier}. This is the behavior of the population creation methods without generator.<br><br>
+ *
+ * All other generators first derive one seed per bidder from the {@link RNGSupplier}, in the order of the bidder ids.
+ * Every bidder then draws its random parameters from an own {@link JavaUtilRNGSupplier} initialized with its seed.
+ * Hence, the created bidders are independent of the order in which they are constructed:
+ * For the same seed, {@link #sequential()} and all parallel generators create identical populations.
+ * Note that these populations differ from the ones created by {@link #DEFAULT}.<br><br>
+ *
+ * Bidder ids are assigned according to the position of the bidder in the population, independent of the generator.
+ * Parallel generators use the default {@link InstanceHandler} of the calling thread in all worker threads.
+ *
+ * @author Michael Weiss
+ */
+public final class PopulationGenerator {
+
+    public static final PopulationGenerator DEFAULT = new PopulationGenerator(false, null);
+
+    private static final PopulationGenerator SEQUENTIAL = new PopulationGenerator(true, null);
+
+    private final boolean perBidderSeeds;
+    private final ExecutorService executor;
+
+    private PopulationGenerator(boolean perBidderSeeds, ExecutorService executor) {
+        this.perBidderSeeds = perBidderSeeds;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a generator creating the bidders one after the other, each with its own seed
+     */
+    public static PopulationGenerator sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * @return a generator creating the bidders in parallel on the common {@link ForkJoinPool}
+     */
+    public static PopulationGenerator parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor the executor (e.g. a {@link ForkJoinPool}) on which the bidders are created.
+     *                 The executor is not shut down by the generator.
+     * @return a generator creating the bidders in parallel on the passed executor
+     */
+    public static PopulationGenerator parallel(ExecutorService executor) {
+        return new PopulationGenerator(true, Preconditions.checkNotNull(executor));
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Creates the bidders of a population. This method is called by the worlds, which define one factory per bidder.
+     *
+     * @param factories one factory per bidder, ordered by bidder id
+     * @param rngSupplier the supplier from which the random parameters of the bidders are derived
+     * @return the created bidders, in the order of the factories
+     */
+    public <B extends Bidder<?>> List<B> createBidders(List<? extends BidderFactory<? extends B>> factories, RNGSupplier rngSupplier) {
+        List<B> bidders = new ArrayList<>();
+        if (!perBidderSeeds) {
+            for (BidderFactory<? extends B> factory : factories) {
+                bidders.add(factory.createBidder(rngSupplier));
+            }
+            return bidders;
+        }
+        // Seeds are derived before any bidder is created, such that they do not depend on the order of creation
+        UniformDistributionRNG seedRNG = rngSupplier.getUniformDistributionRNG();
+        List<Callable<B>> tasks = new ArrayList<>();
+        for (BidderFactory<? extends B> factory : factories) {
+            long bidderSeed = seedRNG.nextLong();
+            tasks.add(() -> factory.createBidder(new JavaUtilRNGSupplier(bidderSeed)));
+        }
+        return execute(tasks);
+    }
+
+    /**
+     * Creates multiple independent instances, i.e., worlds with one population each.<br>
+     * The seeds of the worlds and populations are derived from the passed {@link RNGSupplier} before any instance is
+     * created. Each instance is then created like {@link DefaultModel#createNewPopulation(RNGSupplier, RNGSupplier)},
+     * on the executor of this generator if it is parallel. The created instances hence only depend on the seed,
+     * not on the generator. World and population ids are assigned by the {@link InstanceHandler}
+     * in the order in which the instances are created.
+     *
+     * @param model the model of which instances are created
+     * @param numberOfInstances the number of instances to create
+     * @param rngSupplier the supplier from which the random parameters of all instances are derived
+     * @return the created instances, the order being given by the derived seeds
+     */
+    public <W extends World, B extends Bidder<? extends Good>> List<Instance<W, B>> createInstances(
+            DefaultModel<W, B> model, int numberOfInstances, RNGSupplier rngSupplier) {
+        Preconditions.checkArgument(numberOfInstances >= 0);
+        UniformDistributionRNG seedRNG = rngSupplier.getUniformDistributionRNG();
+        List<Callable<Instance<W, B>>> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfInstances; i++) {
+            long worldSeed = seedRNG.nextLong();
+            long populationSeed = seedRNG.nextLong();
+            tasks.add(() -> {
+                W world = model.createWorld(new JavaUtilRNGSupplier(worldSeed));
+                List<B> population = model.createPopulation(world, new JavaUtilRNGSupplier(populationSeed));
+                return new Instance<>(world, population);
+            });
+        }
+        return execute(tasks);
+    }
+
+    private <T> List<T> execute(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>();
+        if (executor == null) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return results;
+        }
+        // The worker threads use the default instance handler of the calling thread
+        InstanceHandler handler = InstanceHandler.getDefaultHandler();
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler);
+                    try {
+                        return task.call();
+                    } finally {
+                        scope.close();
+                    }
+                }));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bidder creation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Creates a single bidder, drawing all its random parameters from the passed {@link RNGSupplier}.
+     */
+    @FunctionalInterface
+    public interface BidderFactory<B extends Bidder<?>> {
+
+        B createBidder(RNGSupplier bidderRNG);
+    }
+
+    /**
+     * A world and a population of bidders in this world
+     */
+    public static final class Instance<W extends World, B extends Bidder<? extends Good>> {
+
+        private final W world;
+        private final List<B> population;
+
+        private Instance(W world, List<B> population) {
+            this.world = world;
+            this.population = population;
+        }
+
+        public W getWorld() {
+            return world;
+        }
+
+        public List<B> getPopulation() {
+            return population;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.math.BigDecimal;
+
+/**
+ * A thread-safe, memoizing wrapper around a {@link Bidder}.<br>
+ * Values are cached in a bounded, concurrent cache keyed by the {@link BitSetBundle} representation of the
+ * queried bundle. Concurrent queries for the same bundle compute the value only once.<br><br>
+ *
+ * Eviction is either size-based (maximum number of cached values, see {@link Builder#setMaximumSize(long)})
+ * or weight-based (maximum approximate memory footprint, see {@link Builder#setMaximumWeight(long)}).<br>
+ *
+ * Note: The oracle assumes the value function of the bidder does not change, i.e., that the bidder is not
+ * modified while the oracle is in use.
+ *
+ * @author Michael Weiss
+ */
+public final class ValueOracle<G extends Good> {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 100000;
+
+    /**
+     * Approximate size of a cache entry in bytes, excluding the words of the key
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final Bidder<G> bidder;
+    private final LoadingCache<BitSetBundle<G>, BigDecimal> cache;
+
+    private ValueOracle(Builder<G> builder) {
+        this.bidder = builder.bidder;
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+        if (builder.concurrencyLevel > 0) {
+            cacheBuilder.concurrencyLevel(builder.concurrencyLevel);
+        }
+        CacheLoader<BitSetBundle<G>, BigDecimal> loader = new CacheLoader<BitSetBundle<G>, BigDecimal>() {
+            @Override
+            public BigDecimal load(BitSetBundle<G> key) {
+                return bidder.calculateValue(key);
+            }
+        };
+        if (builder.maximumWeight >= 0) {
+            this.cache = cacheBuilder.maximumWeight(builder.maximumWeight)
+                    .weigher((Weigher<BitSetBundle<G>, BigDecimal>) (key, value) -> weight(key))
+                    .build(loader);
+        } else {
+            this.cache = cacheBuilder.maximumSize(builder.maximumSize).build(loader);
+        }
+    }
+
+    /**
+     * Creates a new oracle with the default configuration, i.e.,
+     * at most {@value #DEFAULT_MAXIMUM_SIZE} cached values.
+     */
+    public static <G extends Good> ValueOracle<G> of(Bidder<G> bidder) {
+        return new Builder<>(bidder).build();
+    }
+
+    /**
+     * @return the approximate memory footprint of a cached value in bytes
+     */
+    static int weight(BitSetBundle<?> key) {
+        return ENTRY_OVERHEAD_BYTES + 8 * key.wordCount();
+    }
+
+    public Bidder<G> getBidder() {
+        return bidder;
+    }
+
+    /**
+     * @return the (possibly cached) value of the bidder for the passed bundle
+     * @throws UnequalWorldsException if the bundle is not from the world of the bidder
+     */
+    public BigDecimal calculateValue(Bundle<G> bundle) {
+        return calculateValue(BitSetBundle.of(bundle));
+    }
+
+    /**
+     * @return the (possibly cached) value of the bidder for the passed bundle
+     * @throws UnequalWorldsException if the bundle is not from the world of the bidder
+     */
+    public BigDecimal calculateValue(BitSetBundle<G> bundle) {
+        Preconditions.checkNotNull(bundle);
+        if (bundle.getWorld() != null && bundle.getWorld().getId() != bidder.getWorld().getId()) {
+            throw new UnequalWorldsException("Bundle is not from the world of bidder " + bidder.getId());
+        }
+        try {
+            return cache.getUnchecked(bundle);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of queries answered from the cache
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * @return the number of queries not answered from the cache. This includes queries which waited for
+     * a concurrent query of the same value to complete.
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return the number of queries which were forwarded to the bidder
+     */
+    public long getComputationCount() {
+        return cache.stats().loadCount();
+    }
+
+    /**
+     * @return the number of values which were removed from the cache to respect its bounds
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return the approximate number of currently cached values
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all cached values. The counters are not reset.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return "ValueOracle[bidder=" + bidder.getId() + ", " + cache.stats() + "]";
+    }
+
+    public static final class Builder<G extends Good> {
+
+        private final Bidder<G> bidder;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private long maximumWeight = -1;
+        private int concurrencyLevel = -1;
+
+        public Builder(Bidder<G> bidder) {
+            this.bidder = Preconditions.checkNotNull(bidder);
+        }
+
+        /**
+         * Use size-based eviction, i.e., cache at most the passed number of values.
+         * Overrides a previously set maximum weight.
+         */
+        public Builder<G> setMaximumSize(long maximumSize) {
+            Preconditions.checkArgument(maximumSize >= 0);
+            this.maximumSize = maximumSize;
+            this.maximumWeight = -1;
+            return this;
+        }
+
+        /**
+         * Use weight-based eviction, where the weight of an entry approximates its memory footprint in bytes.
+         * As the keys are bitsets, large bundles of worlds with many licenses are weighted higher.
+         * Overrides a previously set maximum size.
+         */
+        public Builder<G> setMaximumWeight(long maximumWeightInBytes) {
+            Preconditions.checkArgument(maximumWeightInBytes >= 0);
+            this.maximumWeight = maximumWeightInBytes;
+            return this;
+        }
+
+        /**
+         * @param concurrencyLevel the estimated number of threads concurrently querying the oracle
+         */
+        public Builder<G> setConcurrencyLevel(int concurrencyLevel) {
+            Preconditions.checkArgument(concurrencyLevel > 0);
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        public ValueOracle<G> build() {
+            return new ValueOracle<>(this);
+        }
+    }
+}
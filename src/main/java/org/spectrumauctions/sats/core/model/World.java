@@ -5,6 +5,7 @@
  */
 package org.spectrumauctions.sats.core.model;
 
+import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.bvm.BMWorld;
 import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
 
@@ -19,6 +20,8 @@ public abstract class World implements Serializable {
     protected final String modelName;
     protected final long id;
 
+    private transient volatile Good[] licensesById;
+
     public World(String modelName) {
         this.id = InstanceHandler.getDefaultHandler().getNextWorldId();
         this.modelName = modelName;
@@ -38,6 +41,32 @@ public abstract class World implements Serializable {
 
     public abstract Set<? extends Good> getLicenses();
 
+    /**
+     * Returns the license with the specified id.<br>
+     * The lookup table is built on the first call, subsequent calls take constant time.
+     *
+     * @throws IllegalArgumentException if there is no license with this id in this world
+     */
+    public Good getLicenseById(long licenseId) {
+        Good[] index = licensesById;
+        if (index == null) {
+            Set<? extends Good> licenses = getLicenses();
+            long maxId = -1;
+            for (Good license : licenses) {
+                maxId = Math.max(maxId, license.getId());
+            }
+            Preconditions.checkState(maxId < Integer.MAX_VALUE, "License ids too large to be indexed");
+            index = new Good[(int) maxId + 1];
+            for (Good license : licenses) {
+                index[(int) license.getId()] = license;
+            }
+            licensesById = index;
+        }
+        Good license = licenseId >= 0 && licenseId < index.length ? index[(int) licenseId] : null;
+        Preconditions.checkArgument(license != null, "No license with id %s in this world", licenseId);
+        return license;
+    }
+
     protected void store() {
         InstanceHandler.getDefaultHandler().writeWorld(this);
     }
@@ -15,7 +15,9 @@ import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
 import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetDecreasing;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasing;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.*;
@@ -23,20 +25,23 @@ import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 /**
  * @author Michael Weiss
  */
-public final class BMBidder extends Bidder<BMLicense> implements GenericValueBidder<BMBand> {
+public final class BMBidder extends Bidder<BMLicense> implements GenericValueBidder<BMBand>, DemandQuery<BMLicense> {
 
     private static final Logger logger = LogManager.getLogger(BMBidder.class);
 
     private static final long serialVersionUID = 3132260871321701148L;
     private transient BMWorld world;
+    private transient FastValueTables fastValueTables;
 
     /**
      * Key: BandName<br>
@@ -85,12 +90,45 @@ public final class BMBidder extends Bidder<BMLicense> implements GenericValueBid
             return BigDecimal.ZERO;
         }
         Preconditions.checkArgument(bundle.getWorld().equals(this.getWorld()), "Bundle not from same world as this bidder");
-        // Count the number of licenses per band
+        return calculateValue(countQuantities(bundle));
+    }
+
+    @Override
+    public BigDecimal calculateValue(BitSetBundle<BMLicense> bundle) {
+        if (bundle.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        Preconditions.checkArgument(bundle.getWorld().equals(this.getWorld()), "Bundle not from same world as this bidder");
+        return calculateValue(countQuantities(bundle));
+    }
+
+    /**
+     * The value of every band and quantity is precomputed with {@link #calculateValue(Map)}, hence
+     * only the sum of the band values is calculated with doubles.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<BMLicense> bundle) {
+        FastValueTables tables = fastValueTables();
+        int[] quantities = new int[tables.bandValues.length];
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            quantities[tables.bandIndexOf[id]]++;
+        }
+        double value = 0;
+        for (int band = 0; band < quantities.length; band++) {
+            value += tables.bandValues[band][quantities[band]];
+        }
+        return value;
+    }
+
+    /**
+     * Counts the number of licenses per band
+     */
+    private Map<BMBand, Integer> countQuantities(Iterable<BMLicense> licenses) {
         Map<BMBand, Integer> quantities = new HashMap<>();
         for (BMBand band : getWorld().getBands()) {
             quantities.put(band, 0);
         }
-        for (BMLicense license : bundle) {
+        for (BMLicense license : licenses) {
             Integer currentValue = quantities.get(license.getBand());
             if (currentValue == null) {
                 logger.error("ITEM WITH OUTSIDE-WORLD BAND!");
@@ -98,7 +136,7 @@ public final class BMBidder extends Bidder<BMLicense> implements GenericValueBid
                 quantities.put(license.getBand(), currentValue + 1);
             }
         }
-        return calculateValue(quantities);
+        return quantities;
     }
 
     /**
@@ -181,6 +219,9 @@ public final class BMBidder extends Bidder<BMLicense> implements GenericValueBid
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this));
         } else if (clazz.isAssignableFrom(GenericSizeIncreasing.class)) {
             return clazz.cast(
                     SizeOrderedGenericFactory.getSizeOrderedGenericLang(true, this));
@@ -196,6 +237,9 @@ public final class BMBidder extends Bidder<BMLicense> implements GenericValueBid
         } else if (clazz.isAssignableFrom(XORQRandomOrderSimple.class)) {
             return clazz.cast(
                     RandomOrderXORQFactory.getXORQRandomOrderSimpleLang(this));
+        } else if (clazz.isAssignableFrom(GenericValueDecreasing.class)) {
+            return clazz.cast(
+                    ValueOrderedGenericFactory.getValueOrderedGenericLang(this));
         } else {
             throw new UnsupportedBiddingLanguageException();
         }
@@ -288,4 +332,62 @@ public final class BMBidder extends Bidder<BMLicense> implements GenericValueBid
     }
 
 
+    /**
+     * Solved by {@link BandDemandQuery}, using the precomputed band values of {@link #calculateValueFast(BitSetBundle)}.
+     * The value of the demanded bundle is calculated exactly.
+     */
+    @Override
+    public DemandQueryResult<BMLicense> getDemand(Map<BMLicense, BigDecimal> prices) {
+        FastValueTables tables = fastValueTables();
+        Bundle<BMLicense> bundle = BandDemandQuery.demandedBundle(tables.licensesPerBand, tables.bandValues, 1, prices);
+        return new DemandQueryResult<>(bundle, calculateValue(bundle), prices);
+    }
+
+    private FastValueTables fastValueTables() {
+        FastValueTables tables = fastValueTables;
+        if (tables == null) {
+            tables = new FastValueTables(this);
+            fastValueTables = tables;
+        }
+        return tables;
+    }
+
+    /**
+     * Lookup tables for {@link #calculateValueFast(BitSetBundle)} and {@link #getDemand(Map)}
+     */
+    private static final class FastValueTables {
+
+        /** Indexed by license id */
+        private final int[] bandIndexOf;
+        /** Indexed by band index */
+        private final List<List<BMLicense>> licensesPerBand = new ArrayList<>();
+        /** Indexed by band index and quantity, free disposal above the positive value threshold already applied */
+        private final double[][] bandValues;
+
+        private FastValueTables(BMBidder bidder) {
+            List<BMBand> bands = bidder.getWorld().getBands();
+            int maxId = 0;
+            for (BMBand band : bands) {
+                for (BMLicense license : band.getLicenses()) {
+                    maxId = Math.max(maxId, (int) license.getId());
+                }
+            }
+            this.bandIndexOf = new int[maxId + 1];
+            this.bandValues = new double[bands.size()][];
+            for (int bandIndex = 0; bandIndex < bands.size(); bandIndex++) {
+                BMBand band = bands.get(bandIndex);
+                for (BMLicense license : band.getLicenses()) {
+                    bandIndexOf[(int) license.getId()] = bandIndex;
+                }
+                licensesPerBand.add(new ArrayList<>(band.getLicenses()));
+                int threshold = bidder.positiveValueThreshold.get(band.getName());
+                bandValues[bandIndex] = new double[band.getNumberOfLicenses() + 1];
+                for (int quantity = 0; quantity <= band.getNumberOfLicenses(); quantity++) {
+                    int consideredQuantity = Math.min(quantity, threshold);
+                    BigDecimal value = bidder.calculateValue(Collections.singletonMap(band, consideredQuantity));
+                    bandValues[bandIndex][quantity] = value.doubleValue();
+                }
+            }
+        }
+    }
 }
@@ -6,6 +6,7 @@
 package org.spectrumauctions.sats.core.model.bvm;
 
 import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.PreconditionUtils;
 import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
@@ -122,15 +123,23 @@ public final class BMWorld extends World {
      * @see #createPopulation(Collection)
      */
     public List<BMBidder> createPopulation(Collection<BMBidderSetup> bidderSetups, RNGSupplier rngSupplier) {
+        return createPopulation(bidderSetups, rngSupplier, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<BMBidder> createPopulation(Collection<BMBidderSetup> bidderSetups, RNGSupplier rngSupplier, PopulationGenerator generator) {
         long population = openNewPopulation();
-        List<BMBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<BMBidder>> factories = new ArrayList<>();
         int idCount = 0;
         for (BMBidderSetup setup : bidderSetups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new BMBidder(population, idCount++, this, setup, rngSupplier.getUniformDistributionRNG()));
+                int id = idCount++;
+                factories.add(rng -> new BMBidder(population, id, this, setup, rng.getUniformDistributionRNG()));
             }
         }
-        return bidders;
+        return generator.createBidders(factories, rngSupplier);
     }
 
     public static BMWorld readWorld(long worldId) {
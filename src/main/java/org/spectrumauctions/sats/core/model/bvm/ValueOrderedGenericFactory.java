@@ -0,0 +1,60 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model.bvm;
+
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasing;
+import org.spectrumauctions.sats.core.model.Bidder;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * @author Michael Weiss
+ *
+ */
+public class ValueOrderedGenericFactory {
+
+    public static GenericValueDecreasing<BMBand> getValueOrderedGenericLang(BMBidder bidder) {
+        Collection<BMBand> definitions = bidder.getWorld().getBands();
+        return new Decreasing(definitions, bidder);
+    }
+
+
+    private static final class Decreasing extends GenericValueDecreasing<BMBand> {
+
+
+        private final BMBidder bidder;
+
+        Decreasing(Collection<BMBand> allPossibleGenericDefinitions, BMBidder bidder) {
+            super(allPossibleGenericDefinitions);
+            this.bidder = bidder;
+        }
+
+        @Override
+        public Bidder<BMLicense> getBidder() {
+            return bidder;
+        }
+
+        /**
+         * @see GenericValueDecreasing#getGenericBidder()
+         */
+        @Override
+        protected GenericValueBidder<BMBand> getGenericBidder() {
+            return bidder;
+        }
+
+        /**
+         * @see GenericValueDecreasing#getDefComparator()
+         */
+        @Override
+        protected Comparator<BMBand> getDefComparator() {
+            return SizeOrderedGenericFactory.comparator;
+        }
+    }
+
+
+}
@@ -7,6 +7,7 @@ package org.spectrumauctions.sats.core.model.bvm.bvm;
 
 import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.bvm.BMBidder;
 import org.spectrumauctions.sats.core.model.bvm.BMBidderSetup;
 import org.spectrumauctions.sats.core.model.bvm.BMWorld;
@@ -60,9 +61,17 @@ public class BaseValueModel extends DefaultModel<BMWorld, BMBidder> {
      */
     @Override
     public List<BMBidder> createPopulation(BMWorld world, RNGSupplier populationRNG) {
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<BMBidder> createPopulation(BMWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
         List<BMBidderSetup> setupset = new ArrayList<>();
         setupset.add(bidderSetupBuilder.build());
-        return world.createPopulation(setupset, populationRNG);
+        return world.createPopulation(setupset, populationRNG, generator);
     }
 
     /**
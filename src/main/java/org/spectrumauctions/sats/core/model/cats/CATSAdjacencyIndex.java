@@ -0,0 +1,121 @@
+package org.spectrumauctions.sats.core.model.cats;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Graph;
+import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Vertex;
+import org.spectrumauctions.sats.core.model.cats.graphalgorithms.VertexCell;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable index of the proximity graph of a {@link CATSWorld} in compressed sparse row format.<br>
+ * The ids of the licenses adjacent to the license with id <i>i</i> are stored in increasing order in one shared
+ * array, between the offsets of <i>i</i> and <i>i + 1</i>. Adjacency can thus be checked by a binary search,
+ * and neighbors can be iterated without any allocation and without walking the linked adjacency lists of the
+ * {@link Graph}.<br><br>
+ *
+ * As edges are always added and removed in both directions, the proximity graph is undirected.
+ * Parallel edges are stored only once.
+ *
+ * @author Michael Weiss
+ * @see CATSWorld#getAdjacencyIndex()
+ */
+public final class CATSAdjacencyIndex {
+
+    /** Indexed by license id (which equals the vertex id), of length highest id + 2 */
+    private final int[] offsets;
+    private final int[] adjacentIds;
+
+    CATSAdjacencyIndex(Graph graph) {
+        List<Vertex> vertices = graph.getVertices();
+        List<List<VertexCell>> adjacencyLists = graph.getAdjacencyLists();
+        int maxId = 0;
+        for (Vertex vertex : vertices) {
+            maxId = Math.max(maxId, vertex.getID());
+        }
+        // Count the degrees in both directions, such that the index is symmetric in any case
+        int[] degrees = new int[maxId + 1];
+        int index = 0;
+        for (List<VertexCell> adjacencyList : adjacencyLists) {
+            int id = vertices.get(index++).getID();
+            for (VertexCell cell : adjacencyList) {
+                degrees[id]++;
+                degrees[cell._v.getID()]++;
+            }
+        }
+        int[] rowStarts = new int[maxId + 2];
+        for (int id = 0; id <= maxId; id++) {
+            rowStarts[id + 1] = rowStarts[id] + degrees[id];
+        }
+        int[] entries = new int[rowStarts[maxId + 1]];
+        int[] fill = Arrays.copyOf(rowStarts, maxId + 1);
+        index = 0;
+        for (List<VertexCell> adjacencyList : adjacencyLists) {
+            int id = vertices.get(index++).getID();
+            for (VertexCell cell : adjacencyList) {
+                int otherId = cell._v.getID();
+                entries[fill[id]++] = otherId;
+                entries[fill[otherId]++] = id;
+            }
+        }
+        // Sort and remove duplicates row by row
+        this.offsets = new int[maxId + 2];
+        int size = 0;
+        for (int id = 0; id <= maxId; id++) {
+            offsets[id] = size;
+            Arrays.sort(entries, rowStarts[id], rowStarts[id + 1]);
+            for (int i = rowStarts[id]; i < rowStarts[id + 1]; i++) {
+                if (entries[i] != id && (size == offsets[id] || entries[size - 1] != entries[i])) {
+                    entries[size++] = entries[i];
+                }
+            }
+        }
+        offsets[maxId + 1] = size;
+        this.adjacentIds = Arrays.copyOf(entries, size);
+    }
+
+    /**
+     * @return the highest license id in the index
+     */
+    public int getMaxId() {
+        return offsets.length - 2;
+    }
+
+    /**
+     * @return the number of licenses adjacent to the license with the passed id
+     */
+    public int getDegree(long licenseId) {
+        int id = checkId(licenseId);
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @param index between 0 (inclusive) and {@link #getDegree(long)} (exclusive)
+     * @return the id of the index-th adjacent license, where the adjacent licenses are ordered by increasing id
+     */
+    public int getAdjacentId(long licenseId, int index) {
+        int id = checkId(licenseId);
+        Preconditions.checkElementIndex(index, offsets[id + 1] - offsets[id]);
+        return adjacentIds[offsets[id] + index];
+    }
+
+    /**
+     * @return the ids of the adjacent licenses, in increasing order
+     */
+    public int[] getAdjacentIds(long licenseId) {
+        int id = checkId(licenseId);
+        return Arrays.copyOfRange(adjacentIds, offsets[id], offsets[id + 1]);
+    }
+
+    public boolean isAdjacent(long licenseId, long otherLicenseId) {
+        int id = checkId(licenseId);
+        int otherId = checkId(otherLicenseId);
+        return Arrays.binarySearch(adjacentIds, offsets[id], offsets[id + 1], otherId) >= 0;
+    }
+
+    private int checkId(long licenseId) {
+        Preconditions.checkArgument(licenseId >= 0 && licenseId < offsets.length - 1, "No license with id %s", licenseId);
+        return (int) licenseId;
+    }
+}
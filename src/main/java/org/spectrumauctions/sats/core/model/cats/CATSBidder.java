@@ -4,8 +4,10 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
+import org.spectrumauctions.sats.core.bidlang.xor.BundleValueBound;
 import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.*;
@@ -13,6 +15,7 @@ import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -24,6 +27,7 @@ public final class CATSBidder extends Bidder<CATSLicense> {
     private final HashMap<Long, BigDecimal> privateValues;
     private transient CATSWorld world;
     private transient ImmutableMap<Long, BigDecimal> privateValueMap;
+    private transient FastValueTables fastValueTables;
 
 
     CATSBidder(CATSBidderSetup setup, CATSWorld world, long currentId, long population, RNGSupplier rngSupplier) {
@@ -55,6 +59,38 @@ public final class CATSBidder extends Bidder<CATSLicense> {
         return new BigDecimal(value);
     }
 
+    /**
+     * The value is calculated on the tables of {@link #calculateValueFast(BitSetBundle)}, which avoids
+     * the conversion of the private values for every license, and is exactly the same.
+     */
+    @Override
+    public BigDecimal calculateValue(BitSetBundle<CATSLicense> bundle) {
+        return new BigDecimal(calculateValueFast(bundle));
+    }
+
+    /**
+     * Performs the same double operations as {@link #calculateValue(Bundle)}, on precomputed tables.
+     * The returned value is hence exactly the same.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<CATSLicense> bundle) {
+        FastValueTables tables = fastValueTables();
+        double value = 0;
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            if (id < tables.hasPrivateValue.length && tables.hasPrivateValue[id]) {
+                value += tables.commonValues[id];
+                value += tables.privateValues[id];
+                if (tables.quadraticPricing) {
+                    value += tables.squaredCommonValues[id];
+                }
+            }
+        }
+        if (!tables.quadraticPricing) {
+            value += tables.sizeValues[bundle.size()];
+        }
+        return value;
+    }
+
 
     @Override
     public <T extends BiddingLanguage> T getValueFunction(Class<T> clazz, long seed) throws UnsupportedBiddingLanguageException {
@@ -69,6 +105,9 @@ public final class CATSBidder extends Bidder<CATSLicense> {
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this, this::upperBound));
         } else if (GenericLang.class.isAssignableFrom(clazz)) {
             throw new IncompatibleBiddingLanguageException("CATS is not suitable for XOR-Q, as it doesn't have generic items");
         } else {
@@ -76,6 +115,52 @@ public final class CATSBidder extends Bidder<CATSLicense> {
         }
     }
 
+    /**
+     * CATS values are not monotone, as private values may be negative. However, apart from the size dependent part,
+     * every license contributes independently to the value of a bundle. For every number of removed licenses,
+     * the most valuable bundle is thus obtained by removing the licenses with the lowest contributions.
+     *
+     * @see BundleValueBound
+     */
+    private BigDecimal upperBound(BitSetBundle<CATSLicense> bundle, BitSetBundle<CATSLicense> removable, BigDecimal value) {
+        FastValueTables tables = fastValueTables();
+        double fixedContributions = 0;
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            if (!removable.containsId(id)) {
+                fixedContributions += tables.contribution(id);
+            }
+        }
+        double[] removableContributions = new double[removable.size()];
+        int index = 0;
+        for (int id = removable.nextSetId(0); id >= 0; id = removable.nextSetId(id + 1)) {
+            removableContributions[index++] = tables.contribution(id);
+        }
+        Arrays.sort(removableContributions);
+        int fixedSize = bundle.size() - removable.size();
+        double best = Double.NEGATIVE_INFINITY;
+        double kept = fixedContributions;
+        // Keep the removable licenses with the highest contributions first
+        for (int numberOfKept = 0; numberOfKept <= removableContributions.length; numberOfKept++) {
+            if (numberOfKept > 0) {
+                kept += removableContributions[removableContributions.length - numberOfKept];
+            }
+            double candidate = kept + (tables.quadraticPricing ? 0 : tables.sizeValues[fixedSize + numberOfKept]);
+            best = Math.max(best, candidate);
+        }
+        // The values are summed up in a different order, which may cause tiny rounding differences
+        double tolerance = 1e-9 * Math.max(1, Math.abs(best));
+        return value.max(new BigDecimal(best + tolerance));
+    }
+
+    private FastValueTables fastValueTables() {
+        FastValueTables tables = fastValueTables;
+        if (tables == null) {
+            tables = new FastValueTables(this);
+            fastValueTables = tables;
+        }
+        return tables;
+    }
+
     @Override
     public CATSWorld getWorld() {
         return this.world;
@@ -98,4 +183,54 @@ public final class CATSBidder extends Bidder<CATSLicense> {
         }
     }
 
+    /**
+     * Lookup tables for {@link #calculateValueFast(BitSetBundle)}, indexed by license id and bundle size, respectively.
+     */
+    private static final class FastValueTables {
+
+        private final boolean quadraticPricing;
+        private final boolean[] hasPrivateValue;
+        private final double[] commonValues;
+        private final double[] squaredCommonValues;
+        private final double[] privateValues;
+        private final double[] sizeValues;
+
+        private FastValueTables(CATSBidder bidder) {
+            CATSWorld world = bidder.getWorld();
+            this.quadraticPricing = world.getUseQuadraticPricingOption();
+            int maxId = 0;
+            for (CATSLicense license : world.getLicenses()) {
+                maxId = Math.max(maxId, (int) license.getId());
+            }
+            this.hasPrivateValue = new boolean[maxId + 1];
+            this.commonValues = new double[maxId + 1];
+            this.squaredCommonValues = new double[maxId + 1];
+            this.privateValues = new double[maxId + 1];
+            for (CATSLicense license : world.getLicenses()) {
+                int id = (int) license.getId();
+                BigDecimal privateValue = bidder.privateValues.get(license.getId());
+                if (privateValue != null) {
+                    hasPrivateValue[id] = true;
+                    commonValues[id] = license.getCommonValue();
+                    squaredCommonValues[id] = Math.pow(license.getCommonValue(), 2);
+                    privateValues[id] = privateValue.doubleValue();
+                }
+            }
+            this.sizeValues = new double[maxId + 2];
+            for (int size = 0; size < sizeValues.length; size++) {
+                sizeValues[size] = Math.pow(size, 1 + world.getAdditivity());
+            }
+        }
+
+        /**
+         * @return the part of the value of every bundle which is due to the license with the passed id
+         */
+        private double contribution(int id) {
+            if (id >= hasPrivateValue.length || !hasPrivateValue[id]) {
+                return 0;
+            }
+            double contribution = commonValues[id] + privateValues[id];
+            return quadraticPricing ? contribution + squaredCommonValues[id] : contribution;
+        }
+    }
 }
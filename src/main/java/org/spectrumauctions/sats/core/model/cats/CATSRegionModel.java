@@ -1,6 +1,7 @@
 package org.spectrumauctions.sats.core.model.cats;
 
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.util.random.IntegerInterval;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
@@ -27,10 +28,18 @@ public class CATSRegionModel extends DefaultModel<CATSWorld, CATSBidder> {
      */
     @Override
     public List<CATSBidder> createPopulation(CATSWorld world, RNGSupplier populationRNG) {
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<CATSBidder> createPopulation(CATSWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
         List<CATSBidderSetup> setups = new ArrayList<>();
         setups.add(bidderBuilder.build());
 
-        return world.createPopulation(setups, populationRNG);
+        return world.createPopulation(setups, populationRNG, generator);
     }
 
     public void setNumberOfBidders(int numberOfBidders) {
@@ -2,6 +2,7 @@ package org.spectrumauctions.sats.core.model.cats;
 
 import com.google.common.collect.ImmutableSet;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Graph;
 import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Mesh2D;
@@ -28,6 +29,7 @@ public final class CATSWorld extends World {
     private final HashSet<CATSLicense> licenses;
 
     private transient ImmutableSet<CATSLicense> licenseSet;
+    private transient CATSAdjacencyIndex adjacencyIndex;
     private int maxSubstitutableBids;
 
 
@@ -96,15 +98,23 @@ public final class CATSWorld extends World {
     }
 
     public List<CATSBidder> createPopulation(List<CATSBidderSetup> setups, RNGSupplier populationRNG) {
+        return createPopulation(setups, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<CATSBidder> createPopulation(List<CATSBidderSetup> setups, RNGSupplier populationRNG, PopulationGenerator generator) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<CATSBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<CATSBidder>> factories = new ArrayList<>();
         for (CATSBidderSetup setup : setups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new CATSBidder(setup, this, currentId++, population, populationRNG));
+                long id = currentId++;
+                factories.add(rng -> new CATSBidder(setup, this, id, population, rng));
             }
         }
-        return bidders;
+        return generator.createBidders(factories, populationRNG);
     }
 
     public double getAdditivity() {
@@ -131,6 +141,16 @@ public final class CATSWorld extends World {
         return grid;
     }
 
+    /**
+     * @return an immutable index of the proximity graph, which is built on the first call
+     */
+    public CATSAdjacencyIndex getAdjacencyIndex() {
+        if (adjacencyIndex == null) {
+            adjacencyIndex = new CATSAdjacencyIndex(grid);
+        }
+        return adjacencyIndex;
+    }
+
     public boolean getUseQuadraticPricingOption() {
         return useQuadraticPricingOption;
     }
@@ -3,9 +3,11 @@ package org.spectrumauctions.sats.core.model.gsvm;
 import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.World;
@@ -26,6 +28,8 @@ public final class GSVMBidder extends Bidder<GSVMLicense> {
     private final int bidderPosition;
     private final HashMap<Long, BigDecimal> values;
     private transient GSVMWorld world;
+    // Lookup table for calculateValueFast, indexed by license id
+    private transient volatile double[] fastValues;
 
     GSVMBidder(GSVMBidderSetup setup, GSVMWorld world, int bidderPosition, long currentId, long population, RNGSupplier rngSupplier) {
         super(setup, population, currentId, world.getId());
@@ -49,6 +53,50 @@ public final class GSVMBidder extends Bidder<GSVMLicense> {
         return new BigDecimal(value + value * factor);
     }
 
+    @Override
+    public BigDecimal calculateValue(BitSetBundle<GSVMLicense> bundle) {
+        double value = 0;
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            BigDecimal licenseValue = this.values.get((long) id);
+            if (licenseValue != null) {
+                value += licenseValue.doubleValue();
+            }
+        }
+        double factor = 0;
+        if (bundle.size() > 0) factor = 0.2 * (bundle.size() - 1);
+        return new BigDecimal(value + value * factor);
+    }
+
+    /**
+     * As the value is calculated with doubles in {@link #calculateValue(Bundle)} as well,
+     * this method returns exactly the same value.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<GSVMLicense> bundle) {
+        double[] licenseValues = getFastValues();
+        double value = 0;
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            if (id < licenseValues.length) {
+                value += licenseValues[id];
+            }
+        }
+        double factor = 0;
+        if (bundle.size() > 0) factor = 0.2 * (bundle.size() - 1);
+        return value + value * factor;
+    }
+
+    private double[] getFastValues() {
+        double[] result = fastValues;
+        if (result == null) {
+            result = new double[world.getNumberOfGoods()];
+            for (Map.Entry<Long, BigDecimal> entry : values.entrySet()) {
+                result[entry.getKey().intValue()] = entry.getValue().doubleValue();
+            }
+            fastValues = result;
+        }
+        return result;
+    }
+
     public int getBidderPosition() {
         return bidderPosition;
     }
@@ -64,6 +112,9 @@ public final class GSVMBidder extends Bidder<GSVMLicense> {
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this));
         } else {
             throw new UnsupportedBiddingLanguageException();
         }
@@ -3,6 +3,7 @@ package org.spectrumauctions.sats.core.model.gsvm;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
@@ -86,26 +87,39 @@ public final class GSVMWorld extends World {
     public List<GSVMBidder> createPopulation(Collection<GSVMRegionalBidderSetup> regionalSetups,
                                              Collection<GSVMNationalBidderSetup> nationalSetups,
                                              RNGSupplier populationRNG) {
+        return createPopulation(regionalSetups, nationalSetups, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<GSVMBidder> createPopulation(Collection<GSVMRegionalBidderSetup> regionalSetups,
+                                             Collection<GSVMNationalBidderSetup> nationalSetups,
+                                             RNGSupplier populationRNG,
+                                             PopulationGenerator generator) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<GSVMBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<GSVMBidder>> factories = new ArrayList<>();
         if (regionalSetups != null) {
             int position = 0;
             for (GSVMRegionalBidderSetup setup : regionalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new GSVMBidder(setup, this, position++, currentId++, population, populationRNG));
+                    int bidderPosition = position++;
+                    long id = currentId++;
+                    factories.add(rng -> new GSVMBidder(setup, this, bidderPosition, id, population, rng));
                 }
             }
         }
         if (nationalSetups != null) {
             for (GSVMBidderSetup setup : nationalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new GSVMBidder(setup, this, -1, currentId++, population, populationRNG));
+                    long id = currentId++;
+                    factories.add(rng -> new GSVMBidder(setup, this, -1, id, population, rng));
                 }
             }
         }
-        Preconditions.checkArgument(bidders.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
-        return bidders;
+        Preconditions.checkArgument(factories.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
+        return generator.createBidders(factories, populationRNG);
     }
 
 }
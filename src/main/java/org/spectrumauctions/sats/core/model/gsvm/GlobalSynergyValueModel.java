@@ -1,6 +1,7 @@
 package org.spectrumauctions.sats.core.model.gsvm;
 
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.Collection;
@@ -28,13 +29,21 @@ public class GlobalSynergyValueModel extends DefaultModel<GSVMWorld, GSVMBidder>
      */
     @Override
     public List<GSVMBidder> createPopulation(GSVMWorld world, RNGSupplier populationRNG) {
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<GSVMBidder> createPopulation(GSVMWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
         Collection<GSVMRegionalBidderSetup> regionalSetups = new HashSet<>();
         regionalSetups.add(regionalBidderBuilder.build());
 
         Collection<GSVMNationalBidderSetup> nationalSetups = new HashSet<>();
         nationalSetups.add(nationalBidderBuilder.build());
 
-        return world.createPopulation(regionalSetups, nationalSetups, populationRNG);
+        return world.createPopulation(regionalSetups, nationalSetups, populationRNG, generator);
     }
 
     public void setNumberOfNationalBidders(int numberOfBidders) {
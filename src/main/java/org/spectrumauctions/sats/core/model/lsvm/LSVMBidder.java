@@ -4,9 +4,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.World;
@@ -27,6 +29,7 @@ public final class LSVMBidder extends Bidder<LSVMLicense> {
     private final Set<LSVMLicense> proximity;
     private final HashMap<Long, BigDecimal> values;
     private transient LSVMWorld world;
+    private transient FastValueTables fastValueTables;
 
     LSVMBidder(LSVMBidderSetup setup, LSVMWorld world, long currentId, long population, RNGSupplier rngSupplier) {
         super(setup, population, currentId, world.getId());
@@ -58,6 +61,45 @@ public final class LSVMBidder extends Bidder<LSVMLicense> {
         return new BigDecimal(value);
     }
 
+    /**
+     * Finds the connected components with a depth-first search on precomputed neighbor arrays.
+     * The result only differs from {@link #calculateValue(Bundle)} in the order in which the
+     * components' values are summed up.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<LSVMLicense> bundle) {
+        FastValueTables tables = fastValueTables();
+        boolean[] visited = tables.visited.get();
+        // Every visited license is pushed exactly once, hence the stack also records which entries to reset
+        int[] stack = new int[bundle.size()];
+        int pushed = 0;
+        double value = 0;
+        for (int start = bundle.nextSetId(0); start >= 0; start = bundle.nextSetId(start + 1)) {
+            if (visited[start]) {
+                continue;
+            }
+            visited[start] = true;
+            int componentStart = pushed;
+            stack[pushed++] = start;
+            double componentValue = 0;
+            for (int next = componentStart; next < pushed; next++) {
+                int current = stack[next];
+                componentValue += tables.licenseValues[current];
+                for (int neighbor : tables.neighbors[current]) {
+                    if (!visited[neighbor] && bundle.containsId(neighbor)) {
+                        visited[neighbor] = true;
+                        stack[pushed++] = neighbor;
+                    }
+                }
+            }
+            value += tables.factors[pushed - componentStart] * componentValue;
+        }
+        for (int i = 0; i < pushed; i++) {
+            visited[stack[i]] = false;
+        }
+        return value;
+    }
+
     private double sumOfItemValues(Set<LSVMLicense> subset) {
         double value = 0;
         for (LSVMLicense license : subset) {
@@ -68,6 +110,26 @@ public final class LSVMBidder extends Bidder<LSVMLicense> {
         return value;
     }
 
+    /**
+     * Creates an initially empty bundle of this bidder, to which licenses can be added and from which
+     * licenses can be removed one by one while its value and the marginal values of licenses are updated
+     * incrementally. This is much faster than repeated calls to {@link #calculateValue(Bundle)} if bundles
+     * are built license by license, e.g., to generate XOR bids.
+     */
+    public LSVMConnectedComponents createConnectedComponents() {
+        FastValueTables tables = fastValueTables();
+        return new LSVMConnectedComponents(world.getGrid(), tables.licenseValues, tables.factors);
+    }
+
+    private FastValueTables fastValueTables() {
+        FastValueTables tables = fastValueTables;
+        if (tables == null) {
+            tables = new FastValueTables(this);
+            fastValueTables = tables;
+        }
+        return tables;
+    }
+
     @Override
     public <T extends BiddingLanguage> T getValueFunction(Class<T> clazz, long seed) throws UnsupportedBiddingLanguageException {
         if (clazz.isAssignableFrom(SizeBasedUniqueRandomXOR.class)) {
@@ -79,6 +141,9 @@ public final class LSVMBidder extends Bidder<LSVMLicense> {
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this));
         } else {
             throw new UnsupportedBiddingLanguageException();
         }
@@ -109,4 +174,44 @@ public final class LSVMBidder extends Bidder<LSVMLicense> {
     public double calculateFactor(int size){
     	return 1 + (LSVM_A / (100 * (1 + Math.exp(LSVM_B - size))));
     }
+    /**
+     * Lookup tables for {@link #calculateValueFast(BitSetBundle)} and {@link LSVMConnectedComponents}
+     */
+    private static final class FastValueTables {
+
+        /** Indexed by license id */
+        private final double[] licenseValues;
+        /** Indexed by license id, contains the ids of the neighbors in the grid */
+        private final int[][] neighbors;
+        /** Indexed by the size of a connected component */
+        private final double[] factors;
+        /** Indexed by license id, all entries are false between calls of {@link #calculateValueFast(BitSetBundle)} */
+        private final ThreadLocal<boolean[]> visited;
+
+        private FastValueTables(LSVMBidder bidder) {
+            LSVMGrid grid = bidder.getWorld().getGrid();
+            int numberOfLicenses = grid.getNumberOfRows() * grid.getNumberOfColumns();
+            this.licenseValues = new double[numberOfLicenses];
+            this.neighbors = new int[numberOfLicenses][];
+            for (LSVMLicense license : grid.getLicenses()) {
+                int id = (int) license.getId();
+                BigDecimal value = bidder.values.get(license.getId());
+                licenseValues[id] = value == null ? 0 : value.doubleValue();
+                int[] neighborIds = new int[LSVMGrid.NUMBER_OF_DIRECTIONS];
+                int numberOfNeighbors = 0;
+                for (int direction = 0; direction < LSVMGrid.NUMBER_OF_DIRECTIONS; direction++) {
+                    int neighbor = grid.neighborId(id, direction);
+                    if (neighbor >= 0) {
+                        neighborIds[numberOfNeighbors++] = neighbor;
+                    }
+                }
+                neighbors[id] = Arrays.copyOf(neighborIds, numberOfNeighbors);
+            }
+            this.factors = new double[numberOfLicenses + 1];
+            for (int size = 0; size < factors.length; size++) {
+                factors[size] = bidder.calculateFactor(size);
+            }
+            this.visited = ThreadLocal.withInitial(() -> new boolean[numberOfLicenses]);
+        }
+    }
 }
@@ -0,0 +1,270 @@
+package org.spectrumauctions.sats.core.model.lsvm;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+
+import java.util.Arrays;
+
+/**
+ * A mutable bundle of {@link LSVMLicense}s of one {@link LSVMBidder}, which keeps track of its maximally connected
+ * subpackages (components) and of its value while licenses are added and removed one by one.<br><br>
+ *
+ * The components are stored in a union-find structure over the license ids. Adding a license merges the components of
+ * its neighbors in amortized constant time, and {@link #marginalValue(int)} is answered in amortized constant time
+ * without changing the bundle. Removing a license requires a flood fill of the component it was part of.<br><br>
+ *
+ * The value is updated incrementally and may thus differ from {@link LSVMBidder#calculateValueFast(BitSetBundle)}
+ * by rounding errors. Instances are not thread-safe.
+ *
+ * @author Michael Weiss
+ * @see LSVMBidder#createConnectedComponents()
+ */
+public final class LSVMConnectedComponents {
+
+    private final LSVMGrid grid;
+    /** Indexed by license id */
+    private final double[] licenseValues;
+    /** Indexed by component size */
+    private final double[] factors;
+
+    private final boolean[] contained;
+    /** The parent in the union-find forest, only defined for contained licenses */
+    private final int[] parent;
+    /** Only defined for roots: the number of licenses and the sum of their values */
+    private final int[] componentSizes;
+    private final double[] componentValues;
+    /** Reused by {@link #remove(int)}, a license is visited in the current removal iff its entry equals epoch */
+    private final int[] visited;
+    private final int[] queue;
+    private int epoch = 0;
+    /** Reused by {@link #marginalValue(int)} */
+    private final int[] roots = new int[LSVMGrid.NUMBER_OF_DIRECTIONS];
+
+    private int size = 0;
+    private int numberOfComponents = 0;
+    private double value = 0;
+
+    LSVMConnectedComponents(LSVMGrid grid, double[] licenseValues, double[] factors) {
+        int numberOfLicenses = grid.getNumberOfRows() * grid.getNumberOfColumns();
+        Preconditions.checkArgument(licenseValues.length == numberOfLicenses);
+        Preconditions.checkArgument(factors.length == numberOfLicenses + 1);
+        this.grid = grid;
+        this.licenseValues = licenseValues;
+        this.factors = factors;
+        this.contained = new boolean[numberOfLicenses];
+        this.parent = new int[numberOfLicenses];
+        this.componentSizes = new int[numberOfLicenses];
+        this.componentValues = new double[numberOfLicenses];
+        this.visited = new int[numberOfLicenses];
+        this.queue = new int[numberOfLicenses];
+    }
+
+    /**
+     * @return true if the license was not yet part of the bundle
+     */
+    public boolean add(LSVMLicense license) {
+        return add(checkId(license));
+    }
+
+    /**
+     * @return true if the license was not yet part of the bundle
+     */
+    public boolean add(int licenseId) {
+        if (contained[licenseId]) {
+            return false;
+        }
+        value += marginalValue(licenseId);
+        contained[licenseId] = true;
+        parent[licenseId] = licenseId;
+        componentSizes[licenseId] = 1;
+        componentValues[licenseId] = licenseValues[licenseId];
+        size++;
+        numberOfComponents++;
+        for (int direction = 0; direction < LSVMGrid.NUMBER_OF_DIRECTIONS; direction++) {
+            int neighbor = grid.neighborId(licenseId, direction);
+            if (neighbor >= 0 && contained[neighbor]) {
+                union(licenseId, neighbor);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the license was part of the bundle
+     */
+    public boolean remove(LSVMLicense license) {
+        return remove(checkId(license));
+    }
+
+    /**
+     * @return true if the license was part of the bundle
+     */
+    public boolean remove(int licenseId) {
+        if (!contained[licenseId]) {
+            return false;
+        }
+        int root = find(licenseId);
+        value -= factors[componentSizes[root]] * componentValues[root];
+        contained[licenseId] = false;
+        size--;
+        numberOfComponents--;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+        // The rest of the component falls apart into the components of the neighbors
+        for (int direction = 0; direction < LSVMGrid.NUMBER_OF_DIRECTIONS; direction++) {
+            int neighbor = grid.neighborId(licenseId, direction);
+            if (neighbor >= 0 && contained[neighbor] && visited[neighbor] != epoch) {
+                relabel(neighbor);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes start the root of all licenses connected to it, using a breadth first search
+     */
+    private void relabel(int start) {
+        visited[start] = epoch;
+        queue[0] = start;
+        int queueEnd = 1;
+        double componentValue = 0;
+        for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+            int current = queue[queueStart];
+            parent[current] = start;
+            componentValue += licenseValues[current];
+            for (int direction = 0; direction < LSVMGrid.NUMBER_OF_DIRECTIONS; direction++) {
+                int neighbor = grid.neighborId(current, direction);
+                if (neighbor >= 0 && contained[neighbor] && visited[neighbor] != epoch) {
+                    visited[neighbor] = epoch;
+                    queue[queueEnd++] = neighbor;
+                }
+            }
+        }
+        componentSizes[start] = queueEnd;
+        componentValues[start] = componentValue;
+        numberOfComponents++;
+        value += factors[queueEnd] * componentValue;
+    }
+
+    /**
+     * @return the change in value if the license was added to the bundle, i.e., 0 if it is already part of it
+     */
+    public double marginalValue(LSVMLicense license) {
+        return marginalValue(checkId(license));
+    }
+
+    /**
+     * @return the change in value if the license was added to the bundle, i.e., 0 if it is already part of it
+     */
+    public double marginalValue(int licenseId) {
+        if (contained[licenseId]) {
+            return 0;
+        }
+        int mergedSize = 1;
+        double mergedValue = licenseValues[licenseId];
+        double replacedValue = 0;
+        int numberOfRoots = 0;
+        for (int direction = 0; direction < LSVMGrid.NUMBER_OF_DIRECTIONS; direction++) {
+            int neighbor = grid.neighborId(licenseId, direction);
+            if (neighbor < 0 || !contained[neighbor]) {
+                continue;
+            }
+            int root = find(neighbor);
+            boolean alreadyCounted = false;
+            for (int i = 0; i < numberOfRoots; i++) {
+                alreadyCounted |= roots[i] == root;
+            }
+            if (!alreadyCounted) {
+                roots[numberOfRoots++] = root;
+                mergedSize += componentSizes[root];
+                mergedValue += componentValues[root];
+                replacedValue += factors[componentSizes[root]] * componentValues[root];
+            }
+        }
+        return factors[mergedSize] * mergedValue - replacedValue;
+    }
+
+    public boolean contains(LSVMLicense license) {
+        return contained[checkId(license)];
+    }
+
+    public boolean contains(int licenseId) {
+        return contained[licenseId];
+    }
+
+    /**
+     * @return the size of the component the license is part of, or 0 if it is not part of the bundle
+     */
+    public int getComponentSize(int licenseId) {
+        return contained[licenseId] ? componentSizes[find(licenseId)] : 0;
+    }
+
+    /**
+     * @return the number of maximally connected subpackages of the bundle
+     */
+    public int getNumberOfComponents() {
+        return numberOfComponents;
+    }
+
+    /**
+     * @return the number of licenses in the bundle
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of the bundle for the bidder
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return an immutable copy of the current bundle
+     */
+    public BitSetBundle<LSVMLicense> toBundle() {
+        long[] ids = new long[size];
+        int i = 0;
+        for (int id = 0; id < contained.length; id++) {
+            if (contained[id]) {
+                ids[i++] = id;
+            }
+        }
+        return BitSetBundle.ofIds(grid.getWorld(), ids);
+    }
+
+    private int find(int licenseId) {
+        int current = licenseId;
+        while (parent[current] != current) {
+            // Path halving
+            parent[current] = parent[parent[current]];
+            current = parent[current];
+        }
+        return current;
+    }
+
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return;
+        }
+        if (componentSizes[firstRoot] < componentSizes[secondRoot]) {
+            int tmp = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = tmp;
+        }
+        parent[secondRoot] = firstRoot;
+        componentSizes[firstRoot] += componentSizes[secondRoot];
+        componentValues[firstRoot] += componentValues[secondRoot];
+        numberOfComponents--;
+    }
+
+    private int checkId(LSVMLicense license) {
+        Preconditions.checkArgument(license.getWorldId() == grid.getWorld().getId(), "License is not from the world of this bidder");
+        return (int) license.getId();
+    }
+}
@@ -2,13 +2,17 @@ package org.spectrumauctions.sats.core.model.lsvm;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.PreconditionUtils;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -149,48 +153,83 @@ public class LSVMGrid implements Serializable {
                 || a.getRowPosition() == b.getRowPosition() && a.getColumnPosition() - 1 == b.getColumnPosition();
     }
 
-    private boolean hasNeighbor(LSVMLicense a, Set<LSVMLicense> set) {
-        for (LSVMLicense b : set) {
-            if (isNeighbor(a, b)) return true;
+    /**
+     * @return the maximally connected subpackages of the bundle, see {@link #labelConnectedSubpackages(BitSetBundle, int[])}
+     */
+    Set<Set<LSVMLicense>> getMaximallyConnectedSubpackages(Bundle<LSVMLicense> bundle) {
+        int[] labels = new int[numberOfRows * numberOfColumns];
+        int numberOfSubpackages = labelConnectedSubpackages(BitSetBundle.of(bundle), labels);
+        List<Set<LSVMLicense>> subpackages = new ArrayList<>(numberOfSubpackages);
+        for (int i = 0; i < numberOfSubpackages; i++) {
+            subpackages.add(new HashSet<>());
         }
-        return false;
+        for (LSVMLicense license : bundle) {
+            subpackages.get(labels[(int) license.getId()]).add(license);
+        }
+        return new HashSet<>(subpackages);
     }
 
-    Set<Set<LSVMLicense>> getMaximallyConnectedSubpackages(Bundle<LSVMLicense> bundle) {
+    /**
+     * Number of directions passed to {@link #neighborId(int, int)}, i.e., top, right, bottom and left
+     */
+    static final int NUMBER_OF_DIRECTIONS = 4;
 
-        Set<Set<LSVMLicense>> subpackages = new HashSet<>();
-        Bundle<LSVMLicense> copyOfBundle = new Bundle<>();
-        copyOfBundle.addAll(bundle);
-        while (!copyOfBundle.isEmpty()) {
-            // Each iteration returns one subpackage
-            LSVMLicense next = copyOfBundle.iterator().next();
-            Set<LSVMLicense> currentSet = new HashSet<>();
-            currentSet.add(next);
-            Set<LSVMLicense> subpackage = addNeighbors(currentSet, copyOfBundle);
-            copyOfBundle.removeAll(subpackage);
-            subpackages.add(subpackage);
+    /**
+     * The license ids are assigned row by row, i.e., the license in row <i>r</i> and column <i>c</i> has
+     * id <i>r * numberOfColumns + c</i>. This allows to find neighbors without any lookup.
+     *
+     * @param direction 0 to {@link #NUMBER_OF_DIRECTIONS} - 1 for top, right, bottom and left, respectively
+     * @return the id of the neighbor of the license with the passed id in the passed direction, or -1 if there is none
+     */
+    int neighborId(int id, int direction) {
+        int column = id % numberOfColumns;
+        switch (direction) {
+            case 0:
+                return id >= numberOfColumns ? id - numberOfColumns : -1;
+            case 1:
+                return column < numberOfColumns - 1 ? id + 1 : -1;
+            case 2:
+                return id < (numberOfRows - 1) * numberOfColumns ? id + numberOfColumns : -1;
+            case 3:
+                return column > 0 ? id - 1 : -1;
+            default:
+                throw new IllegalArgumentException("Invalid direction " + direction);
         }
-        return subpackages;
     }
 
-    private Set<LSVMLicense> addNeighbors(Set<LSVMLicense> currentSet, Bundle<LSVMLicense> possibleNeighbors) {
-        if (currentSet.size() == possibleNeighbors.size()) return currentSet;
-        else {
-            Set<LSVMLicense> linkedLicenses = new HashSet<>();
-            linkedLicenses.addAll(currentSet);
-            Bundle<LSVMLicense> unassigned = new Bundle<>(possibleNeighbors);
-            unassigned.removeAll(currentSet);
-
-            for (LSVMLicense license : unassigned) {
-                if (hasNeighbor(license, currentSet)) {
-                    linkedLicenses.add(license);
-                    linkedLicenses.addAll(addNeighbors(linkedLicenses, possibleNeighbors));
+    /**
+     * Labels the maximally connected subpackages of a bundle with a flood fill over the license ids.
+     * No collections are created, the running time is linear in the size of the grid.
+     *
+     * @param labels array with one entry per license, which is filled with the index of the subpackage
+     *               of the license, or -1 if the license is not in the bundle.
+     *               Subpackages are numbered in the order of their smallest license id.
+     * @return the number of maximally connected subpackages
+     */
+    int labelConnectedSubpackages(BitSetBundle<LSVMLicense> bundle, int[] labels) {
+        Preconditions.checkArgument(labels.length == numberOfRows * numberOfColumns);
+        Arrays.fill(labels, -1);
+        int[] stack = new int[bundle.size()];
+        int subpackages = 0;
+        for (int start = bundle.nextSetId(0); start >= 0; start = bundle.nextSetId(start + 1)) {
+            if (labels[start] >= 0) {
+                continue;
+            }
+            labels[start] = subpackages;
+            stack[0] = start;
+            int stackSize = 1;
+            while (stackSize > 0) {
+                int current = stack[--stackSize];
+                for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+                    int neighbor = neighborId(current, direction);
+                    if (neighbor >= 0 && labels[neighbor] < 0 && bundle.containsId(neighbor)) {
+                        labels[neighbor] = subpackages;
+                        stack[stackSize++] = neighbor;
+                    }
                 }
             }
-
-            return linkedLicenses;
-
+            subpackages++;
         }
-
+        return subpackages;
     }
 }
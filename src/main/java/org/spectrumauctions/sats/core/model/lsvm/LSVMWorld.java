@@ -2,6 +2,7 @@ package org.spectrumauctions.sats.core.model.lsvm;
 
 import com.google.common.collect.ImmutableSet;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
@@ -63,14 +64,22 @@ public final class LSVMWorld extends World {
     }
 
     public List<LSVMBidder> createPopulation(List<LSVMBidderSetup> setups, RNGSupplier populationRNG) {
+        return createPopulation(setups, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<LSVMBidder> createPopulation(List<LSVMBidderSetup> setups, RNGSupplier populationRNG, PopulationGenerator generator) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<LSVMBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<LSVMBidder>> factories = new ArrayList<>();
         for (LSVMBidderSetup setup : setups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new LSVMBidder(setup, this, currentId++, population, populationRNG));
+                long id = currentId++;
+                factories.add(rng -> new LSVMBidder(setup, this, id, population, rng));
             }
         }
-        return bidders;
+        return generator.createBidders(factories, populationRNG);
     }
 }
@@ -1,6 +1,7 @@
 package org.spectrumauctions.sats.core.model.lsvm;
 
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.ArrayList;
@@ -28,10 +29,18 @@ public class LocalSynergyValueModel extends DefaultModel<LSVMWorld, LSVMBidder>
      */
     @Override
     public List<LSVMBidder> createPopulation(LSVMWorld world, RNGSupplier populationRNG) {
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<LSVMBidder> createPopulation(LSVMWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
         List<LSVMBidderSetup> setups = new ArrayList<>();
         setups.add(nationalBidderBuilder.build());
         setups.add(regionalBidderBuilder.build());
-        return world.createPopulation(setups, populationRNG);
+        return world.createPopulation(setups, populationRNG, generator);
     }
 
     public void setNumberOfNationalBidders(int numberOfBidders) {
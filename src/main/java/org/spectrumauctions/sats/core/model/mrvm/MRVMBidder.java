@@ -13,18 +13,21 @@ import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
 import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetDecreasing;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasing;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.*;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
+import org.spectrumauctions.sats.core.util.math.PiecewiseLinearEvaluator;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -34,6 +37,9 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
 
     private static final long serialVersionUID = 8394009700504454313L;
     private transient MRVMWorld world;
+    private transient FastValueTables fastValueTables;
+    private transient GenericValueTables genericValueTables;
+    private transient Map<MRVMRegionsMap.Region, ContinuousPiecewiseLinearFunction> svFunctions;
 
     /**
      * A parameter defining an expected profit per served customer, if quality of service and regional discount are ignored.<br>
@@ -115,7 +121,19 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
         return svFunction(region).getY(c);
     }
 
+    /**
+     * The sv-function is built once per region and cached, hence the returned instance may be shared.
+     */
     public ContinuousPiecewiseLinearFunction svFunction(MRVMRegionsMap.Region region) {
+        Map<MRVMRegionsMap.Region, ContinuousPiecewiseLinearFunction> functions = svFunctions;
+        if (functions == null) {
+            functions = new ConcurrentHashMap<>();
+            svFunctions = functions;
+        }
+        return functions.computeIfAbsent(region, r -> new ContinuousPiecewiseLinearFunction(svCornerPoints(r)));
+    }
+
+    private Map<BigDecimal, BigDecimal> svCornerPoints(MRVMRegionsMap.Region region) {
         int population = region.getPopulation();
         BigDecimal beta = this.getBeta(region);
         Map<BigDecimal, BigDecimal> cornerPoints = new HashMap<>();
@@ -129,7 +147,7 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
         BigDecimal x3 = world.getMaximumRegionalCapacity();
         BigDecimal y3 = alpha;
         cornerPoints.put(x3, y3);
-        return new ContinuousPiecewiseLinearFunction(cornerPoints);
+        return cornerPoints;
     }
 
     /**
@@ -148,6 +166,15 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
      */
     public abstract Map<MRVMRegionsMap.Region, BigDecimal> gammaFactors(Bundle<MRVMLicense> bundle);
 
+    /**
+     * Calculates the gamma factor of a region for any bundle which does not contain licenses in <i>uncoveredRegions</i> many regions.
+     * See {@link #gammaFactor(MRVMRegionsMap.Region, Bundle)}.
+     *
+     * @param r                The region for which the discount is requested
+     * @param uncoveredRegions The number of regions in which the bundle does not contain any license
+     */
+    public abstract BigDecimal gammaFactor(MRVMRegionsMap.Region r, int uncoveredRegions);
+
     @Override
     public BigDecimal calculateValue(Bundle<MRVMLicense> bundle) {
         if (bundle.isEmpty()) {
@@ -173,28 +200,118 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
     }
 
     /**
+     * The regional capacities are summed up and the sv-functions are evaluated with doubles,
+     * using the same slopes and intercepts as {@link #svFunction(MRVMRegionsMap.Region)}.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<MRVMLicense> bundle) {
+        if (bundle.isEmpty()) {
+            return 0;
+        }
+        FastValueTables tables = fastValueTables;
+        if (tables == null) {
+            tables = new FastValueTables(this);
+            fastValueTables = tables;
+        }
+        int numberOfBands = tables.capacities.length;
+        int numberOfRegions = tables.omegaFactors.length;
+        int[] quantities = new int[numberOfRegions * numberOfBands];
+        for (int id = bundle.nextSetId(0); id >= 0; id = bundle.nextSetId(id + 1)) {
+            quantities[tables.regionIndexOf[id] * numberOfBands + tables.bandIndexOf[id]]++;
+        }
+        double[] capacities = new double[numberOfRegions];
+        int uncoveredRegions = 0;
+        for (int region = 0; region < numberOfRegions; region++) {
+            double c = 0;
+            boolean covered = false;
+            for (int band = 0; band < numberOfBands; band++) {
+                int quantity = quantities[region * numberOfBands + band];
+                if (quantity != 0) {
+                    c += tables.capacities[band][quantity];
+                    covered = true;
+                }
+            }
+            capacities[region] = c;
+            if (!covered) {
+                uncoveredRegions++;
+            }
+        }
+        double[] gammaFactors = tables.gammaFactors[uncoveredRegions];
+        double totalValue = 0;
+        for (int region = 0; region < numberOfRegions; region++) {
+            double sv = tables.sv(region, capacities[region]);
+            totalValue += sv * tables.omegaFactors[region] * gammaFactors[region];
+        }
+        return totalValue;
+    }
+
+    /**
+     * Evaluates the generic quantities directly, without creating a {@link Bundle}:
+     * The regional capacities are summed up from precomputed band capacities, and the sv-functions and gamma factors
+     * are taken from per-bidder tables. As all operations are the same as in {@link #calculateValue(Bundle)},
+     * the result is exactly the value of a bundle with the passed quantities.<br>
+     * Like when picking licenses for such a bundle, quantities exceeding the number of licenses of a band in a
+     * region are capped, and non-positive quantities are ignored.
+     *
      * @see GenericValueBidder#calculateValue(java.util.Map)
      */
     @Override
     public BigDecimal calculateValue(Map<MRVMGenericDefinition, Integer> genericQuantities) {
-        //TODO: Change this very naive approach to a faster one, where generics don't have to be transformed into bundles
-        Bundle<MRVMLicense> bundle = new Bundle<>();
-        Map<MRVMGenericDefinition, Integer> addedQuantities = new HashMap<>();
-        for (MRVMRegionsMap.Region region : getWorld().getRegionsMap().getRegions()) {
-            for (MRVMBand band : getWorld().getBands()) {
-                addedQuantities.put(new MRVMGenericDefinition(band, region), 0);
+        GenericValueTables tables = genericValueTables();
+        int numberOfBands = tables.bands.size();
+        int numberOfRegions = tables.regions.size();
+        int[] quantities = new int[numberOfRegions * numberOfBands];
+        boolean empty = true;
+        for (Entry<MRVMGenericDefinition, Integer> entry : genericQuantities.entrySet()) {
+            Integer quantity = entry.getValue();
+            if (quantity == null || quantity <= 0) {
+                continue;
+            }
+            Integer region = tables.regionIndices.get(entry.getKey().getRegion().getId());
+            Integer band = tables.bandIndices.get(entry.getKey().getBand().getName());
+            if (region == null || band == null) {
+                continue;
             }
+            quantities[region * numberOfBands + band] = Math.min(quantity, tables.capacities[band].length - 1);
+            empty = false;
+        }
+        if (empty) {
+            return BigDecimal.ZERO;
         }
-        for (MRVMLicense license : getWorld().getLicenses()) {
-            MRVMGenericDefinition def = new MRVMGenericDefinition(license.getBand(), license.getRegion());
-            Integer requiredQuantity = genericQuantities.get(def);
-            Integer addedQuantity = addedQuantities.get(def);
-            if (requiredQuantity != null && requiredQuantity > addedQuantity) {
-                bundle.add(license);
-                addedQuantities.put(def, addedQuantity + 1);
+        int uncoveredRegions = 0;
+        BigDecimal[] capacities = new BigDecimal[numberOfRegions];
+        for (int region = 0; region < numberOfRegions; region++) {
+            BigDecimal c = BigDecimal.ZERO;
+            boolean covered = false;
+            for (int band = 0; band < numberOfBands; band++) {
+                int quantity = quantities[region * numberOfBands + band];
+                if (quantity != 0) {
+                    c = c.add(tables.capacities[band][quantity]);
+                    covered = true;
+                }
             }
+            capacities[region] = c;
+            if (!covered) {
+                uncoveredRegions++;
+            }
+        }
+        BigDecimal[] gammaFactors = tables.gammaFactors[uncoveredRegions];
+        BigDecimal totalValue = BigDecimal.ZERO;
+        for (int region = 0; region < numberOfRegions; region++) {
+            BigDecimal sv = tables.svFunctions[region].getY(capacities[region]);
+            BigDecimal regionalValue = sv.multiply(tables.betas[region]).multiply(tables.populations[region]);
+            totalValue = totalValue.add(regionalValue.multiply(gammaFactors[region]));
         }
-        return calculateValue(bundle);
+        return totalValue;
+    }
+
+    private GenericValueTables genericValueTables() {
+        GenericValueTables tables = genericValueTables;
+        if (tables == null) {
+            tables = new GenericValueTables(this);
+            genericValueTables = tables;
+        }
+        return tables;
     }
 
 
@@ -249,6 +366,9 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this));
         } else if (clazz.isAssignableFrom(GenericSizeIncreasing.class)) {
             return clazz.cast(
                     SizeOrderedGenericFactory.getSizeOrderedGenericLang(true, this));
@@ -263,6 +383,9 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
                     SizeOrderedGenericPowersetFactory.getSizeOrderedGenericLang(false, this));
         } else if (clazz.isAssignableFrom(XORQRandomOrderSimple.class)) {
             return clazz.cast(RandomOrderXORQFactory.getXORQRandomOrderSimpleLang(this));
+        } else if (clazz.isAssignableFrom(GenericValueDecreasing.class)) {
+            return clazz.cast(
+                    ValueOrderedGenericFactory.getValueOrderedGenericLang(this));
         } else {
             throw new UnsupportedBiddingLanguageException();
         }
@@ -300,4 +423,146 @@ public abstract class MRVMBidder extends Bidder<MRVMLicense> implements GenericV
     }
 
 
+    /**
+     * Exact lookup tables for {@link #calculateValue(Map)}. Regions and bands are referred to by their index in
+     * {@link #regions} and {@link #bands}.
+     */
+    private static final class GenericValueTables {
+
+        private final List<MRVMRegionsMap.Region> regions;
+        private final List<MRVMBand> bands;
+        /** key: regionId, value: index in {@link #regions} */
+        private final Map<Integer, Integer> regionIndices = new HashMap<>();
+        /** key: band name, value: index in {@link #bands} */
+        private final Map<String, Integer> bandIndices = new HashMap<>();
+        /** Indexed by band and quantity, see {@link MRVMWorld#capOfBand(MRVMBand, int)} */
+        private final BigDecimal[][] capacities;
+        /** Indexed by region */
+        private final PiecewiseLinearEvaluator[] svFunctions;
+        private final BigDecimal[] betas;
+        private final BigDecimal[] populations;
+        /** Indexed by number of uncovered regions and region */
+        private final BigDecimal[][] gammaFactors;
+
+        private GenericValueTables(MRVMBidder bidder) {
+            MRVMWorld world = bidder.getWorld();
+            this.regions = new ArrayList<>(world.getRegionsMap().getRegions());
+            this.bands = new ArrayList<>(world.getBands());
+            for (int band = 0; band < bands.size(); band++) {
+                bandIndices.put(bands.get(band).getName(), band);
+            }
+            this.capacities = new BigDecimal[bands.size()][];
+            for (int band = 0; band < bands.size(); band++) {
+                capacities[band] = new BigDecimal[bands.get(band).getNumberOfLots() + 1];
+                for (int quantity = 0; quantity < capacities[band].length; quantity++) {
+                    capacities[band][quantity] = MRVMWorld.capOfBand(bands.get(band), quantity);
+                }
+            }
+            this.svFunctions = new PiecewiseLinearEvaluator[regions.size()];
+            this.betas = new BigDecimal[regions.size()];
+            this.populations = new BigDecimal[regions.size()];
+            for (int region = 0; region < regions.size(); region++) {
+                regionIndices.put(regions.get(region).getId(), region);
+                svFunctions[region] = bidder.svFunction(regions.get(region)).getEvaluator();
+                betas[region] = bidder.getBeta(regions.get(region));
+                populations[region] = new BigDecimal(String.valueOf(regions.get(region).getPopulation()));
+            }
+            this.gammaFactors = new BigDecimal[regions.size() + 1][regions.size()];
+            for (int uncovered = 0; uncovered <= regions.size(); uncovered++) {
+                for (int region = 0; region < regions.size(); region++) {
+                    gammaFactors[uncovered][region] = bidder.gammaFactor(regions.get(region), uncovered);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lookup tables for {@link #calculateValueFast(BitSetBundle)}. Regions and bands are referred to by their index in
+     * {@link #regions} and {@link #bands}.
+     */
+    private static final class FastValueTables {
+
+        private final List<MRVMRegionsMap.Region> regions;
+        private final List<MRVMBand> bands;
+        /** Indexed by license id */
+        private final int[] regionIndexOf;
+        /** Indexed by license id */
+        private final int[] bandIndexOf;
+        /** Indexed by band and quantity, see {@link MRVMWorld#capOfBand(MRVMBand, int)} */
+        private final double[][] capacities;
+        /** Indexed by region and sv-function piece, taken from the region's {@link PiecewiseLinearEvaluator} */
+        private final double[][] pieceUpperBounds;
+        private final double[][] slopes;
+        private final double[][] intercepts;
+        /** Indexed by region, beta times population */
+        private final double[] omegaFactors;
+        /** Indexed by number of uncovered regions and region */
+        private final double[][] gammaFactors;
+
+        private FastValueTables(MRVMBidder bidder) {
+            MRVMWorld world = bidder.getWorld();
+            this.regions = new ArrayList<>(world.getRegionsMap().getRegions());
+            this.bands = new ArrayList<>(world.getBands());
+            int maxId = 0;
+            for (MRVMLicense license : world.getLicenses()) {
+                maxId = Math.max(maxId, (int) license.getId());
+            }
+            this.regionIndexOf = new int[maxId + 1];
+            this.bandIndexOf = new int[maxId + 1];
+            Map<Integer, Integer> regionIndices = new HashMap<>();
+            for (int region = 0; region < regions.size(); region++) {
+                regionIndices.put(regions.get(region).getId(), region);
+            }
+            Map<String, Integer> bandIndices = new HashMap<>();
+            for (int band = 0; band < bands.size(); band++) {
+                bandIndices.put(bands.get(band).getName(), band);
+            }
+            for (MRVMLicense license : world.getLicenses()) {
+                regionIndexOf[(int) license.getId()] = regionIndices.get(license.getRegionId());
+                bandIndexOf[(int) license.getId()] = bandIndices.get(license.getBandName());
+            }
+            this.capacities = new double[bands.size()][];
+            for (int band = 0; band < bands.size(); band++) {
+                capacities[band] = new double[bands.get(band).getNumberOfLots() + 1];
+                for (int quantity = 0; quantity < capacities[band].length; quantity++) {
+                    capacities[band][quantity] = MRVMWorld.capOfBand(bands.get(band), quantity).doubleValue();
+                }
+            }
+            this.pieceUpperBounds = new double[regions.size()][];
+            this.slopes = new double[regions.size()][];
+            this.intercepts = new double[regions.size()][];
+            this.omegaFactors = new double[regions.size()];
+            for (int region = 0; region < regions.size(); region++) {
+                PiecewiseLinearEvaluator svFunction = bidder.svFunction(regions.get(region)).getEvaluator();
+                int numberOfPieces = svFunction.getNumberOfPieces();
+                pieceUpperBounds[region] = new double[numberOfPieces];
+                slopes[region] = new double[numberOfPieces];
+                intercepts[region] = new double[numberOfPieces];
+                for (int piece = 0; piece < numberOfPieces; piece++) {
+                    pieceUpperBounds[region][piece] = svFunction.getCornerX(piece + 1).doubleValue();
+                    slopes[region][piece] = svFunction.getPiece(piece).getSlope().doubleValue();
+                    intercepts[region][piece] = svFunction.getPiece(piece).getyIntercept().doubleValue();
+                }
+                BigDecimal population = new BigDecimal(String.valueOf(regions.get(region).getPopulation()));
+                omegaFactors[region] = bidder.getBeta(regions.get(region)).multiply(population).doubleValue();
+            }
+            this.gammaFactors = new double[regions.size() + 1][regions.size()];
+            for (int uncovered = 0; uncovered <= regions.size(); uncovered++) {
+                for (int region = 0; region < regions.size(); region++) {
+                    gammaFactors[uncovered][region] = bidder.gammaFactor(regions.get(region), uncovered).doubleValue();
+                }
+            }
+        }
+
+        private double sv(int region, double c) {
+            double[] upperBounds = pieceUpperBounds[region];
+            int piece = 0;
+            // The sv-functions have few pieces, hence a linear scan beats a binary search.
+            // The last piece is also used if c exceeds the domain due to rounding
+            while (piece < upperBounds.length - 1 && c > upperBounds[piece]) {
+                piece++;
+            }
+            return slopes[region][piece] * c + intercepts[region][piece];
+        }
+    }
 }
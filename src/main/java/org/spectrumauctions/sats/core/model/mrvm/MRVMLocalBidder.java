@@ -24,7 +24,7 @@ public final class MRVMLocalBidder extends MRVMBidder {
      * Caches the gamma factors.<br>
      * This is only instantiated at its first use.
      */
-    private transient Map<MRVMRegionsMap.Region, BigDecimal> gammaFactorCache = null;
+    private transient volatile Map<MRVMRegionsMap.Region, BigDecimal> gammaFactorCache = null;
 
     /**
      * Stores the ids of all regions for which this bidder is interested
@@ -84,6 +84,15 @@ public final class MRVMLocalBidder extends MRVMBidder {
         return Collections.unmodifiableMap(gammaFactorCache);
     }
 
+    /**
+     * {@inheritDoc}
+     * @param uncoveredRegions Is not required for calculation of local bidders gamma factors and will be ignored.
+     */
+    @Override
+    public BigDecimal gammaFactor(MRVMRegionsMap.Region r, int uncoveredRegions) {
+        return gammaFactors(null).get(r);
+    }
+
     @Override
     public <T extends BiddingLanguage> T getValueFunction(Class<T> type, long seed)
             throws UnsupportedBiddingLanguageException {
@@ -71,6 +71,11 @@ public final class MRVMNationalBidder extends MRVMBidder {
         return gamma;
     }
 
+    @Override
+    public BigDecimal gammaFactor(MRVMRegionsMap.Region r, int uncoveredRegions) {
+        return getGamma(uncoveredRegions);
+    }
+
     /**
      * {@inheritDoc}<br><br>
      * As gamma is not dependent on the region for national bidders, the returned map will contain the same value for all keys,
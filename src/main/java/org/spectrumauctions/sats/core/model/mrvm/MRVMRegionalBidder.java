@@ -14,6 +14,7 @@ import org.spectrumauctions.sats.core.util.BigDecimalUtils;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
@@ -30,6 +31,11 @@ public final class MRVMRegionalBidder extends MRVMBidder {
     transient MRVMRegionsMap.Region home;
 
     private final SortedMap<Integer, BigDecimal> distanceDiscounts;
+    /**
+     * Caches the gamma factors.<br>
+     * This is only instantiated at its first use.
+     */
+    private transient volatile Map<MRVMRegionsMap.Region, BigDecimal> gammaFactorCache = null;
 
     MRVMRegionalBidder(long id, long populationId, MRVMWorld world, MRVMRegionalBidderSetup setup,
                        UniformDistributionRNG rng) {
@@ -69,7 +75,7 @@ public final class MRVMRegionalBidder extends MRVMBidder {
      */
     @Override
     public BigDecimal gammaFactor(MRVMRegionsMap.Region r, Bundle<MRVMLicense> bundle) {
-        int distance = getWorld().getRegionsMap().getDistance(home, r);
+        int distance = getWorld().getRegionsMap().getDistance(homeId, r.getId());
         if (distance > distanceDiscounts.lastKey()) {
             //Not connected regions
             return BigDecimal.ZERO;
@@ -83,16 +89,31 @@ public final class MRVMRegionalBidder extends MRVMBidder {
      */
     @Override
     public Map<MRVMRegionsMap.Region, BigDecimal> gammaFactors(Bundle<MRVMLicense> bundle) {
-        Map<MRVMRegionsMap.Region, BigDecimal> result = new HashMap<>();
-        for (MRVMRegionsMap.Region region : getWorld().getRegionsMap().getRegions()) {
-            // Note that repeatedly calculating distance is not expensive, as distance is cached in Map Instance
-            int distance = getWorld().getRegionsMap().getDistance(home, region);
-            BigDecimal discount = distanceDiscounts.getOrDefault(distance, BigDecimal.ZERO);
-            result.put(region, discount);
+        Map<MRVMRegionsMap.Region, BigDecimal> result = gammaFactorCache;
+        if (result == null) {
+            result = new HashMap<>();
+            MRVMRegionsMap regionsMap = getWorld().getRegionsMap();
+            for (MRVMRegionsMap.Region region : regionsMap.getRegions()) {
+                int distance = regionsMap.getDistance(homeId, region.getId());
+                BigDecimal discount = distanceDiscounts.getOrDefault(distance, BigDecimal.ZERO);
+                result.put(region, discount);
+            }
+            result = Collections.unmodifiableMap(result);
+            gammaFactorCache = result;
         }
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * @param uncoveredRegions Is not required for calculation of regional bidders gamma factors and will be ignored.
+     */
+    @Override
+    public BigDecimal gammaFactor(MRVMRegionsMap.Region r, int uncoveredRegions) {
+        int distance = getWorld().getRegionsMap().getDistance(homeId, r.getId());
+        return distanceDiscounts.getOrDefault(distance, BigDecimal.ZERO);
+    }
+
     /* (non-Javadoc)
      * @see Bidder#getValueFunctionRepresentation(java.lang.Class, long)
      */
@@ -113,6 +134,7 @@ public final class MRVMRegionalBidder extends MRVMBidder {
             throw new IllegalArgumentException("The specified world does not have this bidders home region");
         } else {
             this.home = homeCandidate;
+            this.gammaFactorCache = null;
         }
     }
 
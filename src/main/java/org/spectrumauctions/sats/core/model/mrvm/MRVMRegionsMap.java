@@ -6,9 +6,7 @@
 package org.spectrumauctions.sats.core.model.mrvm;
 
 import com.google.common.base.Preconditions;
-import org.jgrapht.GraphPath;
 import org.jgrapht.UndirectedGraph;
-import org.jgrapht.alg.FloydWarshallShortestPaths;
 import org.jgrapht.graph.*;
 import org.spectrumauctions.sats.core.util.random.GaussianDistributionRNG;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
@@ -24,14 +22,19 @@ public class MRVMRegionsMap implements Serializable {
 
     private static final long serialVersionUID = -7539511827334949347L;
     private final UnmodifiableUndirectedGraph<Region, DefaultEdge> adjacencyGraph;
-    private transient FloydWarshallShortestPaths<Region, DefaultEdge> floyedWarshallDistances = null;
+    /**
+     * The distances, eccentricities and adjacencies of all regions, computed once when the map is created
+     * and serialized with it. Maps which were stored before these tables existed compute them at first use.
+     */
+    private volatile RegionDistances regionDistances;
+    private transient volatile Region[] regionsById = null;
 
 
     public MRVMRegionsMap(MRVMWorldSetup worldStructure, RNGSupplier rngSupplier) {
         UndirectedGraph<MRVMWorldSetup.RegionSetup, DefaultEdge> graphStructure =
                 worldStructure.drawGraphStructure(rngSupplier.getUniformDistributionRNG());
         adjacencyGraph = makeGraph(graphStructure, rngSupplier.getGaussianDistributionRNG());
-
+        regionDistances = new RegionDistances(adjacencyGraph);
     }
 
 
@@ -55,27 +58,57 @@ public class MRVMRegionsMap implements Serializable {
     }
 
 
-    private FloydWarshallShortestPaths<Region, DefaultEdge> getFloyedWarshallDistances() {
-        if (floyedWarshallDistances == null) {
-            floyedWarshallDistances = new FloydWarshallShortestPaths<>(adjacencyGraph);
+    private RegionDistances getDistances() {
+        RegionDistances result = regionDistances;
+        if (result == null) {
+            result = new RegionDistances(adjacencyGraph);
+            regionDistances = result;
+        }
+        return result;
+    }
+
+    private Region[] getRegionsById() {
+        Region[] result = regionsById;
+        if (result == null) {
+            result = new Region[getNumberOfRegions()];
+            for (Region region : adjacencyGraph.vertexSet()) {
+                result[region.getId()] = region;
+            }
+            regionsById = result;
         }
-        return floyedWarshallDistances;
+        return result;
+    }
+
+    private int checkedId(Region region) {
+        Preconditions.checkArgument(adjacencyGraph.containsVertex(region), "Region not part of this map");
+        return region.getId();
     }
 
     /**
-     * Returns the length of the longest shortest path in the adjacency graph between the specified region and any other region.
+     * Returns the length of the longest shortest path in the adjacency graph between any two regions.<br>
+     * Note: Regional bidders draw their distance discounts up to this length. To draw identical bidders
+     * as in earlier versions, this is not the eccentricity of the specified region, which is available
+     * as {@link #getEccentricity(Region)}.
      */
     public int getLongestShortestPath(Region region) {
-        Preconditions.checkArgument(adjacencyGraph.containsVertex(region));
-        List<GraphPath<Region, DefaultEdge>> shortestPaths = getFloyedWarshallDistances().getShortestPaths();
-        int max = 0;
-        for (GraphPath<Region, DefaultEdge> candidatePath : shortestPaths) {
-            int length = candidatePath.getEdgeList().size();
-            if (length > max) {
-                max = length;
-            }
-        }
-        return max;
+        checkedId(region);
+        return getDistances().longestShortestPath;
+    }
+
+    /**
+     * Returns the eccentricity of the specified region,
+     * i.e., the largest distance between the region and any other region connected to it.
+     */
+    public int getEccentricity(Region region) {
+        return getEccentricity(checkedId(region));
+    }
+
+    /**
+     * @param regionId the id of a region in this map
+     * @see #getEccentricity(Region)
+     */
+    public int getEccentricity(int regionId) {
+        return getDistances().eccentricities[regionId];
     }
 
     public Set<Region> adjacentRegions(Region region) {
@@ -83,9 +116,11 @@ public class MRVMRegionsMap implements Serializable {
             throw new RuntimeException("Region not part of this map");
         } else {
             Set<Region> adjacentRegions = new HashSet<>();
-            for (Region neighborCandidate : getRegions()) {
-                if (adjacencyGraph.containsEdge(region, neighborCandidate)) {
-                    adjacentRegions.add(neighborCandidate);
+            long[] adjacency = getDistances().adjacency[region.getId()];
+            Region[] regions = getRegionsById();
+            for (int i = 0; i < regions.length; i++) {
+                if ((adjacency[i >> 6] & (1L << i)) != 0) {
+                    adjacentRegions.add(regions[i]);
                 }
             }
             return adjacentRegions;
@@ -110,11 +145,17 @@ public class MRVMRegionsMap implements Serializable {
      * @return true if two regions is adjacent, i.e., if they share a border.
      */
     public boolean areAdjacent(Region region, Region otherRegion) {
-        if (this.adjacencyGraph.containsEdge(otherRegion, region)
-                || this.adjacencyGraph.containsEdge(region, otherRegion)) {
-            return true;
+        if (!adjacencyGraph.containsVertex(region) || !adjacencyGraph.containsVertex(otherRegion)) {
+            return false;
         }
-        return false;
+        return areAdjacent(region.getId(), otherRegion.getId());
+    }
+
+    /**
+     * @return true if the regions with the specified ids are adjacent, i.e., if they share a border.
+     */
+    public boolean areAdjacent(int regionId, int otherRegionId) {
+        return (getDistances().adjacency[regionId][otherRegionId >> 6] & (1L << otherRegionId)) != 0;
     }
 
     /**
@@ -130,17 +171,14 @@ public class MRVMRegionsMap implements Serializable {
         if (regionOne.equals(regionTwo)) {
             return 0;
         }
-        GraphPath<Region, DefaultEdge> shortestPath = getFloyedWarshallDistances().getShortestPath(regionOne, regionTwo);
-        if (shortestPath == null) {
-            //No path found, return max distance
-            return getNumberOfRegions() - 1;
-        }
-        List<DefaultEdge> path = shortestPath.getEdgeList();
-        if (path == null) {
-            //No path found, return max distance
-            return getNumberOfRegions() - 1;
-        }
-        return path.size();
+        return getDistance(checkedId(regionOne), checkedId(regionTwo));
+    }
+
+    /**
+     * @return the distance between the regions with the specified ids, as defined in {@link #getDistance(Region, Region)}
+     */
+    public int getDistance(int regionOneId, int regionTwoId) {
+        return getDistances().distances[regionOneId][regionTwoId];
     }
 
 
@@ -153,12 +191,11 @@ public class MRVMRegionsMap implements Serializable {
     }
 
     public Region getRegion(int id) {
-        for (Region region : getRegions()) {
-            if (region.getId() == id) {
-                return region;
-            }
+        Region[] regions = getRegionsById();
+        if (id < 0 || id >= regions.length) {
+            throw new IllegalArgumentException("ID not known");
         }
-        throw new IllegalArgumentException("ID not known");
+        return regions[id];
     }
 
 
@@ -189,6 +226,81 @@ public class MRVMRegionsMap implements Serializable {
     }
 
 
+    /**
+     * The all-pairs distances of the regions, computed by a breadth-first search from every region.
+     * All tables are indexed by region id.
+     */
+    private static final class RegionDistances implements Serializable {
+
+        private static final long serialVersionUID = 2840583729120349712L;
+
+        /** The distance between two regions, or the number of regions - 1 if they are not connected */
+        private final int[][] distances;
+        /** The largest distance of every region to any region connected to it */
+        private final int[] eccentricities;
+        /** For every region: a bitset of its adjacent regions */
+        private final long[][] adjacency;
+        /** The largest eccentricity, i.e., the longest shortest path between any two regions */
+        private final int longestShortestPath;
+
+        private RegionDistances(UndirectedGraph<Region, DefaultEdge> graph) {
+            int numberOfRegions = graph.vertexSet().size();
+            int numberOfWords = (numberOfRegions + 63) >> 6;
+            Region[] regions = new Region[numberOfRegions];
+            for (Region region : graph.vertexSet()) {
+                Preconditions.checkState(region.getId() >= 0 && region.getId() < numberOfRegions && regions[region.getId()] == null,
+                        "Region ids must range from 0 to the number of regions - 1");
+                regions[region.getId()] = region;
+            }
+            int[][] neighbors = new int[numberOfRegions][];
+            adjacency = new long[numberOfRegions][numberOfWords];
+            for (int i = 0; i < numberOfRegions; i++) {
+                Set<DefaultEdge> edges = graph.edgesOf(regions[i]);
+                neighbors[i] = new int[edges.size()];
+                int count = 0;
+                for (DefaultEdge edge : edges) {
+                    Region source = graph.getEdgeSource(edge);
+                    int neighbor = (source.equals(regions[i]) ? graph.getEdgeTarget(edge) : source).getId();
+                    neighbors[i][count++] = neighbor;
+                    adjacency[i][neighbor >> 6] |= 1L << neighbor;
+                }
+            }
+            distances = new int[numberOfRegions][];
+            eccentricities = new int[numberOfRegions];
+            int longest = 0;
+            int[] queue = new int[numberOfRegions];
+            for (int i = 0; i < numberOfRegions; i++) {
+                int[] row = new int[numberOfRegions];
+                Arrays.fill(row, -1);
+                row[i] = 0;
+                queue[0] = i;
+                int head = 0;
+                int tail = 1;
+                while (head < tail) {
+                    int current = queue[head++];
+                    for (int neighbor : neighbors[current]) {
+                        if (row[neighbor] < 0) {
+                            row[neighbor] = row[current] + 1;
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                }
+                // The last region found has the largest distance
+                eccentricities[i] = row[queue[tail - 1]];
+                longest = Math.max(longest, eccentricities[i]);
+                for (int j = 0; j < numberOfRegions; j++) {
+                    if (row[j] < 0) {
+                        //No path found, use max distance
+                        row[j] = numberOfRegions - 1;
+                    }
+                }
+                distances[i] = row;
+            }
+            longestShortestPath = longest;
+        }
+    }
+
+
     public static class Region implements Serializable {
 
         private static final long serialVersionUID = 6138501456844925185L;
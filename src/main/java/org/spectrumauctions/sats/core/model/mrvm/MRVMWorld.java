@@ -8,6 +8,7 @@ package org.spectrumauctions.sats.core.model.mrvm;
 import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
@@ -218,6 +219,17 @@ public final class MRVMWorld extends World {
                                              MRVMRegionalBidderSetup regionalSetup,
                                              MRVMNationalBidderSetup nationalSetup,
                                              RNGSupplier rngSupplier) {
+        return createPopulation(localSetup, regionalSetup, nationalSetup, rngSupplier, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<MRVMBidder> createPopulation(MRVMLocalBidderSetup localSetup,
+                                             MRVMRegionalBidderSetup regionalSetup,
+                                             MRVMNationalBidderSetup nationalSetup,
+                                             RNGSupplier rngSupplier,
+                                             PopulationGenerator generator) {
         Collection<MRVMLocalBidderSetup> localSetups = null;
         Collection<MRVMRegionalBidderSetup> regionalSetups = null;
         Collection<MRVMNationalBidderSetup> nationalSetups = null;
@@ -233,7 +245,7 @@ public final class MRVMWorld extends World {
             nationalSetups = new HashSet<>();
             nationalSetups.add(nationalSetup);
         }
-        return createPopulation(localSetups, regionalSetups, nationalSetups, rngSupplier);
+        return createPopulation(localSetups, regionalSetups, nationalSetups, rngSupplier, generator);
     }
 
 
@@ -241,32 +253,46 @@ public final class MRVMWorld extends World {
                                              Collection<MRVMRegionalBidderSetup> regionalSetups,
                                              Collection<MRVMNationalBidderSetup> nationalSetups,
                                              RNGSupplier rngSupplier) {
+        return createPopulation(localSetups, regionalSetups, nationalSetups, rngSupplier, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<MRVMBidder> createPopulation(Collection<MRVMLocalBidderSetup> localSetups,
+                                             Collection<MRVMRegionalBidderSetup> regionalSetups,
+                                             Collection<MRVMNationalBidderSetup> nationalSetups,
+                                             RNGSupplier rngSupplier,
+                                             PopulationGenerator generator) {
         long population = openNewPopulation();
-        List<MRVMBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<MRVMBidder>> factories = new ArrayList<>();
         int idCount = 0;
         if (localSetups != null) {
             for (MRVMLocalBidderSetup setup : localSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMLocalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG()));
+                    long id = idCount++;
+                    factories.add(rng -> new MRVMLocalBidder(id, population, this, setup, rng.getUniformDistributionRNG()));
                 }
             }
         }
         if (regionalSetups != null) {
             for (MRVMRegionalBidderSetup setup : regionalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMRegionalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG()));
+                    long id = idCount++;
+                    factories.add(rng -> new MRVMRegionalBidder(id, population, this, setup, rng.getUniformDistributionRNG()));
                 }
             }
         }
         if (nationalSetups != null) {
             for (MRVMNationalBidderSetup setup : nationalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMNationalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG()));
+                    long id = idCount++;
+                    factories.add(rng -> new MRVMNationalBidder(id, population, this, setup, rng.getUniformDistributionRNG()));
                 }
             }
         }
-        Preconditions.checkArgument(bidders.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
-        return bidders;
+        Preconditions.checkArgument(factories.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
+        return generator.createBidders(factories, rngSupplier);
     }
 
 }
@@ -7,6 +7,7 @@ package org.spectrumauctions.sats.core.model.mrvm;
 
 import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.List;
@@ -43,7 +44,15 @@ public class MultiRegionModel extends DefaultModel<MRVMWorld, MRVMBidder> {
      */
     @Override
     public List<MRVMBidder> createPopulation(MRVMWorld world, RNGSupplier populationRNG) {
-        return world.createPopulation(localBidderBuilder.build(), regionalBidderBuilder.build(), nationalBidderBuilder.build(), populationRNG);
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<MRVMBidder> createPopulation(MRVMWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
+        return world.createPopulation(localBidderBuilder.build(), regionalBidderBuilder.build(), nationalBidderBuilder.build(), populationRNG, generator);
     }
 
     public void setNumberOfLocalBidders(int number) {
@@ -0,0 +1,67 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model.mrvm;
+
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasing;
+import org.spectrumauctions.sats.core.model.Bidder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author Michael Weiss
+ *
+ */
+public class ValueOrderedGenericFactory {
+
+    public static GenericValueDecreasing<MRVMGenericDefinition> getValueOrderedGenericLang(MRVMBidder bidder) {
+        List<MRVMGenericDefinition> definitions = new ArrayList<>();
+        for (MRVMBand band : bidder.getWorld().getBands()) {
+            for (MRVMRegionsMap.Region region : bidder.getWorld().getRegionsMap().getRegions()) {
+                definitions.add(new MRVMGenericDefinition(band, region));
+            }
+        }
+        return new Decreasing(definitions, bidder);
+    }
+
+
+    private static final class Decreasing extends GenericValueDecreasing<MRVMGenericDefinition> {
+
+
+        private final MRVMBidder bidder;
+
+        Decreasing(Collection<MRVMGenericDefinition> allPossibleGenericDefinitions, MRVMBidder bidder) {
+            super(allPossibleGenericDefinitions);
+            this.bidder = bidder;
+        }
+
+        @Override
+        public Bidder<MRVMLicense> getBidder() {
+            return bidder;
+        }
+
+        /**
+         * @see GenericValueDecreasing#getGenericBidder()
+         */
+        @Override
+        protected GenericValueBidder<MRVMGenericDefinition> getGenericBidder() {
+            return bidder;
+        }
+
+        /**
+         * @see GenericValueDecreasing#getDefComparator()
+         */
+        @Override
+        protected Comparator<MRVMGenericDefinition> getDefComparator() {
+            return SizeOrderedGenericFactory.comparator;
+        }
+    }
+
+
+}
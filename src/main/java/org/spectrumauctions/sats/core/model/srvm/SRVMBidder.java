@@ -9,11 +9,17 @@ import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
 import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetDecreasing;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasing;
 import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.model.BandDemandQuery;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
 import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.DemandQuery;
+import org.spectrumauctions.sats.core.model.DemandQueryResult;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
@@ -22,20 +28,23 @@ import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 /**
  * @author Michael Weiss
  */
-public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValueBidder<SRVMBand> {
+public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValueBidder<SRVMBand>, DemandQuery<SRVMLicense> {
 
     private static final int CALCSCALE = 5;
     private static final long serialVersionUID = -4577743658098455267L;
 
     private transient SRVMWorld world;
+    private transient FastValueTables fastValueTables;
     private final BigDecimal bidderStrength;
     private final HashMap<String, Integer> synergyThreshold;
     private final HashMap<String, BigDecimal> baseValues;
@@ -121,6 +130,40 @@ public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValu
 
     @Override
     public BigDecimal calculateValue(Bundle<SRVMLicense> licenses) {
+        return calculateValue(countLicensesPerBand(licenses));
+    }
+
+    @Override
+    public BigDecimal calculateValue(BitSetBundle<SRVMLicense> licenses) {
+        return calculateValue(countLicensesPerBand(licenses));
+    }
+
+    /**
+     * The band values are precomputed exactly for every quantity, hence only their sum
+     * and the multiplication with the interband synergy value are calculated with doubles.
+     */
+    @Override
+    public double calculateValueFast(BitSetBundle<SRVMLicense> licenses) {
+        FastValueTables tables = fastValueTables();
+        int[] quantities = new int[tables.bandValues.length];
+        for (int id = licenses.nextSetId(0); id >= 0; id = licenses.nextSetId(id + 1)) {
+            quantities[tables.bandIndexOf[id]]++;
+        }
+        double value = 0;
+        int synergyBandCount = 0;
+        for (int band = 0; band < quantities.length; band++) {
+            if (quantities[band] != 0) {
+                value += tables.bandValues[band][quantities[band]];
+                synergyBandCount++;
+            }
+        }
+        if (synergyBandCount >= 2) {
+            value *= tables.interbandSynergyValue;
+        }
+        return value;
+    }
+
+    private Map<SRVMBand, Integer> countLicensesPerBand(Iterable<SRVMLicense> licenses) {
         Map<SRVMBand, Integer> bandCount = new HashMap<>();
         for (SRVMBand band : this.getWorld().getBands()) {
             bandCount.put(band, 0);
@@ -128,7 +171,7 @@ public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValu
         for (SRVMLicense license : licenses) {
             bandCount.put(license.getBand(), bandCount.get(license.getBand()) + 1);
         }
-        return calculateValue(bandCount);
+        return bandCount;
     }
 
 
@@ -196,6 +239,9 @@ public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValu
         } else if (clazz.isAssignableFrom(DecreasingSizeOrderedXOR.class)) {
             return clazz.cast(
                     new DecreasingSizeOrderedXOR<>(world.getLicenses(), this));
+        } else if (clazz.isAssignableFrom(DecreasingValueOrderedXOR.class)) {
+            return clazz.cast(
+                    new DecreasingValueOrderedXOR<>(world.getLicenses(), this));
         } else if (clazz.isAssignableFrom(GenericSizeIncreasing.class)) {
             return clazz.cast(
                     SizeOrderedGenericFactory.getSizeOrderedGenericLang(true, this));
@@ -211,6 +257,9 @@ public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValu
         } else if (clazz.isAssignableFrom(XORQRandomOrderSimple.class)) {
             return clazz.cast(
                     RandomOrderXORQFactory.getXORQRandomOrderSimpleLang(this));
+        } else if (clazz.isAssignableFrom(GenericValueDecreasing.class)) {
+            return clazz.cast(
+                    ValueOrderedGenericFactory.getValueOrderedGenericLang(this));
         } else {
             throw new UnsupportedBiddingLanguageException();
         }
@@ -279,4 +328,61 @@ public final class SRVMBidder extends Bidder<SRVMLicense> implements GenericValu
     }
 
 
+    /**
+     * Solved by {@link BandDemandQuery}, using the precomputed band values of {@link #calculateValueFast(BitSetBundle)}.
+     * The value of the demanded bundle is calculated exactly.
+     */
+    @Override
+    public DemandQueryResult<SRVMLicense> getDemand(Map<SRVMLicense, BigDecimal> prices) {
+        FastValueTables tables = fastValueTables();
+        Bundle<SRVMLicense> bundle = BandDemandQuery.demandedBundle(tables.licensesPerBand, tables.bandValues, tables.interbandSynergyValue, prices);
+        return new DemandQueryResult<>(bundle, calculateValue(bundle), prices);
+    }
+
+    private FastValueTables fastValueTables() {
+        FastValueTables tables = fastValueTables;
+        if (tables == null) {
+            tables = new FastValueTables(this);
+            fastValueTables = tables;
+        }
+        return tables;
+    }
+
+    /**
+     * Lookup tables for {@link #calculateValueFast(BitSetBundle)} and {@link #getDemand(Map)}
+     */
+    private static final class FastValueTables {
+
+        /** Indexed by license id */
+        private final int[] bandIndexOf;
+        /** Indexed by band index */
+        private final List<List<SRVMLicense>> licensesPerBand = new ArrayList<>();
+        /** Indexed by band index and quantity */
+        private final double[][] bandValues;
+        private final double interbandSynergyValue;
+
+        private FastValueTables(SRVMBidder bidder) {
+            List<SRVMBand> bands = new ArrayList<>(bidder.getWorld().getBands());
+            int maxId = 0;
+            for (SRVMBand band : bands) {
+                for (SRVMLicense license : band.getLicenses()) {
+                    maxId = Math.max(maxId, (int) license.getId());
+                }
+            }
+            this.bandIndexOf = new int[maxId + 1];
+            this.bandValues = new double[bands.size()][];
+            for (int bandIndex = 0; bandIndex < bands.size(); bandIndex++) {
+                SRVMBand band = bands.get(bandIndex);
+                for (SRVMLicense license : band.getLicenses()) {
+                    bandIndexOf[(int) license.getId()] = bandIndex;
+                }
+                licensesPerBand.add(new ArrayList<>(band.getLicenses()));
+                bandValues[bandIndex] = new double[band.getNumberOfLicenses() + 1];
+                for (int quantity = 1; quantity <= band.getNumberOfLicenses(); quantity++) {
+                    bandValues[bandIndex][quantity] = bidder.getBandValue(band, quantity).doubleValue();
+                }
+            }
+            this.interbandSynergyValue = bidder.interbandSynergyValue.doubleValue();
+        }
+    }
 }
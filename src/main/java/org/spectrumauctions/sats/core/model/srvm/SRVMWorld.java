@@ -7,6 +7,7 @@ package org.spectrumauctions.sats.core.model.srvm;
 
 import com.google.common.collect.ImmutableSet;
 import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
@@ -67,15 +68,23 @@ public final class SRVMWorld extends World {
     }
 
     public List<SRVMBidder> createPopulation(Collection<SRVMBidderSetup> bidderSetups, RNGSupplier rngSupplier) {
+        return createPopulation(bidderSetups, rngSupplier, PopulationGenerator.DEFAULT);
+    }
+
+    /**
+     * @see PopulationGenerator
+     */
+    public List<SRVMBidder> createPopulation(Collection<SRVMBidderSetup> bidderSetups, RNGSupplier rngSupplier, PopulationGenerator generator) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<SRVMBidder> bidders = new ArrayList<>();
+        List<PopulationGenerator.BidderFactory<SRVMBidder>> factories = new ArrayList<>();
         for (SRVMBidderSetup setup : bidderSetups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new SRVMBidder(setup, this, currentId++, population, rngSupplier));
+                long id = currentId++;
+                factories.add(rng -> new SRVMBidder(setup, this, id, population, rng));
             }
         }
-        return bidders;
+        return generator.createBidders(factories, rngSupplier);
     }
 
 
@@ -6,6 +6,7 @@
 package org.spectrumauctions.sats.core.model.srvm;
 
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.ArrayList;
@@ -36,12 +37,20 @@ public class SingleRegionModel extends DefaultModel<SRVMWorld, SRVMBidder> {
      */
     @Override
     public List<SRVMBidder> createPopulation(SRVMWorld world, RNGSupplier populationRNG) {
+        return createPopulation(world, populationRNG, PopulationGenerator.DEFAULT);
+    }
+
+    /* (non-Javadoc)
+     * @see org.spectrumauctions.sats.core.model.DefaultModel#createPopulation(World, RNGSupplier, PopulationGenerator)
+     */
+    @Override
+    public List<SRVMBidder> createPopulation(SRVMWorld world, RNGSupplier populationRNG, PopulationGenerator generator) {
         List<SRVMBidderSetup> setups = new ArrayList<>();
         setups.add(smallBidderBuilder.build());
         setups.add(highFrequencyBuilder.build());
         setups.add(secondaryBidderBuilder.build());
         setups.add(primaryBidderBuilder.build());
-        return world.createPopulation(setups, populationRNG);
+        return world.createPopulation(setups, populationRNG, generator);
     }
 
     public void setNumberOfSmallBidders(int numberOfBidders) {
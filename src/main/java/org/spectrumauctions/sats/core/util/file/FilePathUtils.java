@@ -29,7 +29,7 @@ public class FilePathUtils {
      * Important, if you want to change this 
      *
      */
-    public static java.io.File FOLDER = new java.io.File("sats_output");
+    public static volatile java.io.File FOLDER = new java.io.File("sats_output");
 
     private final java.io.File folder;
     private static final String FILE_TYPE_BIDDER = ".bidder.json";
@@ -38,22 +38,28 @@ public class FilePathUtils {
     private static final int POPULATION_ID_LENGTH = 5;
     private static final int WORLD_ID_LENGTH = 5;
 
-    private static FilePathUtils instance = null;
-
-    private FilePathUtils() {
-        folder = FOLDER;
+    private FilePathUtils(java.io.File folder) {
+        this.folder = folder;
         if (!folder.exists())
             folder.mkdir();
     }
 
-    ;
-
+    private static final class InstanceHolder {
+        private static final FilePathUtils INSTANCE = new FilePathUtils(FOLDER);
+    }
 
+    /**
+     * @return the path utils for {@link #FOLDER}, as set when this method is called for the first time
+     */
     public static FilePathUtils getInstance() {
-        if (instance == null) {
-            instance = new FilePathUtils();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * @return path utils for another folder than {@link #FOLDER}
+     */
+    public static FilePathUtils forFolder(java.io.File folder) {
+        return new FilePathUtils(folder);
     }
 
     public java.io.File bidderFilePath(long worldId, long populationId, long bidderId) {
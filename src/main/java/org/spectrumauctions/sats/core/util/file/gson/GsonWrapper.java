@@ -18,24 +18,29 @@ public class GsonWrapper {
     private static final String IMPLEMENTATION_FIELD = "implementation";
     private static final boolean PRETTY_JSON = true;
 
-    private static GsonWrapper INSTANCE = null;
-    private Gson gson;
+    private final Gson gson;
+    private final Gson compactGson;
 
     private GsonWrapper() {
         GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(UnmodifiableUndirectedGraph.class, new UndirectedGraphAdapter());
         builder.disableHtmlEscaping();
+        compactGson = builder.create();
         if (PRETTY_JSON) {
             builder.setPrettyPrinting();
         }
         gson = builder.create();
     }
 
+    private static final class InstanceHolder {
+        private static final GsonWrapper INSTANCE = new GsonWrapper();
+    }
+
+    /**
+     * @return the shared wrapper. As {@link Gson} is thread-safe, so is the wrapper.
+     */
     public static GsonWrapper getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new GsonWrapper();
-        }
-        return INSTANCE;
+        return InstanceHolder.INSTANCE;
     }
 
     public Gson getGson() {
@@ -54,6 +59,29 @@ public class GsonWrapper {
         return gson.toJson(jsonElement);
     }
 
+    /**
+     * Like {@link #toJson(Object)}, but without any whitespace, independent of the pretty printing setting.
+     */
+    public String toCompactJson(Object object) {
+        JsonElement jsonElement = compactGson.toJsonTree(object);
+        jsonElement.getAsJsonObject().addProperty(IMPLEMENTATION_FIELD, object.getClass().getName());
+        return compactGson.toJson(jsonElement);
+    }
+
+    /**
+     * Deserializes an object written by {@link #toJson(Object)} or {@link #toCompactJson(Object)},
+     * using the implementation class stored in the json, and parsing the json only once.
+     */
+    public Object fromJsonWithStoredType(String json) {
+        JsonObject jsonObject = new JsonParser().parse(json).getAsJsonObject();
+        String typeString = jsonObject.get(IMPLEMENTATION_FIELD).getAsString();
+        try {
+            return gson.fromJson(jsonObject, Class.forName(typeString));
+        } catch (ClassNotFoundException e) {
+            throw new FileException("Type Unknown", e);
+        }
+    }
+
     public Class<?> readClass(String json) {
         String typeString = readField(IMPLEMENTATION_FIELD, json);
         try {
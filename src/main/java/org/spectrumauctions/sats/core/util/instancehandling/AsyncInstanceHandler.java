@@ -0,0 +1,385 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.instancehandling;
+
+import com.google.common.base.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.util.file.FileException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A write-behind <b>instance handler</b>, which decorates another handler.<br><br>
+ *
+ * Worlds and bidders are stored by calling {@link InstanceHandler#writeWorld(World)} and {@link InstanceHandler#writeBidder(Bidder)}
+ * at the end of their construction. With this handler, these calls only enqueue the instance, and a background thread
+ * serializes and writes the queued instances in batches, in the order in which they were enqueued,
+ * using the decorated handler. Instance generation thus is not slowed down by disk latency.<br><br>
+ *
+ * The queue is bounded: If the writer can not keep up, writing threads block until there is space again (backpressure).
+ * Failed writes do not stop the writer. Instead, the first failure is reported by the next call to {@link #flush()}.
+ * Only an {@link Error} terminates the writer, after which all flushes fail.
+ * All reads first wait until the enqueued instances are written, such that reads always see previous writes.
+ * Id allocation is not deferred and directly delegated.<br><br>
+ *
+ * Usage:
+ * <pre>
+ * try (AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(JSONInstanceHandler.getInstance()).build();
+ *      InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+ *     // create worlds and populations
+ *     handler.flush();
+ * }
+ * </pre>
+ * Note that instances must not be modified after construction, as they are serialized concurrently.
+ *
+ * @author Michael Weiss
+ *
+ */
+public final class AsyncInstanceHandler extends InstanceHandler implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AsyncInstanceHandler.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final InstanceHandler delegate;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final Thread writerThread;
+
+    // Enqueued by close after the last instance, stops the writer
+    private static final Object SHUTDOWN = new Object();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    // Guarded by this
+    private long written = 0;
+    // Guarded by this
+    private Throwable failure = null;
+    // Guarded by this, the error which terminated the writer
+    private Error writerError = null;
+    // Held shared while an instance is enqueued, and exclusively while the handler is closed
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    // Guarded by closeLock
+    private boolean closed = false;
+
+    private AsyncInstanceHandler(Builder builder) {
+        this.delegate = builder.delegate;
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+        this.batchSize = builder.batchSize;
+        this.writerThread = new Thread(this::writeQueued, "sats-instance-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * @return the handler to which the writes, reads and id allocations are delegated
+     */
+    public InstanceHandler getDelegate() {
+        return delegate;
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#writeWorld(World)
+     */
+    @Override
+    public void writeWorld(World world) {
+        enqueue(world);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#writeBidder(Bidder)
+     */
+    @Override
+    public void writeBidder(Bidder<?> bidder) {
+        enqueue(bidder);
+    }
+
+    private void enqueue(Object instance) {
+        closeLock.readLock().lock();
+        try {
+            Preconditions.checkState(!closed, "Handler is closed");
+            enqueued.incrementAndGet();
+            queue.put(instance);
+        } catch (InterruptedException e) {
+            enqueued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new FileException("Interrupted while waiting for space in the write queue", e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of instances which are enqueued but not yet written
+     */
+    public synchronized long getPendingWrites() {
+        return enqueued.get() - written;
+    }
+
+    /**
+     * Blocks until all instances enqueued before this call are written.
+     * @throws FileException if a write failed since the last flush. The failure is reported only once.
+     */
+    public void flush() {
+        try {
+            awaitWritten(enqueued.get(), Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileException("Interrupted while flushing", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Like {@link #flush()}, but waits at most for the specified time
+     * @throws TimeoutException if not all instances are written before the timeout
+     */
+    public void flush(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        awaitWritten(enqueued.get(), unit.toNanos(timeout));
+    }
+
+    private synchronized void awaitWritten(long target, long timeoutNanos) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (written < target) {
+            if (writerError != null) {
+                throw new IllegalStateException("Writer thread terminated before all instances were written", writerError);
+            }
+            Preconditions.checkState(writerThread.isAlive(), "Writer thread terminated before all instances were written");
+            long remaining = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException((target - written) + " instances are not yet written");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, Math.min(remaining, TimeUnit.SECONDS.toNanos(1)));
+        }
+        if (failure != null) {
+            Throwable reported = failure;
+            failure = null;
+            throw new FileException("Asynchronous write failed", reported);
+        }
+    }
+
+    private void writeQueued() {
+        try {
+            writeUntilShutdown();
+        } catch (Error e) {
+            logger.error("Asynchronous writer terminated", e);
+            synchronized (this) {
+                writerError = e;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void writeUntilShutdown() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        boolean shutdown = false;
+        while (!shutdown) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // The writer is only stopped by SHUTDOWN, such that no enqueued instance is lost
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            // SHUTDOWN is the last element ever enqueued
+            if (batch.get(batch.size() - 1) == SHUTDOWN) {
+                batch.remove(batch.size() - 1);
+                shutdown = true;
+            }
+            Throwable batchFailure = null;
+            for (Object instance : batch) {
+                try {
+                    if (instance instanceof World) {
+                        delegate.writeWorld((World) instance);
+                    } else {
+                        delegate.writeBidder((Bidder<?>) instance);
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Asynchronous write failed", e);
+                    if (batchFailure == null) {
+                        batchFailure = e;
+                    } else {
+                        batchFailure.addSuppressed(e);
+                    }
+                }
+            }
+            synchronized (this) {
+                written += batch.size();
+                if (batchFailure != null) {
+                    if (failure == null) {
+                        failure = batchFailure;
+                    } else {
+                        failure.addSuppressed(batchFailure);
+                    }
+                }
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Flushes all enqueued instances and stops the writer thread.
+     * Afterwards, no more instances can be written, but reads are still possible.
+     * @throws FileException if a write failed since the last flush
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // No enqueue is in progress, hence the writer stops only after all instances are written
+            enqueueShutdown();
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        flush();
+    }
+
+    private void enqueueShutdown() {
+        boolean interrupted = false;
+        try {
+            while (writerThread.isAlive()) {
+                try {
+                    if (queue.offer(SHUTDOWN, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readWorld(java.lang.Class, long)
+     */
+    @Override
+    public <T extends World> T readWorld(Class<T> type, long world) {
+        flush();
+        return delegate.readWorld(type, world);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#getPopulationIds(long)
+     */
+    @Override
+    public Collection<Long> getPopulationIds(long worldId) {
+        flush();
+        return delegate.getPopulationIds(worldId);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readBidder(java.lang.Class, World, long, long)
+     */
+    @Override
+    public <T extends Bidder<?>> T readBidder(Class<T> type, World world, long populationId, long bidderId) {
+        flush();
+        return delegate.readBidder(type, world, populationId, bidderId);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readBidderWithUnknownType(java.lang.Class, World, long, long)
+     */
+    @Override
+    public <T extends Bidder<?>> T readBidderWithUnknownType(Class<T> bidderSuperType, World world, long populationId, long bidderId) {
+        flush();
+        return delegate.readBidderWithUnknownType(bidderSuperType, world, populationId, bidderId);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readPopulation(java.lang.Class, World, long)
+     */
+    @Override
+    public <T extends Bidder<?>> Collection<T> readPopulation(Class<T> type, World world, long populationId) {
+        flush();
+        return delegate.readPopulation(type, world, populationId);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readPopulationWithUnknownTypes(java.lang.Class, World, long)
+     */
+    @Override
+    public <T extends Bidder<?>> Collection<T> readPopulationWithUnknownTypes(Class<T> bidderSuperType, World world, long populationId) {
+        flush();
+        return delegate.readPopulationWithUnknownTypes(bidderSuperType, world, populationId);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#getNextWorldId()
+     */
+    @Override
+    public long getNextWorldId() {
+        return delegate.getNextWorldId();
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#getNextPopulationId(long)
+     */
+    @Override
+    public long getNextPopulationId(long worldId) {
+        return delegate.getNextPopulationId(worldId);
+    }
+
+    public static final class Builder {
+
+        private final InstanceHandler delegate;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * @param delegate the handler which performs the actual writes, reads and id allocations
+         */
+        public Builder(InstanceHandler delegate) {
+            Preconditions.checkNotNull(delegate);
+            Preconditions.checkArgument(!(delegate instanceof AsyncInstanceHandler), "Handler is already asynchronous");
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param queueCapacity the maximal number of enqueued instances, before writing threads are blocked
+         */
+        public Builder setQueueCapacity(int queueCapacity) {
+            Preconditions.checkArgument(queueCapacity > 0);
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param batchSize the maximal number of instances the writer takes from the queue at once
+         */
+        public Builder setBatchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public AsyncInstanceHandler build() {
+            return new AsyncInstanceHandler(this);
+        }
+    }
+}
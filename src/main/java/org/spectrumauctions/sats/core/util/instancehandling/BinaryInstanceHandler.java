@@ -0,0 +1,554 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.instancehandling;
+
+import com.google.common.base.Preconditions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.util.file.FileException;
+import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An <b>instance handler</b> which stores a world and all its populations in a single binary container file,
+ * instead of one json file per world and bidder (as the {@link JSONInstanceHandler} does).<br><br>
+ *
+ * A container (<code>world_&lt;id&gt;.sats</code>) starts with a header consisting of a magic number,
+ * the schema version and the world id, followed by an append-only sequence of records.
+ * Every record has a fixed size header (type, population id, bidder id, raw and stored length)
+ * and a deflate-compressed, compact json representation of the world or bidder as payload.
+ * If a world or bidder is written repeatedly, the last record wins.<br><br>
+ *
+ * On first access to a container, its record headers are scanned on a memory mapped buffer to build an index,
+ * which afterwards allows to read single bidders or populations without touching any other record.
+ * Containers are limited to {@link Integer#MAX_VALUE} bytes, i.e., the size of a single mapped buffer.
+ * Only the most recently used containers keep their file channel, mapped buffer and index open,
+ * the others are released and re-indexed on their next access.<br><br>
+ *
+ * The handler is safe for concurrent use. As with the {@link JSONInstanceHandler}, there should only be
+ * one handler per folder.
+ *
+ * @author Michael Weiss
+ *
+ */
+public class BinaryInstanceHandler extends InstanceHandler {
+
+    /**
+     * The schema version written by this handler. Containers with a higher version can not be read.
+     */
+    public static final short SCHEMA_VERSION = 1;
+
+    /**
+     * The default maximal number of containers which are kept open, see {@link #forFolder(File, int)}
+     */
+    public static final int DEFAULT_MAX_OPEN_CONTAINERS = 64;
+
+    private static final int MAGIC = 0x53415453; // "SATS"
+    private static final int FILE_HEADER_BYTES = 4 + 2 + 2 + 8;
+    private static final int RECORD_HEADER_BYTES = 1 + 8 + 8 + 4 + 4;
+    private static final String FILE_ENDING = ".sats";
+
+    private static final byte WORLD_RECORD = 1;
+    private static final byte POPULATION_RECORD = 2;
+    private static final byte BIDDER_RECORD = 3;
+
+    private static final Logger logger = LogManager.getLogger(BinaryInstanceHandler.class);
+
+    private final File folder;
+    private final int maxOpenContainers;
+    private final GsonWrapper gson = GsonWrapper.getInstance();
+    private final ConcurrentMap<Long, Container> containers = new ConcurrentHashMap<>();
+    // The open containers in access order, guarded by itself
+    private final LinkedHashMap<Container, Boolean> openContainers = new LinkedHashMap<>(16, 0.75f, true);
+    // Containers evicted from openContainers, which are released by the next call to container(long)
+    private final Queue<Container> evictedContainers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong worldIdCache = new AtomicLong();
+
+    private BinaryInstanceHandler(File folder, int maxOpenContainers) {
+        this.folder = folder;
+        this.maxOpenContainers = maxOpenContainers;
+    }
+
+    /**
+     * Creates a new handler storing the containers in the passed folder, which is created if it does not exist.
+     * At most {@link #DEFAULT_MAX_OPEN_CONTAINERS} containers are kept open.
+     */
+    public static BinaryInstanceHandler forFolder(File folder) {
+        return forFolder(folder, DEFAULT_MAX_OPEN_CONTAINERS);
+    }
+
+    /**
+     * Creates a new handler storing the containers in the passed folder, which is created if it does not exist.
+     *
+     * @param maxOpenContainers the number of most recently used containers whose file channel, mapped buffer
+     *                          and index are kept open
+     */
+    public static BinaryInstanceHandler forFolder(File folder, int maxOpenContainers) {
+        Preconditions.checkNotNull(folder);
+        Preconditions.checkArgument(maxOpenContainers > 0, "At least one container has to be kept open");
+        if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+            throw new FileException("Could not create folder " + folder.getAbsolutePath());
+        }
+        return new BinaryInstanceHandler(folder, maxOpenContainers);
+    }
+
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * @return the container file of the world with the passed id
+     */
+    public File containerFile(long worldId) {
+        return new File(folder, "world_" + worldId + FILE_ENDING);
+    }
+
+    /**
+     * Releases the evicted containers before returning the container of the passed world.
+     * Hence, this must not be called while holding the lock of a container.
+     */
+    private Container container(long worldId) {
+        Container evicted;
+        while ((evicted = evictedContainers.poll()) != null) {
+            evicted.release();
+        }
+        return containers.computeIfAbsent(worldId, id -> new Container(this, containerFile(id).toPath(), id));
+    }
+
+    /**
+     * Marks an open container as most recently used, and evicts the least recently used one if too many are open
+     */
+    private void used(Container container) {
+        synchronized (openContainers) {
+            openContainers.put(container, Boolean.TRUE);
+            if (openContainers.size() > maxOpenContainers) {
+                Iterator<Container> eldest = openContainers.keySet().iterator();
+                evictedContainers.add(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#writeWorld(World)
+     */
+    @Override
+    public void writeWorld(World world) {
+        container(world.getId()).append(WORLD_RECORD, -1, -1, gson.toCompactJson(world), true);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#writeBidder(Bidder)
+     */
+    @Override
+    public void writeBidder(Bidder<?> bidder) {
+        container(bidder.getWorld().getId()).append(BIDDER_RECORD, bidder.getPopulation(), bidder.getId(),
+                gson.toCompactJson(bidder), false);
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readWorld(java.lang.Class, long)
+     */
+    @Override
+    public <T extends World> T readWorld(Class<T> type, long worldId) {
+        Container container = container(worldId);
+        Long offset = container.worldOffset();
+        if (offset == null) {
+            throw new FileException("No world stored in " + container.path);
+        }
+        T world = gson.fromJson(type, container.readPayload(offset));
+        world.refreshFieldBackReferences();
+        return world;
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#getPopulationIds(long)
+     */
+    @Override
+    public Collection<Long> getPopulationIds(long worldId) {
+        return container(worldId).populationIds();
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readBidder(java.lang.Class, World, long, long)
+     */
+    @Override
+    public <T extends Bidder<?>> T readBidder(Class<T> type, World world, long populationId, long bidderId) {
+        Container container = container(world.getId());
+        T bidder = gson.fromJson(type, container.readPayload(container.bidderOffset(populationId, bidderId)));
+        bidder.refreshReference(world);
+        return bidder;
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readBidderWithUnknownType(java.lang.Class, World, long, long)
+     */
+    @Override
+    public <T extends Bidder<?>> T readBidderWithUnknownType(Class<T> bidderSuperType, World world, long populationId,
+                                                             long bidderId) {
+        Container container = container(world.getId());
+        return readWithStoredType(bidderSuperType, world, container, container.bidderOffset(populationId, bidderId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Bidder<?>> T readWithStoredType(Class<T> bidderSuperType, World world, Container container, long offset) {
+        Object obj = gson.fromJsonWithStoredType(container.readPayload(offset));
+        if (!bidderSuperType.isAssignableFrom(obj.getClass())) {
+            throw new FileException("generated object (" + obj.getClass().getName() + ") is not of specified bidder type (" + bidderSuperType.getName() + ")");
+        }
+        T bidder = (T) obj;
+        bidder.refreshReference(world);
+        return bidder;
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readPopulation(java.lang.Class, World, long)
+     */
+    @Override
+    public <T extends Bidder<?>> Collection<T> readPopulation(Class<T> type, World world, long populationId) {
+        Container container = container(world.getId());
+        Set<T> bidders = new LinkedHashSet<>();
+        for (long offset : container.bidderOffsets(populationId)) {
+            T bidder = gson.fromJson(type, container.readPayload(offset));
+            bidder.refreshReference(world);
+            bidders.add(bidder);
+        }
+        return bidders;
+    }
+
+    /* (non-Javadoc)
+     * @see InstanceHandler#readPopulationWithUnknownTypes(java.lang.Class, World, long)
+     */
+    @Override
+    public <T extends Bidder<?>> Collection<T> readPopulationWithUnknownTypes(Class<T> bidderSuperType, World world,
+                                                                              long populationId) {
+        Container container = container(world.getId());
+        Set<T> bidders = new LinkedHashSet<>();
+        for (long offset : container.bidderOffsets(populationId)) {
+            bidders.add(readWithStoredType(bidderSuperType, world, container, offset));
+        }
+        return bidders;
+    }
+
+    /**
+     * Reserves a new world id by creating its (empty) container.
+     * If the container already exists, the next higher id is tried.
+     * As file creation is atomic, concurrent calls never reserve the same id.
+     */
+    @Override
+    public long getNextWorldId() {
+        long idCandidate = worldIdCache.get();
+        while (!Container.create(containerFile(idCandidate).toPath(), idCandidate)) {
+            idCandidate++;
+        }
+        worldIdCache.accumulateAndGet(idCandidate + 1, Math::max);
+        return idCandidate;
+    }
+
+    /**
+     * Reserves a new population id by appending an empty population record to the container of the world
+     */
+    @Override
+    public long getNextPopulationId(long worldId) {
+        return container(worldId).reservePopulation();
+    }
+
+    /**
+     * The container of a single world. All reads of the index and all appends are synchronized on the container.
+     */
+    private static final class Container {
+
+        private final BinaryInstanceHandler handler;
+        private final Path path;
+        private final long worldId;
+
+        // The channel, mapped buffer and index are null or empty while the container is released
+        private FileChannel channel;
+        private boolean writable;
+        private boolean indexed = false;
+        private long indexedLength;
+        private Long worldOffset;
+        // Population id -> (Bidder id -> offset of the latest record)
+        private final SortedMap<Long, SortedMap<Long, Long>> bidderOffsets = new TreeMap<>();
+        private MappedByteBuffer mapped;
+
+        private Container(BinaryInstanceHandler handler, Path path, long worldId) {
+            this.handler = handler;
+            this.path = path;
+            this.worldId = worldId;
+        }
+
+        /**
+         * Atomically creates a new container file with its header
+         * @return false if the file already existed
+         */
+        private static boolean create(Path path, long worldId) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+                header.putInt(MAGIC).putShort(SCHEMA_VERSION).putShort((short) 0).putLong(worldId);
+                header.flip();
+                writeFully(channel, header);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                return false;
+            } catch (IOException e) {
+                throw new FileException("Could not create container " + path, e);
+            }
+        }
+
+        private synchronized Long worldOffset() {
+            ensureIndexed();
+            return worldOffset;
+        }
+
+        private synchronized Collection<Long> populationIds() {
+            ensureIndexed();
+            return new ArrayList<>(bidderOffsets.keySet());
+        }
+
+        private synchronized long bidderOffset(long populationId, long bidderId) {
+            ensureIndexed();
+            SortedMap<Long, Long> population = bidderOffsets.get(populationId);
+            Long offset = population == null ? null : population.get(bidderId);
+            if (offset == null) {
+                throw new FileException("Bidder " + bidderId + " of population " + populationId + " is not stored in " + path);
+            }
+            return offset;
+        }
+
+        private synchronized List<Long> bidderOffsets(long populationId) {
+            ensureIndexed();
+            SortedMap<Long, Long> population = bidderOffsets.get(populationId);
+            if (population == null) {
+                throw new FileException("Population " + populationId + " is not stored in " + path);
+            }
+            return new ArrayList<>(population.values());
+        }
+
+        private synchronized long reservePopulation() {
+            ensureIndexed();
+            long populationId = bidderOffsets.isEmpty() ? 0 : bidderOffsets.lastKey() + 1;
+            append(POPULATION_RECORD, populationId, -1, null, false);
+            return populationId;
+        }
+
+        /**
+         * @param create whether the container is created if it does not exist yet
+         * @throws FileException if the container does not exist and create is false,
+         *                       or if the record would exceed the maximal container size
+         */
+        private synchronized void append(byte type, long populationId, long bidderId, String json, boolean create) {
+            if (create && !indexed && !Files.exists(path)) {
+                create(path, worldId);
+            }
+            ensureIndexed();
+            byte[] raw = json == null ? new byte[0] : json.getBytes(StandardCharsets.UTF_8);
+            byte[] stored = deflate(raw);
+            if (indexedLength + RECORD_HEADER_BYTES + stored.length > Integer.MAX_VALUE) {
+                throw new FileException("Container " + path + " would exceed the maximal size of " + Integer.MAX_VALUE + " bytes");
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + stored.length);
+            record.put(type).putLong(populationId).putLong(bidderId).putInt(raw.length).putInt(stored.length).put(stored);
+            record.flip();
+            try {
+                if (!writable) {
+                    // The mapped buffer stays valid when its channel is closed
+                    channel.close();
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    writable = true;
+                }
+                channel.position(indexedLength);
+                writeFully(channel, record);
+                // Removes the remainder of an incomplete record, if there was one
+                channel.truncate(indexedLength + record.limit());
+            } catch (IOException e) {
+                throw new FileException("Could not write to container " + path, e);
+            }
+            register(type, populationId, bidderId, indexedLength);
+            indexedLength += record.limit();
+        }
+
+        private void register(byte type, long populationId, long bidderId, long offset) {
+            if (type == WORLD_RECORD) {
+                worldOffset = offset;
+            } else if (type == POPULATION_RECORD) {
+                bidderOffsets.computeIfAbsent(populationId, id -> new TreeMap<>());
+            } else if (type == BIDDER_RECORD) {
+                bidderOffsets.computeIfAbsent(populationId, id -> new TreeMap<>()).put(bidderId, offset);
+            } else {
+                throw new FileException("Unknown record type " + type + " in " + path);
+            }
+        }
+
+        /**
+         * Builds the index on first access, and on the first access after the container was released.
+         * Incomplete trailing records (e.g., of an interrupted write) are ignored and overwritten by the next append.
+         *
+         * @throws FileException if the container does not exist
+         */
+        private void ensureIndexed() {
+            handler.used(this);
+            if (indexed) {
+                return;
+            }
+            ByteBuffer buffer = map(0);
+            if (buffer.limit() < FILE_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new FileException(path + " is not a SATS container");
+            }
+            short version = buffer.getShort(4);
+            if (version > SCHEMA_VERSION) {
+                throw new FileException(path + " has schema version " + version + ", only versions up to "
+                        + SCHEMA_VERSION + " are supported");
+            }
+            if (buffer.getLong(8) != worldId) {
+                throw new FileException(path + " does not contain world " + worldId);
+            }
+            long position = FILE_HEADER_BYTES;
+            while (position + RECORD_HEADER_BYTES <= buffer.limit()) {
+                int p = (int) position;
+                int storedLength = buffer.getInt(p + 21);
+                long end = position + RECORD_HEADER_BYTES + storedLength;
+                if (storedLength < 0 || end > buffer.limit()) {
+                    break;
+                }
+                register(buffer.get(p), buffer.getLong(p + 1), buffer.getLong(p + 9), position);
+                position = end;
+            }
+            indexedLength = position;
+            indexed = true;
+        }
+
+        /**
+         * @return a read-only buffer covering the whole file, remapped if it does not cover the passed length
+         */
+        private MappedByteBuffer map(long requiredLength) {
+            if (mapped == null || mapped.capacity() < requiredLength) {
+                try {
+                    if (channel == null) {
+                        channel = FileChannel.open(path, StandardOpenOption.READ);
+                        writable = false;
+                    }
+                    long size = channel.size();
+                    if (size > Integer.MAX_VALUE) {
+                        throw new FileException("Container " + path + " exceeds the maximal size of " + Integer.MAX_VALUE + " bytes");
+                    }
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } catch (NoSuchFileException e) {
+                    throw new FileException("Container " + path + " does not exist", e);
+                } catch (IOException e) {
+                    throw new FileException("Could not read container " + path, e);
+                }
+            }
+            return mapped;
+        }
+
+        /**
+         * Closes the channel and drops the mapped buffer and the index, which are restored on the next access
+         */
+        private synchronized void release() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Could not close container " + path, e);
+                }
+                channel = null;
+            }
+            mapped = null;
+            indexed = false;
+            worldOffset = null;
+            bidderOffsets.clear();
+        }
+
+        /**
+         * @return the json payload of the record at the passed offset
+         */
+        private String readPayload(long offset) {
+            ByteBuffer buffer;
+            int rawLength;
+            int storedLength;
+            synchronized (this) {
+                ensureIndexed();
+                buffer = map(offset + RECORD_HEADER_BYTES).duplicate();
+                rawLength = buffer.getInt((int) offset + 17);
+                storedLength = buffer.getInt((int) offset + 21);
+                buffer = map(offset + RECORD_HEADER_BYTES + storedLength).duplicate();
+            }
+            byte[] stored = new byte[storedLength];
+            buffer.position((int) offset + RECORD_HEADER_BYTES);
+            buffer.get(stored);
+            return new String(inflate(stored, rawLength), StandardCharsets.UTF_8);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private static byte[] deflate(byte[] raw) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 16);
+                byte[] chunk = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(chunk, 0, deflater.deflate(chunk));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private byte[] inflate(byte[] stored, int rawLength) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(stored);
+                byte[] raw = new byte[rawLength];
+                int length = 0;
+                while (length < rawLength && !inflater.finished()) {
+                    int inflated = inflater.inflate(raw, length, rawLength - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += inflated;
+                }
+                if (length != rawLength) {
+                    throw new FileException("Corrupt record in container " + path);
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw new FileException("Corrupt record in container " + path, e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
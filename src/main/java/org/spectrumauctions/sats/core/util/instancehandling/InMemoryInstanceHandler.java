@@ -11,6 +11,7 @@ import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 import org.spectrumauctions.sats.core.util.random.UniformJavaUtilRandomWrapper;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A fast <b>instance handler</b> implementation.<br>
@@ -23,26 +24,26 @@ import java.util.Collection;
  */
 public class InMemoryInstanceHandler extends InstanceHandler {
 
-    private static InMemoryInstanceHandler instance;
     private static final String UNSUPPORTED_OPERATION_MESSAGE = "The selected InstanceHandler does not support this method. Use another Instance Handler instead.";
 
-    private long nextWorldId;
-    private long nextPopulationId;
+    private final AtomicLong nextWorldId;
+    private final AtomicLong nextPopulationId;
 
     /**
      * Choose the starting id's (which than are just steadily increased) randomly, but higher than {@link Integer#MAX_VALUE}
      */
     private InMemoryInstanceHandler() {
         UniformDistributionRNG rng = new UniformJavaUtilRandomWrapper();
-        nextPopulationId = (long) Integer.MAX_VALUE + (long) rng.nextInt();
-        nextWorldId = (long) Integer.MAX_VALUE + (long) rng.nextInt();
+        nextPopulationId = new AtomicLong((long) Integer.MAX_VALUE + (long) rng.nextInt());
+        nextWorldId = new AtomicLong((long) Integer.MAX_VALUE + (long) rng.nextInt());
+    }
+
+    private static final class InstanceHolder {
+        private static final InMemoryInstanceHandler INSTANCE = new InMemoryInstanceHandler();
     }
 
     public static InMemoryInstanceHandler getInstance() {
-        if (instance == null) {
-            instance = new InMemoryInstanceHandler();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /* (non-Javadoc)
@@ -109,7 +110,7 @@ public class InMemoryInstanceHandler extends InstanceHandler {
      */
     @Override
     public long getNextWorldId() {
-        return nextWorldId++;
+        return nextWorldId.getAndIncrement();
     }
 
     /* (non-Javadoc)
@@ -117,7 +118,7 @@ public class InMemoryInstanceHandler extends InstanceHandler {
      */
     @Override
     public long getNextPopulationId(long worldId) {
-        return nextPopulationId++;
+        return nextPopulationId.getAndIncrement();
     }
 
     /* (non-Javadoc)
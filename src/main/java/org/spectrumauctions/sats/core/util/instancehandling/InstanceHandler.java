@@ -5,42 +5,105 @@
  */
 package org.spectrumauctions.sats.core.util.instancehandling;
 
+import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.World;
 
 import java.util.Collection;
 
 /**
+ * Handles the storage of worlds and bidders and the allocation of their ids.<br><br>
+ *
+ * The default handler is used on every {@link World}, <b>population</b> and {@link Bidder} creation.
+ * It can be set globally ({@link #setDefaultHandler(InstanceHandler)}) or for the current thread only
+ * ({@link #withDefaultHandler(InstanceHandler)}), which allows to run several independent simulations
+ * in the same JVM. All implementations in SATS are safe for concurrent use.
+ *
  * @author Michael Weiss
  *
  */
 public abstract class InstanceHandler {
 
-    private static InstanceHandler defaultHandler;
+    private static volatile InstanceHandler defaultHandler;
+
+    private static final ThreadLocal<InstanceHandler> threadDefaultHandler = new ThreadLocal<>();
 
     /**
      * Get the default instance handler. <br>
      * The default instance handler is called on every {@link World}, <b>population</b> and {@link Bidder} creation
      * for id selection and default storing.
-     * @return the default instance handler
+     * @return the handler of the current thread, if one is set via {@link #withDefaultHandler(InstanceHandler)},
+     * the global default instance handler otherwise
      */
     public static InstanceHandler getDefaultHandler() {
-        if (defaultHandler == null) {
-            defaultHandler = JSONInstanceHandler.getInstance();
+        InstanceHandler threadHandler = threadDefaultHandler.get();
+        if (threadHandler != null) {
+            return threadHandler;
         }
-        return defaultHandler;
+        InstanceHandler handler = defaultHandler;
+        if (handler == null) {
+            synchronized (InstanceHandler.class) {
+                if (defaultHandler == null) {
+                    defaultHandler = JSONInstanceHandler.getInstance();
+                }
+                handler = defaultHandler;
+            }
+        }
+        return handler;
     }
 
     /**
-     * Set a new default instance handler.<br>
+     * Set a new global default instance handler.<br>
      * The default instance handler is called on every {@link World}, <b>population</b> and {@link Bidder} creation
-     * for id selection and default storing.
+     * for id selection and default storing. Threads which use their own handler
+     * (see {@link #withDefaultHandler(InstanceHandler)}) are not affected.
      * @param defaultHandler the new default instance handler
      */
     public static void setDefaultHandler(InstanceHandler defaultHandler) {
         InstanceHandler.defaultHandler = defaultHandler;
     }
 
+    /**
+     * Use the passed handler as default instance handler of the current thread, until the returned scope is closed.
+     * Scopes may be nested; closing a scope restores the handler which was used before.<br>
+     * Usage: <code>try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) { ... }</code>
+     * @param handler the default instance handler of the current thread
+     * @return the scope, to be closed in the same thread
+     */
+    public static Scope withDefaultHandler(InstanceHandler handler) {
+        Preconditions.checkNotNull(handler);
+        Scope scope = new Scope(threadDefaultHandler.get());
+        threadDefaultHandler.set(handler);
+        return scope;
+    }
+
+    /**
+     * Restores the previous default instance handler of a thread when closed
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final InstanceHandler previous;
+        private final Thread thread = Thread.currentThread();
+        private boolean closed = false;
+
+        private Scope(InstanceHandler previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            Preconditions.checkState(Thread.currentThread() == thread, "Scope has to be closed in the thread it was opened in");
+            if (!closed) {
+                closed = true;
+                if (previous == null) {
+                    threadDefaultHandler.remove();
+                } else {
+                    threadDefaultHandler.set(previous);
+                }
+            }
+        }
+    }
+
     /**
      * Writes a world instance.
      * If a world with the same id already is stored, it might be overwritten.
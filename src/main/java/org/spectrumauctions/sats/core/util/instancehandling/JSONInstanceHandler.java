@@ -5,9 +5,9 @@
  */
 package org.spectrumauctions.sats.core.util.instancehandling;
 
+import com.google.common.cache.CacheBuilder;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.World;
-import org.spectrumauctions.sats.core.util.CacheMap;
 import org.spectrumauctions.sats.core.util.file.FileException;
 import org.spectrumauctions.sats.core.util.file.FilePathUtils;
 import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
@@ -15,8 +15,9 @@ import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
 import java.io.File;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Michael Weiss
@@ -24,25 +25,37 @@ import java.util.Set;
  */
 public class JSONInstanceHandler extends InstanceHandler {
 
-    private FilePathUtils pathUtils = FilePathUtils.getInstance();
-    private GsonWrapper gson = GsonWrapper.getInstance();
+    private final FilePathUtils pathUtils;
+    private final GsonWrapper gson = GsonWrapper.getInstance();
 
-    private static JSONInstanceHandler instance;
+    // Caches the next population id candidates of 100 worlds
+    private final ConcurrentMap<Long, Long> populationIdCache = CacheBuilder.newBuilder()
+            .maximumSize(100).<Long, Long>build().asMap();
 
-    // Caches 100 top population id's
-    private final Map<Long, Long> populationIdCache = new CacheMap<>(100);
+    private final AtomicLong worldIdCache = new AtomicLong();
 
-    private long worldIdCache = 0;
 
+    private JSONInstanceHandler(FilePathUtils pathUtils) {
+        this.pathUtils = pathUtils;
+    }
 
-    private JSONInstanceHandler() {
+    private static final class InstanceHolder {
+        private static final JSONInstanceHandler INSTANCE = new JSONInstanceHandler(FilePathUtils.getInstance());
     }
 
     public static JSONInstanceHandler getInstance() {
-        if (instance == null) {
-            instance = new JSONInstanceHandler();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new handler which stores the instances in the passed folder instead of {@link FilePathUtils#FOLDER}.
+     * This allows independent simulations in the same JVM to use separate folders,
+     * e.g. by using {@link InstanceHandler#withDefaultHandler(InstanceHandler)}.
+     * Note that there should be only one handler per folder, as handlers only coordinate the allocation of ids
+     * via the file system.
+     */
+    public static JSONInstanceHandler forFolder(File folder) {
+        return new JSONInstanceHandler(FilePathUtils.forFolder(folder));
     }
 
     /* (non-Javadoc)
@@ -142,23 +155,25 @@ public class JSONInstanceHandler extends InstanceHandler {
      */
     @Override
     public long getNextWorldId() {
-        long idCandidate = worldIdCache;
-        idCandidate = recGetAndReserveNewWorldId(idCandidate);
-        worldIdCache = idCandidate + 1;
+        long idCandidate = getAndReserveNewWorldId(worldIdCache.get());
+        worldIdCache.accumulateAndGet(idCandidate + 1, Math::max);
         return idCandidate;
     }
 
     /**
      * Attempts to create a new world folder with the id idCandidate. <br>
-     * If the folder already exists, it tries again with a higher id
+     * If the folder already exists, it tries again with a higher id.
+     * As folder creation is atomic, concurrent calls never reserve the same id.
+     *
+     * @throws FileException if the folder could not be created for another reason than that it already exists
      */
-    private long recGetAndReserveNewWorldId(long idCandidate) {
-        java.io.File potentialFolder = pathUtils.worldFolderPath(idCandidate);
-        if (potentialFolder.mkdirs()) {
-            return idCandidate;
-        } else {
-            return recGetAndReserveNewWorldId(idCandidate + 1);
+    private long getAndReserveNewWorldId(long idCandidate) {
+        File folder;
+        while (!(folder = pathUtils.worldFolderPath(idCandidate)).mkdirs()) {
+            checkExists(folder);
+            idCandidate++;
         }
+        return idCandidate;
     }
 
     /* (non-Javadoc)
@@ -166,31 +181,35 @@ public class JSONInstanceHandler extends InstanceHandler {
      */
     @Override
     public long getNextPopulationId(long worldId) {
-        //TODO check if world exists in file system
-        Long idCandidate = populationIdCache.remove(worldId);
-        if (idCandidate == null) {
-            idCandidate = Long.valueOf("0");
-        }
-
-        idCandidate = recOpenPopulation(worldId, 0);
-
-        Long newCacheId = idCandidate + 1;
+        long idCandidate = openPopulation(worldId, populationIdCache.getOrDefault(worldId, 0L));
         // Register in Cache
-        populationIdCache.put(worldId, newCacheId);
-
+        populationIdCache.merge(worldId, idCandidate + 1, Math::max);
         return idCandidate;
     }
 
     /**
      * Attempts to create a new population folder with the id idCandidate. <br>
-     * If the folder already exists, it tries again with a higher id
+     * If the folder already exists, it tries again with a higher id.
+     * As folder creation is atomic, concurrent calls never open the same population.
+     *
+     * @throws FileException if the folder could not be created for another reason than that it already exists,
+     *                       e.g., because the world folder does not exist
      */
-    private long recOpenPopulation(long worldId, long idCandidate) {
-        java.io.File potentialPopulationFolder = pathUtils.populationFolderPath(worldId, idCandidate);
-        if (potentialPopulationFolder.mkdir()) {
-            return idCandidate;
-        } else {
-            return recOpenPopulation(worldId, ++idCandidate);
+    private long openPopulation(long worldId, long idCandidate) {
+        File folder;
+        while (!(folder = pathUtils.populationFolderPath(worldId, idCandidate)).mkdir()) {
+            checkExists(folder);
+            idCandidate++;
+        }
+        return idCandidate;
+    }
+
+    /**
+     * Called after a failed attempt to create the folder, to distinguish an existing folder from an error
+     */
+    private static void checkExists(File folder) {
+        if (!folder.exists()) {
+            throw new FileException("Could not create folder " + folder.getAbsolutePath());
         }
     }
 
@@ -0,0 +1,301 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.math;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The bounded compositions of a target, i.e., all vectors <code>x</code> of integers with
+ * <code>0 &le; x[i] &le; maxima[i]</code> and <code>x[0] + ... + x[n-1] = target</code>.<br><br>
+ *
+ * The compositions are ordered lexicographically decreasing, i.e., the first composition assigns as much as possible to
+ * the first part, and the last composition as much as possible to the last part.
+ * Compositions are stored in <code>int[]</code>s which are changed in place, such that iterating requires
+ * no allocation and O(n) time per step. In addition, the compositions can be counted, ranked and unranked, which
+ * allows to start iterating at any position (see {@link #cursor(long, long)}).<br><br>
+ *
+ * Counts which do not fit into a <code>long</code> are not supported by {@link #count()}, {@link #rank(int[])} and
+ * {@link #unrank(long, int[])}. Iteration from the start works regardless.
+ *
+ * @author Michael Weiss
+ */
+public final class BoundedCompositions {
+
+    private static final long OVERFLOW = -1;
+
+    private final int[] maxima;
+    private final int target;
+    /** Sum of the maxima from index i to the end */
+    private final int[] suffixCapacities;
+    /**
+     * Number of ways to compose each sum with the parts from index i to the end, {@link #OVERFLOW} if too large.
+     * Built on demand.
+     */
+    private long[][] suffixCounts = null;
+
+    /**
+     * @param maxima the maximal value of every part, the first part having highest priority
+     * @param target the sum of every composition
+     */
+    public BoundedCompositions(int[] maxima, int target) {
+        Preconditions.checkArgument(target >= 0);
+        for (int max : maxima) {
+            Preconditions.checkArgument(max >= 0, "Maxima must not be negative");
+        }
+        this.maxima = maxima.clone();
+        this.target = target;
+        this.suffixCapacities = new int[maxima.length + 1];
+        for (int i = maxima.length - 1; i >= 0; i--) {
+            suffixCapacities[i] = (int) Math.min(Integer.MAX_VALUE, (long) suffixCapacities[i + 1] + maxima[i]);
+        }
+    }
+
+    /**
+     * @return the number of parts of every composition
+     */
+    public int size() {
+        return maxima.length;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public boolean isEmpty() {
+        return suffixCapacities[0] < target;
+    }
+
+    /**
+     * Writes the first composition into the passed array
+     *
+     * @return false if there is no composition
+     */
+    public boolean first(int[] composition) {
+        checkLength(composition);
+        if (isEmpty()) {
+            return false;
+        }
+        fillGreedily(composition, 0, target);
+        return true;
+    }
+
+    /**
+     * Replaces the passed composition by its successor
+     *
+     * @return false if the passed composition is the last one, in which case the array is not changed
+     */
+    public boolean next(int[] composition) {
+        checkLength(composition);
+        // Find the last part which can be decreased, such that the parts after it can take one more
+        int suffixSum = 0;
+        for (int i = composition.length - 1; i >= 0; i--) {
+            if (composition[i] > 0 && suffixCapacities[i + 1] > suffixSum) {
+                composition[i]--;
+                fillGreedily(composition, i + 1, suffixSum + 1);
+                return true;
+            }
+            suffixSum += composition[i];
+        }
+        return false;
+    }
+
+    /**
+     * Assigns the remainder to the parts starting at from, each taking as much as possible
+     */
+    private void fillGreedily(int[] composition, int from, int remainder) {
+        for (int i = from; i < composition.length; i++) {
+            composition[i] = Math.min(maxima[i], remainder);
+            remainder -= composition[i];
+        }
+    }
+
+    /**
+     * @return the number of compositions
+     * @throws ArithmeticException if the number does not fit into a long
+     */
+    public long count() {
+        return checkedCount(0, target);
+    }
+
+    /**
+     * @return the position of the passed composition in the order of iteration, starting with 0
+     * @throws IllegalArgumentException if the array is not a composition of this instance
+     * @throws ArithmeticException      if the rank does not fit into a long
+     */
+    public long rank(int[] composition) {
+        checkLength(composition);
+        int sum = 0;
+        for (int i = 0; i < composition.length; i++) {
+            Preconditions.checkArgument(composition[i] >= 0 && composition[i] <= maxima[i], "Part %s is out of bounds", i);
+            sum += composition[i];
+        }
+        Preconditions.checkArgument(sum == target, "Composition does not sum up to %s", target);
+        long rank = 0;
+        int remainder = target;
+        for (int i = 0; i < composition.length; i++) {
+            // All compositions with a larger value at i come first
+            for (int value = Math.min(maxima[i], remainder); value > composition[i]; value--) {
+                rank = Math.addExact(rank, checkedCount(i + 1, remainder - value));
+            }
+            remainder -= composition[i];
+        }
+        return rank;
+    }
+
+    /**
+     * Writes the composition at the passed position in the order of iteration into the passed array
+     *
+     * @throws IndexOutOfBoundsException if rank is negative or not smaller than {@link #count()}
+     * @throws ArithmeticException       if the number of compositions does not fit into a long
+     */
+    public void unrank(long rank, int[] composition) {
+        checkLength(composition);
+        if (rank < 0 || rank >= count()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " is out of bounds");
+        }
+        int remainder = target;
+        for (int i = 0; i < composition.length; i++) {
+            int value = Math.min(maxima[i], remainder);
+            while (true) {
+                long count = checkedCount(i + 1, remainder - value);
+                if (rank < count) {
+                    break;
+                }
+                rank -= count;
+                value--;
+            }
+            composition[i] = value;
+            remainder -= value;
+        }
+    }
+
+    /**
+     * @return a cursor over all compositions
+     */
+    public Cursor cursor() {
+        return new Cursor(0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Allows to iterate over a range of compositions, e.g., to split the work between threads or
+     * to resume an iteration.
+     *
+     * @param fromRank the rank of the first composition (inclusive)
+     * @param toRank   the rank after the last composition (exclusive), may be larger than {@link #count()}
+     * @return a cursor over the compositions with ranks in [fromRank, toRank)
+     */
+    public Cursor cursor(long fromRank, long toRank) {
+        Preconditions.checkArgument(fromRank >= 0 && fromRank <= toRank);
+        return new Cursor(fromRank, toRank);
+    }
+
+    private long checkedCount(int from, int sum) {
+        long count = suffixCounts()[from][sum];
+        if (count == OVERFLOW) {
+            throw new ArithmeticException("Number of compositions does not fit into a long");
+        }
+        return count;
+    }
+
+    private long[][] suffixCounts() {
+        if (suffixCounts == null) {
+            long[][] counts = new long[maxima.length + 1][target + 1];
+            counts[maxima.length][0] = 1;
+            for (int i = maxima.length - 1; i >= 0; i--) {
+                for (int sum = 0; sum <= target; sum++) {
+                    long count = 0;
+                    for (int value = 0; value <= Math.min(maxima[i], sum) && count != OVERFLOW; value++) {
+                        long summand = counts[i + 1][sum - value];
+                        count = summand == OVERFLOW || count > Long.MAX_VALUE - summand ? OVERFLOW : count + summand;
+                    }
+                    counts[i][sum] = count;
+                }
+            }
+            suffixCounts = counts;
+        }
+        return suffixCounts;
+    }
+
+    private void checkLength(int[] composition) {
+        Preconditions.checkArgument(composition.length == maxima.length, "Composition must have %s parts", maxima.length);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCompositions[maxima=" + Arrays.toString(maxima) + ", target=" + target + "]";
+    }
+
+    /**
+     * Iterates over a range of compositions, reusing one array.<br>
+     * Usage: <code>while (cursor.advance()) { int[] composition = cursor.current(); ... }</code>
+     */
+    public final class Cursor {
+
+        private final int[] composition = new int[maxima.length];
+        private final long toRank;
+        private long nextRank;
+        private boolean started = false;
+        private boolean exhausted;
+
+        private Cursor(long fromRank, long toRank) {
+            this.nextRank = fromRank;
+            this.toRank = toRank;
+            this.exhausted = fromRank >= toRank || isEmpty();
+        }
+
+        /**
+         * Moves to the next composition of the range
+         *
+         * @return false if the range is exhausted
+         */
+        public boolean advance() {
+            if (exhausted) {
+                return false;
+            }
+            if (!started) {
+                started = true;
+                if (nextRank == 0) {
+                    first(composition);
+                } else {
+                    if (nextRank >= count()) {
+                        exhausted = true;
+                        return false;
+                    }
+                    unrank(nextRank, composition);
+                }
+            } else if (!next(composition)) {
+                exhausted = true;
+                return false;
+            }
+            if (nextRank++ >= toRank) {
+                exhausted = true;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return the current composition, which is changed by {@link #advance()} and must not be modified
+         * @throws NoSuchElementException if {@link #advance()} was not called yet or returned false
+         */
+        public int[] current() {
+            if (!started || exhausted) {
+                throw new NoSuchElementException();
+            }
+            return composition;
+        }
+
+        /**
+         * @return the rank of the composition returned by {@link #current()}
+         */
+        public long currentRank() {
+            return nextRank - 1;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.math;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigInteger;
+
+/**
+ * The combinatorial number system, i.e., the bijection between the integers <code>0 &le; rank &lt; C(n, k)</code>
+ * and the k-subsets of <code>{0, ..., n-1}</code>,
+ * where a subset <code>c_1 &lt; ... &lt; c_k</code> has the rank <code>C(c_1, 1) + ... + C(c_k, k)</code>
+ * (colexicographic order).<br><br>
+ *
+ * An instance holds Pascal's triangle up to row n, which is released together with the instance.
+ * The {@link BigInteger} rows are only computed if some coefficient of row n does not fit into a <code>long</code>.
+ * Unranking needs at most n + k binomial lookups and no allocation apart from the result.
+ *
+ * @author Michael Weiss
+ *
+ */
+public final class CombinatorialNumberSystem {
+
+    private static final long OVERFLOW = -1;
+
+    private final int n;
+    /** C(m, i) for m &le; n, or {@link #OVERFLOW} */
+    private final long[][] longTable;
+    /** null if all coefficients of row n fit into a long */
+    private final BigInteger[][] bigTable;
+
+    /**
+     * @param n the number of elements of which subsets are ranked
+     */
+    public CombinatorialNumberSystem(int n) {
+        Preconditions.checkArgument(n >= 0);
+        this.n = n;
+        this.longTable = new long[n + 1][];
+        boolean overflow = false;
+        for (int row = 0; row <= n; row++) {
+            longTable[row] = new long[row + 1];
+            longTable[row][0] = longTable[row][row] = 1;
+            for (int i = 1; i < row; i++) {
+                long left = longTable[row - 1][i - 1];
+                long right = longTable[row - 1][i];
+                longTable[row][i] = left == OVERFLOW || right == OVERFLOW || left > Long.MAX_VALUE - right
+                        ? OVERFLOW : left + right;
+                overflow |= longTable[row][i] == OVERFLOW;
+            }
+        }
+        if (overflow) {
+            this.bigTable = new BigInteger[n + 1][];
+            for (int row = 0; row <= n; row++) {
+                bigTable[row] = new BigInteger[row + 1];
+                bigTable[row][0] = bigTable[row][row] = BigInteger.ONE;
+                for (int i = 1; i < row; i++) {
+                    bigTable[row][i] = bigTable[row - 1][i - 1].add(bigTable[row - 1][i]);
+                }
+            }
+        } else {
+            this.bigTable = null;
+        }
+    }
+
+    /**
+     * @return the binomial coefficient C(n, k), which is 0 if k &lt; 0 or k &gt; n
+     */
+    public static BigInteger bigBinomial(int n, int k) {
+        Preconditions.checkArgument(n >= 0);
+        if (k < 0 || k > n) {
+            return BigInteger.ZERO;
+        }
+        k = Math.min(k, n - k);
+        BigInteger result = BigInteger.ONE;
+        for (int i = 1; i <= k; i++) {
+            // Exact, as the intermediate result is C(n - k + i, i)
+            result = result.multiply(BigInteger.valueOf(n - k + i)).divide(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return true iff the number of k-subsets, C(n, k), can be represented as <code>long</code>
+     */
+    public boolean fitsInLong(int k) {
+        checkSubsetSize(k);
+        return longTable[n][k] != OVERFLOW;
+    }
+
+    /**
+     * @return the number of k-subsets, C(n, k)
+     * @throws ArithmeticException if C(n, k) does not fit into a <code>long</code>
+     */
+    public long size(int k) {
+        if (!fitsInLong(k)) {
+            throw new ArithmeticException("C(" + n + ", " + k + ") does not fit into a long");
+        }
+        return longTable[n][k];
+    }
+
+    /**
+     * @return the number of k-subsets, C(n, k)
+     */
+    public BigInteger bigSize(int k) {
+        return fitsInLong(k) ? BigInteger.valueOf(longTable[n][k]) : bigTable[n][k];
+    }
+
+    /**
+     * @param rank a number with <code>0 &le; rank &lt; C(n, k)</code>
+     * @return the k-subset of {0, ..., n-1} with the passed rank, in increasing order
+     */
+    public int[] unrank(long rank, int k) {
+        Preconditions.checkArgument(rank >= 0 && (!fitsInLong(k) || rank < size(k)), "Rank %s out of range", rank);
+        long[][] table = longTable;
+        int[] result = new int[k];
+        int candidate = n - 1;
+        for (int i = k; i >= 1; i--) {
+            // Largest candidate with C(candidate, i) <= rank. As rank < C(n, k), no overflowing coefficient is reached.
+            while (candidate >= i && (table[candidate][i] == OVERFLOW || table[candidate][i] > rank)) {
+                candidate--;
+            }
+            if (candidate < i) {
+                // C(c, i) = 0 for c < i, thus all remaining elements are the smallest possible ones
+                candidate = i - 1;
+            } else {
+                rank -= table[candidate][i];
+            }
+            result[i - 1] = candidate--;
+        }
+        return result;
+    }
+
+    /**
+     * @param rank a number with <code>0 &le; rank &lt; C(n, k)</code>
+     * @return the k-subset of {0, ..., n-1} with the passed rank, in increasing order
+     */
+    public int[] unrank(BigInteger rank, int k) {
+        Preconditions.checkArgument(rank.signum() >= 0 && rank.compareTo(bigSize(k)) < 0, "Rank %s out of range", rank);
+        if (rank.bitLength() < Long.SIZE - 1) {
+            return unrank(rank.longValue(), k);
+        }
+        BigInteger[][] table = bigTable;
+        int[] result = new int[k];
+        int candidate = n - 1;
+        for (int i = k; i >= 1; i--) {
+            while (candidate >= i && table[candidate][i].compareTo(rank) > 0) {
+                candidate--;
+            }
+            if (candidate < i) {
+                candidate = i - 1;
+            } else {
+                rank = rank.subtract(table[candidate][i]);
+            }
+            result[i - 1] = candidate--;
+        }
+        return result;
+    }
+
+    /**
+     * @param subset distinct elements of {0, ..., n-1}, in increasing order
+     * @return the rank of the subset, i.e., the inverse of {@link #unrank(BigInteger, int)}
+     */
+    public BigInteger rank(int[] subset) {
+        checkSubsetSize(subset.length);
+        BigInteger rank = BigInteger.ZERO;
+        for (int i = 0; i < subset.length; i++) {
+            Preconditions.checkArgument(subset[i] >= i && subset[i] < n && (i == 0 || subset[i] > subset[i - 1]),
+                    "Elements must be distinct, smaller than %s and in increasing order", n);
+            if (subset[i] > i) {
+                // C(i, i + 1) = 0 is not stored
+                rank = rank.add(bigTable == null ? BigInteger.valueOf(longTable[subset[i]][i + 1]) : bigTable[subset[i]][i + 1]);
+            }
+        }
+        return rank;
+    }
+
+    private void checkSubsetSize(int k) {
+        Preconditions.checkArgument(k >= 0 && k <= n, "Subset size %s out of range", k);
+    }
+}
@@ -5,30 +5,23 @@
  */
 package org.spectrumauctions.sats.core.util.math;
 
-import com.google.common.collect.ImmutableSortedMap;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import java.math.BigDecimal;
 import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
+ * A continuous piecewise linear function with a restricted domain.<br>
+ * The function is backed by a {@link PiecewiseLinearEvaluator}, which can be obtained with {@link #getEvaluator()}
+ * for fast repeated evaluations.
+ *
  * @author Michael Weiss
  *
  */
 public final class ContinuousPiecewiseLinearFunction implements Function {
 
-    private static final Logger logger = LogManager.getLogger(ContinuousPiecewiseLinearFunction.class);
-
-    /**
-     * A map containing all linear function pieces of this piecewise linear function.
-     * The key is the upper x-value end of this linear function piece.
-     */
-    private final SortedMap<BigDecimal, LinearFunction> linearFunctions;
-
-    private final BigDecimal lowestX;
+    private final PiecewiseLinearEvaluator evaluator;
 
     /**
      * Constructs a new PieceWiseLinear function with a restricted domain interval
@@ -37,25 +30,14 @@ public final class ContinuousPiecewiseLinearFunction implements Function {
      *
      */
     public ContinuousPiecewiseLinearFunction(Map<BigDecimal, BigDecimal> cornerPoints) {
-        // Sort the incoming corner points by their 
-        SortedMap<BigDecimal, BigDecimal> sortedCornerPoints = new TreeMap<>(cornerPoints);
-        ImmutableSortedMap.Builder<BigDecimal, LinearFunction> linearFunctionsBuilder =
-                ImmutableSortedMap.naturalOrder();
-        Iterator<Entry<BigDecimal, BigDecimal>> entryIterator = sortedCornerPoints.entrySet().iterator();
-        Entry<BigDecimal, BigDecimal> lowerEntry = entryIterator.next();
-        lowestX = lowerEntry.getKey();
-        while (entryIterator.hasNext()) {
-            Entry<BigDecimal, BigDecimal> upperEntry = entryIterator.next();
-            if (lowerEntry.getKey().compareTo(upperEntry.getKey()) == 0) {
-                // Skip linear function where the domain is empty
-                // TODO log this
-            } else {
-                LinearFunction linearFunction = new LinearFunction(lowerEntry.getKey(), lowerEntry.getValue(), upperEntry.getKey(), upperEntry.getValue());
-                linearFunctionsBuilder.put(upperEntry.getKey(), linearFunction);
-                lowerEntry = upperEntry;
-            }
-        }
-        linearFunctions = linearFunctionsBuilder.build();
+        this.evaluator = new PiecewiseLinearEvaluator(cornerPoints);
+    }
+
+    /**
+     * @return the array-backed representation of this function
+     */
+    public PiecewiseLinearEvaluator getEvaluator() {
+        return evaluator;
     }
 
     /**
@@ -65,11 +47,8 @@ public final class ContinuousPiecewiseLinearFunction implements Function {
      */
     public List<SimpleImmutableEntry<BigDecimal, BigDecimal>> getCornerPoints() {
         List<SimpleImmutableEntry<BigDecimal, BigDecimal>> result = new ArrayList<>();
-        BigDecimal firstY = getY(lowestX);
-        result.add(new SimpleImmutableEntry<>(lowestX, firstY));
-        for (BigDecimal functionUpperX : linearFunctions.keySet()) {
-            BigDecimal y = getY(functionUpperX);
-            result.add(new SimpleImmutableEntry<>(functionUpperX, y));
+        for (int i = 0; i < evaluator.getNumberOfCornerPoints(); i++) {
+            result.add(new SimpleImmutableEntry<>(evaluator.getCornerX(i), evaluator.getCornerY(i)));
         }
         return result;
     }
@@ -79,39 +58,26 @@ public final class ContinuousPiecewiseLinearFunction implements Function {
      */
     @Override
     public BigDecimal getY(BigDecimal x) {
-        try {
-            return functionAt(x).getY(x);
-        } catch (NotDifferentiableException e) {
-            return e.getCornerPointY();
-        }
+        return evaluator.getY(x);
     }
 
 
+    /**
+     * @return the linear piece containing x
+     * @throws NotDifferentiableException if x is a corner point. The exception contains the adjacent pieces.
+     * @throws OutOfDomainException if x is outside of the domain of the function
+     */
     public LinearFunction functionAt(BigDecimal x) throws NotDifferentiableException {
-        if (x.compareTo(lowestX) < 0) {
-            throw new OutOfDomainException("X is smaller than domain allows");
-        } else if (x.compareTo(lowestX) == 0) {
-            try {
-                BigDecimal firstKey = linearFunctions.firstKey();
-                throw new NotDifferentiableException(null, linearFunctions.get(firstKey), x);
-            } catch (NoSuchElementException e) {
-                logger.warn("break");
-            }
+        if (evaluator.getNumberOfPieces() == 0) {
+            throw new OutOfDomainException("The function has an empty domain");
         }
-        Iterator<Entry<BigDecimal, LinearFunction>> functionEntries = linearFunctions.entrySet().iterator();
-        while (functionEntries.hasNext()) {
-            Entry<BigDecimal, LinearFunction> functionEntry = functionEntries.next();
-            if (x.compareTo(functionEntry.getKey()) <= 0) {
-                LinearFunction higherAdjacentFunction = null;
-                if (functionEntries.hasNext()) {
-                    higherAdjacentFunction = functionEntries.next().getValue();
-                }
-                throw new NotDifferentiableException(functionEntry.getValue(), higherAdjacentFunction, x);
-            } else if (x.compareTo(functionEntry.getKey()) < 0) {
-                return functionEntry.getValue();
-            }
+        int corner = evaluator.cornerIndex(x);
+        if (corner >= 0) {
+            LinearFunction lowerAdjacentFunction = corner > 0 ? evaluator.getPiece(corner - 1) : null;
+            LinearFunction higherAdjacentFunction = corner < evaluator.getNumberOfPieces() ? evaluator.getPiece(corner) : null;
+            throw new NotDifferentiableException(lowerAdjacentFunction, higherAdjacentFunction, x);
         }
-        throw new OutOfDomainException("X is bigger than domain allows");
+        return evaluator.getPiece(evaluator.pieceIndex(x));
     }
 
 
@@ -0,0 +1,235 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.math;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * An immutable, array-backed representation of a continuous piecewise linear function.<br>
+ * The corner points are stored in sorted arrays, and the linear piece for an x-value is found with binary search.
+ * Evaluation is available with {@link BigDecimal}s, giving the same result as {@link ContinuousPiecewiseLinearFunction},
+ * and with doubles, using the same slopes and intercepts converted to doubles.<br><br>
+ *
+ * At a corner point, the piece to its left is used for evaluation (or the first piece at the lowest corner point).
+ * As the function is continuous, this only makes a difference in the rounding of the result.<br>
+ * Instances can be shared between threads.
+ *
+ * @author Michael Weiss
+ */
+public final class PiecewiseLinearEvaluator implements Function {
+
+    private final BigDecimal[] cornerX;
+    private final BigDecimal[] cornerY;
+    /** Piece i lies between cornerX[i] and cornerX[i+1] */
+    private final LinearFunction[] pieces;
+
+    private final double[] cornerXDouble;
+    private final double[] slopes;
+    private final double[] intercepts;
+
+    /**
+     * @param cornerPoints A map with <i>key = x-values</i> and <i> value = y-values</i>.
+     * The map has to include all corner points of the function, including lower and upper end of domain.
+     * If multiple corner points have the same x-value, the first one in the order of the map is used.
+     */
+    public PiecewiseLinearEvaluator(Map<BigDecimal, BigDecimal> cornerPoints) {
+        SortedMap<BigDecimal, BigDecimal> sortedCornerPoints = new TreeMap<>(cornerPoints);
+        List<BigDecimal> xValues = new ArrayList<>();
+        List<LinearFunction> linearFunctions = new ArrayList<>();
+        Iterator<Entry<BigDecimal, BigDecimal>> entryIterator = sortedCornerPoints.entrySet().iterator();
+        Entry<BigDecimal, BigDecimal> lowerEntry = entryIterator.next();
+        xValues.add(lowerEntry.getKey());
+        while (entryIterator.hasNext()) {
+            Entry<BigDecimal, BigDecimal> upperEntry = entryIterator.next();
+            // Skip linear functions where the domain is empty
+            if (lowerEntry.getKey().compareTo(upperEntry.getKey()) != 0) {
+                linearFunctions.add(new LinearFunction(lowerEntry.getKey(), lowerEntry.getValue(), upperEntry.getKey(), upperEntry.getValue()));
+                xValues.add(upperEntry.getKey());
+                lowerEntry = upperEntry;
+            }
+        }
+        this.cornerX = xValues.toArray(new BigDecimal[0]);
+        this.pieces = linearFunctions.toArray(new LinearFunction[0]);
+        this.cornerY = new BigDecimal[cornerX.length];
+        this.cornerXDouble = new double[cornerX.length];
+        for (int i = 0; i < cornerX.length; i++) {
+            cornerXDouble[i] = cornerX[i].doubleValue();
+            if (pieces.length > 0) {
+                cornerY[i] = pieces[Math.max(0, i - 1)].getY(cornerX[i]);
+            } else {
+                cornerY[i] = sortedCornerPoints.get(cornerX[i]);
+            }
+        }
+        this.slopes = new double[pieces.length];
+        this.intercepts = new double[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            slopes[i] = pieces[i].getSlope().doubleValue();
+            intercepts[i] = pieces[i].getyIntercept().doubleValue();
+        }
+    }
+
+    public int getNumberOfCornerPoints() {
+        return cornerX.length;
+    }
+
+    public int getNumberOfPieces() {
+        return pieces.length;
+    }
+
+    /**
+     * @param index the index of the corner point, in increasing order of x-values
+     */
+    public BigDecimal getCornerX(int index) {
+        return cornerX[index];
+    }
+
+    /**
+     * @param index the index of the corner point, in increasing order of x-values
+     * @return the value of the function at the corner point, as evaluated by {@link #getY(BigDecimal)}
+     */
+    public BigDecimal getCornerY(int index) {
+        return cornerY[index];
+    }
+
+    /**
+     * @param index the index of the piece, where piece <i>i</i> lies between corner point <i>i</i> and <i>i+1</i>
+     */
+    public LinearFunction getPiece(int index) {
+        return pieces[index];
+    }
+
+    public BigDecimal getLowestX() {
+        return cornerX[0];
+    }
+
+    public BigDecimal getHighestX() {
+        return cornerX[cornerX.length - 1];
+    }
+
+    /**
+     * @return the index of the piece used to evaluate x
+     * @throws OutOfDomainException if x is outside of the domain of the function
+     */
+    public int pieceIndex(BigDecimal x) {
+        if (pieces.length == 0 || x.compareTo(cornerX[0]) < 0 || x.compareTo(cornerX[cornerX.length - 1]) > 0) {
+            throw new OutOfDomainException("X is outside of the domain");
+        }
+        // Smallest corner index >= 1 whose x-value is not smaller than x
+        int low = 1;
+        int high = cornerX.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cornerX[middle].compareTo(x) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Like {@link #pieceIndex(BigDecimal)}, but x-values outside of the domain (e.g., due to rounding)
+     * are assigned to the first or last piece, respectively.
+     */
+    public int pieceIndex(double x) {
+        if (pieces.length == 0) {
+            throw new OutOfDomainException("The function has an empty domain");
+        }
+        int low = 1;
+        int high = cornerXDouble.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cornerXDouble[middle] < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * @throws OutOfDomainException if x is outside of the domain of the function
+     */
+    @Override
+    public BigDecimal getY(BigDecimal x) {
+        return pieces[pieceIndex(x)].getY(x);
+    }
+
+    /**
+     * Evaluates the function with doubles. Outside of the domain, the first or last piece is extrapolated.
+     */
+    public double getY(double x) {
+        int piece = pieceIndex(x);
+        return slopes[piece] * x + intercepts[piece];
+    }
+
+    /**
+     * @return the slope of the piece left of x, or null if x is the lowest corner point
+     * @throws OutOfDomainException if x is outside of the domain of the function
+     */
+    public BigDecimal getLeftSlope(BigDecimal x) {
+        if (x.compareTo(cornerX[0]) == 0) {
+            return null;
+        }
+        return pieces[pieceIndex(x)].getSlope();
+    }
+
+    /**
+     * @return the slope of the piece right of x, or null if x is the highest corner point
+     * @throws OutOfDomainException if x is outside of the domain of the function
+     */
+    public BigDecimal getRightSlope(BigDecimal x) {
+        int piece = pieceIndex(x);
+        if (x.compareTo(cornerX[piece + 1]) == 0) {
+            piece++;
+        }
+        return piece < pieces.length ? pieces[piece].getSlope() : null;
+    }
+
+    /**
+     * @return the slope of the piece left of x, or {@link Double#NaN} if x is not greater than the lowest corner point
+     */
+    public double getLeftSlope(double x) {
+        if (x <= cornerXDouble[0]) {
+            return Double.NaN;
+        }
+        return slopes[pieceIndex(x)];
+    }
+
+    /**
+     * @return the slope of the piece right of x, or {@link Double#NaN} if x is not smaller than the highest corner point
+     */
+    public double getRightSlope(double x) {
+        if (x >= cornerXDouble[cornerXDouble.length - 1]) {
+            return Double.NaN;
+        }
+        int piece = pieceIndex(x);
+        if (x == cornerXDouble[piece + 1]) {
+            piece++;
+        }
+        return slopes[piece];
+    }
+
+    /**
+     * @return the corner point index whose x-value equals x, or -1 if x is not a corner point
+     */
+    int cornerIndex(BigDecimal x) {
+        if (pieces.length == 0) {
+            return x.compareTo(cornerX[0]) == 0 ? 0 : -1;
+        }
+        int piece = pieceIndex(x);
+        if (x.compareTo(cornerX[piece]) == 0) {
+            return piece;
+        } else if (x.compareTo(cornerX[piece + 1]) == 0) {
+            return piece + 1;
+        }
+        return -1;
+    }
+}
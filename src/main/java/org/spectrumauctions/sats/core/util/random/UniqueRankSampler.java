@@ -0,0 +1,134 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.random;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Draws ranks from <code>[0, populationSize)</code> uniformly without replacement, using a sparse Fisher-Yates shuffle:
+ * The not yet drawn ranks are (virtually) kept at the positions <code>[0, remaining)</code>, where only
+ * positions at which the rank differs from the position are stored.
+ * A draw is thus possible in constant time, and the memory only grows with the number of draws.<br><br>
+ *
+ * Population sizes which do not fit into a <code>long</code> are supported, in which case ranks are drawn as
+ * {@link BigInteger}s.
+ *
+ * @author Michael Weiss
+ */
+public final class UniqueRankSampler {
+
+    private final boolean longRanks;
+    private long remaining;
+    private BigInteger bigRemaining;
+    private final Map<Long, Long> swapped = new HashMap<>();
+    private final Map<BigInteger, BigInteger> bigSwapped = new HashMap<>();
+
+    public UniqueRankSampler(long populationSize) {
+        Preconditions.checkArgument(populationSize >= 0);
+        this.longRanks = true;
+        this.remaining = populationSize;
+    }
+
+    public UniqueRankSampler(BigInteger populationSize) {
+        Preconditions.checkArgument(populationSize.signum() >= 0);
+        this.longRanks = populationSize.bitLength() < Long.SIZE;
+        if (longRanks) {
+            this.remaining = populationSize.longValue();
+        } else {
+            this.bigRemaining = populationSize;
+        }
+    }
+
+    /**
+     * @return true if all ranks of the population were drawn
+     */
+    public boolean isExhausted() {
+        return longRanks ? remaining == 0 : bigRemaining.signum() == 0;
+    }
+
+    /**
+     * @return true if the population size fits into a long, i.e., if {@link #nextLong(UniformDistributionRNG)} can be used
+     */
+    public boolean hasLongRanks() {
+        return longRanks;
+    }
+
+    /**
+     * @return a rank which was not drawn before
+     * @throws IllegalStateException  if the population size does not fit into a long
+     * @throws NoSuchElementException if all ranks were drawn
+     */
+    public long nextLong(UniformDistributionRNG rng) {
+        Preconditions.checkState(longRanks, "Population too large for long ranks");
+        if (isExhausted()) {
+            throw new NoSuchElementException();
+        }
+        long position = uniformLong(rng, remaining);
+        long last = --remaining;
+        Long rank = swapped.get(position);
+        Long lastRank = swapped.remove(last);
+        if (position != last) {
+            swapped.put(position, lastRank == null ? last : lastRank);
+        }
+        return rank == null ? position : rank;
+    }
+
+    /**
+     * @return a rank which was not drawn before
+     * @throws NoSuchElementException if all ranks were drawn
+     */
+    public BigInteger next(UniformDistributionRNG rng) {
+        if (longRanks) {
+            return BigInteger.valueOf(nextLong(rng));
+        }
+        if (isExhausted()) {
+            throw new NoSuchElementException();
+        }
+        BigInteger position = uniformBigInteger(rng, bigRemaining);
+        bigRemaining = bigRemaining.subtract(BigInteger.ONE);
+        BigInteger last = bigRemaining;
+        BigInteger rank = bigSwapped.get(position);
+        BigInteger lastRank = bigSwapped.remove(last);
+        if (!position.equals(last)) {
+            bigSwapped.put(position, lastRank == null ? last : lastRank);
+        }
+        return rank == null ? position : rank;
+    }
+
+    /**
+     * @return a uniformly distributed number between 0 (inclusive) and bound (exclusive)
+     */
+    private static long uniformLong(UniformDistributionRNG rng, long bound) {
+        long bits;
+        long result;
+        do {
+            bits = rng.nextLong() >>> 1;
+            result = bits % bound;
+        } while (bits - result + (bound - 1) < 0);
+        return result;
+    }
+
+    /**
+     * @return a uniformly distributed number between 0 (inclusive) and bound (exclusive)
+     */
+    private static BigInteger uniformBigInteger(UniformDistributionRNG rng, BigInteger bound) {
+        int bitLength = bound.bitLength();
+        BigInteger result;
+        do {
+            result = BigInteger.ZERO;
+            for (int bits = 0; bits < bitLength; bits += Long.SIZE - 1) {
+                result = result.shiftLeft(Long.SIZE - 1).or(BigInteger.valueOf(rng.nextLong() >>> 1));
+            }
+            result = result.shiftRight(((bitLength + Long.SIZE - 2) / (Long.SIZE - 1)) * (Long.SIZE - 1) - bitLength);
+        } while (result.compareTo(bound) >= 0);
+        return result;
+    }
+}
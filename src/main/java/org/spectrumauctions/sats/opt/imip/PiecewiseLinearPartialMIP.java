@@ -11,12 +11,9 @@ import edu.harvard.econcs.jopt.solver.mip.Constraint;
 import edu.harvard.econcs.jopt.solver.mip.VarType;
 import edu.harvard.econcs.jopt.solver.mip.Variable;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
-import org.spectrumauctions.sats.core.util.math.LinearFunction;
-import org.spectrumauctions.sats.core.util.math.NotDifferentiableException;
+import org.spectrumauctions.sats.core.util.math.PiecewiseLinearEvaluator;
 import org.spectrumauctions.sats.core.util.random.DoubleInterval;
 
-import java.math.BigDecimal;
-import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -53,7 +50,7 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
      */
     private List<Variable> conditionalXVariable;
 
-    private ContinuousPiecewiseLinearFunction func;
+    private PiecewiseLinearEvaluator func;
     private Variable functionInput;
     private Variable functionOutput;
     private String auxiliaryPartialName;
@@ -64,6 +61,16 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
                                      Variable functionInput,
                                      Variable functionOutput,
                                      String auxiliaryPartialName) {
+        this(func.getEvaluator(), functionInput, functionOutput, auxiliaryPartialName);
+    }
+
+    /**
+     * Encodes the passed function, such that the MIP and the valuation of the bidders share the same representation
+     */
+    public PiecewiseLinearPartialMIP(PiecewiseLinearEvaluator func,
+                                     Variable functionInput,
+                                     Variable functionOutput,
+                                     String auxiliaryPartialName) {
         super();
         this.func = func;
         this.functionInput = functionInput;
@@ -84,8 +91,7 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
     private void initAuxiliaryVariables() {
         this.linearPieceVariable = new ArrayList<>();
         this.conditionalXVariable = new ArrayList<Variable>();
-        List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
-        for (int i = 1; i < cornerPoints.size(); i++) {
+        for (int i = 1; i < func.getNumberOfCornerPoints(); i++) {
             String varName = auxiliaryPartialName.concat(linearPieceVariableName).concat(String.valueOf(i));
             this.linearPieceVariable.add(new Variable(varName, VarType.BOOLEAN, 0, 1));
 
@@ -102,32 +108,30 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
      */
     public Set<Constraint> constrainAuxiliaryVariables() {
         Set<Constraint> result = new HashSet<>();
-        List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
+        int numberOfCornerPoints = func.getNumberOfCornerPoints();
         // Ensure CornerX_{i-1} * Z_i <= condX_i <= CornerX_i * Z_i
-        for (int i = 1; i < cornerPoints.size(); i++) {
-            SimpleImmutableEntry<BigDecimal, BigDecimal> lowerCornerPoint = cornerPoints.get(i - 1);
-            SimpleImmutableEntry<BigDecimal, BigDecimal> higherCornerPoint = cornerPoints.get(i);
+        for (int i = 1; i < numberOfCornerPoints; i++) {
             // First constraint CornerX_{i-1} * Z_i - condX_i <= 0
             Constraint lowerC = new Constraint(CompareType.LEQ, 0);
-            lowerC.addTerm(lowerCornerPoint.getKey().doubleValue(), getZVar(i));
+            lowerC.addTerm(func.getCornerX(i - 1).doubleValue(), getZVar(i));
             lowerC.addTerm(-1, getConditionalXVar(i));
             result.add(lowerC);
             // Second constraint condX_i  - CornerX_{i} * Z_i - <= 0
             Constraint upperC = new Constraint(CompareType.LEQ, 0);
-            upperC.addTerm(higherCornerPoint.getKey().doubleValue() * (-1), getZVar(i));
+            upperC.addTerm(func.getCornerX(i).doubleValue() * (-1), getZVar(i));
             upperC.addTerm(1, getConditionalXVar(i));
             result.add(upperC);
         }
         // Ensure that exactly one Z_i = 1
         Constraint zCount = new Constraint(CompareType.EQ, 1);
-        for (int i = 1; i < cornerPoints.size(); i++) {
+        for (int i = 1; i < numberOfCornerPoints; i++) {
             zCount.addTerm(1, getZVar(i));
         }
         result.add(zCount);
         // Ensure sum of all conditionalX is exaclty equal to the input X       Constraint zCount = new Constraint(CompareType.EQ, 1);
         Constraint condXSum = new Constraint(CompareType.EQ, 0);
         condXSum.addTerm(-1, functionInput);
-        for (int i = 1; i < cornerPoints.size(); i++) {
+        for (int i = 1; i < numberOfCornerPoints; i++) {
             condXSum.addTerm(1, getConditionalXVar(i));
         }
         result.add(condXSum);
@@ -145,20 +149,10 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
     public Constraint constrainFunctionOutputVariable() {
         Constraint c = new Constraint(CompareType.EQ, 0);
         c.addTerm(-1, functionOutput);
-        List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
-        for (int i = 1; i < cornerPoints.size(); i++) {
-            BigDecimal lowerX = cornerPoints.get(i - 1).getKey();
-            BigDecimal higherX = cornerPoints.get(i).getKey();
-            LinearFunction inbetweenFunction;
-            try {
-                inbetweenFunction = func.functionAt(higherX);
-                throw new RuntimeException("point is a corner point. A NotDifferentiableException should be thrown");
-            } catch (NotDifferentiableException e) {
-                //This exception should be thrown, das we are requesting the function for a corner point.
-                inbetweenFunction = e.getLowerAdjacentFunction();
-            }
-            double yOfLowerX = func.getY(lowerX).doubleValue();
-            double slope = inbetweenFunction.getSlope().doubleValue();
+        for (int i = 1; i < func.getNumberOfCornerPoints(); i++) {
+            double lowerX = func.getCornerX(i - 1).doubleValue();
+            double yOfLowerX = func.getCornerY(i - 1).doubleValue();
+            double slope = func.getPiece(i - 1).getSlope().doubleValue();
 
             //Add terms to function
 
@@ -167,7 +161,7 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
             //Term 2: slope * condX_i
             c.addTerm(slope, getConditionalXVar(i));
             //Term 3: slope * cornerX_{i-1} * Z_i
-            c.addTerm((-1) * slope * lowerX.doubleValue(), getZVar(i));
+            c.addTerm((-1) * slope * lowerX, getZVar(i));
         }
         return c;
     }
@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalDouble;
 
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Bundle;
@@ -23,17 +22,29 @@ import edu.harvard.econcs.jopt.solver.mip.Constraint;
 import edu.harvard.econcs.jopt.solver.mip.VarType;
 import edu.harvard.econcs.jopt.solver.mip.Variable;
 
+/**
+ * A mip finding the efficient allocation in an instance of the Global Synergy Value Model.<br><br>
+ *
+ * The value of a bundle <i>S</i> is <code>(0.8 + 0.2 |S|) * sum of v_j over S</code>. Besides the allocation
+ * variables <code>x_ij</code>, every bidder has one integer size variable <code>s_i = sum of x_ij over j</code>
+ * and, per license, a continuous variable <code>z_ij</code> which linearizes the product <code>x_ij * s_i</code>
+ * via <code>z_ij &lt;= s_i</code> and <code>z_ij &lt;= sHat_i * x_ij</code>. The objective is
+ * <code>sum of v_ij * (0.8 x_ij + 0.2 z_ij)</code>, hence the model size grows linearly in the number of bidders
+ * and licenses.
+ */
 public class GSVMStandardMIP extends ModelMIP implements EfficientAllocator<ItemAllocation<GSVMLicense>> {
 
 	private int n; // number of agents
 	private int m; // number of items
 
-	private Variable[][][] G;
+	private Variable[][] X;
+	private Variable[][] Z;
+	private Variable[] S;
 	private double[][] value;
-	private int[] tauHat;
+	private int[] sHat;
 
 	private List<GSVMBidder> population;
-	private Map<Long, GSVMLicense> licenseMap;
+	private GSVMLicense[] licenses;
 	private GSVMWorld world;
 
 	private boolean allowAssigningLicensesWithZeroBasevalue;
@@ -45,15 +56,14 @@ public class GSVMStandardMIP extends ModelMIP implements EfficientAllocator<Item
 	public GSVMStandardMIP(GSVMWorld world, List<GSVMBidder> population,
 			boolean allowAssigningLicensesWithZeroBasevalue) {
 		m = world.getLicenses().size();
-		licenseMap = new HashMap<>(m);
-		world.getLicenses().stream().forEach(license -> licenseMap.put(license.getId(), license));
+		licenses = world.getLicenses().toArray(new GSVMLicense[m]);
 
 		this.allowAssigningLicensesWithZeroBasevalue = allowAssigningLicensesWithZeroBasevalue;
 
 		n = population.size();
 		this.population = population;
 		this.world = world;
-		tauHat = new int[n];
+		sHat = new int[n];
 		value = new double[n][m];
 		getMip().setObjectiveMax(true);
 		initValues();
@@ -71,12 +81,8 @@ public class GSVMStandardMIP extends ModelMIP implements EfficientAllocator<Item
 			GSVMBidder bidder = population.get(i);
 			Bundle<GSVMLicense> bundle = new Bundle<>();
 			for (int j = 0; j < m; j++) {
-				if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-					for (int tau = 0; tau < tauHat[i]; tau++) {
-						if (result.getValue(G[i][j][tau]) == 1) {
-							bundle.add(licenseMap.get((long) j));
-						}
-					}
+				if (isAssignable(i, j) && result.getValue(X[i][j]) > 0.5) {
+					bundle.add(licenses[j]);
 				}
 			}
 			allocation.put(bidder, bundle);
@@ -92,10 +98,9 @@ public class GSVMStandardMIP extends ModelMIP implements EfficientAllocator<Item
 		// build objective term
 		for (int i = 0; i < n; i++) {
 			for (int j = 0; j < m; j++) {
-				if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-					for (int tau = 0; tau < tauHat[i]; tau++) {
-						getMip().addObjectiveTerm(calculateComplementarityMarkup(tau + 1) * value[i][j], G[i][j][tau]);
-					}
+				if (isAssignable(i, j)) {
+					getMip().addObjectiveTerm(0.8 * value[i][j], X[i][j]);
+					getMip().addObjectiveTerm(0.2 * value[i][j], Z[i][j]);
 				}
 			}
 		}
@@ -104,85 +109,73 @@ public class GSVMStandardMIP extends ModelMIP implements EfficientAllocator<Item
 		for (int j = 0; j < m; j++) {
 			Constraint constraint = new Constraint(CompareType.LEQ, 1, "SupplyConstraint j=" + j);
 			for (int i = 0; i < n; i++) {
-				if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-					for (int tau = 0; tau < tauHat[i]; tau++) {
-						constraint.addTerm(1, G[i][j][tau]);
-					}
+				if (isAssignable(i, j)) {
+					constraint.addTerm(1, X[i][j]);
 				}
 			}
 			getMip().add(constraint);
 		}
 
-		// build Tau Constraint (2)
-		for (int j = 0; j < m; j++) {
-			for (int i = 0; i < n; i++) {
-				Constraint constraint = new Constraint(CompareType.GEQ, 0);
-				// build left part: Number of items agent i is allocated
-				for (int k = 0; k < m; k++) {
-					if (allowAssigningLicensesWithZeroBasevalue || value[i][k] > 0) {
-						for (int tau = 0; tau < tauHat[i]; tau++) {
-							constraint.addTerm(1, G[i][k][tau]);
-						}
-					}
-				}
-				// build right part: Activate tau that matches the number of
-				// allocated items
-				for (int tau = 0; tau < tauHat[i]; tau++) {
-					if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-						constraint.addTerm(-(tau + 1), G[i][j][tau]);
-					}
+		for (int i = 0; i < n; i++) {
+			// build Size Constraint (2): s_i equals the number of items agent i is allocated
+			Constraint size = new Constraint(CompareType.EQ, 0, "SizeConstraint i=" + i);
+			size.addTerm(-1, S[i]);
+			for (int j = 0; j < m; j++) {
+				if (isAssignable(i, j)) {
+					size.addTerm(1, X[i][j]);
+
+					// build Linearization Constraints (3): z_ij <= s_i and z_ij <= sHat_i * x_ij
+					Constraint belowSize = new Constraint(CompareType.LEQ, 0);
+					belowSize.addTerm(1, Z[i][j]);
+					belowSize.addTerm(-1, S[i]);
+					getMip().add(belowSize);
+
+					Constraint onlyIfAllocated = new Constraint(CompareType.LEQ, 0);
+					onlyIfAllocated.addTerm(1, Z[i][j]);
+					onlyIfAllocated.addTerm(-sHat[i], X[i][j]);
+					getMip().add(onlyIfAllocated);
 				}
-				getMip().add(constraint);
 			}
+			getMip().add(size);
 		}
 	}
 
 	private void initValues() {
-
 		for (int i = 0; i < n; i++) {
-			int tauCounter = 0;
+			Map<Long, BigDecimal> baseValues = population.get(i).getBaseValues();
+			int assignable = 0;
 			for (int j = 0; j < m; j++) {
-				value[i][j] = getValue(i, j).orElse(0);
-				if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-					tauCounter++;
+				BigDecimal val = baseValues.get(licenses[j].getId());
+				value[i][j] = val == null ? 0 : val.doubleValue();
+				if (isAssignable(i, j)) {
+					assignable++;
 				}
 			}
-			tauHat[i] = tauCounter;
+			sHat[i] = assignable;
 		}
 	}
 
-	private OptionalDouble getValue(int i, int j) {
-		return population.stream().filter(bidder -> bidder.getId() == i).mapToDouble(bidder -> {
-			BigDecimal val = bidder.getBaseValues().get((long) j);
-			return val == null ? 0 : val.doubleValue();
-		}).reduce((element, otherElement) -> {
-			throw new IllegalStateException(
-					"Error: Multiple values for agent: " + i + " and license: " + j + " in population");
-		});
+	private boolean isAssignable(int i, int j) {
+		return allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0;
 	}
 
 	private void initVariables() {
-		G = new Variable[n][][];
+		X = new Variable[n][m];
+		Z = new Variable[n][m];
+		S = new Variable[n];
 		for (int i = 0; i < n; i++) {
-			G[i] = new Variable[m][];
+			S[i] = new Variable("s_i[" + i + "]", VarType.INT, 0, sHat[i]);
+			getMip().add(S[i]);
 			for (int j = 0; j < m; j++) {
 				// only init variables where agent i has a positive base-value
-				if (allowAssigningLicensesWithZeroBasevalue || value[i][j] > 0) {
-					G[i][j] = new Variable[tauHat[i]];
-					for (int tau = 0; tau < tauHat[i]; tau++) {
-						G[i][j][tau] = new Variable("g_i[" + i + "]j[" + j + "]t[" + tau + "]", VarType.BOOLEAN, 0, 1);
-						getMip().add(G[i][j][tau]);
-					}
+				if (isAssignable(i, j)) {
+					X[i][j] = new Variable("x_i[" + i + "]j[" + j + "]", VarType.BOOLEAN, 0, 1);
+					getMip().add(X[i][j]);
+					Z[i][j] = new Variable("z_i[" + i + "]j[" + j + "]", VarType.DOUBLE, 0, sHat[i]);
+					getMip().add(Z[i][j]);
 				}
 			}
 		}
 	}
 
-	private double calculateComplementarityMarkup(int tau) {
-		if (tau < 1) {
-			throw new IllegalArgumentException("Error: tau has to be >=1");
-		}
-		return 1 + (tau - 1) * 0.2;
-	}
-
 }
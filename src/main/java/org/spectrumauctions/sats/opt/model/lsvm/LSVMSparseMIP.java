@@ -0,0 +1,348 @@
+package org.spectrumauctions.sats.opt.model.lsvm;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMGrid;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
+import org.spectrumauctions.sats.opt.model.EfficientAllocator;
+import org.spectrumauctions.sats.opt.model.ModelMIP;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.ItemAllocation;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.ItemAllocation.ItemAllocationBuilder;
+
+import edu.harvard.econcs.jopt.solver.IMIPResult;
+import edu.harvard.econcs.jopt.solver.client.SolverClient;
+import edu.harvard.econcs.jopt.solver.mip.CompareType;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
+import edu.harvard.econcs.jopt.solver.mip.VarType;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+
+/**
+ * An alternative to {@link LSVMStandardMIP} whose size grows with the number of licenses in the proximities of the
+ * bidders instead of the number of license pairs.<br><br>
+ *
+ * Variable <code>X_i[i]j[j]</code> is 1 iff license <i>j</i> is allocated to bidder <i>i</i>. For every license
+ * <i>j</i> in the proximity of bidder <i>i</i>, the level variable <code>W_i[i]j[j]t[t]</code> may only be 1 if the
+ * connected component of <i>j</i> in the bundle of <i>i</i> contains at least <i>t</i> licenses, which is rewarded
+ * with the increase of the complementarity factor from size <i>t-1</i> to <i>t</i>. Licenses outside the proximity
+ * have no base value and hence no level variables, but they may still be allocated, as they connect and enlarge
+ * components.<br><br>
+ *
+ * The component sizes are enforced by cuts: if license <i>j</i> lies in a set <i>C</i> of licenses and none of the
+ * grid neighbors of <i>C</i> is allocated to <i>i</i>, the component of <i>j</i> has at most <i>|C|</i> licenses,
+ * i.e., <code>W_i[i]j[j]t[|C|+1] &lt;= sum of X_i[i]j[k] over the neighbors k of C</code>. Only the cuts for single
+ * licenses are part of the initial model. Further cuts are added lazily: after every solve, the components of the
+ * allocated bundles are checked, cuts are added for the components whose levels are too high, and the model is
+ * solved again, starting from the solution with corrected levels. Since this requires the complementarity factor
+ * to be non-decreasing in the size of a component, other bidders are rejected.
+ *
+ * @author Michael Weiss
+ */
+public class LSVMSparseMIP extends ModelMIP implements EfficientAllocator<ItemAllocation<LSVMLicense>> {
+
+	private static final Logger logger = LogManager.getLogger(LSVMSparseMIP.class);
+
+	private final LSVMWorld world;
+	private final List<LSVMBidder> population;
+	private final int n; // number of agents
+	private final int m; // number of licenses
+
+	/** Indexed by license id */
+	private final LSVMLicense[] licenses;
+	/** Indexed by license id, contains the ids of the neighbors in the grid */
+	private final int[][] neighbors;
+	private final double[][] v;
+
+	private final Variable[][] X;
+	private final Variable[][][] W;
+
+	private int cutRounds = 0;
+	private int cuts = 0;
+
+	public LSVMSparseMIP(LSVMWorld world, List<LSVMBidder> population) {
+		this.world = world;
+		this.population = new ArrayList<>(population);
+		this.n = population.size();
+		this.m = world.getNumberOfGoods();
+
+		licenses = new LSVMLicense[m];
+		for (LSVMLicense license : world.getLicenses()) {
+			licenses[(int) license.getId()] = license;
+		}
+		neighbors = initNeighbors(world.getGrid());
+
+		v = new double[n][m];
+		X = new Variable[n][m];
+		W = new Variable[n][m][];
+
+		getMip().setObjectiveMax(true);
+
+		for (int i = 0; i < n; i++) {
+			LSVMBidder bidder = this.population.get(i);
+			for (LSVMLicense license : bidder.getProximity()) {
+				v[i][(int) license.getId()] = bidder.getBaseValues().getOrDefault(license.getId(), BigDecimal.ZERO).doubleValue();
+			}
+			double[] factorIncrease = factorIncrease(bidder);
+			for (int j = 0; j < m; j++) {
+				X[i][j] = new Variable(String.format("X_i[%d]j[%d]", i, j), VarType.BOOLEAN, 0, 1);
+				getMip().add(X[i][j]);
+				getMip().addObjectiveTerm(factorIncrease[1] * v[i][j], X[i][j]);
+			}
+			for (int j = 0; j < m; j++) {
+				if (v[i][j] > 0) {
+					initLevels(i, j, factorIncrease);
+				}
+			}
+		}
+		buildSupplyConstraints();
+	}
+
+	private int[][] initNeighbors(LSVMGrid grid) {
+		int[][] result = new int[m][];
+		for (int j = 0; j < m; j++) {
+			List<Integer> neighborIds = new ArrayList<>();
+			for (int k = 0; k < m; k++) {
+				if (grid.isNeighbor(licenses[j], licenses[k])) {
+					neighborIds.add(k);
+				}
+			}
+			result[j] = neighborIds.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return result;
+	}
+
+	/**
+	 * @return the increase of the complementarity factor when a component grows from size t-1 to t, indexed by t
+	 */
+	private double[] factorIncrease(LSVMBidder bidder) {
+		double[] increase = new double[m + 1];
+		double previous = 0;
+		for (int t = 1; t <= m; t++) {
+			double factor = bidder.calculateFactor(t);
+			if (t > 1 && factor < previous) {
+				throw new IllegalArgumentException(
+						"The complementarity factor of bidder " + bidder.getId() + " decreases with the component size");
+			}
+			increase[t] = factor - previous;
+			previous = factor;
+		}
+		return increase;
+	}
+
+	private void initLevels(int i, int j, double[] factorIncrease) {
+		W[i][j] = new Variable[m + 1];
+		Variable previousLevel = X[i][j];
+		for (int t = 2; t <= m; t++) {
+			W[i][j][t] = new Variable(String.format("W_i[%d]j[%d]t[%d]", i, j, t), VarType.BOOLEAN, 0, 1);
+			getMip().add(W[i][j][t]);
+			getMip().addObjectiveTerm(factorIncrease[t] * v[i][j], W[i][j][t]);
+
+			Constraint monotone = new Constraint(CompareType.LEQ, 0);
+			monotone.addTerm(1, W[i][j][t]);
+			monotone.addTerm(-1, previousLevel);
+			getMip().add(monotone);
+			previousLevel = W[i][j][t];
+		}
+		if (m > 1) {
+			getMip().add(componentCut(i, j, new int[]{j}, 1));
+		}
+	}
+
+	private void buildSupplyConstraints() {
+		for (int j = 0; j < m; j++) {
+			Constraint constraint = new Constraint(CompareType.LEQ, 1);
+			for (int i = 0; i < n; i++) {
+				constraint.addTerm(1, X[i][j]);
+			}
+			getMip().add(constraint);
+		}
+	}
+
+	/**
+	 * @return the constraint that the component of license j has at most |component| licenses, unless bidder i
+	 * holds one of its neighbors
+	 */
+	private Constraint componentCut(int i, int j, int[] component, int size) {
+		boolean[] inComponent = new boolean[m];
+		for (int k : component) {
+			inComponent[k] = true;
+		}
+		Constraint cut = new Constraint(CompareType.LEQ, 0);
+		cut.addTerm(1, W[i][j][size + 1]);
+		boolean[] added = new boolean[m];
+		for (int k : component) {
+			for (int neighbor : neighbors[k]) {
+				if (!inComponent[neighbor] && !added[neighbor]) {
+					added[neighbor] = true;
+					cut.addTerm(-1, X[i][neighbor]);
+				}
+			}
+		}
+		return cut;
+	}
+
+	@Override
+	public ItemAllocation<LSVMLicense> calculateAllocation() {
+		SolverClient solver = new SolverClient();
+		while (true) {
+			IMIPResult result = solver.solve(getMip());
+			cutRounds++;
+			int[][] componentSizes = componentSizes(result);
+			List<Constraint> violatedCuts = separate(result, componentSizes);
+			logger.debug("Round {}: objective value {}, {} violated cuts", cutRounds, result.getObjectiveValue(), violatedCuts.size());
+			if (violatedCuts.isEmpty()) {
+				return buildAllocation(result, componentSizes);
+			}
+			for (Constraint cut : violatedCuts) {
+				getMip().add(cut);
+			}
+			cuts += violatedCuts.size();
+			proposeCorrectedSolution(componentSizes);
+		}
+	}
+
+	/**
+	 * @return for every bidder and license, the size of the connected component of the license in the bundle of the
+	 * bidder, or 0 if the license is not allocated to the bidder
+	 */
+	private int[][] componentSizes(IMIPResult result) {
+		int[][] sizes = new int[n][m];
+		int[] stack = new int[m];
+		List<Integer> component = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			boolean[] held = new boolean[m];
+			for (int j = 0; j < m; j++) {
+				held[j] = result.getValue(X[i][j]) > 0.5;
+			}
+			boolean[] visited = new boolean[m];
+			for (int start = 0; start < m; start++) {
+				if (!held[start] || visited[start]) {
+					continue;
+				}
+				component.clear();
+				visited[start] = true;
+				stack[0] = start;
+				int stackSize = 1;
+				while (stackSize > 0) {
+					int current = stack[--stackSize];
+					component.add(current);
+					for (int neighbor : neighbors[current]) {
+						if (held[neighbor] && !visited[neighbor]) {
+							visited[neighbor] = true;
+							stack[stackSize++] = neighbor;
+						}
+					}
+				}
+				for (int j : component) {
+					sizes[i][j] = component.size();
+				}
+			}
+		}
+		return sizes;
+	}
+
+	/**
+	 * @return for every component whose licenses claim a level above its size, the cuts for all licenses of the
+	 * component which have a base value
+	 */
+	private List<Constraint> separate(IMIPResult result, int[][] componentSizes) {
+		List<Constraint> violated = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			boolean[] checked = new boolean[m];
+			for (int start = 0; start < m; start++) {
+				int size = componentSizes[i][start];
+				if (size == 0 || size == m || checked[start]) {
+					continue;
+				}
+				int[] component = component(i, start, componentSizes);
+				boolean isViolated = false;
+				for (int j : component) {
+					checked[j] = true;
+					if (W[i][j] != null && result.getValue(W[i][j][size + 1]) > 0.5) {
+						isViolated = true;
+					}
+				}
+				if (isViolated) {
+					for (int j : component) {
+						if (W[i][j] != null) {
+							violated.add(componentCut(i, j, component, size));
+						}
+					}
+				}
+			}
+		}
+		return violated;
+	}
+
+	private int[] component(int i, int start, int[][] componentSizes) {
+		int[] component = new int[componentSizes[i][start]];
+		boolean[] visited = new boolean[m];
+		visited[start] = true;
+		component[0] = start;
+		int found = 1;
+		for (int next = 0; next < found; next++) {
+			for (int neighbor : neighbors[component[next]]) {
+				if (componentSizes[i][neighbor] > 0 && !visited[neighbor]) {
+					visited[neighbor] = true;
+					component[found++] = neighbor;
+				}
+			}
+		}
+		return component;
+	}
+
+	/**
+	 * The allocation of the last solution satisfies all cuts if the levels are set to the actual component sizes
+	 */
+	private void proposeCorrectedSolution(int[][] componentSizes) {
+		getMip().clearProposedValues();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < m; j++) {
+				getMip().proposeValue(X[i][j], componentSizes[i][j] > 0);
+				if (W[i][j] != null) {
+					for (int t = 2; t <= m; t++) {
+						getMip().proposeValue(W[i][j][t], t <= componentSizes[i][j]);
+					}
+				}
+			}
+		}
+	}
+
+	private ItemAllocation<LSVMLicense> buildAllocation(IMIPResult result, int[][] componentSizes) {
+		Map<Bidder<LSVMLicense>, Bundle<LSVMLicense>> allocation = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			Bundle<LSVMLicense> bundle = new Bundle<>();
+			for (int j = 0; j < m; j++) {
+				if (componentSizes[i][j] > 0) {
+					bundle.add(licenses[j]);
+				}
+			}
+			allocation.put(population.get(i), bundle);
+		}
+		return new ItemAllocationBuilder<LSVMLicense>().withWorld(world)
+				.withTotalValue(BigDecimal.valueOf(result.getObjectiveValue())).withAllocation(allocation).build();
+	}
+
+	/**
+	 * @return the number of times the MIP was solved in all calls of {@link #calculateAllocation()}
+	 */
+	public int getNumberOfCutRounds() {
+		return cutRounds;
+	}
+
+	/**
+	 * @return the number of cuts which were added lazily, in addition to the initial model
+	 */
+	public int getNumberOfLazyCuts() {
+		return cuts;
+	}
+}
@@ -36,8 +36,6 @@ public class MRVM_MIP extends ModelMIP implements EfficientAllocator<GenericAllo
 
     public static boolean PRINT_SOLVER_RESULT = false;
 
-    private static SolverClient SOLVER = new SolverClient();
-
     /**
      * If the highest possible value any bidder can have is higher than {@link MIP#MAX_VALUE} - MAXVAL_SAFETYGAP}
      * a non-zero scaling factor for the calculation is chosen.
@@ -95,7 +93,8 @@ public class MRVM_MIP extends ModelMIP implements EfficientAllocator<GenericAllo
      */
     @Override
     public MRVMMipResult calculateAllocation() {
-        IMIPResult mipResult = SOLVER.solve(getMip());
+        SolverClient solver = new SolverClient();
+        IMIPResult mipResult = solver.solve(getMip());
         if (PRINT_SOLVER_RESULT) {
             logger.info("Result:\n" + mipResult);
         }
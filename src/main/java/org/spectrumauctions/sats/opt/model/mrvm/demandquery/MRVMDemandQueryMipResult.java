@@ -22,6 +22,13 @@ public final class MRVMDemandQueryMipResult {
         this.resultingBundle = builder.result;
     }
 
+    /**
+     * @return the value of the resulting bundle minus its price
+     */
+    public BigDecimal getTotalUtility() {
+        return totalUtility;
+    }
+
     public GenericValue<MRVMGenericDefinition> getResultingBundle() {
         return resultingBundle;
     }
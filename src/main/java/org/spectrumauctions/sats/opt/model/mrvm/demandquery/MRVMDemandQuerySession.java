@@ -0,0 +1,225 @@
+package org.spectrumauctions.sats.opt.model.mrvm.demandquery;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import edu.harvard.econcs.jopt.solver.IMIPResult;
+import edu.harvard.econcs.jopt.solver.SolveParam;
+import edu.harvard.econcs.jopt.solver.client.SolverClient;
+import edu.harvard.econcs.jopt.solver.mip.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+import org.spectrumauctions.sats.core.model.mrvm.*;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap.Region;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Answers repeated demand queries of one {@link MRVMBidder}, as issued e.g. by clock auctions.<br><br>
+ *
+ * The MIP of the bidder (see {@link MRVM_MIP}) is built only once. For every query, only the constraint defining
+ * the price of the chosen quantities is replaced, and the solution of the previous query is proposed as
+ * start solution. The results are cached by price vector, where two price vectors are considered equal if they
+ * lead to the same price for every {@link MRVMGenericDefinition}, i.e., the same sum of license prices.<br><br>
+ *
+ * A session is not thread-safe. Use one session per bidder and thread.
+ *
+ * @author Michael Weiss
+ * @see MRVM_DemandQueryMIP
+ */
+public class MRVMDemandQuerySession {
+
+    private static final Logger logger = LogManager.getLogger(MRVMDemandQuerySession.class);
+
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final SolverClient solver = new SolverClient();
+
+    private final MRVMBidder bidder;
+    private final MRVMWorld world;
+    private final MRVM_MIP mrvmMip;
+    private final double scalingFactor;
+
+    private final List<MRVMGenericDefinition> genericDefinitions = new ArrayList<>();
+    private final List<Variable> xVariables = new ArrayList<>();
+    private final Variable priceVar;
+    private Constraint priceConstraint = null;
+
+    private IMIPResult previousResult = null;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private final LinkedHashMap<List<Double>, MRVMDemandQueryMipResult> cache = new LinkedHashMap<List<Double>, MRVMDemandQueryMipResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Double>, MRVMDemandQueryMipResult> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    private int solvedQueries = 0;
+
+    public MRVMDemandQuerySession(MRVMBidder bidder) {
+        this.bidder = Preconditions.checkNotNull(bidder);
+        this.world = bidder.getWorld();
+        mrvmMip = new MRVM_MIP(Sets.newHashSet(bidder));
+        mrvmMip.getMip().setSolveParam(SolveParam.RELATIVE_OBJ_GAP, 0.001);
+        scalingFactor = mrvmMip.getBidderPartialMips().get(bidder).getScalingFactor();
+        for (Region region : world.getRegionsMap().getRegions()) {
+            for (MRVMBand band : world.getBands()) {
+                genericDefinitions.add(new MRVMGenericDefinition(band, region));
+                xVariables.add(mrvmMip.getWorldPartialMip().getXVariable(bidder, region, band));
+            }
+        }
+        priceVar = new Variable("p", VarType.DOUBLE, 0, MIP.MAX_VALUE);
+        mrvmMip.addVariable(priceVar);
+        mrvmMip.addObjectiveTerm(-1, priceVar);
+    }
+
+    public MRVMBidder getBidder() {
+        return bidder;
+    }
+
+    /**
+     * @param cacheSize the maximal number of cached results, the least recently used ones being evicted first.
+     *                  0 disables the cache.
+     */
+    public MRVMDemandQuerySession setCacheSize(int cacheSize) {
+        Preconditions.checkArgument(cacheSize >= 0);
+        this.cacheSize = cacheSize;
+        Iterator<List<Double>> keys = cache.keySet().iterator();
+        while (cache.size() > cacheSize) {
+            keys.next();
+            keys.remove();
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of queries which were answered by solving the MIP, i.e., not from the cache
+     */
+    public int getSolvedQueries() {
+        return solvedQueries;
+    }
+
+    /**
+     * This is mainly used for testing or if you need to access special SolveParams.
+     *
+     * @return reference to the JOpt mip, which is reused for all queries
+     */
+    public MIP getMip() {
+        return mrvmMip.getMip();
+    }
+
+    /**
+     * @param prices the price of every license in the world
+     * @return the utility maximizing bundle of the bidder at the passed prices
+     */
+    public MRVMDemandQueryMipResult demandQuery(Map<MRVMLicense, BigDecimal> prices) {
+        Preconditions.checkNotNull(prices);
+        Preconditions.checkArgument(prices.size() == world.getNumberOfGoods());
+        List<Double> genericPrices = genericPrices(prices);
+        MRVMDemandQueryMipResult result = cache.get(genericPrices);
+        if (result == null) {
+            result = solve(genericPrices);
+            if (cacheSize > 0) {
+                cache.put(genericPrices, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Answers multiple demand queries one after the other, each starting from the solution of the previous one.
+     * Equal price vectors are solved only once.
+     *
+     * @return the results, in the order of the price vectors
+     */
+    public List<MRVMDemandQueryMipResult> demandQueries(List<? extends Map<MRVMLicense, BigDecimal>> priceVectors) {
+        Map<List<Double>, MRVMDemandQueryMipResult> batchResults = new HashMap<>();
+        List<MRVMDemandQueryMipResult> results = new ArrayList<>();
+        for (Map<MRVMLicense, BigDecimal> prices : priceVectors) {
+            Preconditions.checkArgument(prices.size() == world.getNumberOfGoods());
+            results.add(batchResults.computeIfAbsent(genericPrices(prices), genericPrices -> demandQuery(prices)));
+        }
+        return results;
+    }
+
+    /**
+     * @return the sum of the license prices, for every generic definition in the order of {@link #genericDefinitions}
+     */
+    private List<Double> genericPrices(Map<MRVMLicense, BigDecimal> prices) {
+        Map<MRVMGenericDefinition, Double> sums = new HashMap<>();
+        for (Map.Entry<MRVMLicense, BigDecimal> entry : prices.entrySet()) {
+            MRVMLicense license = entry.getKey();
+            sums.merge(new MRVMGenericDefinition(license.getBand(), license.getRegion()), entry.getValue().doubleValue(), Double::sum);
+        }
+        ImmutableList.Builder<Double> genericPrices = ImmutableList.builder();
+        for (MRVMGenericDefinition definition : genericDefinitions) {
+            genericPrices.add(sums.getOrDefault(definition, 0d));
+        }
+        return genericPrices.build();
+    }
+
+    private MRVMDemandQueryMipResult solve(List<Double> genericPrices) {
+        MIP mip = mrvmMip.getMip();
+        if (priceConstraint != null) {
+            mip.remove(priceConstraint);
+        }
+        priceConstraint = new Constraint(CompareType.EQ, 0);
+        priceConstraint.addTerm(-1, priceVar);
+        for (int i = 0; i < xVariables.size(); i++) {
+            priceConstraint.addTerm(genericPrices.get(i) / scalingFactor, xVariables.get(i));
+        }
+        mip.add(priceConstraint);
+        proposePreviousSolution(genericPrices);
+
+        logger.debug(mip);
+        IMIPResult mipResult = solver.solve(mip);
+        logger.debug("Result:\n{}", mipResult);
+        previousResult = mipResult;
+        solvedQueries++;
+
+        Variable bidderValueVar = mrvmMip.getWorldPartialMip().getValueVariable(bidder);
+        double unscaledValue = mipResult.getValue(bidderValueVar) * scalingFactor;
+        double unscaledPrice = mipResult.getValue(priceVar) * scalingFactor;
+        double unscaledObjVal = mipResult.getObjectiveValue() * scalingFactor;
+        if (Math.abs(unscaledValue - unscaledPrice - unscaledObjVal) >= 1e-6) {
+            logger.warn("Values don't match. Delta of {}. Unscaled value = {}, Unscaled price = {}, Unscaled objective value = {}",
+                    unscaledValue - unscaledPrice - unscaledObjVal, unscaledValue, unscaledPrice, unscaledObjVal);
+        }
+        GenericValue.Builder<MRVMGenericDefinition> valueBuilder = new GenericValue.Builder<>(BigDecimal.valueOf(unscaledValue));
+        for (int i = 0; i < xVariables.size(); i++) {
+            int quantity = (int) Math.round(mipResult.getValue(xVariables.get(i)));
+            valueBuilder.putQuantity(genericDefinitions.get(i), quantity);
+        }
+        return new MRVMDemandQueryMipResult.Builder(world, unscaledValue - unscaledPrice, valueBuilder.build()).build();
+    }
+
+    /**
+     * The previous solution remains feasible under the new prices, once the price variable is adjusted
+     */
+    private void proposePreviousSolution(List<Double> genericPrices) {
+        MIP mip = mrvmMip.getMip();
+        mip.clearProposedValues();
+        if (previousResult == null) {
+            return;
+        }
+        Map<String, Double> previousValues = previousResult.getValues();
+        for (Variable variable : mip.getVars().values()) {
+            Double value = previousValues.get(variable.getName());
+            if (variable == priceVar || value == null) {
+                continue;
+            }
+            if (variable.getType() == VarType.DOUBLE) {
+                mip.proposeValue(variable, value);
+            } else {
+                mip.proposeValue(variable, (int) Math.round(value));
+            }
+        }
+        double price = 0;
+        for (int i = 0; i < xVariables.size(); i++) {
+            price += genericPrices.get(i) / scalingFactor * Math.round(previousResult.getValue(xVariables.get(i)));
+        }
+        mip.proposeValue(priceVar, price);
+    }
+}
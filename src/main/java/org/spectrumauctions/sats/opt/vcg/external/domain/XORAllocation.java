@@ -24,19 +24,34 @@ import java.util.Set;
  */
 public class XORAllocation<T extends Good> implements Allocation<BidderAllocation<T>> {
 
+    private static final double OPTIMALITY_TOLERANCE = 1e-6;
+
     private final double totalValue;
+    private final double upperBound;
     private final Map<Bidder<T>, BidderAllocation<T>> trades;
 
     /**
+     * Creates an allocation which is known to be optimal
      * @param trades     map of winning bidders to allocations
      */
 
     public XORAllocation(Map<Bidder<T>, BidderAllocation<T>> trades) {
+        this(trades, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Creates an allocation which is not necessarily optimal, e.g., if the winner determination was stopped early
+     * @param trades     map of winning bidders to allocations
+     * @param upperBound an upper bound on the value of an optimal allocation.
+     *                   If it is lower than the value of this allocation, the allocation is considered optimal.
+     */
+    public XORAllocation(Map<Bidder<T>, BidderAllocation<T>> trades, double upperBound) {
         double totalValue = 0;
         for (BidderAllocation<T> allocation : trades.values()) {
             totalValue += allocation.getTradeValue();
         }
         this.totalValue = totalValue;
+        this.upperBound = Math.max(totalValue, upperBound);
         this.trades = trades;
     }
 
@@ -44,6 +59,28 @@ public class XORAllocation<T extends Good> implements Allocation<BidderAllocatio
         return totalValue;
     }
 
+    /**
+     * @return an upper bound on the value of an optimal allocation, which is equal to the value of this allocation
+     * if it is proven to be optimal
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the difference between the upper bound and the value of this allocation, relative to the upper bound
+     */
+    public double getRelativeGap() {
+        if (upperBound == totalValue) {
+            return 0;
+        }
+        return (upperBound - totalValue) / Math.abs(upperBound);
+    }
+
+    public boolean isProvenOptimal() {
+        return getRelativeGap() <= OPTIMALITY_TOLERANCE;
+    }
+
     public Collection<BidderAllocation<T>> getTrades() {
         return trades.values();
     }
@@ -73,7 +110,10 @@ public class XORAllocation<T extends Good> implements Allocation<BidderAllocatio
 
     @Override
     public String toString() {
-        return "Allocation[trades=" + trades + "]";
+        if (isProvenOptimal()) {
+            return "Allocation[trades=" + trades + "]";
+        }
+        return "Allocation[trades=" + trades + ", gap=" + getRelativeGap() + "]";
 
     }
 
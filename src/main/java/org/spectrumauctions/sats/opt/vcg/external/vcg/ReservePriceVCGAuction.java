@@ -6,9 +6,11 @@ import org.spectrumauctions.sats.opt.vcg.external.domain.Auction;
 import org.spectrumauctions.sats.opt.vcg.external.domain.AuctionResult;
 import org.spectrumauctions.sats.opt.vcg.external.domain.BidderPayment;
 import org.spectrumauctions.sats.opt.vcg.external.domain.Payment;
+import org.spectrumauctions.sats.opt.vcg.external.winnerdetermination.WinnerDetermination;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 public class ReservePriceVCGAuction<T extends Good> extends XORVCGAuction<T> {
     private double goodReservePrice;
@@ -19,6 +21,15 @@ public class ReservePriceVCGAuction<T extends Good> extends XORVCGAuction<T> {
 
     }
 
+    /**
+     * @see XORVCGAuction#XORVCGAuction(Auction, Function)
+     */
+    public ReservePriceVCGAuction(Auction<T> auction, double goodReservePrice,
+                                  Function<Auction<T>, ? extends WinnerDetermination<T>> winnerDeterminationFactory) {
+        super(auction, winnerDeterminationFactory);
+        this.goodReservePrice = goodReservePrice;
+    }
+
     @Override
     protected AuctionResult<T> calculateVCGPrices(Auction<T> auction) {
         Auction<T> adaptedAuction = auction.withLowBidsRemoved(goodReservePrice);
@@ -1,5 +1,6 @@
 package org.spectrumauctions.sats.opt.vcg.external.vcg;
 
+import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.opt.vcg.external.domain.*;
@@ -7,17 +8,38 @@ import org.spectrumauctions.sats.opt.vcg.external.domain.mechanisms.AuctionMecha
 import org.spectrumauctions.sats.opt.vcg.external.winnerdetermination.WinnerDetermination;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+/**
+ * Calculates the efficient allocation and the VCG payments of an auction.<br>
+ * The marginal economies of the winners, i.e., the allocations without them, are calculated concurrently on an
+ * executor (by default the common {@link ForkJoinPool}), using {@link WinnerDetermination#calculateAllocationWithout(Bidder)}.
+ */
 public abstract class VCGAuction<T extends Good> implements AuctionMechanism {
 
     private AuctionResult<T> result;
     private Auction<T> auction;
+    private ExecutorService executor = ForkJoinPool.commonPool();
 
     public VCGAuction(Auction<T> auction) {
         this.auction = auction;
     }
 
+    /**
+     * @param executor the executor on which the marginal economies are calculated, e.g.
+     *                 <code>MoreExecutors.newDirectExecutorService()</code> to calculate them one after the other.
+     *                 The executor is not shut down by the auction.
+     */
+    public VCGAuction<T> setExecutor(ExecutorService executor) {
+        this.executor = Preconditions.checkNotNull(executor);
+        return this;
+    }
+
     @Override
     public AuctionResult<T> getAuctionResult() {
         if (result == null) {
@@ -37,21 +59,37 @@ public abstract class VCGAuction<T extends Good> implements AuctionMechanism {
     }
 
     protected AuctionResult<T> calculateVCGPrices(Auction<T> auction) {
-        WinnerDetermination baseWD = getWinnerDetermination(auction);
+        WinnerDetermination<T> baseWD = getWinnerDetermination(auction);
         XORAllocation<T> baseAllocation = baseWD.calculateAllocation();
 
+        Map<Bidder<T>, Future<XORAllocation<T>>> marginalEconomies = new LinkedHashMap<>();
         Map<Bidder<T>, BidderPayment> payments = new HashMap<>();
-        for (Bidder<T> bidder : baseAllocation.getWinners()) {
-
-            double valueWithoutBidder = baseAllocation.getTotalAllocationValue() - baseAllocation.getAllocation(bidder).getTradeValue();
-            Auction<T> auctionWithoutBidder = auction.without(bidder);
-            WinnerDetermination wdWithoutBidder = getWinnerDetermination(auctionWithoutBidder);
-            XORAllocation<T> allocationWithoutBidder = wdWithoutBidder.calculateAllocation();
-            double valueWDWithoutBidder = allocationWithoutBidder.getTotalAllocationValue();
-
-            double paymentAmount = valueWDWithoutBidder - valueWithoutBidder;
-            payments.put(bidder, new BidderPayment(paymentAmount));
+        try {
+            for (Bidder<T> bidder : baseAllocation.getWinners()) {
+                marginalEconomies.put(bidder, executor.submit(() -> baseWD.calculateAllocationWithout(bidder)));
+            }
+            for (Map.Entry<Bidder<T>, Future<XORAllocation<T>>> marginalEconomy : marginalEconomies.entrySet()) {
+                Bidder<T> bidder = marginalEconomy.getKey();
+                double valueWithoutBidder = baseAllocation.getTotalAllocationValue() - baseAllocation.getAllocation(bidder).getTradeValue();
+                double valueWDWithoutBidder = marginalEconomy.getValue().get().getTotalAllocationValue();
 
+                double paymentAmount = valueWDWithoutBidder - valueWithoutBidder;
+                payments.put(bidder, new BidderPayment(paymentAmount));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating the VCG payments", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<XORAllocation<T>> marginalEconomy : marginalEconomies.values()) {
+                marginalEconomy.cancel(true);
+            }
         }
         Payment<T> payment = new Payment<>(payments);
         return new AuctionResult<>(payment, baseAllocation);
@@ -63,6 +101,6 @@ public abstract class VCGAuction<T extends Good> implements AuctionMechanism {
      * @param auction
      * @return
      */
-    protected abstract WinnerDetermination getWinnerDetermination(Auction<T> auction);
+    protected abstract WinnerDetermination<T> getWinnerDetermination(Auction<T> auction);
 
 }
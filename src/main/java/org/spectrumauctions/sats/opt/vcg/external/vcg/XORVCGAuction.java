@@ -5,15 +5,28 @@ import org.spectrumauctions.sats.opt.vcg.external.domain.Auction;
 import org.spectrumauctions.sats.opt.vcg.external.winnerdetermination.WinnerDetermination;
 import org.spectrumauctions.sats.opt.vcg.external.winnerdetermination.XORWinnerDetermination;
 
+import java.util.function.Function;
+
 public class XORVCGAuction<T extends Good> extends VCGAuction<T> {
 
+    private final Function<Auction<T>, ? extends WinnerDetermination<T>> winnerDeterminationFactory;
+
     public XORVCGAuction(Auction<T> auction) {
+        this(auction, XORWinnerDetermination::new);
+    }
+
+    /**
+     * @param winnerDeterminationFactory creates the winner determination of the auction and of the auctions without
+     *                                   a winner, e.g., <code>BranchAndBoundWinnerDetermination::new</code>
+     */
+    public XORVCGAuction(Auction<T> auction, Function<Auction<T>, ? extends WinnerDetermination<T>> winnerDeterminationFactory) {
         super(auction);
+        this.winnerDeterminationFactory = winnerDeterminationFactory;
     }
 
     @Override
-    protected WinnerDetermination getWinnerDetermination(Auction<T> auction) {
-        return new XORWinnerDetermination(auction);
+    protected WinnerDetermination<T> getWinnerDetermination(Auction<T> auction) {
+        return winnerDeterminationFactory.apply(auction);
     }
 
 }
@@ -0,0 +1,667 @@
+package org.spectrumauctions.sats.opt.vcg.external.winnerdetermination;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.opt.vcg.external.domain.Auction;
+import org.spectrumauctions.sats.opt.vcg.external.domain.BidderAllocation;
+import org.spectrumauctions.sats.opt.vcg.external.domain.XORAllocation;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link WinnerDetermination} for XOR bids, which is solved by a depth-first branch-and-bound search in pure java,
+ * i.e., without an external MIP solver.<br><br>
+ *
+ * The XOR constraint of every bidder is modelled as an additional (dummy) item contained in all of its bids,
+ * such that the problem becomes a weighted set packing problem. Conflicts between bids are checked on bitsets.<br><br>
+ *
+ * Following CABOB, the bids of every search node are first split into connected components
+ * (bids sharing no item, even transitively, can be allocated independently), which are solved separately.
+ * Within a component, the search branches on the item contained in most bids:
+ * Either one of the bids containing it is accepted, or the item remains unallocated.
+ * Every component starts from a greedy allocation, and branches are pruned using the minimum of three upper bounds
+ * on the value of the remaining bids: The sum over all remaining items of the highest value per item of a bid
+ * containing it, the sum over all remaining bidders of their highest bid, and the Lagrangian relaxation
+ * of the item constraints, whose item prices are improved by a few subgradient steps in every component.<br><br>
+ *
+ * If a node or time limit is reached, the best allocation found so far is returned,
+ * together with an upper bound on the optimal value (see {@link XORAllocation#getRelativeGap()}).
+ * Otherwise, the returned allocation is optimal.
+ *
+ * @author Michael Weiss
+ */
+public class BranchAndBoundWinnerDetermination<T extends Good> extends WinnerDetermination<T> {
+
+    private static final double EPSILON = 1e-9;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int LARGE_COMPONENT = 100;
+    private static final int LARGE_COMPONENT_SUBGRADIENT_ITERATIONS = 1000;
+    private static final int SUBGRADIENT_ITERATIONS = 10;
+
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = Long.MAX_VALUE;
+    private long exploredNodes = 0;
+    private Problem problem;
+
+    public BranchAndBoundWinnerDetermination(Auction<T> auction) {
+        super(auction);
+    }
+
+    /**
+     * @param nodeLimit the maximal number of search nodes, before the best allocation found so far is returned
+     */
+    public BranchAndBoundWinnerDetermination<T> setNodeLimit(long nodeLimit) {
+        Preconditions.checkArgument(nodeLimit > 0);
+        this.nodeLimit = nodeLimit;
+        return this;
+    }
+
+    /**
+     * @param timeLimit the maximal search time, before the best allocation found so far is returned
+     */
+    public BranchAndBoundWinnerDetermination<T> setTimeLimit(long timeLimit, TimeUnit unit) {
+        Preconditions.checkArgument(timeLimit > 0);
+        this.timeLimitNanos = unit.toNanos(timeLimit);
+        return this;
+    }
+
+    /**
+     * @return the number of search nodes explored while calculating the allocation
+     */
+    public long getExploredNodes() {
+        return exploredNodes;
+    }
+
+    @Override
+    protected XORAllocation<T> solveWinnerDetermination() {
+        problem = new Problem();
+        Search search = new Search(problem, -1);
+        Solution solution = search.run(new int[0], Double.POSITIVE_INFINITY);
+        exploredNodes = search.nodes;
+        // Marginal economies start from the item prices of this auction
+        problem.prices = search.prices;
+        return toAllocation(solution, search.aborted);
+    }
+
+    /**
+     * The marginal economy is solved on the bids of this auction without the ones of the bidder,
+     * starting from the item prices found for this auction. The passed incumbent is used as initial solution
+     * of the components it is part of, and the upper bound caps the bound of the result.
+     */
+    @Override
+    protected XORAllocation<T> solveWinnerDeterminationWithout(Bidder<T> bidder,
+                                                            Map<Bidder<T>, BidderAllocation<T>> incumbent, double upperBound) {
+        Integer excludedBidder = problem.bidderIndex.get(bidder);
+        Search search = new Search(problem, excludedBidder == null ? -1 : excludedBidder);
+        int[] incumbentBids = incumbent.values().stream()
+                .flatMap(allocation -> allocation.getAcceptedBids().stream())
+                .map(problem.bidIndex::get)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Solution solution = search.run(incumbentBids, upperBound);
+        return toAllocation(solution, search.aborted);
+    }
+
+    private XORAllocation<T> toAllocation(Solution solution, boolean aborted) {
+        Map<Bidder<T>, BidderAllocation<T>> trades = new HashMap<>();
+        for (int bid : solution.bids) {
+            XORValue<T> bundleBid = problem.bundleBids.get(bid);
+            trades.put(problem.bidders.get(problem.bidderOfBid[bid]), new BidderAllocation<>(problem.values[bid],
+                    new Bundle<>(ImmutableSet.<Good>copyOf(bundleBid.getLicenses())), ImmutableSet.of(bundleBid)));
+        }
+        if (aborted) {
+            return new XORAllocation<>(trades, solution.upperBound);
+        }
+        return new XORAllocation<>(trades);
+    }
+
+    /**
+     * The best allocation found for a subproblem, and an upper bound on the optimal value of the subproblem
+     */
+    private static final class Solution {
+
+        private static final Solution EMPTY = new Solution(0, 0, new int[0]);
+
+        private final double value;
+        private final double upperBound;
+        private final int[] bids;
+
+        private Solution(double value, double upperBound, int[] bids) {
+            this.value = value;
+            this.upperBound = Math.max(value, upperBound);
+            this.bids = bids;
+        }
+
+        private Solution withBid(int bid, double bidValue) {
+            int[] newBids = Arrays.copyOf(bids, bids.length + 1);
+            newBids[bids.length] = bid;
+            return new Solution(value + bidValue, upperBound + bidValue, newBids);
+        }
+
+        private Solution withUpperBound(double newUpperBound) {
+            return new Solution(value, newUpperBound, bids);
+        }
+
+        private static Solution combine(List<Solution> solutions) {
+            double value = 0;
+            double upperBound = 0;
+            int length = 0;
+            for (Solution solution : solutions) {
+                value += solution.value;
+                upperBound += solution.upperBound;
+                length += solution.bids.length;
+            }
+            int[] bids = new int[length];
+            int i = 0;
+            for (Solution solution : solutions) {
+                System.arraycopy(solution.bids, 0, bids, i, solution.bids.length);
+                i += solution.bids.length;
+            }
+            return new Solution(value, upperBound, bids);
+        }
+    }
+
+    /**
+     * The bids of the auction, indexed and preprocessed once, such that marginal economies can reuse them.
+     * Immutable after construction, except for the item prices set after the auction has been solved.
+     */
+    private final class Problem {
+
+        private final List<Bidder<T>> bidders;
+        private final Map<Bidder<T>, Integer> bidderIndex = new HashMap<>();
+        private final List<XORValue<T>> bundleBids = new ArrayList<>();
+        // XORValue has identity semantics
+        private final Map<XORValue<T>, Integer> bidIndex = new HashMap<>();
+        private final int numberOfGoods;
+        private final int numberOfItems;
+
+        // Per bid
+        private final int[] bidderOfBid;
+        private final double[] values;
+        private final double[] valuePerItem;
+        private final int[][] items;
+        private final long[][] itemWords;
+
+        private double[] prices;
+
+        private Problem() {
+            Auction<T> auction = getAuction();
+            bidders = new ArrayList<>(auction.getBidders());
+            Map<Good, Integer> itemIndex = new HashMap<>();
+            for (T good : auction.getGoods()) {
+                itemIndex.putIfAbsent(good, itemIndex.size());
+            }
+            List<Integer> bidderIndices = new ArrayList<>();
+            for (int bidder = 0; bidder < bidders.size(); bidder++) {
+                bidderIndex.put(bidders.get(bidder), bidder);
+                for (XORValue<T> bundleBid : auction.getBid(bidders.get(bidder)).getValues()) {
+                    if (bundleBid.value().doubleValue() > 0) {
+                        bidIndex.put(bundleBid, bundleBids.size());
+                        bundleBids.add(bundleBid);
+                        bidderIndices.add(bidder);
+                        for (Good good : bundleBid.getLicenses()) {
+                            itemIndex.putIfAbsent(good, itemIndex.size());
+                        }
+                    }
+                }
+            }
+            numberOfGoods = itemIndex.size();
+            numberOfItems = numberOfGoods + bidders.size();
+
+            int n = bundleBids.size();
+            int words = (numberOfItems + 63) >>> 6;
+            bidderOfBid = new int[n];
+            values = new double[n];
+            valuePerItem = new double[n];
+            items = new int[n][];
+            itemWords = new long[n][];
+            for (int bid = 0; bid < n; bid++) {
+                Bundle<T> licenses = bundleBids.get(bid).getLicenses();
+                int[] bidItems = new int[licenses.size() + 1];
+                int i = 0;
+                for (Good good : licenses) {
+                    bidItems[i++] = itemIndex.get(good);
+                }
+                bidderOfBid[bid] = bidderIndices.get(bid);
+                bidItems[i] = numberOfGoods + bidderOfBid[bid];
+                items[bid] = bidItems;
+                values[bid] = bundleBids.get(bid).value().doubleValue();
+                valuePerItem[bid] = values[bid] / bidItems.length;
+                itemWords[bid] = new long[words];
+                for (int item : bidItems) {
+                    itemWords[bid][item >>> 6] |= 1L << item;
+                }
+            }
+            prices = new double[numberOfItems];
+        }
+    }
+
+    /**
+     * The search works on subproblems, each of which is a set of bids (given by their indices).
+     * A subproblem is split into its connected components, i.e., the sets of bids which are (transitively)
+     * connected by common items. The components are solved independently.
+     * Within a component, the search branches on the item contained in most bids of the component.
+     * The search state is not shared, hence multiple searches on the same {@link Problem} may run concurrently.
+     */
+    private final class Search {
+
+        private final int excludedBidder;
+        private final int numberOfGoods;
+        private final int[] bidderOfBid;
+        private final double[] values;
+        private final double[] valuePerItem;
+        private final int[][] items;
+        private final long[][] itemWords;
+
+        // Scratch arrays, used by one method at a time
+        private final double[] bestPerItem;
+        private final double[] bestPerBidder;
+        private final int[] itemCount;
+        private final int[] parent;
+        private final int[] touched;
+        private final int[] componentOfBid;
+        // Dual prices of the items, see lagrangianBound. Any non-negative prices lead to a valid bound.
+        private final double[] prices;
+        private final double[] subgradient;
+
+        private final long deadline;
+        private long nodes = 0;
+        private boolean aborted = false;
+
+        /**
+         * @param excludedBidder the index of a bidder whose bids are ignored, or -1
+         */
+        private Search(Problem problem, int excludedBidder) {
+            this.excludedBidder = excludedBidder;
+            numberOfGoods = problem.numberOfGoods;
+            bidderOfBid = problem.bidderOfBid;
+            values = problem.values;
+            valuePerItem = problem.valuePerItem;
+            items = problem.items;
+            itemWords = problem.itemWords;
+
+            int numberOfItems = problem.numberOfItems;
+            bestPerItem = new double[numberOfItems];
+            bestPerBidder = new double[problem.bidders.size()];
+            itemCount = new int[numberOfItems];
+            parent = new int[numberOfItems];
+            Arrays.fill(parent, -1);
+            touched = new int[numberOfItems];
+            componentOfBid = new int[values.length];
+            prices = problem.prices.clone();
+            subgradient = new double[numberOfItems];
+            deadline = timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimitNanos;
+        }
+
+        /**
+         * @param incumbent a feasible allocation (bid indices) to start from
+         * @param upperBound an upper bound on the optimal value, known in advance
+         */
+        private Solution run(int[] incumbent, double upperBound) {
+            int[] bids = new int[values.length];
+            int size = 0;
+            for (int bid = 0; bid < values.length; bid++) {
+                if (bidderOfBid[bid] != excludedBidder) {
+                    bids[size++] = bid;
+                }
+            }
+            Solution solution = solve(Arrays.copyOf(bids, size), incumbent);
+            return solution.withUpperBound(Math.min(solution.upperBound, upperBound));
+        }
+
+        private boolean conflict(int bid, int other) {
+            long[] bidWords = itemWords[bid];
+            long[] otherWords = itemWords[other];
+            for (int i = 0; i < bidWords.length; i++) {
+                if ((bidWords[i] & otherWords[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Solution solve(int[] bids) {
+            return solve(bids, null);
+        }
+
+        /**
+         * @param incumbent null, or a feasible allocation of the passed bids, which is used as initial solution
+         */
+        private Solution solve(int[] bids, int[] incumbent) {
+            if (bids.length == 0) {
+                return Solution.EMPTY;
+            }
+            if (bids.length == 1) {
+                return Solution.EMPTY.withBid(bids[0], values[bids[0]]);
+            }
+            nodes++;
+            if (!aborted && (nodes > nodeLimit || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline))) {
+                aborted = true;
+            }
+            if (aborted) {
+                return greedy(bids).withUpperBound(bound(bids));
+            }
+            List<int[]> components = components(bids);
+            if (components.size() > 1) {
+                List<Solution> solutions = new ArrayList<>(components.size());
+                List<int[]> incumbents = incumbent == null ? null : splitIncumbent(components, incumbent);
+                for (int c = 0; c < components.size(); c++) {
+                    solutions.add(solve(components.get(c), incumbents == null ? null : incumbents.get(c)));
+                }
+                return Solution.combine(solutions);
+            }
+            return branch(bids, incumbent);
+        }
+
+        private List<int[]> splitIncumbent(List<int[]> components, int[] incumbent) {
+            for (int c = 0; c < components.size(); c++) {
+                for (int bid : components.get(c)) {
+                    componentOfBid[bid] = c;
+                }
+            }
+            List<List<Integer>> split = new ArrayList<>();
+            for (int c = 0; c < components.size(); c++) {
+                split.add(new ArrayList<>());
+            }
+            for (int bid : incumbent) {
+                split.get(componentOfBid[bid]).add(bid);
+            }
+            List<int[]> result = new ArrayList<>(components.size());
+            for (List<Integer> bids : split) {
+                result.add(bids.stream().mapToInt(Integer::intValue).toArray());
+            }
+            return result;
+        }
+
+        /**
+         * Branches on the item contained in most bids: Either one of the bids containing it is accepted,
+         * or the item remains unallocated.
+         */
+        private Solution branch(int[] bids, int[] incumbent) {
+            Solution best = greedy(bids);
+            if (incumbent != null) {
+                double incumbentValue = 0;
+                for (int bid : incumbent) {
+                    incumbentValue += values[bid];
+                }
+                if (incumbentValue > best.value) {
+                    best = new Solution(incumbentValue, incumbentValue, incumbent);
+                }
+            }
+            improvePrices(bids, best.value,
+                    bids.length >= LARGE_COMPONENT ? LARGE_COMPONENT_SUBGRADIENT_ITERATIONS : SUBGRADIENT_ITERATIONS);
+            double nodeBound = bound(bids);
+            double upperBound = best.value;
+
+            int item = mostFrequentItem(bids);
+            List<Integer> candidates = new ArrayList<>();
+            int[] withoutItem = new int[bids.length];
+            int withoutItemSize = 0;
+            for (int bid : bids) {
+                if ((itemWords[bid][item >>> 6] & (1L << item)) != 0) {
+                    candidates.add(bid);
+                } else {
+                    withoutItem[withoutItemSize++] = bid;
+                }
+            }
+            withoutItem = Arrays.copyOf(withoutItem, withoutItemSize);
+            candidates.sort(Comparator.comparingDouble(bid -> -values[bid]));
+
+            int[] compatible = new int[bids.length];
+            for (int candidate : candidates) {
+                int compatibleSize = 0;
+                for (int bid : withoutItem) {
+                    if (!conflict(candidate, bid)) {
+                        compatible[compatibleSize++] = bid;
+                    }
+                }
+                int[] remaining = Arrays.copyOf(compatible, compatibleSize);
+                double childBound = values[candidate] + bound(remaining);
+                if (canBePruned(childBound, best)) {
+                    continue;
+                }
+                if (aborted) {
+                    upperBound = Math.max(upperBound, childBound);
+                    continue;
+                }
+                Solution child = solve(remaining).withBid(candidate, values[candidate]);
+                upperBound = Math.max(upperBound, child.upperBound);
+                if (child.value > best.value) {
+                    best = child;
+                }
+            }
+            // Leave the item unallocated
+            double childBound = bound(withoutItem);
+            if (!canBePruned(childBound, best)) {
+                if (aborted) {
+                    upperBound = Math.max(upperBound, childBound);
+                } else {
+                    Solution child = solve(withoutItem);
+                    upperBound = Math.max(upperBound, child.upperBound);
+                    if (child.value > best.value) {
+                        best = child;
+                    }
+                }
+            }
+            return best.withUpperBound(Math.min(nodeBound, upperBound));
+        }
+
+        private boolean canBePruned(double bound, Solution best) {
+            return bound <= best.value + EPSILON * Math.max(1, Math.abs(best.value));
+        }
+
+        private int mostFrequentItem(int[] bids) {
+            int touchedItems = 0;
+            int best = -1;
+            for (int bid : bids) {
+                for (int item : items[bid]) {
+                    if (itemCount[item]++ == 0) {
+                        touched[touchedItems++] = item;
+                    }
+                    if (best < 0 || itemCount[item] > itemCount[best]) {
+                        best = item;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedItems; i++) {
+                itemCount[touched[i]] = 0;
+            }
+            return best;
+        }
+
+        /**
+         * Splits the bids into sets of bids which are connected by common items, using union-find on the items
+         */
+        private List<int[]> components(int[] bids) {
+            int touchedItems = 0;
+            for (int bid : bids) {
+                int[] bidItems = items[bid];
+                for (int item : bidItems) {
+                    if (parent[item] < 0) {
+                        parent[item] = item;
+                        touched[touchedItems++] = item;
+                    }
+                }
+                int root = find(bidItems[0]);
+                for (int i = 1; i < bidItems.length; i++) {
+                    int other = find(bidItems[i]);
+                    if (other != root) {
+                        parent[other] = root;
+                    }
+                }
+            }
+            Map<Integer, List<Integer>> byRoot = new LinkedHashMap<>();
+            for (int bid : bids) {
+                byRoot.computeIfAbsent(find(items[bid][0]), root -> new ArrayList<>()).add(bid);
+            }
+            for (int i = 0; i < touchedItems; i++) {
+                parent[touched[i]] = -1;
+            }
+            List<int[]> result = new ArrayList<>(byRoot.size());
+            for (List<Integer> component : byRoot.values()) {
+                result.add(component.stream().mapToInt(Integer::intValue).toArray());
+            }
+            return result;
+        }
+
+        private int find(int item) {
+            while (parent[item] != item) {
+                parent[item] = parent[parent[item]];
+                item = parent[item];
+            }
+            return item;
+        }
+
+        /**
+         * @return the greedy allocation with respect to value / sqrt(size)
+         */
+        private Solution greedy(int[] bids) {
+            Integer[] order = new Integer[bids.length];
+            for (int i = 0; i < bids.length; i++) {
+                order[i] = bids[i];
+            }
+            Arrays.sort(order, Comparator.comparingDouble(bid -> -values[bid] / Math.sqrt(items[bid].length)));
+            int[] chosen = new int[bids.length];
+            int chosenSize = 0;
+            double value = 0;
+            for (int bid : order) {
+                boolean compatible = true;
+                for (int i = 0; i < chosenSize && compatible; i++) {
+                    compatible = !conflict(bid, chosen[i]);
+                }
+                if (compatible) {
+                    chosen[chosenSize++] = bid;
+                    value += values[bid];
+                }
+            }
+            return new Solution(value, value, Arrays.copyOf(chosen, chosenSize));
+        }
+
+        /**
+         * @return the minimum of two upper bounds on the value of an allocation of the passed bids:
+         * the sum over all items of the highest value per item of a bid containing it,
+         * and the sum over all bidders of their highest bid
+         */
+        private double bound(int[] bids) {
+            int touchedItems = 0;
+            for (int bid : bids) {
+                double ratio = valuePerItem[bid];
+                for (int item : items[bid]) {
+                    if (bestPerItem[item] == 0) {
+                        touched[touchedItems++] = item;
+                    }
+                    if (ratio > bestPerItem[item]) {
+                        bestPerItem[item] = ratio;
+                    }
+                }
+                int bidder = bidderOfBid[bid];
+                if (values[bid] > bestPerBidder[bidder]) {
+                    bestPerBidder[bidder] = values[bid];
+                }
+            }
+            double itemBound = 0;
+            double bidderBound = 0;
+            for (int i = 0; i < touchedItems; i++) {
+                int item = touched[i];
+                itemBound += bestPerItem[item];
+                bestPerItem[item] = 0;
+                if (item >= numberOfGoods) {
+                    int bidder = item - numberOfGoods;
+                    bidderBound += bestPerBidder[bidder];
+                    bestPerBidder[bidder] = 0;
+                }
+            }
+            return Math.min(Math.min(itemBound, bidderBound), lagrangianBound(bids));
+        }
+
+        /**
+         * The Lagrangian relaxation of the item constraints (i.e., the dual of the LP relaxation):
+         * For any non-negative item prices, the sum of the prices of all items plus
+         * the sum over all bids of their positive surplus (value minus price) is an upper bound.
+         */
+        private double lagrangianBound(int[] bids) {
+            double bound = 0;
+            int touchedItems = 0;
+            for (int bid : bids) {
+                double surplus = values[bid];
+                for (int item : items[bid]) {
+                    surplus -= prices[item];
+                    if (itemCount[item]++ == 0) {
+                        touched[touchedItems++] = item;
+                        bound += prices[item];
+                    }
+                }
+                if (surplus > 0) {
+                    bound += surplus;
+                }
+            }
+            for (int i = 0; i < touchedItems; i++) {
+                itemCount[touched[i]] = 0;
+            }
+            return bound;
+        }
+
+        /**
+         * Decreases the Lagrangian bound of the passed bids by subgradient steps on the prices of their items
+         *
+         * @param target a lower bound on the optimal value, used for the step size
+         */
+        private void improvePrices(int[] bids, double target, int iterations) {
+            double stepScale = 1;
+            double bestBound = Double.POSITIVE_INFINITY;
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                double bound = 0;
+                int touchedItems = 0;
+                for (int bid : bids) {
+                    for (int item : items[bid]) {
+                        if (itemCount[item]++ == 0) {
+                            touched[touchedItems++] = item;
+                            bound += prices[item];
+                            subgradient[item] = 1;
+                        }
+                    }
+                }
+                for (int bid : bids) {
+                    double surplus = values[bid];
+                    for (int item : items[bid]) {
+                        surplus -= prices[item];
+                    }
+                    if (surplus > 0) {
+                        bound += surplus;
+                        for (int item : items[bid]) {
+                            subgradient[item]--;
+                        }
+                    }
+                }
+                double squaredNorm = 0;
+                for (int i = 0; i < touchedItems; i++) {
+                    int item = touched[i];
+                    itemCount[item] = 0;
+                    // Projection on non-negative prices
+                    if (prices[item] > 0 || subgradient[item] < 0) {
+                        squaredNorm += subgradient[item] * subgradient[item];
+                    }
+                }
+                if (bound < bestBound - EPSILON * Math.max(1, bound)) {
+                    bestBound = bound;
+                } else {
+                    stepScale /= 2;
+                }
+                if (squaredNorm == 0 || bound - target <= EPSILON * Math.max(1, target)) {
+                    return;
+                }
+                double step = stepScale * (bound - target) / squaredNorm;
+                for (int i = 0; i < touchedItems; i++) {
+                    int item = touched[i];
+                    prices[item] = Math.max(0, prices[item] - step * subgradient[item]);
+                }
+            }
+        }
+    }
+}
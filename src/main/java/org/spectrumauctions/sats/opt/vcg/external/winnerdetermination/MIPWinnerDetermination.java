@@ -0,0 +1,100 @@
+package org.spectrumauctions.sats.opt.vcg.external.winnerdetermination;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.math.DoubleMath;
+import edu.harvard.econcs.jopt.solver.IMIP;
+import edu.harvard.econcs.jopt.solver.IMIPResult;
+import edu.harvard.econcs.jopt.solver.IMIPSolver;
+import edu.harvard.econcs.jopt.solver.SolveParam;
+import edu.harvard.econcs.jopt.solver.client.SolverClient;
+import edu.harvard.econcs.jopt.solver.mip.CompareType;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.opt.vcg.external.domain.Auction;
+import org.spectrumauctions.sats.opt.vcg.external.domain.BidderAllocation;
+import org.spectrumauctions.sats.opt.vcg.external.domain.XORAllocation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link WinnerDetermination} which is solved as MIP, using the {@link SolverClient}
+ */
+public abstract class MIPWinnerDetermination<T extends Good> extends WinnerDetermination<T> {
+
+    public MIPWinnerDetermination(Auction<T> auction) {
+        super(auction);
+    }
+
+    protected abstract IMIP getMIP();
+
+    @Override
+    protected XORAllocation<T> solveWinnerDetermination() {
+        IMIPSolver solver = new SolverClient();
+        IMIPResult mipResult = solver.solve(getMIP());
+        return adaptMIPResult(mipResult);
+    }
+
+    /**
+     * Solves a copy of the MIP of this auction, in which the bid variables of the bidder are fixed to zero.
+     * The incumbent is proposed as MIP start, and the objective is bounded by the upper bound.
+     */
+    @Override
+    protected XORAllocation<T> solveWinnerDeterminationWithout(Bidder<T> bidder,
+                                                            Map<Bidder<T>, BidderAllocation<T>> incumbent, double upperBound) {
+        IMIP mip = getMIP().typedClone();
+        for (XORValue<T> bundleBid : getAuction().getBid(bidder).getValues()) {
+            mip.getVar(getBidVariable(bundleBid).getName()).setUpperBound(0);
+        }
+        mip.clearProposedValues();
+        for (BidderAllocation<T> allocation : incumbent.values()) {
+            for (XORValue<T> bundleBid : allocation.getAcceptedBids()) {
+                mip.proposeValue(mip.getVar(getBidVariable(bundleBid).getName()), true);
+            }
+        }
+        mip.setSolveParam(SolveParam.ZERO_MISSING_PROPOSED, true);
+        if (upperBound < Double.POSITIVE_INFINITY) {
+            Constraint objectiveBound = new Constraint(CompareType.LEQ, upperBound);
+            for (Bidder<T> other : getAuction().getBidders()) {
+                for (XORValue<T> bundleBid : getAuction().getBid(other).getValues()) {
+                    objectiveBound.addTerm(bundleBid.value().doubleValue(), mip.getVar(getBidVariable(bundleBid).getName()));
+                }
+            }
+            mip.add(objectiveBound);
+        }
+        IMIPSolver solver = new SolverClient();
+        return adaptMIPResult(solver.solve(mip));
+    }
+
+    protected abstract Variable getBidVariable(XORValue<T> bundleBid);
+
+    protected XORAllocation<T> adaptMIPResult(IMIPResult mipResult) {
+        Auction<T> auction = getAuction();
+        Map<Bidder<T>, BidderAllocation<T>> trades = new HashMap<>();
+        for (Bidder<T> bidder : auction.getBidders()) {
+            double totalValue = 0;
+            Builder<Good> goodsBuilder = ImmutableSet.<Good>builder();
+            Builder<XORValue<T>> bundleBids = ImmutableSet.<XORValue<T>>builder();
+            for (XORValue<T> bundleBid : auction.getBid(bidder).getValues()) {
+                if (DoubleMath.fuzzyEquals(mipResult.getValue(getBidVariable(bundleBid)), 1, 1e-3)) {
+                    goodsBuilder.addAll(bundleBid.getLicenses());
+                    bundleBids.add(bundleBid);
+                    totalValue += bundleBid.value().doubleValue();
+                }
+            }
+            Set<Good> goods = goodsBuilder.build();
+            if (!goods.isEmpty()) {
+                trades.put(bidder, new BidderAllocation<>(totalValue, new Bundle<>(goods), bundleBids.build()));
+            }
+        }
+
+        return new XORAllocation<>(trades);
+    }
+
+}
\ No newline at end of file
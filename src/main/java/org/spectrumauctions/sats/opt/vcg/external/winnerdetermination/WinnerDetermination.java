@@ -1,16 +1,6 @@
 package org.spectrumauctions.sats.opt.vcg.external.winnerdetermination;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
-import com.google.common.math.DoubleMath;
-import edu.harvard.econcs.jopt.solver.IMIP;
-import edu.harvard.econcs.jopt.solver.IMIPResult;
-import edu.harvard.econcs.jopt.solver.IMIPSolver;
-import edu.harvard.econcs.jopt.solver.client.SolverClient;
-import edu.harvard.econcs.jopt.solver.mip.Variable;
-import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
 import org.spectrumauctions.sats.core.model.Bidder;
-import org.spectrumauctions.sats.core.model.Bundle;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.opt.model.EfficientAllocator;
 import org.spectrumauctions.sats.opt.vcg.external.domain.Auction;
@@ -19,8 +9,14 @@ import org.spectrumauctions.sats.opt.vcg.external.domain.XORAllocation;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
+/**
+ * Solves the winner determination problem of an {@link Auction} with XOR bids.
+ * The allocation is calculated once and cached.
+ *
+ * @see MIPWinnerDetermination
+ * @see BranchAndBoundWinnerDetermination
+ */
 public abstract class WinnerDetermination<T extends Good> implements EfficientAllocator<XORAllocation<T>> {
     private XORAllocation<T> result = null;
     private Auction<T> auction;
@@ -29,8 +25,6 @@ public abstract class WinnerDetermination<T extends Good> implements EfficientAl
         this.auction = auction;
     }
 
-    protected abstract IMIP getMIP();
-
     @Override
     public XORAllocation<T> calculateAllocation() {
         if (result == null) {
@@ -39,38 +33,33 @@ public abstract class WinnerDetermination<T extends Good> implements EfficientAl
         return result;
     }
 
-    protected Auction<T> getAuction() {
-        return auction;
+    /**
+     * Calculates the allocation of the auction without the passed bidder (i.e., its marginal economy),
+     * as required for VCG payments. Instead of building the winner determination of {@link Auction#without(Bidder)}
+     * from scratch, implementations reuse the data structures of this winner determination.
+     * The allocation of this auction without the bidder is used as initial solution,
+     * and the optimal value of this auction as upper bound.<br>
+     * Once {@link #calculateAllocation()} has returned, this method may be called concurrently for different bidders.
+     */
+    public XORAllocation<T> calculateAllocationWithout(Bidder<T> bidder) {
+        XORAllocation<T> allocation = calculateAllocation();
+        Map<Bidder<T>, BidderAllocation<T>> incumbent = new HashMap<>(allocation.getTradesMap());
+        incumbent.remove(bidder);
+        return solveWinnerDeterminationWithout(bidder, incumbent, allocation.getUpperBound());
     }
 
-    private XORAllocation<T> solveWinnerDetermination() {
-        IMIPSolver solver = new SolverClient();
-        IMIPResult mipResult = solver.solve(getMIP());
-        return adaptMIPResult(mipResult);
+    protected Auction<T> getAuction() {
+        return auction;
     }
 
-    protected abstract Variable getBidVariable(XORValue<T> bundleBid);
-
-    protected XORAllocation<T> adaptMIPResult(IMIPResult mipResult) {
-        Map<Bidder<T>, BidderAllocation<T>> trades = new HashMap<>();
-        for (Bidder<T> bidder : auction.getBidders()) {
-            double totalValue = 0;
-            Builder<Good> goodsBuilder = ImmutableSet.<Good>builder();
-            Builder<XORValue<T>> bundleBids = ImmutableSet.<XORValue<T>>builder();
-            for (XORValue<T> bundleBid : auction.getBid(bidder).getValues()) {
-                if (DoubleMath.fuzzyEquals(mipResult.getValue(getBidVariable(bundleBid)), 1, 1e-3)) {
-                    goodsBuilder.addAll(bundleBid.getLicenses());
-                    bundleBids.add(bundleBid);
-                    totalValue += bundleBid.value().doubleValue();
-                }
-            }
-            Set<Good> goods = goodsBuilder.build();
-            if (!goods.isEmpty()) {
-                trades.put(bidder, new BidderAllocation<>(totalValue, new Bundle<>(goods), bundleBids.build()));
-            }
-        }
+    protected abstract XORAllocation<T> solveWinnerDetermination();
 
-        return new XORAllocation<>(trades);
-    }
+    /**
+     * @param incumbent  a feasible allocation of the auction without the bidder
+     * @param upperBound an upper bound on the value of the optimal allocation without the bidder
+     * @see #calculateAllocationWithout(Bidder)
+     */
+    protected abstract XORAllocation<T> solveWinnerDeterminationWithout(Bidder<T> bidder,
+                                                                     Map<Bidder<T>, BidderAllocation<T>> incumbent, double upperBound);
 
-}
\ No newline at end of file
+}
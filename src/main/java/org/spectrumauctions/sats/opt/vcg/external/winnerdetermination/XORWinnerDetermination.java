@@ -15,7 +15,7 @@ import java.util.Map;
  *
  * @author Benedikt Buenz
  */
-public class XORWinnerDetermination<T extends Good> extends WinnerDetermination<T> {
+public class XORWinnerDetermination<T extends Good> extends MIPWinnerDetermination<T> {
     private Map<XORValue<T>, Variable> bidVariables = new HashMap<>();
     private IMIP winnerDeterminationProgram;
 
@@ -56,6 +56,8 @@ public class XORWinnerDetermination<T extends Good> extends WinnerDetermination<
         for (Constraint noDoubleAssignments : goods.values()) {
             winnerDeterminationProgram.add(noDoubleAssignments);
         }
+        // MIP#typedClone, used for the marginal economies, fails if the proposed values were never set
+        winnerDeterminationProgram.setProposedValues(new HashMap<>());
 
         return winnerDeterminationProgram;
     }
@@ -14,22 +14,36 @@ import org.junit.runners.Suite;
 import org.spectrumauctions.sats.core.api.APITest;
 import org.spectrumauctions.sats.core.bidfile.CatsWriterTest;
 import org.spectrumauctions.sats.core.bidfile.JSONWriterTest;
+import org.spectrumauctions.sats.core.bidlang.ValuingSpliteratorTest;
 import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.SimpleRandomOrderTest;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetTest;
 import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericSetsPickNTest;
+import org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered.GenericValueDecreasingTest;
+import org.spectrumauctions.sats.core.bidlang.generic.XORQExpansionTest;
 import org.spectrumauctions.sats.core.bidlang.generic.XORQtoXORTest;
 import org.spectrumauctions.sats.core.bidlang.xor.CatsXORTest;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingValueOrderedXORTest;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXORTest;
 import org.spectrumauctions.sats.core.examples.BiddingLanguagesExample;
 import org.spectrumauctions.sats.core.examples.ParameterizingModelsExample;
 import org.spectrumauctions.sats.core.examples.SimpleModelAccessorsExample;
+import org.spectrumauctions.sats.core.instancehandling.AsyncInstanceHandlerTest;
+import org.spectrumauctions.sats.core.instancehandling.BinaryInstanceHandlerTest;
+import org.spectrumauctions.sats.core.instancehandling.ConcurrentInstanceHandlingTest;
 import org.spectrumauctions.sats.core.instancehandling.SerializerTest;
+import org.spectrumauctions.sats.core.model.BitSetBundleTest;
+import org.spectrumauctions.sats.core.model.DemandQueryTest;
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.FastValueTest;
+import org.spectrumauctions.sats.core.model.PopulationGeneratorTest;
+import org.spectrumauctions.sats.core.model.ValueOracleTest;
 import org.spectrumauctions.sats.core.model.bvm.BMRandomnessTest;
 import org.spectrumauctions.sats.core.model.bvm.BMValueTest;
 import org.spectrumauctions.sats.core.model.bvm.SizeOrderedIteratorTest;
 import org.spectrumauctions.sats.core.model.bvm.SizeOrderedPowersetTest;
 import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
 import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.cats.CATSAdjacencyIndexTest;
 import org.spectrumauctions.sats.core.model.cats.CATSBidderTest;
 import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
 import org.spectrumauctions.sats.core.model.cats.CATSWorldTest;
@@ -37,6 +51,7 @@ import org.spectrumauctions.sats.core.model.gsvm.GSVMBidderTest;
 import org.spectrumauctions.sats.core.model.gsvm.GSVMWorldTest;
 import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMBidderTest;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMConnectedComponentsTest;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMWorldTest;
 import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
 import org.spectrumauctions.sats.core.model.mrvm.*;
@@ -45,6 +60,8 @@ import org.spectrumauctions.sats.core.model.srvm.SRVMRandomnessTest;
 import org.spectrumauctions.sats.core.model.srvm.SRVMTest;
 import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
 import org.spectrumauctions.sats.core.util.file.FilePathUtils;
+import org.spectrumauctions.sats.core.util.math.BoundedCompositionsTest;
+import org.spectrumauctions.sats.core.util.math.PiecewiseLinearEvaluatorTest;
 
 import java.io.File;
 import java.io.IOException;
@@ -60,30 +77,49 @@ import java.util.List;
         JSONWriterTest.class,
         // Instance handling
         SerializerTest.class,
+        ConcurrentInstanceHandlingTest.class,
+        BinaryInstanceHandlerTest.class,
+        AsyncInstanceHandlerTest.class,
         // Bidlang
         SimpleRandomOrderTest.class,
         GenericPowersetTest.class,
         GenericSetsPickNTest.class,
         XORQtoXORTest.class,
+        XORQExpansionTest.class,
+        GenericValueDecreasingTest.class,
         CatsXORTest.class,
+        SizeBasedUniqueRandomXORTest.class,
+        DecreasingValueOrderedXORTest.class,
+        ValuingSpliteratorTest.class,
         // Models
+        BitSetBundleTest.class,
+        FastValueTest.class,
+        DemandQueryTest.class,
+        ValueOracleTest.class,
+        PopulationGeneratorTest.class,
         BMRandomnessTest.class,
         BMValueTest.class,
         SizeOrderedIteratorTest.class,
         SizeOrderedPowersetTest.class,
         LSVMWorldTest.class,
         LSVMBidderTest.class,
+        LSVMConnectedComponentsTest.class,
         GSVMWorldTest.class,
         GSVMBidderTest.class,
         MRVMBidderTest.class,
         MRVMBidderTypeSpecificTest.class,
+        MRVMGenericValueTest.class,
         MRVMRandomnessTest.class,
+        MRVMRegionsMapTest.class,
         MRVMWorldTest.class,
         SRVMTest.class,
         SRVMBidderTest.class,
         SRVMRandomnessTest.class,
         CATSWorldTest.class,
         CATSBidderTest.class,
+        CATSAdjacencyIndexTest.class,
+        PiecewiseLinearEvaluatorTest.class,
+        BoundedCompositionsTest.class,
         // Examples
         BiddingLanguagesExample.class,
         ParameterizingModelsExample.class,
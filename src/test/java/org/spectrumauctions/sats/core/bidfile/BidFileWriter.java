@@ -11,8 +11,11 @@ import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericS
 import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeIncreasing;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
 import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Bidder;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.bvm.BMBidder;
@@ -22,6 +25,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.fail;
@@ -122,4 +127,63 @@ public abstract class BidFileWriter {
             }
         }
     }
+
+    /**
+     * Creates size based random XOR bids for all bidders of a BVM population and stores them,
+     * such that the same bids can be iterated repeatedly.
+     */
+    protected List<XORLanguage<? extends Good>> fixedXORBids(int bidsPerBidder) throws UnsupportedBiddingLanguageException {
+        List<XORLanguage<? extends Good>> result = new ArrayList<>();
+        for (BMBidder bidder : new BaseValueModel().createNewPopulation(0L)) {
+            @SuppressWarnings("unchecked")
+            SizeBasedUniqueRandomXOR<Good> lang = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, 0L);
+            lang.setDistribution(3, 2, bidsPerBidder);
+            List<XORValue<Good>> bids = new ArrayList<>();
+            Iterator<XORValue<Good>> iter = lang.iterator();
+            for (int i = 0; i < bidsPerBidder && iter.hasNext(); i++) {
+                bids.add(iter.next());
+            }
+            result.add(new XORLanguage<Good>() {
+                @Override
+                public Iterator<XORValue<Good>> iterator() {
+                    return bids.iterator();
+                }
+
+                @Override
+                public Bidder<? extends Good> getBidder() {
+                    return bidder;
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Creates XOR-Q bids for all bidders of a BVM population and stores them,
+     * such that the same bids can be iterated repeatedly.
+     */
+    protected List<GenericLang<GenericDefinition>> fixedXORQBids(int bidsPerBidder) throws UnsupportedBiddingLanguageException {
+        List<GenericLang<GenericDefinition>> result = new ArrayList<>();
+        for (BMBidder bidder : new BaseValueModel().createNewPopulation(0L)) {
+            @SuppressWarnings("unchecked")
+            GenericSizeDecreasing<GenericDefinition> lang = bidder.getValueFunction(GenericSizeDecreasing.class);
+            List<GenericValue<GenericDefinition>> bids = new ArrayList<>();
+            Iterator<GenericValue<GenericDefinition>> iter = lang.iterator();
+            for (int i = 0; i < bidsPerBidder && iter.hasNext(); i++) {
+                bids.add(iter.next());
+            }
+            result.add(new GenericLang<GenericDefinition>() {
+                @Override
+                public Iterator<GenericValue<GenericDefinition>> iterator() {
+                    return bids.iterator();
+                }
+
+                @Override
+                public Bidder<? extends Good> getBidder() {
+                    return bidder;
+                }
+            });
+        }
+        return result;
+    }
 }
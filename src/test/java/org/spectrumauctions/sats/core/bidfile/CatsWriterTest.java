@@ -9,6 +9,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
 import org.spectrumauctions.sats.core.model.Good;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.cats.CATSBidder;
@@ -17,7 +18,11 @@ import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -59,4 +64,65 @@ public class CatsWriterTest extends BidFileWriter {
         System.out.println(file.toPath().toString());
     }
 
+    /**
+     * The streamed files must contain the same lines as a file assembled in memory, apart from the generation date
+     */
+    @Test
+    public void testStreamedMultiBidderLines() throws IOException, UnsupportedBiddingLanguageException {
+        CatsExporter exporter = new CatsExporter(new File(EXPORT_TEST_FOLDER_NAME));
+        List<XORLanguage<? extends Good>> languages = fixedXORBids(50);
+        List<String> expected = new ArrayList<>();
+        expected.add("");
+        expected.add("%% The SATS webpage is http://spectrumauctions.org");
+        expected.add("");
+        expected.add("%% This file may contain bids from multiple bidders.");
+        expected.add("% Bids from different bidders are separated using dummy items with negative IDs");
+        expected.add("");
+        expected.add("");
+        List<String> bidLines = new ArrayList<>();
+        int dummyItem = -1;
+        for (XORLanguage<? extends Good> lang : languages) {
+            Iterator<? extends XORValue<?>> iter = lang.iterator();
+            while (iter.hasNext()) {
+                XORValue<?> value = iter.next();
+                bidLines.add(bidLines.size() + "\t" + exporter.roundedValue(value.value().doubleValue()) + "\t"
+                        + value.getLicenses().itemIds("\t") + "\t" + dummyItem + "\t#");
+            }
+            dummyItem--;
+        }
+        expected.add("goods " + languages.get(0).getBidder().getWorld().getNumberOfGoods());
+        expected.add("bids " + bidLines.size());
+        expected.add("dummy " + languages.size());
+        expected.add("");
+        expected.addAll(bidLines);
+
+        File file = exporter.writeMultiBidderXOR(languages, 50, "TestStreamedXOR_");
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertTrue(lines.get(0).startsWith("%% File generated by SATS"));
+        Assert.assertEquals(expected, lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void testStreamedSingleBidderLines() throws IOException, UnsupportedBiddingLanguageException {
+        CatsExporter exporter = new CatsExporter(new File(EXPORT_TEST_FOLDER_NAME));
+        XORLanguage<? extends Good> lang = fixedXORBids(50).get(0);
+        List<String> bidLines = new ArrayList<>();
+        Iterator<? extends XORValue<?>> iter = lang.iterator();
+        while (iter.hasNext()) {
+            XORValue<?> value = iter.next();
+            bidLines.add(bidLines.size() + "\t" + exporter.roundedValue(value.value().doubleValue()) + "\t"
+                    + value.getLicenses().itemIds("\t") + "#");
+        }
+
+        File file = exporter.writeSingleBidderXOR(lang, 50, "TestStreamedSingleXOR_");
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("bids " + bidLines.size(), lines.get(5));
+        Assert.assertEquals("dummy 0", lines.get(6));
+        Assert.assertEquals(bidLines, lines.subList(8, lines.size()));
+        // The temporary file with the bid lines is removed
+        File[] leftovers = file.getParentFile().listFiles((dir, name) -> name.endsWith(".part"));
+        Assert.assertNotNull(leftovers);
+        Assert.assertEquals(0, leftovers.length);
+    }
+
 }
@@ -5,9 +5,27 @@
  */
 package org.spectrumauctions.sats.core.bidfile;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Assert;
 import org.junit.Test;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 
 /**
  * @author Michael Weiss
@@ -41,4 +59,86 @@ public class JSONWriterTest extends BidFileWriter {
         JsonExporter exporter = new JsonExporter(new File(EXPORT_TEST_FOLDER_NAME));
         super.testSingleBidderXORQ(exporter);
     }
+
+    /**
+     * The streamed files must be identical to the pretty printed json tree of the same bids
+     */
+    @Test
+    public void testStreamedXORMatchesJsonTree() throws IOException, UnsupportedBiddingLanguageException {
+        JsonExporter exporter = new JsonExporter(new File(EXPORT_TEST_FOLDER_NAME));
+        List<XORLanguage<? extends Good>> languages = fixedXORBids(50);
+        JsonArray expected = new JsonArray();
+        for (XORLanguage<? extends Good> lang : languages) {
+            JsonObject thisBidder = new JsonObject();
+            thisBidder.addProperty("bidder", lang.getBidder().getId());
+            thisBidder.add("bids", xorTree(exporter, lang));
+            expected.add(thisBidder);
+        }
+        File multi = exporter.writeMultiBidderXOR(languages, 50, "TestStreamedXOR_");
+        assertFileContent(expected, multi);
+        File single = exporter.writeSingleBidderXOR(languages.get(0), 50, "TestStreamedSingleXOR_");
+        assertFileContent(xorTree(exporter, languages.get(0)), single);
+    }
+
+    @Test
+    public void testStreamedXORQMatchesJsonTree() throws IOException, UnsupportedBiddingLanguageException {
+        JsonExporter exporter = new JsonExporter(new File(EXPORT_TEST_FOLDER_NAME));
+        List<GenericLang<GenericDefinition>> languages = fixedXORQBids(50);
+        JsonArray expected = new JsonArray();
+        for (GenericLang<GenericDefinition> lang : languages) {
+            JsonObject thisBidder = new JsonObject();
+            thisBidder.addProperty("bidder", lang.getBidder().getId());
+            thisBidder.add("bids", xorqTree(exporter, lang));
+            expected.add(thisBidder);
+        }
+        File multi = exporter.writeMultiBidderXORQ(languages, 50, "TestStreamedXORQ_");
+        assertFileContent(expected, multi);
+        File single = exporter.writeSingleBidderXORQ(languages.get(0), 50, "TestStreamedSingleXORQ_");
+        assertFileContent(xorqTree(exporter, languages.get(0)), single);
+    }
+
+    private static JsonArray xorTree(JsonExporter exporter, XORLanguage<? extends Good> lang) {
+        JsonArray result = new JsonArray();
+        Iterator<? extends XORValue<?>> iter = lang.iterator();
+        while (iter.hasNext()) {
+            XORValue<?> xorValue = iter.next();
+            JsonObject bid = new JsonObject();
+            JsonArray licenses = new JsonArray();
+            for (Good license : xorValue.getLicenses()) {
+                licenses.add(license.getId());
+            }
+            bid.add("licenses", licenses);
+            bid.addProperty("value", exporter.roundedValue(xorValue.value().doubleValue()));
+            result.add(bid);
+        }
+        return result;
+    }
+
+    private static JsonArray xorqTree(JsonExporter exporter, GenericLang<GenericDefinition> lang) {
+        JsonArray result = new JsonArray();
+        Iterator<GenericValue<GenericDefinition>> iter = lang.iterator();
+        while (iter.hasNext()) {
+            GenericValue<GenericDefinition> val = iter.next();
+            JsonObject bid = new JsonObject();
+            JsonArray quantities = new JsonArray();
+            for (Entry<GenericDefinition, Integer> quant : val.getQuantities().entrySet()) {
+                if (quant.getValue() != 0) {
+                    JsonObject object = new JsonObject();
+                    object.add("generic definition", quant.getKey().shortJson());
+                    object.addProperty("quantity", quant.getValue());
+                    quantities.add(object);
+                }
+            }
+            bid.add("quantities", quantities);
+            bid.addProperty("value", exporter.roundedValue(val.getValue().doubleValue()));
+            result.add(bid);
+        }
+        return result;
+    }
+
+    private static void assertFileContent(JsonArray expected, File file) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Assert.assertEquals(gson.toJson(expected), content);
+    }
 }
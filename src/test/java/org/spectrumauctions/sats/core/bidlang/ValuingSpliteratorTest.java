@@ -0,0 +1,123 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeDecreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeIncreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericLang;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.xor.DecreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.XORLanguage;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author Michael Weiss
+ */
+public class ValuingSpliteratorTest {
+
+    private static final long SEED = 92837465L;
+    private static final int MAX_BIDS = 2000;
+
+    @Test
+    public void testOrderIsPreserved() {
+        List<Integer> expected = IntStream.range(0, 50000).map(i -> i * 3).boxed().collect(Collectors.toList());
+        ValuingSpliterator<Integer, Integer> spliterator =
+                new ValuingSpliterator<>(IntStream.range(0, 50000).iterator(), i -> i * 3);
+        List<Integer> result = StreamSupport.stream(spliterator, true).collect(Collectors.toList());
+        Assert.assertEquals(expected, result);
+    }
+
+    @Test
+    public void testSplitDoesNotValue() {
+        AtomicInteger valuations = new AtomicInteger();
+        ValuingSpliterator<Integer, Integer> spliterator =
+                new ValuingSpliterator<>(IntStream.range(0, 100).iterator(), i -> {
+                    valuations.incrementAndGet();
+                    return i;
+                }, 100);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(0, valuations.get());
+        long prefixSize = prefix.getExactSizeIfKnown();
+        Assert.assertTrue(prefixSize > 0);
+        Assert.assertEquals(100 - prefixSize, spliterator.estimateSize());
+        List<Integer> result = new ArrayList<>();
+        prefix.forEachRemaining(result::add);
+        Assert.assertEquals(prefixSize, valuations.get());
+        spliterator.forEachRemaining(result::add);
+        Assert.assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), result);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testXORLanguagesMatchSequentialIteration() throws UnsupportedBiddingLanguageException {
+        LSVMBidder lsvmBidder = new LocalSynergyValueModel().createNewPopulation(SEED).get(0);
+        assertSameBids(lsvmBidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED));
+        SRVMBidder srvmBidder = new SingleRegionModel().createNewPopulation(SEED).get(0);
+        assertSameBids(srvmBidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED));
+        assertSameBids(srvmBidder.getValueFunction(IncreasingSizeOrderedXOR.class, SEED));
+        assertSameBids(srvmBidder.getValueFunction(DecreasingSizeOrderedXOR.class, SEED));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGenericLanguagesMatchSequentialIteration() throws UnsupportedBiddingLanguageException {
+        SRVMBidder bidder = new SingleRegionModel().createNewPopulation(SEED).get(0);
+        assertSameGenericValues(bidder.getValueFunction(GenericSizeIncreasing.class, SEED));
+        assertSameGenericValues(bidder.getValueFunction(GenericSizeDecreasing.class, SEED));
+        assertSameGenericValues(bidder.getValueFunction(GenericPowersetIncreasing.class, SEED));
+        XORQRandomOrderSimple<SRVMBand> randomOrder = bidder.getValueFunction(XORQRandomOrderSimple.class, SEED);
+        randomOrder.setIterations(MAX_BIDS);
+        assertSameGenericValues(randomOrder);
+    }
+
+    private static <T extends Good> void assertSameBids(XORLanguage<T> language) {
+        List<XORValue<T>> expected = new ArrayList<>();
+        Iterator<XORValue<T>> iterator = language.iterator();
+        while (iterator.hasNext() && expected.size() < MAX_BIDS) {
+            expected.add(iterator.next());
+        }
+        List<XORValue<T>> parallel = language.stream(true).limit(MAX_BIDS).collect(Collectors.toList());
+        Assert.assertEquals(expected.size(), parallel.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getLicenses(), parallel.get(i).getLicenses());
+            Assert.assertEquals(expected.get(i).value(), parallel.get(i).value());
+        }
+    }
+
+    private static <T extends GenericDefinition> void assertSameGenericValues(GenericLang<T> language) {
+        List<GenericValue<T>> expected = new ArrayList<>();
+        Iterator<GenericValue<T>> iterator = language.iterator();
+        while (iterator.hasNext() && expected.size() < MAX_BIDS) {
+            expected.add(iterator.next());
+        }
+        List<GenericValue<T>> parallel = language.stream(true).limit(MAX_BIDS).collect(Collectors.toList());
+        Assert.assertEquals(expected, parallel);
+    }
+}
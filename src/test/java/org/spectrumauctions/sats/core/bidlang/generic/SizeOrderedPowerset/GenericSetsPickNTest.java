@@ -8,6 +8,7 @@ package org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,4 +44,30 @@ public class GenericSetsPickNTest {
         Assert.assertEquals(5, iterCount);
     }
 
+    @Test
+    public void testOrderAndSkipping() {
+        Map<String, Integer> maxQuantities = new LinkedHashMap<>();
+        maxQuantities.put("C", 1);
+        maxQuantities.put("B", 2);
+        maxQuantities.put("A", 2);
+        // A has highest priority, then B, then C
+        int[][] expected = {{2, 0, 0}, {1, 1, 0}, {1, 0, 1}, {0, 2, 0}, {0, 1, 1}};
+
+        GenericSetsPickN<String> pickN = new GenericSetsPickN<>(maxQuantities, 2);
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), pickN.getQuantifiableObjects());
+        Assert.assertEquals(expected.length, pickN.count());
+        for (int[] quantities : expected) {
+            Assert.assertArrayEquals(quantities, pickN.nextQuantities());
+        }
+        Assert.assertFalse(pickN.hasNext());
+
+        GenericSetsPickN<String> skipping = new GenericSetsPickN<>(maxQuantities, 2, 3);
+        Map<String, Integer> fourth = skipping.next();
+        Assert.assertEquals(0, (int) fourth.get("A"));
+        Assert.assertEquals(2, (int) fourth.get("B"));
+        Assert.assertEquals(0, (int) fourth.get("C"));
+        Assert.assertArrayEquals(expected[4], skipping.nextQuantities());
+        Assert.assertFalse(skipping.hasNext());
+    }
+
 }
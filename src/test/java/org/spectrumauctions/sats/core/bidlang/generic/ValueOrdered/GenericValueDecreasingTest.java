@@ -0,0 +1,123 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic.ValueOrdered;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericDefinition;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValueBidder;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.bvm.BMBidder;
+import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMGenericDefinition;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class GenericValueDecreasingTest {
+
+    private static final long SEED = 82365923L;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAllQuantitiesAreInNonIncreasingOrder() throws UnsupportedBiddingLanguageException {
+        SRVMBidder srvmBidder = new SingleRegionModel().createNewPopulation(SEED).get(0);
+        assertSameAsBruteForce(srvmBidder.getValueFunction(GenericValueDecreasing.class, SEED),
+                new ArrayList<>(srvmBidder.getWorld().getBands()), srvmBidder);
+        for (BMBidder bidder : new BaseValueModel().createNewPopulation(SEED)) {
+            assertSameAsBruteForce(bidder.getValueFunction(GenericValueDecreasing.class, SEED),
+                    bidder.getWorld().getBands(), bidder);
+        }
+        BMBidder mbvmBidder = new MultiBandValueModel().createNewPopulation(SEED).get(0);
+        assertSameAsBruteForce(mbvmBidder.getValueFunction(GenericValueDecreasing.class, SEED),
+                mbvmBidder.getWorld().getBands(), mbvmBidder);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTopQuantitiesOfMRVM() throws UnsupportedBiddingLanguageException {
+        MRVMBidder bidder = new MultiRegionModel().createNewPopulation(SEED).get(0);
+        GenericValueDecreasing<MRVMGenericDefinition> language = bidder.getValueFunction(GenericValueDecreasing.class, SEED);
+        List<GenericValue<MRVMGenericDefinition>> values = new ArrayList<>();
+        Iterator<GenericValue<MRVMGenericDefinition>> iterator = language.iterator();
+        for (int i = 0; i < 100; i++) {
+            GenericValue<MRVMGenericDefinition> value = iterator.next();
+            if (!values.isEmpty()) {
+                Assert.assertTrue(value.getValue().compareTo(values.get(values.size() - 1).getValue()) <= 0);
+            }
+            values.add(value);
+        }
+        Assert.assertEquals(bidder.getWorld().getLicenses().size(), values.get(0).getTotalQuantity());
+        Assert.assertEquals(values.size(), new HashSet<>(values).size());
+
+        // No random quantities which were not returned are more valuable than the last returned ones
+        Set<Map<MRVMGenericDefinition, Integer>> returned = new HashSet<>();
+        for (GenericValue<MRVMGenericDefinition> value : values) {
+            returned.add(value.getQuantities());
+        }
+        BigDecimal lastValue = values.get(values.size() - 1).getValue();
+        List<MRVMGenericDefinition> definitions = new ArrayList<>(values.get(0).getQuantities().keySet());
+        Random random = new Random(SEED);
+        for (int i = 0; i < 500; i++) {
+            Map<MRVMGenericDefinition, Integer> quantities = new HashMap<>();
+            for (MRVMGenericDefinition definition : definitions) {
+                int quantity = definition.numberOfLicenses() - (random.nextInt(4) == 0 ? random.nextInt(definition.numberOfLicenses() + 1) : 0);
+                if (quantity > 0) {
+                    quantities.put(definition, quantity);
+                }
+            }
+            if (!quantities.isEmpty() && !returned.contains(quantities)) {
+                Assert.assertTrue(bidder.calculateValue(quantities).compareTo(lastValue) <= 0);
+            }
+        }
+    }
+
+    private static <T extends GenericDefinition> void assertSameAsBruteForce(GenericValueDecreasing<T> language,
+                                                                              List<T> definitions,
+                                                                              GenericValueBidder<T> bidder) {
+        List<BigDecimal> expected = new ArrayList<>();
+        int[] quantities = new int[definitions.size()];
+        while (true) {
+            // Mixed radix increment
+            int i = 0;
+            while (i < quantities.length && quantities[i] == definitions.get(i).numberOfLicenses()) {
+                quantities[i++] = 0;
+            }
+            if (i == quantities.length) {
+                break;
+            }
+            quantities[i]++;
+            Map<T, Integer> map = new HashMap<>();
+            for (int j = 0; j < quantities.length; j++) {
+                map.put(definitions.get(j), quantities[j]);
+            }
+            expected.add(bidder.calculateValue(map));
+        }
+        expected.sort(Comparator.reverseOrder());
+
+        List<BigDecimal> actual = new ArrayList<>();
+        Set<Map<T, Integer>> returned = new HashSet<>();
+        for (Iterator<GenericValue<T>> iterator = language.iterator(); iterator.hasNext(); ) {
+            GenericValue<T> value = iterator.next();
+            Assert.assertTrue(returned.add(value.getQuantities()));
+            actual.add(value.getValue());
+        }
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(0, expected.get(i).compareTo(actual.get(i)));
+        }
+    }
+}
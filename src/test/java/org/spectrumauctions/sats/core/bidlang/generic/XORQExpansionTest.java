@@ -0,0 +1,146 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.generic;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.bvm.BMBand;
+import org.spectrumauctions.sats.core.model.bvm.BMWorld;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.util.math.CombinatorialNumberSystem;
+import org.spectrumauctions.sats.core.util.random.UniformJavaUtilRandomWrapper;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class XORQExpansionTest {
+
+    private static final long SEED = 3498756L;
+
+    private static BMWorld world;
+
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        world = new MultiBandValueModel().createWorld(SEED);
+    }
+
+    @Test
+    public void testIterationMatchesIndexedAccess() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 20; i++) {
+            Map<BMBand, Integer> quantities = randomQuantities(random, 3, 2);
+            XORQExpansion<Good> expansion = new XORQExpansion<>(quantities);
+            BigInteger expectedCount = BigInteger.ONE;
+            for (Map.Entry<BMBand, Integer> entry : quantities.entrySet()) {
+                expectedCount = expectedCount.multiply(CombinatorialNumberSystem.bigBinomial(entry.getKey().numberOfLicenses(), entry.getValue()));
+            }
+            Assert.assertEquals(expectedCount, expansion.count());
+
+            Set<BitSetBundle<Good>> distinct = new HashSet<>();
+            long index = 0;
+            for (BitSetBundle<Good> bundle : expansion) {
+                if (index < 2000) {
+                    Assert.assertEquals(bundle, expansion.get(index));
+                    Assert.assertEquals(bundle, expansion.get(BigInteger.valueOf(index)));
+                    assertConsistent(quantities, bundle);
+                    Assert.assertTrue(distinct.add(bundle));
+                }
+                index++;
+            }
+            Assert.assertEquals(expectedCount, BigInteger.valueOf(index));
+        }
+    }
+
+    @Test
+    public void testIterationMatchesXORQtoXOR() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 20; i++) {
+            Map<BMBand, Integer> quantities = randomQuantities(random, 2, 3);
+            Iterator<BitSetBundle<Good>> expansion = new XORQExpansion<Good>(quantities).iterator();
+            XORQtoXOR<Good> plain = new XORQtoXOR<>(quantities);
+            for (int count = 0; count < 500 && plain.hasNext(); count++) {
+                Assert.assertTrue(expansion.hasNext());
+                Assert.assertEquals(plain.next(), expansion.next().toBundle());
+            }
+        }
+    }
+
+    @Test
+    public void testSampleIsUniqueAndConsistent() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 20; i++) {
+            Map<BMBand, Integer> quantities = randomQuantities(random, world.getBands().size(), 5);
+            XORQExpansion<Good> expansion = new XORQExpansion<>(quantities);
+            List<BitSetBundle<Good>> sample = expansion.sample(100, new UniformJavaUtilRandomWrapper(SEED + i));
+            Assert.assertEquals(Math.min(100, expansion.count().longValue()), sample.size());
+            Assert.assertEquals(sample.size(), new HashSet<>(sample).size());
+            for (BitSetBundle<Good> bundle : sample) {
+                assertConsistent(quantities, bundle);
+            }
+            Assert.assertEquals(sample, expansion.sample(100, new UniformJavaUtilRandomWrapper(SEED + i)));
+        }
+    }
+
+    @Test
+    public void testSampleOfSmallExpansionReturnsAllBundles() {
+        BMBand band = world.getBands().get(0);
+        XORQExpansion<Good> expansion = new XORQExpansion<>(Collections.singletonMap(band, 1));
+        List<BitSetBundle<Good>> sample = expansion.sample(band.numberOfLicenses() + 10, new UniformJavaUtilRandomWrapper(SEED));
+        Set<BitSetBundle<Good>> all = new HashSet<>();
+        expansion.forEach(all::add);
+        Assert.assertEquals(all, new HashSet<>(sample));
+        Assert.assertEquals(band.numberOfLicenses(), sample.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() {
+        BMBand band = world.getBands().get(0);
+        XORQExpansion<Good> expansion = new XORQExpansion<>(Collections.singletonMap(band, 1));
+        expansion.get(band.numberOfLicenses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQuantityLargerThanDefinition() {
+        BMBand band = world.getBands().get(0);
+        new XORQExpansion<Good>(Collections.singletonMap(band, band.numberOfLicenses() + 1));
+    }
+
+    private static Map<BMBand, Integer> randomQuantities(Random random, int maxDefinitions, int maxQuantity) {
+        Map<BMBand, Integer> quantities = new LinkedHashMap<>();
+        List<BMBand> bands = new ArrayList<>(world.getBands());
+        Collections.shuffle(bands, random);
+        int numberOfDefinitions = 1 + random.nextInt(Math.min(maxDefinitions, bands.size()));
+        for (int i = 0; i < numberOfDefinitions; i++) {
+            BMBand band = bands.get(i);
+            // The first definition has a positive quantity
+            int minQuantity = i == 0 ? 1 : 0;
+            int upperBound = Math.min(band.numberOfLicenses(), maxQuantity);
+            quantities.put(band, minQuantity + random.nextInt(upperBound - minQuantity + 1));
+        }
+        return quantities;
+    }
+
+    private static void assertConsistent(Map<BMBand, Integer> quantities, BitSetBundle<Good> bundle) {
+        int total = 0;
+        for (Map.Entry<BMBand, Integer> entry : quantities.entrySet()) {
+            int count = 0;
+            for (Good license : bundle) {
+                if (entry.getKey().isPartOf(license)) {
+                    count++;
+                }
+            }
+            Assert.assertEquals((int) entry.getValue(), count);
+            total += count;
+        }
+        Assert.assertEquals(total, bundle.size());
+    }
+}
@@ -58,6 +58,28 @@ public class CatsXORTest {
         }
     }
 
+    /**
+     * The bids of a fixed seed, as generated before the bid generation was based on {@link CATSAdjacencyIndex}
+     */
+    @Test
+    public void testBidsOfFixedSeed() throws UnsupportedBiddingLanguageException {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfGoods(16);
+        model.setNumberOfBidders(15);
+        CATSBidder bidder = model.createNewPopulation(7919L).get(0);
+        CatsXOR valueFunction = bidder.getValueFunction(CatsXOR.class, 31L);
+        Set<String> bundles = valueFunction.getCATSXORBids().stream()
+                .map(bid -> bid.getLicenses().itemIds(",")).collect(Collectors.toSet());
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "1,2,3,6,7,9,10,14",
+                "1,2,5,6,7,10,11,15",
+                "2,5,6,7,9,11,12,15",
+                "3,7,9,10,11,12,14,15",
+                "4,7,9,11,12,13,14,15",
+                "9,10,11,12,13,14,15,16"));
+        Assert.assertEquals(expected, bundles);
+    }
+
     @Test
     public void testNoCapTooSmallWorld() throws UnsupportedBiddingLanguageException {
         long seed = 156567345634L;
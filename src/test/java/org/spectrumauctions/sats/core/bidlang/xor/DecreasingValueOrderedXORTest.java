@@ -0,0 +1,136 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.xor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class DecreasingValueOrderedXORTest {
+
+    private static final long SEED = 56238945L;
+    private static final int NUMBER_OF_GOODS = 10;
+
+    @Test
+    public void testAllBundlesAreInNonIncreasingOrder() {
+        assertSameAsBruteForce(new GlobalSynergyValueModel().createNewPopulation(SEED).get(0));
+        assertSameAsBruteForce(new LocalSynergyValueModel().createNewPopulation(SEED).get(0));
+        assertSameAsBruteForce(new SingleRegionModel().createNewPopulation(SEED).get(0));
+        assertSameAsBruteForce(new MultiRegionModel().createNewPopulation(SEED).get(0));
+        assertSameAsBruteForce(new BaseValueModel().createNewPopulation(SEED).get(0));
+        // CATS values are not monotone
+        for (CATSBidder bidder : new CATSRegionModel().createNewPopulation(SEED)) {
+            assertSameAsBruteForce(bidder);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTopBundlesOfLargeWorlds() throws UnsupportedBiddingLanguageException {
+        MRVMBidder mrvmBidder = new MultiRegionModel().createNewPopulation(SEED).get(0);
+        List<XORValue<?>> mrvmBids = assertTopBundles(mrvmBidder.getValueFunction(DecreasingValueOrderedXOR.class, SEED), mrvmBidder, 50);
+        Assert.assertEquals(mrvmBidder.getWorld().getLicenses().size(), mrvmBids.get(0).getLicenses().size());
+        CATSBidder catsBidder = new CATSRegionModel().createNewPopulation(SEED).get(0);
+        assertTopBundles(catsBidder.getValueFunction(DecreasingValueOrderedXOR.class, SEED), catsBidder, 50);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInadmissibleBoundIsRejected() {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewPopulation(SEED).get(0);
+        XORLanguage<GSVMLicense> language = new DecreasingValueOrderedXOR<>(firstGoods(bidder), bidder,
+                (bundle, removable, value) -> value.subtract(BigDecimal.ONE));
+        language.iterator().hasNext();
+    }
+
+    private static <T extends Good> List<T> firstGoods(Bidder<T> bidder) {
+        List<T> goods = new ArrayList<>((Collection<T>) bidder.getWorld().getLicenses());
+        goods.sort(Comparator.comparingLong(Good::getId));
+        return goods.subList(0, NUMBER_OF_GOODS);
+    }
+
+    private static <T extends Good> void assertSameAsBruteForce(Bidder<T> bidder) {
+        List<T> goods = firstGoods(bidder);
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int mask = 1; mask < 1 << goods.size(); mask++) {
+            Bundle<T> bundle = new Bundle<>();
+            for (int i = 0; i < goods.size(); i++) {
+                if ((mask & 1 << i) != 0) {
+                    bundle.add(goods.get(i));
+                }
+            }
+            expected.add(bidder.calculateValue(bundle));
+        }
+        expected.sort(Comparator.reverseOrder());
+
+        List<BigDecimal> actual = new ArrayList<>();
+        Set<Bundle<T>> bundles = new HashSet<>();
+        for (Iterator<XORValue<T>> iterator = new DecreasingValueOrderedXOR<>(goods, bidder).iterator(); iterator.hasNext(); ) {
+            XORValue<T> bid = iterator.next();
+            Assert.assertTrue(bundles.add(bid.getLicenses()));
+            Assert.assertEquals(0, bidder.calculateValue(bid.getLicenses()).compareTo(bid.value()));
+            actual.add(bid.value());
+        }
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(0, expected.get(i).compareTo(actual.get(i)));
+        }
+    }
+
+    /**
+     * Checks that the returned values are non-increasing, and that no random bundle which was not returned
+     * is more valuable than the last returned bundle.
+     */
+    private static <T extends Good> List<XORValue<?>> assertTopBundles(XORLanguage<T> language, Bidder<T> bidder, int numberOfBids) {
+        List<XORValue<?>> bids = new ArrayList<>();
+        Set<BitSetBundle<T>> bundles = new HashSet<>();
+        Iterator<XORValue<T>> iterator = language.iterator();
+        for (int i = 0; i < numberOfBids; i++) {
+            XORValue<T> bid = iterator.next();
+            if (!bids.isEmpty()) {
+                Assert.assertTrue(bid.value().compareTo(bids.get(bids.size() - 1).value()) <= 0);
+            }
+            Assert.assertTrue(bundles.add(bid.getCompactLicenses()));
+            bids.add(bid);
+        }
+        BigDecimal lastValue = bids.get(bids.size() - 1).value();
+        List<T> goods = new ArrayList<>((Collection<T>) bidder.getWorld().getLicenses());
+        Random random = new Random(SEED);
+        for (int i = 0; i < 500; i++) {
+            Bundle<T> bundle = new Bundle<>();
+            // Mostly large bundles, as these are the most valuable ones for monotone values
+            double probability = 1 - random.nextDouble() * random.nextDouble();
+            for (T good : goods) {
+                if (random.nextDouble() < probability) {
+                    bundle.add(good);
+                }
+            }
+            if (!bundle.isEmpty() && !bundles.contains(BitSetBundle.of(bundle))) {
+                Assert.assertTrue(bidder.calculateValue(bundle).compareTo(lastValue) <= 0);
+            }
+        }
+        return bids;
+    }
+}
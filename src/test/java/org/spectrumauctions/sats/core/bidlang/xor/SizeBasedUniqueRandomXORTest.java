@@ -0,0 +1,116 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.bidlang.xor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMLicense;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.math.CombinatorialNumberSystem;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class SizeBasedUniqueRandomXORTest {
+
+    private static final long SEED = 73458734L;
+
+    @Test
+    public void testUnrankIsInverseOfRank() {
+        for (int n = 0; n <= 10; n++) {
+            CombinatorialNumberSystem numberSystem = new CombinatorialNumberSystem(n);
+            for (int k = 0; k <= n; k++) {
+                long count = numberSystem.size(k);
+                Assert.assertEquals(BigInteger.valueOf(count), CombinatorialNumberSystem.bigBinomial(n, k));
+                Set<List<Integer>> subsets = new HashSet<>();
+                for (long rank = 0; rank < count; rank++) {
+                    int[] subset = numberSystem.unrank(rank, k);
+                    Assert.assertEquals(k, subset.length);
+                    Assert.assertEquals(BigInteger.valueOf(rank), numberSystem.rank(subset));
+                    List<Integer> asList = new ArrayList<>();
+                    for (int element : subset) {
+                        Assert.assertTrue(element >= 0 && element < n);
+                        asList.add(element);
+                    }
+                    subsets.add(asList);
+                }
+                Assert.assertEquals(count, subsets.size());
+            }
+        }
+        // Ranks beyond the range of long
+        CombinatorialNumberSystem numberSystem = new CombinatorialNumberSystem(98);
+        Assert.assertFalse(numberSystem.fitsInLong(49));
+        BigInteger count = numberSystem.bigSize(49);
+        Assert.assertEquals(CombinatorialNumberSystem.bigBinomial(98, 49), count);
+        Random random = new Random(SEED);
+        for (int i = 0; i < 100; i++) {
+            BigInteger rank = new BigInteger(count.bitLength(), random).mod(count);
+            Assert.assertEquals(rank, numberSystem.rank(numberSystem.unrank(rank, 49)));
+        }
+        BigInteger last = count.subtract(BigInteger.ONE);
+        Assert.assertEquals(last, numberSystem.rank(numberSystem.unrank(last, 49)));
+    }
+
+    /**
+     * With few goods, all non-empty bundles are returned exactly once before the iterator stops
+     */
+    @Test
+    public void testAllBundlesAreReturnedOnce() {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewPopulation(SEED).get(0);
+        List<GSVMLicense> goods = new ArrayList<>(bidder.getWorld().getLicenses()).subList(0, 8);
+        SizeBasedUniqueRandomXOR<GSVMLicense> lang = new SizeBasedUniqueRandomXOR<>(goods, new JavaUtilRNGSupplier(SEED), bidder);
+        lang.setDistribution(2, 0.5, 1000);
+        Set<Bundle<GSVMLicense>> bundles = new HashSet<>();
+        Iterator<XORValue<GSVMLicense>> iter = lang.iterator();
+        while (iter.hasNext()) {
+            XORValue<GSVMLicense> value = iter.next();
+            Assert.assertFalse(value.getLicenses().isEmpty());
+            Assert.assertTrue(goods.containsAll(value.getLicenses()));
+            Assert.assertEquals(bidder.calculateValue(value.getLicenses()), value.value());
+            Assert.assertTrue("Bundle returned twice", bundles.add(value.getLicenses()));
+        }
+        Assert.assertEquals((1 << goods.size()) - 1, bundles.size());
+    }
+
+    @Test
+    public void testUniqueAndReproducibleInLargeWorld() throws UnsupportedBiddingLanguageException {
+        MRVMBidder bidder = new MultiRegionModel().createNewPopulation(SEED).get(0);
+        @SuppressWarnings("unchecked")
+        SizeBasedUniqueRandomXOR<MRVMLicense> lang = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED);
+        lang.setDistribution(20, 10, 2000);
+        List<Bundle<MRVMLicense>> first = bundles(lang);
+        Assert.assertEquals(2000, first.size());
+        Assert.assertEquals(first.size(), new HashSet<>(first).size());
+        Assert.assertEquals(first, bundles(lang));
+
+        double meanSize = first.stream().mapToInt(Bundle::size).average().getAsDouble();
+        Assert.assertEquals(20, meanSize, 1);
+
+        @SuppressWarnings("unchecked")
+        SizeBasedUniqueRandomXOR<MRVMLicense> sameSeed = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED);
+        sameSeed.setDistribution(20, 10, 2000);
+        Assert.assertEquals(first, bundles(sameSeed));
+    }
+
+    private static List<Bundle<MRVMLicense>> bundles(SizeBasedUniqueRandomXOR<MRVMLicense> lang) {
+        List<Bundle<MRVMLicense>> bundles = new ArrayList<>();
+        Iterator<XORValue<MRVMLicense>> iter = lang.iterator();
+        while (iter.hasNext()) {
+            bundles.add(iter.next().getLicenses());
+        }
+        return bundles;
+    }
+}
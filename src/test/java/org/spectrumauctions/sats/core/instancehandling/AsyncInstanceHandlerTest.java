@@ -0,0 +1,285 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.instancehandling;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMWorld;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.file.FileException;
+import org.spectrumauctions.sats.core.util.instancehandling.AsyncInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.JSONInstanceHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Michael Weiss
+ */
+public class AsyncInstanceHandlerTest {
+
+    private static final long SEED = 23984L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWrittenInstancesAreRestored() throws Exception {
+        JSONInstanceHandler json = JSONInstanceHandler.forFolder(folder.newFolder());
+        try (AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(json).setBatchSize(3).build();
+             InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(SEED);
+            List<MRVMBidder> population = model.createPopulation(world, SEED);
+            handler.flush();
+            Assert.assertEquals(0, handler.getPendingWrites());
+            // Read directly from the decorated handler, after the flush
+            Assert.assertEquals(world, json.readWorld(MRVMWorld.class, world.getId()));
+            Assert.assertEquals(new HashSet<>(population), new HashSet<>(
+                    json.readPopulationWithUnknownTypes(MRVMBidder.class, world, population.get(0).getPopulation())));
+        }
+    }
+
+    @Test
+    public void testReadsSeeEnqueuedWrites() throws Exception {
+        JSONInstanceHandler json = JSONInstanceHandler.forFolder(folder.newFolder());
+        try (AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(json).build();
+             InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(SEED);
+            List<MRVMBidder> population = model.createPopulation(world, SEED);
+            // No explicit flush
+            Assert.assertEquals(new HashSet<>(population), new HashSet<>(world.restorePopulation(population.get(0).getPopulation())));
+        }
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        BlockingHandler blocking = new BlockingHandler();
+        GSVMWorld world = createWorldInMemory();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(blocking)
+                .setQueueCapacity(2).setBatchSize(1).build()) {
+            Future<?> producer = executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    handler.writeWorld(world);
+                }
+            });
+            // The writer holds one instance, and the queue is full with two more
+            try {
+                producer.get(200, TimeUnit.MILLISECONDS);
+                Assert.fail("Producer was not blocked");
+            } catch (TimeoutException e) {
+                // Expected
+            }
+            Assert.assertTrue(handler.getPendingWrites() <= 4);
+            try {
+                handler.flush(50, TimeUnit.MILLISECONDS);
+                Assert.fail("Flush returned before the writes were done");
+            } catch (TimeoutException e) {
+                // Expected
+            }
+            blocking.release.countDown();
+            producer.get();
+            handler.flush();
+            Assert.assertEquals(10, blocking.writes.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailuresAreReportedOnFlush() throws Exception {
+        FailingHandler failing = new FailingHandler();
+        GSVMWorld world = createWorldInMemory();
+        try (AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(failing).build()) {
+            handler.writeWorld(world);
+            handler.writeWorld(world);
+            try {
+                handler.flush();
+                Assert.fail("Failure was not reported");
+            } catch (FileException e) {
+                Assert.assertEquals(FailingHandler.MESSAGE, e.getCause().getMessage());
+            }
+            // Reported only once
+            handler.flush();
+            Assert.assertEquals(0, handler.getPendingWrites());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoWritesAfterClose() throws Exception {
+        GSVMWorld world = createWorldInMemory();
+        AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(InMemoryInstanceHandler.getInstance()).build();
+        handler.close();
+        handler.writeWorld(world);
+    }
+
+    /**
+     * Every write racing with close is either rejected or written, but never dropped
+     */
+    @Test
+    public void testWritesRacingCloseAreNotLost() throws Exception {
+        CountingHandler counting = new CountingHandler();
+        GSVMWorld world = createWorldInMemory();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(counting).setQueueCapacity(8).build();
+            AtomicInteger accepted = new AtomicInteger();
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                producers.add(executor.submit(() -> {
+                    try {
+                        while (true) {
+                            handler.writeWorld(world);
+                            accepted.incrementAndGet();
+                        }
+                    } catch (IllegalStateException e) {
+                        // Handler is closed
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            handler.close();
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+            Assert.assertEquals(accepted.get(), counting.writes.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorTerminatesWriter() throws Exception {
+        GSVMWorld world = createWorldInMemory();
+        AsyncInstanceHandler handler = new AsyncInstanceHandler.Builder(new ErrorHandler()).build();
+        handler.writeWorld(world);
+        try {
+            handler.flush();
+            Assert.fail("Terminated writer was not reported");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getCause() instanceof ErrorHandler.WriteError);
+        }
+    }
+
+    private static GSVMWorld createWorldInMemory() {
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(InMemoryInstanceHandler.getInstance())) {
+            return new GlobalSynergyValueModel().createWorld(SEED);
+        }
+    }
+
+    /**
+     * Blocks all writes until released
+     */
+    private static class BlockingHandler extends StubHandler {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void writeWorld(World world) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            writes.incrementAndGet();
+        }
+    }
+
+    private static class FailingHandler extends StubHandler {
+
+        private static final String MESSAGE = "Disk full";
+
+        @Override
+        public void writeWorld(World world) {
+            throw new FileException(MESSAGE);
+        }
+    }
+
+    private static class CountingHandler extends StubHandler {
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void writeWorld(World world) {
+            writes.incrementAndGet();
+        }
+    }
+
+    private static class ErrorHandler extends StubHandler {
+
+        private static class WriteError extends Error {
+        }
+
+        @Override
+        public void writeWorld(World world) {
+            throw new WriteError();
+        }
+    }
+
+    private static abstract class StubHandler extends InstanceHandler {
+
+        @Override
+        public void writeBidder(Bidder<?> bidder) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends World> T readWorld(Class<T> type, long world) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Long> getPopulationIds(long worldId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Bidder<?>> T readBidder(Class<T> type, World world, long populationId, long bidderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Bidder<?>> T readBidderWithUnknownType(Class<T> bidderSuperType, World world, long populationId, long bidderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Bidder<?>> Collection<T> readPopulation(Class<T> type, World world, long populationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Bidder<?>> Collection<T> readPopulationWithUnknownTypes(Class<T> bidderSuperType, World world, long populationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getNextWorldId() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getNextPopulationId(long worldId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.instancehandling;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.spectrumauctions.sats.core.TestSuite;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.file.FileException;
+import org.spectrumauctions.sats.core.util.instancehandling.BinaryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class BinaryInstanceHandlerTest {
+
+    private static final long SEED = 9823475L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Worlds and populations of all models are restored equally by a new handler, which has to build its index from the files
+     */
+    @Test
+    public void testRoundTripAllModels() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler writer = BinaryInstanceHandler.forFolder(storage);
+        List<World> worlds = new ArrayList<>();
+        List<Set<Bidder<?>>> populations = new ArrayList<>();
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(writer)) {
+            for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+                World world = model.createWorld(SEED);
+                worlds.add(world);
+                populations.add(createPopulation(model, world));
+            }
+        }
+        // One file per world, independent of the number of bidders
+        Assert.assertEquals(worlds.size(), storage.listFiles().length);
+
+        BinaryInstanceHandler reader = BinaryInstanceHandler.forFolder(storage);
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(reader)) {
+            for (int i = 0; i < worlds.size(); i++) {
+                World original = worlds.get(i);
+                World restored = reader.readWorld(original.getClass(), original.getId());
+                Assert.assertEquals(original, restored);
+                long populationId = populations.get(i).iterator().next().getPopulation();
+                Assert.assertEquals(Collections.singletonList(populationId), new ArrayList<>(reader.getPopulationIds(original.getId())));
+                Assert.assertEquals(populations.get(i), new HashSet<>(restored.restorePopulation(populationId)));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <W extends World, B extends Bidder<?>> Set<Bidder<?>> createPopulation(DefaultModel<W, B> model, World world) {
+        return new HashSet<>(model.createPopulation((W) world, SEED));
+    }
+
+    @Test
+    public void testRandomAccessByBidderId() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler handler = BinaryInstanceHandler.forFolder(storage);
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(SEED);
+            List<MRVMBidder> first = model.createPopulation(world, SEED);
+            List<MRVMBidder> second = model.createPopulation(world, SEED + 1);
+            Assert.assertEquals(Arrays.asList(first.get(0).getPopulation(), second.get(0).getPopulation()),
+                    new ArrayList<>(handler.getPopulationIds(world.getId())));
+
+            BinaryInstanceHandler reader = BinaryInstanceHandler.forFolder(storage);
+            for (int i = second.size() - 1; i >= 0; i--) {
+                MRVMBidder bidder = second.get(i);
+                Assert.assertEquals(bidder, reader.readBidderWithUnknownType(MRVMBidder.class, world, bidder.getPopulation(), bidder.getId()));
+                Assert.assertEquals(bidder, reader.readBidder(bidder.getClass(), world, bidder.getPopulation(), bidder.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler handler = BinaryInstanceHandler.forFolder(storage);
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(SEED);
+            // Simulates an interrupted write
+            Files.write(handler.containerFile(world.getId()).toPath(), new byte[]{3, 0, 0, 0}, StandardOpenOption.APPEND);
+
+            BinaryInstanceHandler reader = BinaryInstanceHandler.forFolder(storage);
+            Assert.assertEquals(world, reader.readWorld(MRVMWorld.class, world.getId()));
+            try (InstanceHandler.Scope readerScope = InstanceHandler.withDefaultHandler(reader)) {
+                List<MRVMBidder> population = model.createPopulation(world, SEED);
+                Assert.assertEquals(new HashSet<>(population), new HashSet<>(BinaryInstanceHandler.forFolder(storage)
+                        .readPopulationWithUnknownTypes(MRVMBidder.class, world, population.get(0).getPopulation())));
+            }
+        }
+    }
+
+    /**
+     * Reading an unknown world fails without creating its container, hence its id is not skipped afterwards
+     */
+    @Test
+    public void testReadingUnknownWorldDoesNotCreateContainer() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler handler = BinaryInstanceHandler.forFolder(storage);
+        try {
+            handler.readWorld(MRVMWorld.class, 0);
+            Assert.fail("Reading an unknown world should fail");
+        } catch (FileException e) {
+            // expected
+        }
+        try {
+            handler.getNextPopulationId(0);
+            Assert.fail("Reserving a population of an unknown world should fail");
+        } catch (FileException e) {
+            // expected
+        }
+        Assert.assertEquals(0, storage.listFiles().length);
+        Assert.assertEquals(0, handler.getNextWorldId());
+    }
+
+    /**
+     * Containers which are released because too many are open are re-indexed on their next access
+     */
+    @Test
+    public void testReleasedContainersAreReopened() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler handler = BinaryInstanceHandler.forFolder(storage, 1);
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            List<MRVMWorld> worlds = new ArrayList<>();
+            List<List<MRVMBidder>> populations = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                MRVMWorld world = model.createWorld(SEED + i);
+                worlds.add(world);
+                populations.add(model.createPopulation(world, SEED + i));
+            }
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < worlds.size(); i++) {
+                    MRVMWorld world = worlds.get(i);
+                    Assert.assertEquals(world, handler.readWorld(MRVMWorld.class, world.getId()));
+                    long populationId = populations.get(i).get(0).getPopulation();
+                    Assert.assertEquals(new HashSet<>(populations.get(i)),
+                            new HashSet<>(handler.readPopulationWithUnknownTypes(MRVMBidder.class, world, populationId)));
+                }
+                // A second population is appended to a container which was released in the meantime
+                populations.set(0, model.createPopulation(worlds.get(0), SEED + 10));
+            }
+        }
+    }
+
+    @Test(expected = FileException.class)
+    public void testNewerSchemaVersionIsRejected() throws Exception {
+        File storage = folder.newFolder();
+        BinaryInstanceHandler handler = BinaryInstanceHandler.forFolder(storage);
+        long worldId = handler.getNextWorldId();
+        try (RandomAccessFile file = new RandomAccessFile(handler.containerFile(worldId), "rw")) {
+            file.seek(4);
+            file.writeShort(BinaryInstanceHandler.SCHEMA_VERSION + 1);
+        }
+        BinaryInstanceHandler.forFolder(storage).getPopulationIds(worldId);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.instancehandling;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.spectrumauctions.sats.core.model.PopulationGenerator;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.file.FileException;
+import org.spectrumauctions.sats.core.util.instancehandling.BinaryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.JSONInstanceHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * @author Michael Weiss
+ */
+public class ConcurrentInstanceHandlingTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInMemoryIdsAreUnique() throws Exception {
+        InstanceHandler handler = InMemoryInstanceHandler.getInstance();
+        assertUniqueIds(handler::getNextWorldId);
+        assertUniqueIds(() -> handler.getNextPopulationId(0));
+    }
+
+    @Test
+    public void testJSONIdsAreUnique() throws Exception {
+        InstanceHandler handler = JSONInstanceHandler.forFolder(folder.newFolder());
+        assertUniqueIds(handler::getNextWorldId);
+        long worldId = handler.getNextWorldId();
+        assertUniqueIds(() -> handler.getNextPopulationId(worldId));
+    }
+
+    @Test
+    public void testBinaryIdsAreUnique() throws Exception {
+        InstanceHandler handler = BinaryInstanceHandler.forFolder(folder.newFolder());
+        assertUniqueIds(handler::getNextWorldId);
+        long worldId = handler.getNextWorldId();
+        assertUniqueIds(() -> handler.getNextPopulationId(worldId));
+    }
+
+    /**
+     * A population folder can not be created if its world folder does not exist, which must not be mistaken for
+     * an already reserved id
+     */
+    @Test(expected = FileException.class, timeout = 10000)
+    public void testJSONPopulationIdOfMissingWorldFails() throws Exception {
+        InstanceHandler handler = JSONInstanceHandler.forFolder(folder.newFolder());
+        handler.getNextPopulationId(42);
+    }
+
+    @Test
+    public void testJSONHandlersOfSameFolderDoNotCollide() throws Exception {
+        java.io.File sharedFolder = folder.newFolder();
+        InstanceHandler first = JSONInstanceHandler.forFolder(sharedFolder);
+        InstanceHandler second = JSONInstanceHandler.forFolder(sharedFolder);
+        assertUniqueIds(new Supplier<Long>() {
+            private final ThreadLocal<Boolean> useFirst = ThreadLocal.withInitial(() -> Thread.currentThread().getId() % 2 == 0);
+
+            @Override
+            public Long get() {
+                return useFirst.get() ? first.getNextWorldId() : second.getNextWorldId();
+            }
+        });
+    }
+
+    @Test
+    public void testScopedDefaultHandler() throws Exception {
+        InstanceHandler global = InstanceHandler.getDefaultHandler();
+        InstanceHandler outer = JSONInstanceHandler.forFolder(folder.newFolder());
+        InstanceHandler inner = InMemoryInstanceHandler.getInstance();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InstanceHandler.Scope outerScope = InstanceHandler.withDefaultHandler(outer)) {
+            Assert.assertSame(outer, InstanceHandler.getDefaultHandler());
+            try (InstanceHandler.Scope innerScope = InstanceHandler.withDefaultHandler(inner)) {
+                Assert.assertSame(inner, InstanceHandler.getDefaultHandler());
+                // Other threads are not affected
+                Assert.assertSame(global, executor.submit(InstanceHandler::getDefaultHandler).get());
+            }
+            Assert.assertSame(outer, InstanceHandler.getDefaultHandler());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertSame(global, InstanceHandler.getDefaultHandler());
+    }
+
+    @Test
+    public void testParallelPopulationUsesScopedHandler() throws Exception {
+        java.io.File simulationFolder = folder.newFolder();
+        InstanceHandler handler = JSONInstanceHandler.forFolder(simulationFolder);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (InstanceHandler.Scope scope = InstanceHandler.withDefaultHandler(handler)) {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(3487L);
+            List<MRVMBidder> bidders = model.createPopulation(world, 3487L, PopulationGenerator.parallel(executor));
+            for (MRVMBidder bidder : bidders) {
+                MRVMBidder restored = handler.readBidderWithUnknownType(MRVMBidder.class, world, bidder.getPopulation(), bidder.getId());
+                Assert.assertEquals(bidder.getId(), restored.getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertUniqueIds(Supplier<Long> idSupplier) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(idSupplier.get());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            Set<Long> allIds = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                allIds.addAll(future.get());
+            }
+            Assert.assertEquals(THREADS * IDS_PER_THREAD, allIds.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
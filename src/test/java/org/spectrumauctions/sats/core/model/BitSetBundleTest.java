@@ -0,0 +1,144 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.TestSuite;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMLicense;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Michael Weiss
+ */
+public class BitSetBundleTest {
+
+    private static final long SEED = 87234L;
+
+    @Test
+    public void testConversionRoundTrip() {
+        MRVMWorld world = new MultiRegionModel().createWorld(SEED);
+        List<MRVMLicense> licenses = new ArrayList<>(world.getLicenses());
+        Random random = new Random(SEED);
+        for (int i = 0; i < 50; i++) {
+            Bundle<MRVMLicense> bundle = randomBundle(licenses, random);
+            BitSetBundle<MRVMLicense> compact = BitSetBundle.of(bundle);
+            Assert.assertEquals(bundle.size(), compact.size());
+            Assert.assertEquals(bundle, compact.toBundle());
+            List<MRVMLicense> iterated = new ArrayList<>();
+            compact.forEach(iterated::add);
+            Assert.assertEquals(new ArrayList<>(bundle), iterated);
+            for (MRVMLicense license : licenses) {
+                Assert.assertEquals(bundle.contains(license), compact.contains(license));
+            }
+        }
+        BitSetBundle<MRVMLicense> empty = BitSetBundle.of(new Bundle<>());
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertTrue(empty.toBundle().isEmpty());
+        Assert.assertEquals(-1, empty.nextSetId(0));
+    }
+
+    @Test
+    public void testSetOperations() {
+        MRVMWorld world = new MultiRegionModel().createWorld(SEED);
+        List<MRVMLicense> licenses = new ArrayList<>(world.getLicenses());
+        Random random = new Random(SEED);
+        for (int i = 0; i < 50; i++) {
+            Bundle<MRVMLicense> first = randomBundle(licenses, random);
+            Bundle<MRVMLicense> second = randomBundle(licenses, random);
+            BitSetBundle<MRVMLicense> compactFirst = BitSetBundle.of(first);
+            BitSetBundle<MRVMLicense> compactSecond = BitSetBundle.of(second);
+
+            Bundle<MRVMLicense> union = new Bundle<>(first);
+            union.addAll(second);
+            Assert.assertEquals(BitSetBundle.of(union), compactFirst.union(compactSecond));
+
+            Bundle<MRVMLicense> intersection = new Bundle<>(first);
+            intersection.retainAll(second);
+            Assert.assertEquals(BitSetBundle.of(intersection), compactFirst.intersection(compactSecond));
+            Assert.assertEquals(!intersection.isEmpty(), compactFirst.intersects(compactSecond));
+
+            Bundle<MRVMLicense> difference = new Bundle<>(first);
+            difference.removeAll(second);
+            Assert.assertEquals(BitSetBundle.of(difference), compactFirst.difference(compactSecond));
+
+            Assert.assertTrue(compactFirst.intersection(compactSecond).isSubsetOf(compactFirst));
+            Assert.assertEquals(second.containsAll(first), compactFirst.isSubsetOf(compactSecond));
+        }
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        MRVMWorld world = new MultiRegionModel().createWorld(SEED);
+        List<MRVMLicense> licenses = new ArrayList<>(world.getLicenses());
+        Bundle<MRVMLicense> bundle = new Bundle<>();
+        for (long id = 0; id < 3; id++) {
+            bundle.add((MRVMLicense) world.getLicenseById(id));
+        }
+        BitSetBundle<MRVMLicense> compact = BitSetBundle.of(bundle);
+        BitSetBundle<MRVMLicense> fromIds = BitSetBundle.ofIds(world, 2, 0, 1);
+        Assert.assertEquals(compact, fromIds);
+        Assert.assertEquals(compact.hashCode(), fromIds.hashCode());
+
+        // Trailing empty words must not influence equality
+        BitSetBundle<MRVMLicense> large = BitSetBundle.ofIds(world, 0, 1, 2, licenses.size() - 1);
+        BitSetBundle<MRVMLicense> last = BitSetBundle.ofIds(world, licenses.size() - 1);
+        Assert.assertEquals(compact, large.difference(last));
+        Assert.assertEquals(compact.hashCode(), large.difference(last).hashCode());
+        Assert.assertEquals(BitSetBundle.empty(), compact.difference(compact));
+    }
+
+    @Test(expected = UnequalWorldsException.class)
+    public void testUnequalWorlds() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world1 = model.createWorld(SEED);
+        MRVMWorld world2 = model.createWorld(SEED);
+        BitSetBundle<MRVMLicense> first = BitSetBundle.ofIds(world1, 0);
+        BitSetBundle<MRVMLicense> second = BitSetBundle.ofIds(world2, 0);
+        first.union(second);
+    }
+
+    /**
+     * Checks for all models that bidders have the same value for a {@link Bundle} and the corresponding {@link BitSetBundle}
+     */
+    @Test
+    public void testSameValuesAsBundle() {
+        Random random = new Random(SEED);
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            List<? extends Bidder<?>> bidders = model.createNewPopulation(SEED);
+            for (Bidder<?> bidder : bidders) {
+                checkSameValues(bidder, random);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Good> void checkSameValues(Bidder<T> bidder, Random random) {
+        List<T> licenses = new ArrayList<>((Collection<T>) bidder.getWorld().getLicenses());
+        for (int i = 0; i < 10; i++) {
+            Bundle<T> bundle = randomBundle(licenses, random);
+            Assert.assertEquals(bidder.calculateValue(bundle), bidder.calculateValue(BitSetBundle.of(bundle)));
+        }
+        Bundle<T> complete = new Bundle<>(licenses);
+        Assert.assertEquals(bidder.calculateValue(complete), bidder.calculateValue(BitSetBundle.of(complete)));
+    }
+
+    private static <T extends Good> Bundle<T> randomBundle(List<T> licenses, Random random) {
+        Bundle<T> bundle = new Bundle<>();
+        for (T license : licenses) {
+            if (random.nextBoolean()) {
+                bundle.add(license);
+            }
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.bvm.BMBand;
+import org.spectrumauctions.sats.core.model.bvm.BMBidder;
+import org.spectrumauctions.sats.core.model.bvm.BMLicense;
+import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SRVMLicense;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Compares the demand of {@link DemandQuery} bidders with a complete enumeration of the quantities per band
+ *
+ * @author Michael Weiss
+ */
+public class DemandQueryTest {
+
+    private static final long SEED = 98234L;
+    private static final double[] PRICE_LEVELS = {0, 0.2, 0.5, 1, 2, 10};
+
+    @Test
+    public void testSRVMDemand() {
+        Random random = new Random(SEED);
+        for (SRVMBidder bidder : new SingleRegionModel().createNewPopulation(SEED)) {
+            List<List<SRVMLicense>> licensesPerBand = new ArrayList<>();
+            for (SRVMBand band : bidder.getWorld().getBands()) {
+                licensesPerBand.add(band.getLicenses());
+            }
+            checkDemand(bidder, licensesPerBand, random);
+        }
+    }
+
+    @Test
+    public void testBVMDemand() {
+        Random random = new Random(SEED);
+        List<BMBidder> bidders = new ArrayList<>(new BaseValueModel().createNewPopulation(SEED));
+        bidders.addAll(new MultiBandValueModel().createNewPopulation(SEED));
+        for (BMBidder bidder : bidders) {
+            List<List<BMLicense>> licensesPerBand = new ArrayList<>();
+            for (BMBand band : bidder.getWorld().getBands()) {
+                licensesPerBand.add(new ArrayList<>(band.getLicenses()));
+            }
+            checkDemand(bidder, licensesPerBand, random);
+        }
+    }
+
+    private static <T extends Good, B extends Bidder<T> & DemandQuery<T>> void checkDemand(
+            B bidder, List<List<T>> licensesPerBand, Random random) {
+        double averageValue = 0;
+        for (List<T> licenses : licensesPerBand) {
+            averageValue += bidder.calculateValue(new Bundle<>(licenses)).doubleValue();
+        }
+        averageValue /= bidder.getWorld().getNumberOfGoods();
+        for (double priceLevel : PRICE_LEVELS) {
+            Map<T, BigDecimal> prices = new HashMap<>();
+            for (List<T> licenses : licensesPerBand) {
+                for (T license : licenses) {
+                    prices.put(license, BigDecimal.valueOf(priceLevel * averageValue * 2 * random.nextDouble()));
+                }
+            }
+            DemandQueryResult<T> demand = bidder.getDemand(prices);
+            Assert.assertEquals(bidder.calculateValue(demand.getBundle()), demand.getValue());
+            double optimum = enumerate(bidder, licensesPerBand, prices, 0, new Bundle<>());
+            Assert.assertEquals(optimum, demand.getUtility().doubleValue(), 1e-6 * Math.max(1, Math.abs(optimum)));
+        }
+    }
+
+    /**
+     * @return the highest utility over all quantities per band, where the cheapest licenses of every band are chosen
+     */
+    private static <T extends Good> double enumerate(Bidder<T> bidder, List<List<T>> licensesPerBand,
+                                                     Map<T, BigDecimal> prices, int band, Bundle<T> chosen) {
+        if (band == licensesPerBand.size()) {
+            double utility = bidder.calculateValue(chosen).doubleValue();
+            for (T license : chosen) {
+                utility -= prices.get(license).doubleValue();
+            }
+            return utility;
+        }
+        List<T> licenses = new ArrayList<>(licensesPerBand.get(band));
+        licenses.sort(Comparator.comparing(prices::get));
+        double best = Double.NEGATIVE_INFINITY;
+        for (int quantity = 0; quantity <= licenses.size(); quantity++) {
+            Bundle<T> bundle = new Bundle<>(chosen);
+            bundle.addAll(licenses.subList(0, quantity));
+            best = Math.max(best, enumerate(bidder, licensesPerBand, prices, band + 1, bundle));
+        }
+        return best;
+    }
+}
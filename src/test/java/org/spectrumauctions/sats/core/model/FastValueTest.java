@@ -0,0 +1,66 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.TestSuite;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential test of {@link Bidder#calculateValueFast(BitSetBundle)} against {@link Bidder#calculateValue(Bundle)}
+ * for all models.
+ *
+ * @author Michael Weiss
+ */
+public class FastValueTest {
+
+    private static final long SEED = 2348752L;
+    private static final double[] DENSITIES = {0.05, 0.2, 0.5, 0.8, 1};
+
+    @Test
+    public void testFastValuesWithinErrorBound() {
+        Random random = new Random(SEED);
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            for (long seed = SEED; seed < SEED + 3; seed++) {
+                List<? extends Bidder<?>> bidders = model.createNewPopulation(seed);
+                for (Bidder<?> bidder : bidders) {
+                    checkFastValues(bidder, random);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Good> void checkFastValues(Bidder<T> bidder, Random random) {
+        List<T> licenses = new ArrayList<>((Collection<T>) bidder.getWorld().getLicenses());
+        checkFastValue(bidder, new Bundle<>());
+        for (double density : DENSITIES) {
+            for (int i = 0; i < 5; i++) {
+                Bundle<T> bundle = new Bundle<>();
+                for (T license : licenses) {
+                    if (random.nextDouble() < density) {
+                        bundle.add(license);
+                    }
+                }
+                checkFastValue(bidder, bundle);
+            }
+        }
+    }
+
+    private <T extends Good> void checkFastValue(Bidder<T> bidder, Bundle<T> bundle) {
+        BigDecimal exact = bidder.calculateValue(bundle);
+        double fast = bidder.calculateValueFast(bundle);
+        double tolerance = Bidder.FAST_VALUE_RELATIVE_ERROR * Math.max(1, Math.abs(exact.doubleValue()));
+        Assert.assertEquals("Fast value of " + bidder.getClass().getSimpleName() + " out of error bound",
+                exact.doubleValue(), fast, tolerance);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.TestSuite;
+import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
+import org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Michael Weiss
+ */
+public class PopulationGeneratorTest {
+
+    private static final long SEED = 983475L;
+
+    private InstanceHandler previousHandler;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        previousHandler = InstanceHandler.getDefaultHandler();
+        InstanceHandler.setDefaultHandler(InMemoryInstanceHandler.getInstance());
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        InstanceHandler.setDefaultHandler(previousHandler);
+    }
+
+    @Test
+    public void testDefaultGeneratorUnchanged() {
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            checkDefaultGeneratorUnchanged(model);
+        }
+    }
+
+    private <W extends World, B extends Bidder<? extends Good>> void checkDefaultGeneratorUnchanged(DefaultModel<W, B> model) {
+        W world = model.createWorld(SEED);
+        List<B> expected = model.createPopulation(world, SEED);
+        List<B> actual = model.createPopulation(world, SEED, PopulationGenerator.DEFAULT);
+        assertSamePopulation(expected, actual);
+    }
+
+    @Test
+    public void testParallelIdenticalToSequential() {
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            checkParallelIdenticalToSequential(model);
+        }
+    }
+
+    private <W extends World, B extends Bidder<? extends Good>> void checkParallelIdenticalToSequential(DefaultModel<W, B> model) {
+        W world = model.createWorld(SEED);
+        List<B> sequential = model.createPopulation(world, SEED, PopulationGenerator.sequential());
+        List<B> onExecutor = model.createPopulation(world, SEED, PopulationGenerator.parallel(executor));
+        List<B> onForkJoinPool = model.createPopulation(world, SEED, PopulationGenerator.parallel(new ForkJoinPool(3)));
+        assertSamePopulation(sequential, onExecutor);
+        assertSamePopulation(sequential, onForkJoinPool);
+        // The per-bidder seeds must actually be used
+        List<B> otherSeed = model.createPopulation(world, SEED + 1, PopulationGenerator.parallel(executor));
+        Assert.assertNotEquals(json(sequential.get(0)), json(otherSeed.get(0)));
+    }
+
+    @Test
+    public void testBatchIdenticalToSequential() {
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            checkBatchIdenticalToSequential(model);
+        }
+    }
+
+    private <W extends World, B extends Bidder<? extends Good>> void checkBatchIdenticalToSequential(DefaultModel<W, B> model) {
+        List<PopulationGenerator.Instance<W, B>> sequential = model.createInstances(5, SEED, PopulationGenerator.sequential());
+        List<PopulationGenerator.Instance<W, B>> parallel = model.createInstances(5, SEED, PopulationGenerator.parallel(executor));
+        Assert.assertEquals(5, parallel.size());
+        Random random = new Random(SEED);
+        for (int i = 0; i < sequential.size(); i++) {
+            List<B> expected = sequential.get(i).getPopulation();
+            List<B> actual = parallel.get(i).getPopulation();
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertSameValues(expected.get(j), actual.get(j), random);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionsArePropagated() {
+        List<PopulationGenerator.BidderFactory<Bidder<?>>> factories = new ArrayList<>();
+        factories.add(rng -> {
+            throw new IllegalStateException("Failing factory");
+        });
+        PopulationGenerator.parallel(executor).createBidders(factories, new JavaUtilRNGSupplier(SEED));
+    }
+
+    private static <B extends Bidder<?>> void assertSamePopulation(List<B> expected, List<B> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            Assert.assertEquals(json(expected.get(i)), json(actual.get(i)));
+        }
+    }
+
+    /**
+     * @return the serialized bidder, without the population id
+     */
+    private static String json(Bidder<?> bidder) {
+        GsonWrapper gson = GsonWrapper.getInstance();
+        JsonObject json = gson.getGson().toJsonTree(bidder).getAsJsonObject();
+        json.remove("population");
+        return json.toString();
+    }
+
+    /**
+     * Compares bidders of different worlds, by querying the values of bundles with the same license ids
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void assertSameValues(Bidder expected, Bidder actual, Random random) {
+        Assert.assertEquals(expected.getClass(), actual.getClass());
+        Assert.assertEquals(expected.getId(), actual.getId());
+        Collection<? extends Good> licenses = expected.getWorld().getLicenses();
+        Assert.assertEquals(licenses.size(), actual.getWorld().getLicenses().size());
+        for (int i = 0; i < 5; i++) {
+            List<Long> ids = new ArrayList<>();
+            for (Good license : licenses) {
+                if (random.nextBoolean()) {
+                    ids.add(license.getId());
+                }
+            }
+            long[] idArray = ids.stream().mapToLong(Long::longValue).toArray();
+            BitSetBundle expectedBundle = BitSetBundle.ofIds(expected.getWorld(), idArray);
+            BitSetBundle actualBundle = BitSetBundle.ofIds(actual.getWorld(), idArray);
+            Assert.assertEquals(expected.calculateValue(expectedBundle), actual.calculateValue(actualBundle));
+        }
+    }
+}
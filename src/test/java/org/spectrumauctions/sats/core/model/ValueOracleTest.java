@@ -0,0 +1,196 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.TestSuite;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValue;
+import org.spectrumauctions.sats.core.bidlang.generic.GenericValueOracle;
+import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Michael Weiss
+ */
+public class ValueOracleTest {
+
+    private static final long SEED = 652342L;
+
+    @Test
+    public void testSameValuesAsBidder() {
+        Random random = new Random(SEED);
+        for (DefaultModel<?, ?> model : TestSuite.getAllModelAccessors()) {
+            for (Bidder<?> bidder : model.createNewPopulation(SEED)) {
+                checkSameValues(bidder, random);
+            }
+        }
+    }
+
+    private <T extends Good> void checkSameValues(Bidder<T> bidder, Random random) {
+        ValueOracle<T> oracle = ValueOracle.of(bidder);
+        List<Bundle<T>> bundles = randomBundles(bidder, random, 10);
+        for (Bundle<T> bundle : bundles) {
+            Assert.assertEquals(bidder.calculateValue(bundle), oracle.calculateValue(bundle));
+        }
+        for (Bundle<T> bundle : bundles) {
+            Assert.assertEquals(bidder.calculateValue(bundle), oracle.calculateValue(BitSetBundle.of(bundle)));
+        }
+        Assert.assertEquals(new HashSet<>(bundles).size(), oracle.getMissCount());
+        Assert.assertEquals(2 * bundles.size() - oracle.getMissCount(), oracle.getHitCount());
+    }
+
+    @Test
+    public void testSizeBasedEviction() {
+        LSVMBidder bidder = new LocalSynergyValueModel().createNewPopulation(SEED).get(0);
+        ValueOracle<LSVMLicense> oracle = new ValueOracle.Builder<>(bidder).setMaximumSize(5).build();
+        for (Bundle<LSVMLicense> bundle : randomBundles(bidder, new Random(SEED), 50)) {
+            oracle.calculateValue(bundle);
+        }
+        Assert.assertTrue(oracle.size() <= 5);
+        Assert.assertTrue(oracle.getEvictionCount() >= 50 - 5 - oracle.getHitCount());
+        Assert.assertTrue(oracle.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testWeightBasedEviction() {
+        LSVMBidder bidder = new LocalSynergyValueModel().createNewPopulation(SEED).get(0);
+        BitSetBundle<LSVMLicense> completeBundle = BitSetBundle.of(new Bundle<>(bidder.getWorld().getLicenses()));
+        long maxWeight = 4 * ValueOracle.weight(completeBundle);
+        ValueOracle<LSVMLicense> oracle = new ValueOracle.Builder<>(bidder).setMaximumWeight(maxWeight).build();
+        long totalWeight = 0;
+        for (Bundle<LSVMLicense> bundle : randomBundles(bidder, new Random(SEED), 50)) {
+            oracle.calculateValue(bundle);
+            totalWeight += ValueOracle.weight(BitSetBundle.of(bundle));
+        }
+        Assert.assertTrue(totalWeight > maxWeight);
+        Assert.assertTrue(oracle.getEvictionCount() > 0);
+        Assert.assertTrue(oracle.size() * ValueOracle.ENTRY_OVERHEAD_BYTES <= maxWeight);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        LSVMBidder bidder = new LocalSynergyValueModel().createNewPopulation(SEED).get(0);
+        List<Bundle<LSVMLicense>> bundles = randomBundles(bidder, new Random(SEED), 20);
+        Map<Bundle<LSVMLicense>, BigDecimal> expected = new HashMap<>();
+        for (Bundle<LSVMLicense> bundle : bundles) {
+            expected.put(bundle, bidder.calculateValue(bundle));
+        }
+        ValueOracle<LSVMLicense> oracle = new ValueOracle.Builder<>(bidder).setConcurrencyLevel(8).build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int offset = thread;
+                results.add(executor.submit(() -> {
+                    boolean allEqual = true;
+                    for (int i = 0; i < 10 * bundles.size(); i++) {
+                        Bundle<LSVMLicense> bundle = bundles.get((i + offset) % bundles.size());
+                        allEqual &= expected.get(bundle).equals(oracle.calculateValue(bundle));
+                    }
+                    return allEqual;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Every value is only computed once, even if queried concurrently
+        Assert.assertEquals(expected.size(), oracle.getComputationCount());
+        Assert.assertEquals(8 * 10 * bundles.size(), oracle.getHitCount() + oracle.getMissCount());
+    }
+
+    @Test
+    public void testXORLanguageWithOracle() throws UnsupportedBiddingLanguageException {
+        LSVMBidder bidder = new LocalSynergyValueModel().createNewPopulation(SEED).get(0);
+        ValueOracle<LSVMLicense> oracle = ValueOracle.of(bidder);
+        SizeBasedUniqueRandomXOR<LSVMLicense> plain = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED);
+        plain.setDistribution(5, 2, 50);
+        for (int round = 0; round < 2; round++) {
+            SizeBasedUniqueRandomXOR<LSVMLicense> cached = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, SEED);
+            cached.setDistribution(5, 2, 50);
+            cached.setValueOracle(oracle);
+            Iterator<XORValue<LSVMLicense>> expected = plain.iterator();
+            Iterator<XORValue<LSVMLicense>> actual = cached.iterator();
+            while (expected.hasNext()) {
+                XORValue<LSVMLicense> expectedValue = expected.next();
+                XORValue<LSVMLicense> actualValue = actual.next();
+                Assert.assertEquals(expectedValue.getLicenses(), actualValue.getLicenses());
+                Assert.assertEquals(expectedValue.value(), actualValue.value());
+            }
+            Assert.assertFalse(actual.hasNext());
+        }
+        Assert.assertEquals(50, oracle.getMissCount());
+        Assert.assertEquals(50, oracle.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOracleOfOtherBidderRejected() throws UnsupportedBiddingLanguageException {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewPopulation(SEED);
+        SizeBasedUniqueRandomXOR<LSVMLicense> language = bidders.get(0).getValueFunction(SizeBasedUniqueRandomXOR.class, SEED);
+        language.setValueOracle(ValueOracle.of(bidders.get(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testXORQLanguageWithOracle() throws UnsupportedBiddingLanguageException {
+        SRVMBidder bidder = new SingleRegionModel().createNewPopulation(SEED).get(0);
+        GenericValueOracle<SRVMBand> oracle = new GenericValueOracle.Builder<>(bidder).setMaximumSize(1000).build();
+        XORQRandomOrderSimple<SRVMBand> language = bidder.getValueFunction(XORQRandomOrderSimple.class, SEED);
+        language.setIterations(100);
+        language.setValueOracle(oracle);
+        Iterator<GenericValue<SRVMBand>> iterator = language.iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            GenericValue<SRVMBand> value = iterator.next();
+            Assert.assertEquals(bidder.calculateValue(value.getQuantities()), value.getValue());
+            Assert.assertEquals(value.getValue(), oracle.calculateValue(value.getQuantities()));
+            count++;
+        }
+        Assert.assertEquals(count, oracle.size());
+        // Quantities drawn repeatedly by the iterator are also answered from the cache
+        Assert.assertTrue(oracle.getHitCount() >= count);
+    }
+
+    @Test(expected = UnequalWorldsException.class)
+    public void testBundleOfOtherWorldRejected() {
+        LocalSynergyValueModel model = new LocalSynergyValueModel();
+        LSVMBidder bidder = model.createNewPopulation(SEED).get(0);
+        LSVMBidder otherBidder = model.createNewPopulation(SEED).get(0);
+        ValueOracle.of(bidder).calculateValue(new Bundle<>(otherBidder.getWorld().getLicenses()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Good> List<Bundle<T>> randomBundles(Bidder<T> bidder, Random random, int number) {
+        List<T> licenses = new ArrayList<>((Collection<T>) bidder.getWorld().getLicenses());
+        List<Bundle<T>> bundles = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            Bundle<T> bundle = new Bundle<>();
+            for (T license : licenses) {
+                if (random.nextBoolean()) {
+                    bundle.add(license);
+                }
+            }
+            bundles.add(bundle);
+        }
+        return bundles;
+    }
+}
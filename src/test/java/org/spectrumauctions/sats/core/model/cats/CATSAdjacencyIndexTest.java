@@ -0,0 +1,41 @@
+package org.spectrumauctions.sats.core.model.cats;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Graph;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+/**
+ * @author Michael Weiss
+ */
+public class CATSAdjacencyIndexTest {
+
+    @Test
+    public void testIndexMatchesGraph() {
+        for (long seed = 983742L; seed < 983747L; seed++) {
+            CATSRegionModel model = new CATSRegionModel();
+            CATSWorld world = model.createWorld(new JavaUtilRNGSupplier(seed));
+            Graph graph = world.getGrid();
+            CATSAdjacencyIndex index = world.getAdjacencyIndex();
+            Assert.assertSame(index, world.getAdjacencyIndex());
+            for (CATSLicense license : world.getLicenses()) {
+                int degree = 0;
+                int previousId = -1;
+                for (CATSLicense other : world.getLicenses()) {
+                    boolean adjacent = graph.isAdjacent(license.getVertex(), other.getVertex());
+                    Assert.assertEquals(adjacent, index.isAdjacent(license.getId(), other.getId()));
+                    if (adjacent) {
+                        degree++;
+                    }
+                }
+                Assert.assertEquals(degree, index.getDegree(license.getId()));
+                for (int i = 0; i < degree; i++) {
+                    int adjacentId = index.getAdjacentId(license.getId(), i);
+                    Assert.assertTrue(adjacentId > previousId);
+                    Assert.assertTrue(index.isAdjacent(adjacentId, license.getId()));
+                    previousId = adjacentId;
+                }
+            }
+        }
+    }
+}
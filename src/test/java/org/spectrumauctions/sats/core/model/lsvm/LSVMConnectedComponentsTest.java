@@ -0,0 +1,172 @@
+package org.spectrumauctions.sats.core.model.lsvm;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.BitSetBundle;
+import org.spectrumauctions.sats.core.model.Bundle;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @author Michael Weiss
+ */
+public class LSVMConnectedComponentsTest {
+
+    private static final long SEED = 234987L;
+    private static final double TOLERANCE = 1e-9;
+
+    private static LSVMWorld world;
+    private static List<LSVMBidder> population;
+
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        LocalSynergyValueModel model = new LocalSynergyValueModel();
+        world = model.createWorld(SEED);
+        population = model.createPopulation(world, SEED);
+    }
+
+    @Test
+    public void testSubpackagesOnSmallExample() {
+        LSVMGrid grid = world.getGrid();
+        int columns = grid.getNumberOfColumns();
+        LSVMConnectedComponents components = population.get(0).createConnectedComponents();
+        components.add(0);
+        components.add(1);
+        components.add(columns + 1);
+        Assert.assertEquals(1, components.getNumberOfComponents());
+        Assert.assertEquals(3, components.getComponentSize(0));
+
+        components.remove(1);
+        Assert.assertEquals(2, components.getNumberOfComponents());
+        Assert.assertEquals(1, components.getComponentSize(0));
+        Assert.assertEquals(0, components.getComponentSize(1));
+
+        components.add(columns);
+        Assert.assertEquals(1, components.getNumberOfComponents());
+        Assert.assertEquals(3, components.getComponentSize(columns + 1));
+        Assert.assertEquals(BitSetBundle.ofIds(world, 0, columns, columns + 1), components.toBundle());
+        Assert.assertFalse(components.add(0));
+        Assert.assertFalse(components.remove(1));
+    }
+
+    @Test
+    public void testLabelsMatchBreadthFirstSearch() {
+        LSVMGrid grid = world.getGrid();
+        Random random = new Random(SEED);
+        int[] labels = new int[world.getNumberOfGoods()];
+        for (int i = 0; i < 100; i++) {
+            Bundle<LSVMLicense> bundle = randomBundle(random);
+            int numberOfSubpackages = grid.labelConnectedSubpackages(BitSetBundle.of(bundle), labels);
+            Set<Set<LSVMLicense>> expected = subpackages(bundle);
+            Assert.assertEquals(expected.size(), numberOfSubpackages);
+            for (Set<LSVMLicense> subpackage : expected) {
+                int label = labels[(int) subpackage.iterator().next().getId()];
+                for (LSVMLicense license : subpackage) {
+                    Assert.assertEquals(label, labels[(int) license.getId()]);
+                }
+            }
+            for (LSVMLicense license : world.getLicenses()) {
+                Assert.assertEquals(bundle.contains(license), labels[(int) license.getId()] >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalValuesMatchValueQueries() {
+        Random random = new Random(SEED);
+        int numberOfLicenses = world.getNumberOfGoods();
+        for (LSVMBidder bidder : population) {
+            LSVMConnectedComponents components = bidder.createConnectedComponents();
+            for (int step = 0; step < 300; step++) {
+                int id = random.nextInt(numberOfLicenses);
+                double before = components.getValue();
+                double marginalValue = components.marginalValue(id);
+                boolean added = random.nextDouble() < 0.6 ? components.add(id) : components.remove(id);
+                if (added && components.contains(id)) {
+                    Assert.assertEquals(before + marginalValue, components.getValue(), TOLERANCE * Math.max(1, Math.abs(before)));
+                }
+                BitSetBundle<LSVMLicense> bundle = components.toBundle();
+                double expected = bidder.calculateValueFast(bundle);
+                Assert.assertEquals(expected, components.getValue(), TOLERANCE * Math.max(1, Math.abs(expected)));
+                Assert.assertEquals(bundle.size(), components.size());
+                int[] labels = new int[numberOfLicenses];
+                Assert.assertEquals(world.getGrid().labelConnectedSubpackages(bundle, labels), components.getNumberOfComponents());
+                int[] labelSizes = new int[numberOfLicenses];
+                for (int license : bundle.licenseIds()) {
+                    labelSizes[labels[license]]++;
+                }
+                for (int license = 0; license < numberOfLicenses; license++) {
+                    int expectedSize = labels[license] >= 0 ? labelSizes[labels[license]] : 0;
+                    Assert.assertEquals(expectedSize, components.getComponentSize(license));
+                }
+            }
+        }
+    }
+
+    /**
+     * The value of a bundle is the sum over its maximally connected subpackages,
+     * calculated here independently of {@link LSVMGrid}
+     */
+    @Test
+    public void testValueMatchesDefinition() {
+        Random random = new Random(SEED);
+        for (LSVMBidder bidder : population) {
+            for (int i = 0; i < 20; i++) {
+                Bundle<LSVMLicense> bundle = randomBundle(random);
+                double expected = 0;
+                for (Set<LSVMLicense> subpackage : subpackages(bundle)) {
+                    double sum = 0;
+                    for (LSVMLicense license : subpackage) {
+                        if (bidder.getBaseValues().containsKey(license.getId())) {
+                            sum += bidder.getBaseValues().get(license.getId()).doubleValue();
+                        }
+                    }
+                    expected += bidder.calculateFactor(subpackage.size()) * sum;
+                }
+                double value = bidder.calculateValue(bundle).doubleValue();
+                Assert.assertEquals(expected, value, TOLERANCE * Math.max(1, Math.abs(expected)));
+            }
+        }
+    }
+
+    private static Set<Set<LSVMLicense>> subpackages(Bundle<LSVMLicense> bundle) {
+        Set<Set<LSVMLicense>> subpackages = new HashSet<>();
+        Set<LSVMLicense> unassigned = new HashSet<>(bundle);
+        while (!unassigned.isEmpty()) {
+            LSVMLicense start = unassigned.iterator().next();
+            unassigned.remove(start);
+            Set<LSVMLicense> subpackage = new HashSet<>();
+            Deque<LSVMLicense> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                LSVMLicense current = queue.poll();
+                subpackage.add(current);
+                for (LSVMLicense other : new HashSet<>(unassigned)) {
+                    if (world.getGrid().isNeighbor(current, other)) {
+                        unassigned.remove(other);
+                        queue.add(other);
+                    }
+                }
+            }
+            subpackages.add(subpackage);
+        }
+        return subpackages;
+    }
+
+    private static Bundle<LSVMLicense> randomBundle(Random random) {
+        Bundle<LSVMLicense> bundle = new Bundle<>();
+        double density = random.nextDouble();
+        for (LSVMLicense license : world.getLicenses()) {
+            if (random.nextDouble() < density) {
+                bundle.add(license);
+            }
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model.mrvm;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.Bundle;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Checks that {@link MRVMBidder#calculateValue(Map)} equals the value of a bundle with the same quantities.
+ *
+ * @author Michael Weiss
+ */
+public class MRVMGenericValueTest {
+
+    private static final long SEED = 7263412L;
+
+    @Test
+    public void testGenericValueEqualsBundleValue() {
+        Random random = new Random(SEED);
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewPopulation(SEED);
+        MRVMWorld world = bidders.iterator().next().getWorld();
+        for (MRVMBidder bidder : bidders) {
+            Assert.assertEquals(0, BigDecimal.ZERO.compareTo(bidder.calculateValue(new HashMap<>())));
+            for (int i = 0; i < 30; i++) {
+                // Alternate between sparse and dense quantities
+                double density = i % 2 == 0 ? 0.1 : 0.7;
+                Map<MRVMGenericDefinition, Integer> quantities = new HashMap<>();
+                Bundle<MRVMLicense> bundle = new Bundle<>();
+                for (MRVMRegionsMap.Region region : world.getRegionsMap().getRegions()) {
+                    for (MRVMBand band : world.getBands()) {
+                        if (random.nextDouble() >= density) {
+                            continue;
+                        }
+                        int quantity = 1 + random.nextInt(band.getNumberOfLots());
+                        quantities.put(new MRVMGenericDefinition(band, region), quantity);
+                        band.getLicenses().stream()
+                                .filter(license -> license.getRegion().equals(region))
+                                .limit(quantity)
+                                .forEach(bundle::add);
+                    }
+                }
+                BigDecimal bundleValue = bidder.calculateValue(bundle);
+                BigDecimal genericValue = bidder.calculateValue(quantities);
+                Assert.assertEquals(bundleValue, genericValue);
+            }
+        }
+    }
+
+    @Test
+    public void testQuantitiesAreCapped() {
+        MRVMBidder bidder = new MultiRegionModel().createNewPopulation(SEED).iterator().next();
+        MRVMWorld world = bidder.getWorld();
+        Map<MRVMGenericDefinition, Integer> tooMany = new HashMap<>();
+        Map<MRVMGenericDefinition, Integer> all = new HashMap<>();
+        for (MRVMRegionsMap.Region region : world.getRegionsMap().getRegions()) {
+            for (MRVMBand band : world.getBands()) {
+                tooMany.put(new MRVMGenericDefinition(band, region), band.getNumberOfLots() + 1);
+                all.put(new MRVMGenericDefinition(band, region), band.getNumberOfLots());
+            }
+        }
+        Assert.assertEquals(bidder.calculateValue(new Bundle<>(world.getLicenses())), bidder.calculateValue(tooMany));
+        Assert.assertEquals(bidder.calculateValue(all), bidder.calculateValue(tooMany));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.model.mrvm;
+
+import com.google.gson.JsonObject;
+import org.jgrapht.GraphPath;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.alg.FloydWarshallShortestPaths;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.io.*;
+
+/**
+ * @author Michael Weiss
+ */
+public class MRVMRegionsMapTest {
+
+    private static final long SEED = 2384756L;
+
+    @Test
+    public void testDefaultMapMatchesShortestPaths() {
+        for (long seed = SEED; seed < SEED + 3; seed++) {
+            assertMatchesShortestPaths(new MultiRegionModel().createWorld(seed).getRegionsMap());
+        }
+    }
+
+    @Test
+    public void testRandomMapsMatchShortestPaths() {
+        for (long seed = SEED; seed < SEED + 10; seed++) {
+            MRVMWorldSetup.MRVMWorldSetupBuilder builder = new MRVMWorldSetup.MRVMWorldSetupBuilder();
+            builder.createGraphRandomly(new IntegerInterval(5, 80), new IntegerInterval(1, 2), 1000, 100);
+            MRVMWorld world = new MRVMWorld(builder.build(), new JavaUtilRNGSupplier(seed));
+            assertMatchesShortestPaths(world.getRegionsMap());
+        }
+    }
+
+    @Test
+    public void testJavaSerialization() throws IOException, ClassNotFoundException {
+        MRVMRegionsMap map = new MultiRegionModel().createWorld(SEED).getRegionsMap();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        MRVMRegionsMap deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (MRVMRegionsMap) in.readObject();
+        }
+        Assert.assertEquals(map, deserialized);
+        assertMatchesShortestPaths(deserialized);
+    }
+
+    @Test
+    public void testJsonWithoutDistances() {
+        MRVMRegionsMap map = new MultiRegionModel().createWorld(SEED).getRegionsMap();
+        JsonObject json = GsonWrapper.getInstance().getGson().toJsonTree(map).getAsJsonObject();
+        Assert.assertTrue(json.has("regionDistances"));
+        // Maps stored before the distances were precomputed
+        json.remove("regionDistances");
+        MRVMRegionsMap deserialized = GsonWrapper.getInstance().getGson().fromJson(json, MRVMRegionsMap.class);
+        Assert.assertEquals(map, deserialized);
+        assertMatchesShortestPaths(deserialized);
+    }
+
+    private static void assertMatchesShortestPaths(MRVMRegionsMap map) {
+        int numberOfRegions = map.getNumberOfRegions();
+        UndirectedGraph<MRVMRegionsMap.Region, DefaultEdge> graph = new SimpleGraph<>(DefaultEdge.class);
+        for (int i = 0; i < numberOfRegions; i++) {
+            graph.addVertex(map.getRegion(i));
+        }
+        for (MRVMRegionsMap.Region region : map.getRegions()) {
+            for (MRVMRegionsMap.Region neighbor : map.adjacentRegions(region)) {
+                graph.addEdge(region, neighbor);
+            }
+        }
+        FloydWarshallShortestPaths<MRVMRegionsMap.Region, DefaultEdge> shortestPaths = new FloydWarshallShortestPaths<>(graph);
+        int longestShortestPath = 0;
+        for (int i = 0; i < numberOfRegions; i++) {
+            MRVMRegionsMap.Region region = map.getRegion(i);
+            Assert.assertEquals(i, region.getId());
+            int eccentricity = 0;
+            for (int j = 0; j < numberOfRegions; j++) {
+                MRVMRegionsMap.Region other = map.getRegion(j);
+                int expected;
+                if (i == j) {
+                    expected = 0;
+                } else {
+                    GraphPath<MRVMRegionsMap.Region, DefaultEdge> path = shortestPaths.getShortestPath(region, other);
+                    if (path == null) {
+                        expected = numberOfRegions - 1;
+                    } else {
+                        expected = path.getEdgeList().size();
+                        eccentricity = Math.max(eccentricity, expected);
+                    }
+                }
+                Assert.assertEquals(expected, map.getDistance(i, j));
+                Assert.assertEquals(expected, map.getDistance(region, other));
+                Assert.assertEquals(map.getDistance(j, i), map.getDistance(i, j));
+                Assert.assertEquals(graph.containsEdge(region, other), map.areAdjacent(i, j));
+                Assert.assertEquals(graph.containsEdge(region, other), map.areAdjacent(region, other));
+            }
+            Assert.assertEquals(eccentricity, map.getEccentricity(i));
+            Assert.assertEquals(eccentricity, map.getEccentricity(region));
+            longestShortestPath = Math.max(longestShortestPath, eccentricity);
+        }
+        for (MRVMRegionsMap.Region region : map.getRegions()) {
+            Assert.assertEquals(longestShortestPath, map.getLongestShortestPath(region));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Michael Weiss
+ */
+public class BoundedCompositionsTest {
+
+    private static final long SEED = 4598723L;
+
+    @Test
+    public void testOrderMatchesBruteForce() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 200; i++) {
+            int[] maxima = new int[1 + random.nextInt(5)];
+            int capacity = 0;
+            for (int part = 0; part < maxima.length; part++) {
+                maxima[part] = random.nextInt(4);
+                capacity += maxima[part];
+            }
+            int target = random.nextInt(capacity + 2);
+            BoundedCompositions compositions = new BoundedCompositions(maxima, target);
+            List<int[]> expected = bruteForce(maxima, target);
+            List<int[]> actual = new ArrayList<>();
+            BoundedCompositions.Cursor cursor = compositions.cursor();
+            while (cursor.advance()) {
+                actual.add(cursor.current().clone());
+            }
+            Assert.assertEquals(expected.size(), actual.size());
+            Assert.assertEquals(expected.size(), compositions.count());
+            Assert.assertEquals(expected.isEmpty(), compositions.isEmpty());
+            for (int rank = 0; rank < expected.size(); rank++) {
+                Assert.assertArrayEquals(expected.get(rank), actual.get(rank));
+                Assert.assertEquals(rank, compositions.rank(actual.get(rank)));
+                int[] unranked = new int[maxima.length];
+                compositions.unrank(rank, unranked);
+                Assert.assertArrayEquals(expected.get(rank), unranked);
+            }
+        }
+    }
+
+    @Test
+    public void testRangesCoverAllCompositions() {
+        BoundedCompositions compositions = new BoundedCompositions(new int[]{3, 1, 4, 2, 2, 5}, 8);
+        long count = compositions.count();
+        List<int[]> all = new ArrayList<>();
+        BoundedCompositions.Cursor cursor = compositions.cursor();
+        while (cursor.advance()) {
+            all.add(cursor.current().clone());
+        }
+        for (long rangeSize : new long[]{1, 7, count / 3, count, count + 5}) {
+            List<int[]> concatenated = new ArrayList<>();
+            for (long from = 0; from < count; from += rangeSize) {
+                BoundedCompositions.Cursor range = compositions.cursor(from, from + rangeSize);
+                while (range.advance()) {
+                    Assert.assertEquals(concatenated.size(), range.currentRank());
+                    concatenated.add(range.current().clone());
+                }
+            }
+            Assert.assertEquals(all.size(), concatenated.size());
+            for (int i = 0; i < all.size(); i++) {
+                Assert.assertArrayEquals(all.get(i), concatenated.get(i));
+            }
+        }
+        Assert.assertFalse(compositions.cursor(count, count + 10).advance());
+    }
+
+    @Test
+    public void testLargeInstanceIteratesWithoutCount() {
+        int[] maxima = new int[200];
+        Arrays.fill(maxima, 1);
+        BoundedCompositions compositions = new BoundedCompositions(maxima, 100);
+        try {
+            compositions.count();
+            Assert.fail("C(200, 100) does not fit into a long");
+        } catch (ArithmeticException e) {
+            // Expected
+        }
+        BoundedCompositions.Cursor cursor = compositions.cursor();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(cursor.advance());
+            Assert.assertEquals(100, Arrays.stream(cursor.current()).sum());
+        }
+    }
+
+    /**
+     * @return all compositions, in decreasing lexicographic order
+     */
+    private static List<int[]> bruteForce(int[] maxima, int target) {
+        List<int[]> result = new ArrayList<>();
+        addCompositions(maxima, target, new int[maxima.length], 0, result);
+        return result;
+    }
+
+    private static void addCompositions(int[] maxima, int remainder, int[] prefix, int index, List<int[]> result) {
+        if (index == maxima.length) {
+            if (remainder == 0) {
+                result.add(prefix.clone());
+            }
+            return;
+        }
+        for (int value = maxima[index]; value >= 0; value--) {
+            if (value <= remainder) {
+                prefix[index] = value;
+                addCompositions(maxima, remainder - value, prefix, index + 1, result);
+            }
+        }
+    }
+}
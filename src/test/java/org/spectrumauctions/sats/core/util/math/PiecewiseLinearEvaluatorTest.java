@@ -0,0 +1,112 @@
+/**
+ * Copyright by Michael Weiss, weiss.michael@gmx.ch
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.spectrumauctions.sats.core.util.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Michael Weiss
+ */
+public class PiecewiseLinearEvaluatorTest {
+
+    private static Map<BigDecimal, BigDecimal> cornerPoints() {
+        Map<BigDecimal, BigDecimal> cornerPoints = new HashMap<>();
+        cornerPoints.put(BigDecimal.ZERO, BigDecimal.ZERO);
+        cornerPoints.put(BigDecimal.valueOf(2), BigDecimal.valueOf(4));
+        cornerPoints.put(BigDecimal.valueOf(5), BigDecimal.valueOf(7));
+        cornerPoints.put(BigDecimal.valueOf(10), BigDecimal.valueOf(7));
+        return cornerPoints;
+    }
+
+    @Test
+    public void testValues() {
+        PiecewiseLinearEvaluator evaluator = new PiecewiseLinearEvaluator(cornerPoints());
+        Assert.assertEquals(4, evaluator.getNumberOfCornerPoints());
+        Assert.assertEquals(3, evaluator.getNumberOfPieces());
+        Assert.assertEquals(0, evaluator.getLowestX().compareTo(BigDecimal.ZERO));
+        Assert.assertEquals(0, evaluator.getHighestX().compareTo(BigDecimal.TEN));
+        for (Map.Entry<BigDecimal, BigDecimal> corner : cornerPoints().entrySet()) {
+            Assert.assertEquals(0, evaluator.getY(corner.getKey()).compareTo(corner.getValue()));
+        }
+        assertY(evaluator, "1", "2");
+        assertY(evaluator, "3.5", "5.5");
+        assertY(evaluator, "7.25", "7");
+        Assert.assertEquals(0, evaluator.pieceIndex(new BigDecimal("2")));
+        Assert.assertEquals(1, evaluator.pieceIndex(new BigDecimal("2.0001")));
+        Assert.assertEquals(2, evaluator.pieceIndex(BigDecimal.TEN));
+    }
+
+    @Test
+    public void testDoubleAndBigDecimalAgree() {
+        PiecewiseLinearEvaluator evaluator = new PiecewiseLinearEvaluator(cornerPoints());
+        for (int i = 0; i <= 1000; i++) {
+            BigDecimal x = BigDecimal.valueOf(i).divide(BigDecimal.valueOf(100), 2, RoundingMode.UNNECESSARY);
+            Assert.assertEquals(evaluator.pieceIndex(x), evaluator.pieceIndex(x.doubleValue()));
+            Assert.assertEquals(evaluator.getY(x).doubleValue(), evaluator.getY(x.doubleValue()), 1e-9);
+        }
+    }
+
+    @Test
+    public void testDoubleExtrapolatesOutsideOfDomain() {
+        PiecewiseLinearEvaluator evaluator = new PiecewiseLinearEvaluator(cornerPoints());
+        Assert.assertEquals(-2, evaluator.getY(-1d), 1e-9);
+        Assert.assertEquals(7, evaluator.getY(10.5), 1e-9);
+    }
+
+    @Test(expected = OutOfDomainException.class)
+    public void testOutOfDomain() {
+        new PiecewiseLinearEvaluator(cornerPoints()).getY(new BigDecimal("10.01"));
+    }
+
+    @Test
+    public void testSlopes() {
+        PiecewiseLinearEvaluator evaluator = new PiecewiseLinearEvaluator(cornerPoints());
+        Assert.assertNull(evaluator.getLeftSlope(BigDecimal.ZERO));
+        Assert.assertEquals(0, evaluator.getRightSlope(BigDecimal.ZERO).compareTo(BigDecimal.valueOf(2)));
+        Assert.assertEquals(0, evaluator.getLeftSlope(BigDecimal.valueOf(2)).compareTo(BigDecimal.valueOf(2)));
+        Assert.assertEquals(0, evaluator.getRightSlope(BigDecimal.valueOf(2)).compareTo(BigDecimal.ONE));
+        Assert.assertEquals(0, evaluator.getLeftSlope(BigDecimal.valueOf(3)).compareTo(BigDecimal.ONE));
+        Assert.assertEquals(0, evaluator.getRightSlope(BigDecimal.valueOf(3)).compareTo(BigDecimal.ONE));
+        Assert.assertEquals(0, evaluator.getLeftSlope(BigDecimal.TEN).compareTo(BigDecimal.ZERO));
+        Assert.assertNull(evaluator.getRightSlope(BigDecimal.TEN));
+
+        Assert.assertTrue(Double.isNaN(evaluator.getLeftSlope(0d)));
+        Assert.assertEquals(2, evaluator.getLeftSlope(2d), 1e-9);
+        Assert.assertEquals(1, evaluator.getRightSlope(2d), 1e-9);
+        Assert.assertTrue(Double.isNaN(evaluator.getRightSlope(10d)));
+    }
+
+    @Test
+    public void testDuplicateXIsIgnored() {
+        Map<BigDecimal, BigDecimal> cornerPoints = cornerPoints();
+        cornerPoints.put(new BigDecimal("2.00"), BigDecimal.valueOf(4));
+        PiecewiseLinearEvaluator evaluator = new PiecewiseLinearEvaluator(cornerPoints);
+        Assert.assertEquals(3, evaluator.getNumberOfPieces());
+        assertY(evaluator, "3.5", "5.5");
+    }
+
+    @Test
+    public void testFunctionAt() throws NotDifferentiableException {
+        ContinuousPiecewiseLinearFunction function = new ContinuousPiecewiseLinearFunction(cornerPoints());
+        Assert.assertEquals(0, function.functionAt(BigDecimal.valueOf(3)).getSlope().compareTo(BigDecimal.ONE));
+        try {
+            function.functionAt(BigDecimal.valueOf(5));
+            Assert.fail("Function is not differentiable at a corner point");
+        } catch (NotDifferentiableException e) {
+            // Expected
+        }
+    }
+
+    private static void assertY(PiecewiseLinearEvaluator evaluator, String x, String expectedY) {
+        Assert.assertEquals(0, evaluator.getY(new BigDecimal(x)).compareTo(new BigDecimal(expectedY)));
+    }
+}
@@ -3,9 +3,11 @@ package org.spectrumauctions.sats.opt.model.gsvm;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -114,6 +116,47 @@ public class GSVMStandardMIPTest {
 		testTotalValue(population, allocation);
 	}
 
+	@Test
+	public void testModelSizeGrowsLinearlyInNumberOfBidders() {
+		GSVMWorld world = new GSVMWorld(new GSVMWorldSetup.GSVMWorldSetupBuilder().build(),
+				new JavaUtilRNGSupplier(983742L));
+		List<GSVMBidder> population = customPopulation(world, 6, 2);
+		int m = world.getLicenses().size();
+
+		for (int n = 1; n <= population.size(); n++) {
+			GSVMStandardMIP gsvmMIP = new GSVMStandardMIP(world, population.subList(0, n));
+			gsvmMIP.build();
+
+			// every bidder adds one size variable and an x_ij and z_ij per license, one size constraint and two
+			// linearization constraints per license, on top of the m supply constraints
+			Assert.assertEquals(n * (2 * m + 1), gsvmMIP.getMip().getNumVars());
+			Assert.assertEquals(m + n * (2 * m + 1), gsvmMIP.getMip().getNumConstraints());
+		}
+	}
+
+	@Test
+	public void testModelSizeForShuffledSubsetOfPopulation() {
+		GlobalSynergyValueModel model = new GlobalSynergyValueModel();
+		GSVMWorld world = model.createWorld(983742L);
+		List<GSVMBidder> population = new ArrayList<>(model.createPopulation(world, 983742L));
+		// drop some bidders such that the bidder ids are not 0..n-1 anymore, and shuffle the remaining ones
+		population.remove(0);
+		population.remove(population.size() / 2);
+		Collections.shuffle(population, new Random(983742L));
+
+		GSVMStandardMIP gsvmMIP = new GSVMStandardMIP(world, population, false);
+		gsvmMIP.build();
+
+		int expectedVars = 0;
+		for (GSVMBidder bidder : population) {
+			long positive = bidder.getBaseValues().values().stream()
+					.filter(value -> value.compareTo(BigDecimal.ZERO) > 0).count();
+			expectedVars += 1 + 2 * positive;
+		}
+		Assert.assertEquals(expectedVars, gsvmMIP.getMip().getNumVars());
+		Assert.assertEquals(world.getLicenses().size() + expectedVars, gsvmMIP.getMip().getNumConstraints());
+	}
+
 	private void testTotalValue(List<GSVMBidder> population, ItemAllocation<GSVMLicense> allocation) {
 		BigDecimal totalValue = new BigDecimal(0);
 
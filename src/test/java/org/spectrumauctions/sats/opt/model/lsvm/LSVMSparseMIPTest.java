@@ -0,0 +1,97 @@
+package org.spectrumauctions.sats.opt.model.lsvm;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.model.Bundle;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMWorldSetup;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.ItemAllocation;
+
+/**
+ * Checks the {@link LSVMSparseMIP} against the known efficient allocations of {@link LSVMStandardMIPTestData}
+ *
+ * @author Michael Weiss
+ */
+public class LSVMSparseMIPTest {
+
+	private Map<Long, Double> seedMap;
+
+	@Before
+	public void setup() {
+		seedMap = LSVMStandardMIPTestData.getTestData();
+	}
+
+	@Test
+	public void testDefaultSetupEasySeed() {
+		testDefaultSetup(1498246131808L);
+	}
+
+	@Test
+	public void testDefaultSetupMediumSeed() {
+		testDefaultSetup(1498247338147L);
+	}
+
+	@Test
+	public void testDefaultSetupHardSeed() {
+		testDefaultSetup(1498249317254L);
+	}
+
+	@Test
+	public void testSameValueAsStandardMIP() {
+		LocalSynergyValueModel model = new LocalSynergyValueModel();
+		LSVMWorld world = model.createWorld(8723648L);
+		List<LSVMBidder> population = model.createPopulation(world, 8723648L);
+
+		ItemAllocation<LSVMLicense> standard = new LSVMStandardMIP(world, population).calculateAllocation();
+		ItemAllocation<LSVMLicense> sparse = new LSVMSparseMIP(world, population).calculateAllocation();
+
+		Assert.assertEquals(standard.getTotalValue().doubleValue(), sparse.getTotalValue().doubleValue(), 1e-4);
+		testTotalValue(population, sparse);
+	}
+
+	@Test
+	public void testLargeGrid() {
+		LSVMWorldSetup.LSVMWorldSetupBuilder worldSetupBuilder = new LSVMWorldSetup.LSVMWorldSetupBuilder();
+		worldSetupBuilder.setNumberOfRowsInterval(new IntegerInterval(10));
+		worldSetupBuilder.setNumberOfColumnsInterval(new IntegerInterval(10));
+		LSVMWorld world = new LSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(234876L));
+		List<LSVMBidder> population = new LocalSynergyValueModel().createPopulation(world, 234876L);
+
+		LSVMSparseMIP sparseMIP = new LSVMSparseMIP(world, population);
+		sparseMIP.setTimeLimit(600);
+		testTotalValue(population, sparseMIP.calculateAllocation());
+	}
+
+	private void testDefaultSetup(long seed) {
+		LocalSynergyValueModel model = new LocalSynergyValueModel();
+		LSVMWorld world = model.createWorld(seed);
+		List<LSVMBidder> population = model.createPopulation(world, seed);
+
+		ItemAllocation<LSVMLicense> allocation = new LSVMSparseMIP(world, population).calculateAllocation();
+
+		Assert.assertEquals("Error Objective Value not matching Test Data Seed: " + seed, seedMap.get(seed),
+				allocation.getTotalValue().doubleValue(), 1e-4);
+		testTotalValue(population, allocation);
+	}
+
+	private void testTotalValue(List<LSVMBidder> population, ItemAllocation<LSVMLicense> allocation) {
+		BigDecimal totalValue = BigDecimal.ZERO;
+		for (LSVMBidder bidder : population) {
+			Bundle<LSVMLicense> bundle = allocation.getAllocation(bidder);
+			totalValue = totalValue.add(bidder.calculateValue(bundle));
+		}
+		Assert.assertEquals("Values of allocated bundles don't match with objective value of MIP",
+				allocation.getTotalValue().doubleValue(), totalValue.doubleValue(), 1e-4);
+	}
+
+}
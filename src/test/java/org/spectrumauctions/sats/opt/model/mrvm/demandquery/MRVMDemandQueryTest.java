@@ -180,4 +180,33 @@ public class MRVMDemandQueryTest {
         Assert.assertEquals(regionsCovered2.size(), world.getRegionsMap().getNumberOfRegions());
 
     }
+
+    @Test
+    public void testSessionEqualsSingleQueries() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewPopulation(new JavaUtilRNGSupplier(73246104));
+        MRVMWorld world = bidders.iterator().next().getWorld();
+        List<Map<MRVMLicense, BigDecimal>> priceVectors = new ArrayList<>();
+        for (long price : new long[]{100000, 1000000, 10000000, 1000000}) {
+            Map<MRVMLicense, BigDecimal> prices = new HashMap<>();
+            world.getLicenses().forEach(l -> prices.put(l, BigDecimal.valueOf(price)));
+            priceVectors.add(prices);
+        }
+
+        for (MRVMBidder bidder : bidders.subList(0, 3)) {
+            MRVMDemandQuerySession session = new MRVMDemandQuerySession(bidder);
+            List<MRVMDemandQueryMipResult> results = session.demandQueries(priceVectors);
+            // The repeated price vector is answered from the cache
+            Assert.assertEquals(3, session.getSolvedQueries());
+            Assert.assertSame(results.get(1), results.get(3));
+            Assert.assertSame(results.get(0), session.demandQuery(priceVectors.get(0)));
+            Assert.assertEquals(3, session.getSolvedQueries());
+
+            for (int i = 0; i < priceVectors.size(); i++) {
+                MRVMDemandQueryMipResult single = new MRVM_DemandQueryMIP(bidder, priceVectors.get(i)).calculateAllocation();
+                // Both MIPs are solved with a relative gap of 0.001
+                double utility = single.getTotalUtility().doubleValue();
+                Assert.assertEquals(utility, results.get(i).getTotalUtility().doubleValue(), 0.002 * Math.max(1, Math.abs(utility)));
+            }
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package org.spectrumauctions.sats.opt.vcg.external.winnerdetermination;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.XORBid;
+import org.spectrumauctions.sats.core.bidlang.xor.XORValue;
+import org.spectrumauctions.sats.core.model.Bidder;
+import org.spectrumauctions.sats.core.model.Good;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSLicense;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.opt.vcg.external.domain.*;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.ReservePriceVCGAuction;
+import org.spectrumauctions.sats.opt.vcg.external.vcg.XORVCGAuction;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Michael Weiss
+ */
+public class BranchAndBoundWinnerDeterminationTest {
+
+    private static final long SEED = 5639823L;
+
+    /**
+     * Compares the branch-and-bound solution with a complete enumeration of all allocations
+     */
+    @Test
+    public void testOptimalOnSmallInstances() throws UnsupportedBiddingLanguageException {
+        for (long seed = SEED; seed < SEED + 3; seed++) {
+            Auction<GSVMLicense> auction = gsvmAuction(seed, 5);
+            XORAllocation<GSVMLicense> allocation = new BranchAndBoundWinnerDetermination<>(auction).calculateAllocation();
+            assertFeasible(auction, allocation);
+            Assert.assertTrue(allocation.isProvenOptimal());
+            List<XORBid<GSVMLicense>> bids = new ArrayList<>(auction.getBidCollection());
+            double optimum = enumerate(bids, 0, new HashSet<>());
+            Assert.assertEquals(optimum, allocation.getTotalAllocationValue(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testNodeLimitReturnsGap() throws UnsupportedBiddingLanguageException {
+        Auction<CATSLicense> auction = catsAuction(30);
+        BranchAndBoundWinnerDetermination<CATSLicense> complete = new BranchAndBoundWinnerDetermination<>(auction);
+        XORAllocation<CATSLicense> optimal = complete.calculateAllocation();
+        assertFeasible(auction, optimal);
+        Assert.assertTrue(optimal.isProvenOptimal());
+        Assert.assertEquals(optimal.getTotalAllocationValue(), optimal.getUpperBound(), 0);
+
+        BranchAndBoundWinnerDetermination<CATSLicense> limited = new BranchAndBoundWinnerDetermination<>(auction).setNodeLimit(2);
+        XORAllocation<CATSLicense> heuristic = limited.calculateAllocation();
+        assertFeasible(auction, heuristic);
+        Assert.assertTrue(heuristic.getTotalAllocationValue() <= optimal.getTotalAllocationValue() + 1e-6);
+        Assert.assertTrue(heuristic.getUpperBound() >= optimal.getTotalAllocationValue() - 1e-6);
+        Assert.assertTrue(limited.getExploredNodes() <= complete.getExploredNodes());
+    }
+
+    @Test
+    public void testVCGAuctionsWithBranchAndBound() throws UnsupportedBiddingLanguageException {
+        Auction<GSVMLicense> auction = gsvmAuction(SEED, 8);
+        XORVCGAuction<GSVMLicense> vcg = new XORVCGAuction<>(auction, BranchAndBoundWinnerDetermination::new);
+        XORAllocation<GSVMLicense> allocation = vcg.calculateAllocation();
+        Assert.assertFalse(allocation.getWinners().isEmpty());
+        for (Bidder<GSVMLicense> winner : allocation.getWinners()) {
+            double payment = vcg.getPayment().paymentOf(winner).getAmount();
+            Assert.assertTrue(payment >= -1e-6);
+            Assert.assertTrue(payment <= allocation.getAllocation(winner).getValue() + 1e-6);
+        }
+
+        double reservePrice = 1;
+        ReservePriceVCGAuction<GSVMLicense> reserveVcg = new ReservePriceVCGAuction<>(auction, reservePrice, BranchAndBoundWinnerDetermination::new);
+        XORAllocation<GSVMLicense> reserveAllocation = reserveVcg.calculateAllocation();
+        for (Bidder<GSVMLicense> winner : reserveAllocation.getWinners()) {
+            double payment = reserveVcg.getPayment().paymentOf(winner).getAmount();
+            Assert.assertTrue(payment >= reserveAllocation.getAllocation(winner).getGoods().size() * reservePrice - 1e-6);
+        }
+    }
+
+    /**
+     * The warm-started marginal economies have to be as good as the ones solved from scratch
+     */
+    @Test
+    public void testMarginalEconomies() throws UnsupportedBiddingLanguageException {
+        Auction<CATSLicense> auction = catsAuction(15);
+        BranchAndBoundWinnerDetermination<CATSLicense> wd = new BranchAndBoundWinnerDetermination<>(auction);
+        XORAllocation<CATSLicense> allocation = wd.calculateAllocation();
+        for (Bidder<CATSLicense> winner : allocation.getWinners()) {
+            Auction<CATSLicense> auctionWithout = auction.without(winner);
+            XORAllocation<CATSLicense> marginal = wd.calculateAllocationWithout(winner);
+            assertFeasible(auctionWithout, marginal);
+            Assert.assertFalse(marginal.isWinner(winner));
+            Assert.assertTrue(marginal.isProvenOptimal());
+            XORAllocation<CATSLicense> fromScratch = new BranchAndBoundWinnerDetermination<>(auctionWithout).calculateAllocation();
+            Assert.assertEquals(fromScratch.getTotalAllocationValue(), marginal.getTotalAllocationValue(), 1e-6);
+            Assert.assertTrue(marginal.getTotalAllocationValue() <= allocation.getTotalAllocationValue() + 1e-6);
+        }
+    }
+
+    @Test
+    public void testParallelPaymentsEqualSequentialPayments() throws UnsupportedBiddingLanguageException {
+        Auction<CATSLicense> auction = catsAuction(15);
+        XORVCGAuction<CATSLicense> sequential = new XORVCGAuction<>(auction, BranchAndBoundWinnerDetermination::new);
+        sequential.setExecutor(MoreExecutors.newDirectExecutorService());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            XORVCGAuction<CATSLicense> parallel = new XORVCGAuction<>(auction, BranchAndBoundWinnerDetermination::new);
+            parallel.setExecutor(pool);
+            Assert.assertEquals(sequential.calculateAllocation().getWinners(), parallel.calculateAllocation().getWinners());
+            for (Bidder<CATSLicense> winner : sequential.calculateAllocation().getWinners()) {
+                Assert.assertEquals(sequential.getPayment().paymentOf(winner).getAmount(),
+                        parallel.getPayment().paymentOf(winner).getAmount(), 1e-6);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Auction<GSVMLicense> gsvmAuction(long seed, int bidsPerBidder) throws UnsupportedBiddingLanguageException {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewPopulation(seed);
+        List<XORBid<GSVMLicense>> bids = new ArrayList<>();
+        for (GSVMBidder bidder : bidders) {
+            @SuppressWarnings("unchecked")
+            SizeBasedUniqueRandomXOR<GSVMLicense> lang = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, seed);
+            lang.setDistribution(3, 2, bidsPerBidder);
+            List<XORValue<GSVMLicense>> values = new ArrayList<>();
+            lang.iterator().forEachRemaining(values::add);
+            bids.add(new XORBid.Builder<>(bidder, values).build());
+        }
+        return new Auction<>(new Bids<>(bids), new HashSet<>(bidders.get(0).getWorld().getLicenses()));
+    }
+
+    private static Auction<CATSLicense> catsAuction(int numberOfBidders) throws UnsupportedBiddingLanguageException {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfBidders(numberOfBidders);
+        List<CATSBidder> bidders = model.createNewPopulation(SEED);
+        List<XORBid<CATSLicense>> bids = new ArrayList<>();
+        for (CATSBidder bidder : bidders) {
+            CatsXOR lang = bidder.getValueFunction(CatsXOR.class, SEED);
+            bids.add(new XORBid.Builder<>(bidder, lang.getCATSXORBids()).build());
+        }
+        return new Auction<>(new Bids<>(bids), new HashSet<>(bidders.get(0).getWorld().getLicenses()));
+    }
+
+    private static <T extends Good> void assertFeasible(Auction<T> auction, XORAllocation<T> allocation) {
+        Set<Good> allocated = new HashSet<>();
+        double totalValue = 0;
+        for (Bidder<T> winner : allocation.getWinners()) {
+            BidderAllocation<T> trade = allocation.getAllocation(winner);
+            Assert.assertEquals(1, trade.getAcceptedBids().size());
+            XORValue<T> accepted = trade.getAcceptedBids().iterator().next();
+            Assert.assertTrue(auction.getBid(winner).getValues().contains(accepted));
+            for (Good good : trade.getGoods()) {
+                Assert.assertTrue("Good allocated twice", allocated.add(good));
+            }
+            totalValue += trade.getValue();
+        }
+        Assert.assertEquals(totalValue, allocation.getTotalAllocationValue(), 1e-6);
+    }
+
+    private static <T extends Good> double enumerate(List<XORBid<T>> bids, int bidder, Set<Good> allocated) {
+        if (bidder == bids.size()) {
+            return 0;
+        }
+        double best = enumerate(bids, bidder + 1, allocated);
+        for (XORValue<T> value : bids.get(bidder).getValues()) {
+            if (Collections.disjoint(value.getLicenses(), allocated)) {
+                allocated.addAll(value.getLicenses());
+                best = Math.max(best, value.value().doubleValue() + enumerate(bids, bidder + 1, allocated));
+                allocated.removeAll(value.getLicenses());
+            }
+        }
+        return best;
+    }
+}